@@ -36,14 +36,20 @@ public class Main {
 
         System.out.println("Система авиационного парка запущена!");
 
+        // Изменения сначала попадают в журнал data/aircrafts.csv.wal; сам CSV-файл
+        // обновляется каждые DEFAULT_CHECKPOINT_INTERVAL изменений и при закрытии
+        // репозитория — в том числе при завершении процесса (Ctrl+C).
         String csvPath = "data/aircrafts.csv";
 
-        AircraftService service = new AircraftService(
-                new CSVAircraftRepository(csvPath)
-        );
+        CSVAircraftRepository repository = new CSVAircraftRepository(csvPath);
+        Runtime.getRuntime().addShutdownHook(new Thread(repository::close, "csv-checkpoint"));
 
-        logger.info("Создан сервис и UI");
+        try (repository) {
+            AircraftService service = new AircraftService(repository);
 
-        new ConsoleUI(service).start();
+            logger.info("Создан сервис и UI");
+
+            new ConsoleUI(service).start();
+        }
     }
 }
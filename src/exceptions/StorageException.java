@@ -0,0 +1,21 @@
+package exceptions;
+
+/**
+ * Исключение, выбрасываемое при ошибке записи данных во внешнее хранилище
+ * (например, в CSV-файл).
+ *
+ * <p>Если запись не удалась, изменение не применяется: репозиторий
+ * остаётся в прежней версии.</p>
+ */
+public class StorageException extends RuntimeException {
+
+    /**
+     * Создаёт исключение с указанным сообщением и причиной.
+     *
+     * @param message описание ошибки
+     * @param cause   исходное исключение ввода-вывода
+     */
+    public StorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,21 @@
+package exceptions;
+
+/**
+ * Исключение, выбрасываемое при невозможности зафиксировать транзакцию:
+ * транзакция уже завершена или изменённые в ней самолёты были параллельно
+ * изменены другим писателем.
+ *
+ * <p>Используется в {@code service.AircraftTransaction} и в репозиториях
+ * при применении набора изменений.</p>
+ */
+public class TransactionException extends RuntimeException {
+
+    /**
+     * Создаёт исключение с указанным сообщением.
+     *
+     * @param message описание причины
+     */
+    public TransactionException(String message) {
+        super(message);
+    }
+}
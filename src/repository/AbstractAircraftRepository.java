@@ -0,0 +1,258 @@
+package repository;
+
+import exceptions.TransactionException;
+import model.Aircraft;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Базовая реализация {@link AircraftRepository} с многоверсионным хранением данных.
+ * <p>
+ * Содержимое хранится в виде последовательности неизменяемых снимков
+ * ({@link FleetSnapshot}) на персистентных коллекциях:
+ * <ul>
+ *     <li>Чтение ({@link #getAll()}, {@link #findById(String)}) выполняется
+ *     без блокировок над текущим снимком;</li>
+ *     <li>Изменения сериализуются на мониторе репозитория, строят новую версию
+ *     за O(log n) и атомарно её публикуют;</li>
+ *     <li>Долгие читатели закрепляют версию через {@link #pin()} и не видят
+ *     параллельных изменений.</li>
+ * </ul>
+ * <p>
+ * Каждое изменение проходит три шага: построение новой версии, её сохранение
+ * ({@link #persist(FleetSnapshot, ChangeSet)}) и, только после успешного
+ * сохранения, публикация снимка и рассылка события {@link AircraftEvent}.
+ */
+public abstract class AbstractAircraftRepository implements AircraftRepository {
+
+    /** Шина событий изменения репозитория. */
+    protected final AircraftEventBus eventBus = new AircraftEventBus();
+
+    /** Многоверсионное содержимое репозитория. */
+    private final VersionedFleet fleet;
+
+    /**
+     * Создаёт репозиторий с точным сравнением ID.
+     */
+    protected AbstractAircraftRepository() {
+        this(UnaryOperator.identity());
+    }
+
+    /**
+     * Создаёт репозиторий с заданным правилом нормализации ID.
+     *
+     * @param keyOf функция, приводящая ID к ключу поиска
+     */
+    protected AbstractAircraftRepository(UnaryOperator<String> keyOf) {
+        this.fleet = new VersionedFleet(keyOf);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return неизменяемый список самолётов текущей версии
+     */
+    @Override
+    public List<Aircraft> getAll() {
+        return fleet.current().aircraft();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Aircraft findById(String id) {
+        return fleet.current().findById(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FleetSnapshot snapshot() {
+        return fleet.current();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PinnedSnapshot pin() {
+        return fleet.pin();
+    }
+
+    /**
+     * @return номера версий, закреплённых читателями в данный момент
+     */
+    public Set<Long> pinnedVersions() {
+        return fleet.pinnedVersions();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AircraftEventBus events() {
+        return eventBus;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long version() {
+        return fleet.current().version();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean update(Aircraft aircraft) {
+        if (findById(aircraft.getId()) == null) return false;
+        upsert(aircraft);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Все изменения набора образуют одну новую версию, сохраняются одним вызовом
+     * {@link #persist(FleetSnapshot, ChangeSet)} и публикуются одним событием
+     * {@link AircraftEvent.Batch}. При ошибке сохранения версия не публикуется.</p>
+     */
+    @Override
+    public synchronized void commit(ChangeSet changes, FleetSnapshot base) {
+        FleetSnapshot current = fleet.current();
+
+        if (base != null && base != current) {
+            for (String id : changes.removals()) checkUnchanged(base, current, id);
+            for (Aircraft a : changes.upserts()) checkUnchanged(base, current, a.getId());
+        }
+
+        List<AircraftEvent> events = new ArrayList<>();
+        FleetSnapshot next = apply(current, changes, events);
+        if (events.isEmpty()) return;
+
+        persist(next, changes);
+        fleet.publish(next);
+        eventBus.batch(next.version(), events);
+    }
+
+    /**
+     * Сохраняет новую версию во внешнее хранилище до её публикации.
+     * По умолчанию ничего не делает.
+     *
+     * @param next    сохраняемая версия
+     * @param changes изменения, приведшие к этой версии
+     * @throws exceptions.StorageException если сохранить версию не удалось;
+     *                                     в этом случае версия не публикуется
+     */
+    protected void persist(FleetSnapshot next, ChangeSet changes) {
+    }
+
+    /**
+     * Добавляет самолёт в конец порядка или заменяет самолёт с тем же ID
+     * (с сохранением позиции) и публикует новую версию.
+     *
+     * @param aircraft самолёт
+     * @return прежний объект или {@code null}, если самолёт был добавлен
+     */
+    protected synchronized Aircraft upsert(Aircraft aircraft) {
+        Aircraft previous = findById(aircraft.getId());
+        commitSingle(ChangeSet.upsert(aircraft));
+        return previous;
+    }
+
+    /**
+     * Удаляет самолёт по ID и публикует новую версию.
+     *
+     * @param id идентификатор
+     * @return удалённый самолёт или {@code null}, если он отсутствовал
+     */
+    protected synchronized Aircraft delete(String id) {
+        Aircraft target = findById(id);
+        if (target != null) {
+            commitSingle(ChangeSet.removal(id));
+        }
+        return target;
+    }
+
+    /**
+     * Полностью заменяет содержимое репозитория.
+     * Самолёты с повторяющимися ID пропускаются (сохраняется первый).
+     * Используется при загрузке, поэтому {@link #persist(FleetSnapshot, ChangeSet)} не вызывается.
+     *
+     * @param aircraft новое содержимое
+     */
+    protected synchronized void replaceAll(Collection<Aircraft> aircraft) {
+        FleetSnapshot next = fleet.current().cleared(version() + 1);
+        for (Aircraft a : aircraft) {
+            if (!next.containsId(a.getId())) {
+                next = next.withAdded(a, next.version());
+            }
+        }
+        fleet.publish(next);
+        eventBus.reloaded(next.version(), next.aircraft());
+    }
+
+    /**
+     * Применяет одиночное изменение и публикует его отдельным событием.
+     *
+     * @param changes набор из одной операции
+     */
+    private void commitSingle(ChangeSet changes) {
+        List<AircraftEvent> events = new ArrayList<>();
+        FleetSnapshot next = apply(fleet.current(), changes, events);
+        if (events.isEmpty()) return;
+
+        persist(next, changes);
+        fleet.publish(next);
+        events.forEach(eventBus::publish);
+    }
+
+    /**
+     * Строит новую версию, применяя набор изменений к исходной.
+     *
+     * @param base    исходная версия
+     * @param changes изменения
+     * @param events  список, в который добавляются события по каждому изменению
+     * @return новая версия (или исходная, если изменений нет)
+     */
+    private static FleetSnapshot apply(FleetSnapshot base, ChangeSet changes, List<AircraftEvent> events) {
+        long version = base.version() + 1;
+        FleetSnapshot next = base;
+
+        for (String id : changes.removals()) {
+            Aircraft target = next.findById(id);
+            if (target == null) continue;
+            next = next.withRemoved(id, version);
+            events.add(new AircraftEvent.Removed(version, target));
+        }
+
+        for (Aircraft a : changes.upserts()) {
+            Aircraft previous = next.findById(a.getId());
+            next = next.withReplaced(a, version);
+            events.add(previous == null
+                    ? new AircraftEvent.Added(version, a)
+                    : new AircraftEvent.Updated(version, previous, a));
+        }
+
+        return next;
+    }
+
+    /**
+     * Проверяет, что самолёт не был изменён после снятия исходного снимка транзакции.
+     *
+     * @throws TransactionException если самолёт был изменён параллельно
+     */
+    private static void checkUnchanged(FleetSnapshot base, FleetSnapshot current, String id) {
+        if (base.findById(id) != current.findById(id)) {
+            throw new TransactionException("Самолёт ID=" + id + " был изменён параллельно");
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package repository;
+
+import model.Aircraft;
+
+import java.util.List;
+
+/**
+ * Событие изменения содержимого репозитория самолётов.
+ * <p>
+ * Каждое событие несёт номер версии репозитория, получившейся после изменения.
+ * Версии строго возрастают, поэтому потребитель может определить порядок событий
+ * и пропущенные изменения.
+ *
+ * <p>Типы событий:
+ * <ul>
+ *     <li>{@link Added} — самолёт добавлен;</li>
+ *     <li>{@link Removed} — самолёт удалён;</li>
+ *     <li>{@link Updated} — данные самолёта заменены новой версией;</li>
+ *     <li>{@link Reloaded} — содержимое репозитория полностью заменено;</li>
+ *     <li>{@link Batch} — несколько изменений, зафиксированных одной транзакцией.</li>
+ * </ul>
+ */
+public sealed interface AircraftEvent
+        permits AircraftEvent.Added, AircraftEvent.Removed, AircraftEvent.Updated,
+                AircraftEvent.Reloaded, AircraftEvent.Batch {
+
+    /**
+     * @return версия репозитория после применения изменения
+     */
+    long version();
+
+    /**
+     * Самолёт добавлен в репозиторий.
+     *
+     * @param version  версия репозитория
+     * @param aircraft добавленный самолёт
+     */
+    record Added(long version, Aircraft aircraft) implements AircraftEvent {}
+
+    /**
+     * Самолёт удалён из репозитория.
+     *
+     * @param version  версия репозитория
+     * @param aircraft удалённый самолёт
+     */
+    record Removed(long version, Aircraft aircraft) implements AircraftEvent {}
+
+    /**
+     * Самолёт заменён новой версией с тем же ID.
+     *
+     * @param version  версия репозитория
+     * @param previous прежний объект
+     * @param current  новый объект
+     */
+    record Updated(long version, Aircraft previous, Aircraft current) implements AircraftEvent {}
+
+    /**
+     * Содержимое репозитория полностью перезагружено.
+     *
+     * @param version  версия репозитория
+     * @param aircraft полный список самолётов после перезагрузки
+     */
+    record Reloaded(long version, List<Aircraft> aircraft) implements AircraftEvent {}
+
+    /**
+     * Набор изменений, применённых атомарно одной версией.
+     * Вложенные события имеют ту же версию, что и сам набор.
+     *
+     * @param version версия репозитория
+     * @param changes события {@link Added}, {@link Removed} и {@link Updated}
+     */
+    record Batch(long version, List<AircraftEvent> changes) implements AircraftEvent {}
+}
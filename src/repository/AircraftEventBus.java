@@ -0,0 +1,159 @@
+package repository;
+
+import model.Aircraft;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Шина событий изменения репозитория.
+ * <p>
+ * Доставляет события {@link AircraftEvent}, помеченные версией репозитория,
+ * двумя способами:
+ * <ul>
+ *     <li>Синхронным слушателям ({@link #addListener(Consumer)}) — в потоке,
+ *     выполнившем изменение. Подходит для индексов и кэшей, которые должны
+ *     обновляться сразу;</li>
+ *     <li>Асинхронным подписчикам {@link Flow.Subscriber} через {@link #publisher()}.
+ *     Изменение только ставит событие в очередь отдельного потока доставки и никогда
+ *     не ждёт подписчиков: события публикуются под монитором репозитория, и ожидание
+ *     медленного подписчика остановило бы всех пишущих (в том числе поток JavaFX,
+ *     который сам этого подписчика обслуживает). Обратное давление подписчиков
+ *     задерживает только поток доставки; порядок событий сохраняется.</li>
+ * </ul>
+ */
+public class AircraftEventBus {
+
+    private static final Logger logger = LogManager.getLogger(AircraftEventBus.class);
+
+    /** Версия последнего опубликованного события. */
+    private volatile long version;
+
+    /** Синхронные слушатели. */
+    private final List<Consumer<AircraftEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    /** Издатель для асинхронных подписчиков. */
+    private final SubmissionPublisher<AircraftEvent> publisher = new SubmissionPublisher<>();
+
+    /**
+     * Признак того, что подписчики появлялись. Пишущие потоки не обращаются
+     * к издателю: пока он ждёт места в буфере подписчика, его блокировка занята.
+     */
+    private volatile boolean subscribed;
+
+    /** Поток доставки событий подписчикам; завершается, если событий долго нет. */
+    private final ThreadPoolExecutor delivery = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+        Thread t = new Thread(r, "fleet-events");
+        t.setDaemon(true);
+        return t;
+    });
+
+    {
+        delivery.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @return версия последнего опубликованного события
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @return издатель событий для подписчиков {@link Flow.Subscriber}
+     */
+    public Flow.Publisher<AircraftEvent> publisher() {
+        return subscriber -> {
+            subscribed = true;
+            publisher.subscribe(subscriber);
+        };
+    }
+
+    /**
+     * Регистрирует синхронного слушателя.
+     *
+     * @param listener обработчик событий
+     */
+    public void addListener(Consumer<AircraftEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Удаляет ранее зарегистрированного слушателя.
+     *
+     * @param listener обработчик событий
+     */
+    public void removeListener(Consumer<AircraftEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Публикует событие полной перезагрузки.
+     *
+     * @param version  версия репозитория после изменения
+     * @param aircraft содержимое репозитория после перезагрузки
+     */
+    void reloaded(long version, List<Aircraft> aircraft) {
+        publish(new AircraftEvent.Reloaded(version, aircraft));
+    }
+
+    /**
+     * Публикует набор изменений, зафиксированных одной версией.
+     *
+     * @param version версия репозитория после изменения
+     * @param changes вложенные события
+     */
+    void batch(long version, List<AircraftEvent> changes) {
+        publish(new AircraftEvent.Batch(version, List.copyOf(changes)));
+    }
+
+    /**
+     * Доставляет событие синхронным слушателям, затем ставит его в очередь
+     * доставки асинхронным подписчикам. Ошибка одного слушателя не мешает
+     * доставке остальным.
+     *
+     * @param event событие
+     */
+    void publish(AircraftEvent event) {
+        version = event.version();
+
+        for (Consumer<AircraftEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                logger.error("Ошибка обработки события {}", event, e);
+            }
+        }
+
+        if (subscribed) {
+            try {
+                delivery.execute(() -> {
+                    if (publisher.hasSubscribers()) publisher.submit(event);
+                });
+            } catch (RejectedExecutionException e) {
+                logger.debug("Шина закрыта, событие {} не доставлено подписчикам", event);
+            }
+        }
+    }
+
+    /**
+     * Завершает поток событий для асинхронных подписчиков после доставки
+     * уже опубликованных событий.
+     */
+    public synchronized void close() {
+        if (delivery.isShutdown()) return;
+        delivery.execute(publisher::close);
+        delivery.shutdown();
+    }
+}
@@ -1,6 +1,7 @@
 package repository;
 
 import model.Aircraft;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -13,7 +14,14 @@ import java.util.List;
  *     <li>Хранение в памяти ({@link InMemoryAircraftRepository})</li>
  *     <li>Хранение в CSV-файле ({@link CSVAircraftRepository})</li>
  * </ul>
+ * Обе реализации наследуют многоверсионное хранение от {@link AbstractAircraftRepository}.
+ * Для медленных хранилищ поиск по ID кэшируется декоратором
+ * {@link CachingAircraftRepository}.
  * </p>
+ *
+ * <p>Каждая реализация публикует события изменения ({@link AircraftEvent})
+ * через собственную шину {@link AircraftEventBus}, что позволяет UI, кэшам
+ * и индексам применять изменения инкрементально.</p>
  */
 public interface AircraftRepository {
 
@@ -31,6 +39,22 @@ public interface AircraftRepository {
      */
     List<Aircraft> getAll();
 
+    /**
+     * Возвращает согласованный снимок текущей версии содержимого за O(1).
+     * Снимок не меняется при последующих изменениях репозитория.
+     *
+     * @return снимок {@link FleetSnapshot}
+     */
+    FleetSnapshot snapshot();
+
+    /**
+     * Закрепляет текущую версию содержимого за читателем.
+     * Снимок необходимо освободить вызовом {@link PinnedSnapshot#close()}.
+     *
+     * @return закреплённый снимок
+     */
+    PinnedSnapshot pin();
+
     /**
      * Выполняет поиск самолёта по идентификатору.
      *
@@ -39,6 +63,17 @@ public interface AircraftRepository {
      */
     Aircraft findById(String id);
 
+    /**
+     * Выполняет поиск нескольких самолётов по идентификаторам в одной версии содержимого.
+     * Отсутствующие ID не считаются ошибкой и возвращаются в результате.
+     *
+     * @param ids идентификаторы
+     * @return найденные самолёты и отсутствующие ID
+     */
+    default LookupResult findAll(Collection<String> ids) {
+        return snapshot().findAll(ids);
+    }
+
     /**
      * Удаляет самолёт по идентификатору.
      *
@@ -46,4 +81,41 @@ public interface AircraftRepository {
      * @return {@code true}, если удаление произошло успешно
      */
     boolean remove(String id);
+
+    /**
+     * Заменяет самолёт с тем же ID новой версией объекта.
+     *
+     * @param aircraft новая версия самолёта
+     * @return {@code true}, если самолёт с таким ID существовал и был заменён
+     */
+    boolean update(Aircraft aircraft);
+
+    /**
+     * Атомарно применяет набор изменений одной новой версией.
+     * <p>
+     * Если указан исходный снимок, проверяется, что затрагиваемые самолёты
+     * не менялись после его получения; иначе выбрасывается
+     * {@link exceptions.TransactionException} и ничего не применяется.
+     *
+     * @param changes набор изменений
+     * @param base    снимок, на основе которого подготовлены изменения, или {@code null}
+     */
+    void commit(ChangeSet changes, FleetSnapshot base);
+
+    /**
+     * Возвращает шину событий изменения репозитория.
+     *
+     * @return шина событий {@link AircraftEventBus}
+     */
+    AircraftEventBus events();
+
+    /**
+     * Возвращает текущую версию содержимого репозитория.
+     * Версия увеличивается при каждом изменении.
+     *
+     * @return номер версии
+     */
+    default long version() {
+        return snapshot().version();
+    }
 }
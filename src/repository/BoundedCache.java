@@ -0,0 +1,178 @@
+package repository;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кэш ограниченного размера с вытеснением по политике
+ * {@link CachingAircraftRepository.Eviction}.
+ * <ul>
+ *     <li>{@code LRU} — вытесняется запись, к которой дольше всего не обращались;</li>
+ *     <li>{@code TINY_LFU} — W-TinyLFU: новые записи попадают в небольшое LRU-окно
+ *     (1% ёмкости), вытесненная из окна запись допускается в основную область,
+ *     только если обращались к ней чаще, чем к кандидату на вытеснение оттуда.
+ *     Основная область разделена на испытательный (20%) и защищённый (80%)
+ *     сегменты: повторное обращение переводит запись в защищённый сегмент.
+ *     Однократный просмотр множества ключей поэтому не вымывает популярные записи.</li>
+ * </ul>
+ * Экземпляр не потокобезопасен.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ */
+final class BoundedCache<K, V> {
+
+    private final CachingAircraftRepository.Eviction policy;
+    private final int capacity;
+
+    // для LRU используется только окно ёмкостью capacity
+    private final LinkedHashMap<K, V> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final FrequencySketch sketch;
+
+    private long evictions;
+
+    /**
+     * @param capacity наибольшее количество записей
+     * @param policy   политика вытеснения
+     */
+    BoundedCache(int capacity, CachingAircraftRepository.Eviction policy) {
+        this.capacity = capacity;
+        this.policy = policy;
+        if (policy == CachingAircraftRepository.Eviction.LRU) {
+            this.windowCapacity = capacity;
+            this.protectedCapacity = 0;
+            this.sketch = null;
+        } else {
+            this.windowCapacity = Math.max(1, capacity / 100);
+            this.protectedCapacity = (capacity - windowCapacity) * 4 / 5;
+            this.sketch = new FrequencySketch(capacity);
+        }
+    }
+
+    /**
+     * Возвращает значение и отмечает обращение к ключу.
+     *
+     * @param key ключ
+     * @return значение или {@code null}, если записи нет
+     */
+    V get(K key) {
+        if (sketch != null) sketch.increment(key);
+
+        V value = window.get(key);
+        if (value != null) return value;
+
+        value = protectedSegment.get(key);
+        if (value != null) return value;
+
+        value = probation.remove(key);
+        if (value != null) {
+            // повторное обращение: перевод в защищённый сегмент
+            protectedSegment.put(key, value);
+            if (protectedSegment.size() > protectedCapacity) {
+                Map.Entry<K, V> demoted = eldest(protectedSegment);
+                protectedSegment.remove(demoted.getKey());
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Добавляет или заменяет запись.
+     *
+     * @param key   ключ
+     * @param value значение
+     */
+    void put(K key, V value) {
+        if (window.containsKey(key)) {
+            window.put(key, value);
+            return;
+        }
+        if (protectedSegment.containsKey(key)) {
+            protectedSegment.put(key, value);
+            return;
+        }
+        if (probation.containsKey(key)) {
+            probation.put(key, value);
+            return;
+        }
+
+        window.put(key, value);
+        if (window.size() <= windowCapacity) return;
+
+        Map.Entry<K, V> candidate = eldest(window);
+        window.remove(candidate.getKey());
+        if (policy == CachingAircraftRepository.Eviction.LRU) {
+            evictions++;
+            return;
+        }
+        admit(candidate.getKey(), candidate.getValue());
+    }
+
+    /**
+     * Решает, допустить ли вытесненную из окна запись в основную область.
+     */
+    private void admit(K key, V value) {
+        if (capacity == windowCapacity) {
+            evictions++;
+            return;
+        }
+        if (probation.size() + protectedSegment.size() < capacity - windowCapacity) {
+            probation.put(key, value);
+            return;
+        }
+
+        LinkedHashMap<K, V> victims = probation.isEmpty() ? protectedSegment : probation;
+        K victim = eldest(victims).getKey();
+        evictions++;
+        if (sketch.frequency(key) > sketch.frequency(victim)) {
+            victims.remove(victim);
+            probation.put(key, value);
+        }
+    }
+
+    /**
+     * Удаляет запись.
+     *
+     * @param key ключ
+     */
+    void remove(K key) {
+        if (window.remove(key) == null && probation.remove(key) == null) {
+            protectedSegment.remove(key);
+        }
+    }
+
+    /**
+     * Удаляет все записи.
+     */
+    void clear() {
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    /**
+     * @return количество записей
+     */
+    int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    /**
+     * @return количество вытесненных записей
+     */
+    long evictions() {
+        return evictions;
+    }
+
+    private static <K, V> Map.Entry<K, V> eldest(LinkedHashMap<K, V> map) {
+        Iterator<Map.Entry<K, V>> it = map.entrySet().iterator();
+        return it.next();
+    }
+}
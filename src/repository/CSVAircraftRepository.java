@@ -1,19 +1,40 @@
 package repository;
 
+import exceptions.DuplicateIdException;
+import exceptions.StorageException;
 import model.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
 
 /**
  * Реализация {@link AircraftRepository}, использующая CSV-файл для хранения данных.
  * Автоматически загружает содержимое файла при создании экземпляра
  * и сохраняет изменения при добавлении или удалении записей.
  *
+ * <p>Сохранение устойчиво к сбоям:
+ * <ul>
+ *     <li>Каждое изменение сначала записывается в журнал {@code <файл>.wal}
+ *     и сбрасывается на диск;</li>
+ *     <li>Каждые {@code checkpointInterval} изменений текущая версия целиком
+ *     записывается во временный файл {@code <файл>.tmp}, который затем атомарно
+ *     переименовывается в основной CSV-файл (контрольная точка), после чего журнал очищается;</li>
+ *     <li>При запуске выполняется восстановление: незавершённая контрольная точка
+ *     отбрасывается, загружается основной файл и к нему применяются целые записи журнала.</li>
+ * </ul>
+ * Время восстановления журнала ограничено интервалом контрольных точек, а не размером парка.
+ * Между контрольными точками CSV-файл отстаёт от репозитория: последние изменения
+ * находятся только в журнале. {@link #close()} записывает контрольную точку,
+ * поэтому после закрытия репозитория CSV-файл содержит все изменения.</p>
+ *
  * <p>Поддерживает три типа самолётов:
  * <ul>
  *     <li>{@link PassengerAircraft}</li>
@@ -21,16 +42,97 @@ import java.util.*;
  *     <li>{@link MilitaryAircraft}</li>
  * </ul>
  * </p>
+ *
+ * <p>Поддерживает режим «горячей» перезагрузки ({@link #startWatching()}):
+ * изменения файла, сделанные другим процессом, отслеживаются через {@link WatchService},
+ * после чего строки файла сравниваются по хешу с последним известным содержимым
+ * и применяются только добавленные, изменённые и удалённые записи.</p>
+ *
+ * <p>Все изменения публикуются в виде {@link AircraftEvent} через {@link #events()}.</p>
  */
-public class CSVAircraftRepository implements AircraftRepository {
+public class CSVAircraftRepository extends AbstractAircraftRepository implements AutoCloseable {
 
     private static final Logger logger = LogManager.getLogger(CSVAircraftRepository.class);
 
+    /** Время (мс), в течение которого события файловой системы объединяются в одну перезагрузку. */
+    private static final long WATCH_SETTLE_MILLIS = 50;
+
+    /**
+     * Интервал контрольных точек по умолчанию (количество изменений). До очередной
+     * контрольной точки или {@link #close()} изменения хранятся только в журнале.
+     */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 50;
+
+    /** Количество строк в одной порции, передаваемой {@link LoadListener}. */
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    /** Отпечаток отсутствующего CSV-файла. */
+    private static final String ABSENT_FINGERPRINT = "absent";
+
     /** Путь к CSV-файлу. */
     private final String filePath;
 
-    /** Внутренний список самолётов, синхронизированный с CSV. */
-    private final List<Aircraft> aircraftList = new ArrayList<>();
+    /** Количество изменений между контрольными точками. */
+    private final int checkpointInterval;
+
+    /** Точки имитации сбоя (для тестов). */
+    private final CrashHook crashHook;
+
+    /** Журнал изменений после последней контрольной точки. */
+    private final CsvJournal journal;
+
+    /** Отпечаток (CRC32) CSV-файла в том виде, в котором он последний раз прочитан или записан. */
+    private String checkpointFingerprint = ABSENT_FINGERPRINT;
+
+    /**
+     * Хеши строк файла в том виде, в котором они были последний раз прочитаны или записаны
+     * (ID самолёта → хеш строки). Используются для инкрементальной перезагрузки.
+     */
+    private final Map<String, Long> rowHashes = new HashMap<>();
+
+    /** Признак применения изменений, прочитанных из файла (запись файла не требуется). */
+    private boolean applyingFileChange;
+
+    /** Поток наблюдения за файлом ({@code null}, если наблюдение не запущено). */
+    private Thread watchThread;
+
+    /** Сервис наблюдения за каталогом файла. */
+    private WatchService watchService;
+
+    /** Признак закрытия репозитория. */
+    private boolean closed;
+
+    /**
+     * Получатель хода первоначальной загрузки файла.
+     * Вызывается в потоке загрузки после разбора каждой порции строк.
+     */
+    @FunctionalInterface
+    public interface LoadListener {
+
+        /**
+         * @param batch      самолёты, разобранные в очередной порции
+         * @param bytesRead  количество прочитанных байтов файла
+         * @param totalBytes размер файла в байтах
+         */
+        void loaded(List<Aircraft> batch, long bytesRead, long totalBytes);
+    }
+
+    /**
+     * Результат инкрементальной перезагрузки CSV-файла.
+     *
+     * @param added   самолёты, появившиеся в файле
+     * @param updated самолёты, строки которых изменились
+     * @param removed ID самолётов, исчезнувших из файла
+     */
+    public record ReloadDiff(List<Aircraft> added, List<Aircraft> updated, List<String> removed) {
+
+        /**
+         * @return {@code true}, если файл не содержит изменений относительно загруженного состояния
+         */
+        public boolean isEmpty() {
+            return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+        }
+    }
 
     /**
      * Создаёт объект репозитория и загружает данные из указанного CSV-файла.
@@ -38,16 +140,104 @@ public class CSVAircraftRepository implements AircraftRepository {
      * @param filePath путь к CSV-файлу
      */
     public CSVAircraftRepository(String filePath) {
+        this(filePath, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Создаёт объект репозитория с заданным интервалом контрольных точек
+     * и загружает (восстанавливает) данные из указанного CSV-файла.
+     *
+     * @param filePath           путь к CSV-файлу
+     * @param checkpointInterval количество изменений между контрольными точками
+     */
+    public CSVAircraftRepository(String filePath, int checkpointInterval) {
+        this(filePath, checkpointInterval, CrashHook.NONE, null);
+    }
+
+    /**
+     * Создаёт объект репозитория и загружает данные, сообщая о ходе загрузки.
+     * Позволяет отображать строки файла по мере их разбора, не дожидаясь окончания загрузки.
+     *
+     * @param filePath           путь к CSV-файлу
+     * @param checkpointInterval количество изменений между контрольными точками
+     * @param listener           получатель порций разобранных строк
+     */
+    public CSVAircraftRepository(String filePath, int checkpointInterval, LoadListener listener) {
+        this(filePath, checkpointInterval, CrashHook.NONE, listener);
+    }
+
+    /**
+     * Создаёт репозиторий с точками имитации сбоя.
+     *
+     * @param filePath           путь к CSV-файлу
+     * @param checkpointInterval количество изменений между контрольными точками
+     * @param crashHook          точки имитации сбоя
+     */
+    CSVAircraftRepository(String filePath, int checkpointInterval, CrashHook crashHook) {
+        this(filePath, checkpointInterval, crashHook, null);
+    }
+
+    private CSVAircraftRepository(String filePath, int checkpointInterval, CrashHook crashHook, LoadListener listener) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("Интервал контрольных точек должен быть положительным");
+        }
         this.filePath = filePath;
-        load();
+        this.checkpointInterval = checkpointInterval;
+        this.crashHook = crashHook;
+        this.journal = new CsvJournal(Paths.get(filePath + ".wal"), crashHook);
+        load(listener);
     }
 
     /**
      * Перезагружает данные из файла (заменяет текущую коллекцию).
+     * <p>
+     * Выполняет процедуру восстановления: удаляет незавершённую контрольную точку,
+     * загружает основной CSV-файл и применяет к нему целые записи журнала,
+     * относящиеся к этому файлу.
      */
-    public void load() {
-        aircraftList.clear();
-        loadFromFile();
+    public synchronized void load() {
+        load(null);
+    }
+
+    /**
+     * Выполняет {@link #load()}, сообщая о ходе чтения файла.
+     *
+     * @param listener получатель порций разобранных строк или {@code null}
+     */
+    private synchronized void load(LoadListener listener) {
+        rowHashes.clear();
+
+        try {
+            if (Files.deleteIfExists(tempPath())) {
+                logger.warn("Удалена незавершённая контрольная точка: {}", tempPath());
+            }
+        } catch (IOException e) {
+            logger.warn("Не удалось удалить временный файл {}", tempPath(), e);
+        }
+
+        List<Aircraft> loaded = loadFromFile(listener);
+        List<ChangeSet> journaled = journal.recover(checkpointFingerprint, this::parseLine);
+
+        replaceAll(journaled.isEmpty() ? loaded : replay(loaded, journaled));
+    }
+
+    /**
+     * Применяет записи журнала к содержимому контрольной точки.
+     *
+     * @param loaded    содержимое контрольной точки
+     * @param journaled изменения из журнала в порядке записи
+     * @return восстановленное содержимое
+     */
+    private static List<Aircraft> replay(List<Aircraft> loaded, List<ChangeSet> journaled) {
+        Map<String, Aircraft> byId = new LinkedHashMap<>();
+        for (Aircraft a : loaded) byId.putIfAbsent(a.getId(), a);
+
+        for (ChangeSet changes : journaled) {
+            for (String id : changes.removals()) byId.remove(id);
+            for (Aircraft a : changes.upserts()) byId.put(a.getId(), a);
+        }
+
+        return new ArrayList<>(byId.values());
     }
 
     /**
@@ -60,16 +250,28 @@ public class CSVAircraftRepository implements AircraftRepository {
     /**
      * Загружает данные из CSV-файла и преобразует строки в объекты {@link Aircraft}.
      * Поддерживает автоматическое определение типа самолёта.
+     * Строки с повторяющимся ID пропускаются.
+     *
+     * @param listener получатель порций разобранных строк или {@code null}
+     * @return самолёты в порядке следования строк файла
      */
-    private void loadFromFile() {
+    private List<Aircraft> loadFromFile(LoadListener listener) {
         logger.info("Загрузка данных из CSV: {}", filePath);
 
+        List<Aircraft> loaded = new ArrayList<>();
+        checkpointFingerprint = ABSENT_FINGERPRINT;
+
         if (!Files.exists(Paths.get(filePath))) {
             logger.warn("CSV файл не найден, создаётся новый: {}", filePath);
-            return;
+            return loaded;
         }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+        CRC32 crc = new CRC32();
+        long totalBytes = new File(filePath).length();
+        int reported = 0;
+
+        try (CountingInputStream in = new CountingInputStream(new CheckedInputStream(new FileInputStream(filePath), crc));
+             BufferedReader br = new BufferedReader(new InputStreamReader(in))) {
 
             String line;
 
@@ -78,46 +280,14 @@ public class CSVAircraftRepository implements AircraftRepository {
                 logger.debug("CSV строка: {}", line);
 
                 try {
-                    String[] p = line.split(";");
-                    String type = p[0];
-
-                    Aircraft aircraft = switch (type) {
-                        case "Passenger aircraft" -> new PassengerAircraft(
-                                p[1], p[2], p[3],
-                                Integer.parseInt(p[4]),
-                                Double.parseDouble(p[5]),
-                                Integer.parseInt(p[6]),
-                                Integer.parseInt(p[7]),
-                                p[8],
-                                p[9]
-                        );
-                        case "Cargo aircraft" -> new CargoAircraft(
-                                p[1], p[2], p[3],
-                                Integer.parseInt(p[4]),
-                                Double.parseDouble(p[5]),
-                                Integer.parseInt(p[6]),
-                                Integer.parseInt(p[7]),
-                                p[8],
-                                Double.parseDouble(p[9])
-                        );
-                        case "Military aircraft" -> new MilitaryAircraft(
-                                p[1], p[2], p[3],
-                                Integer.parseInt(p[4]),
-                                Double.parseDouble(p[5]),
-                                Integer.parseInt(p[6]),
-                                Integer.parseInt(p[7]),
-                                p[8],
-                                p[9]
-                        );
-                        default -> {
-                            logger.warn("Неизвестный тип записи в CSV: {}", type);
-                            yield null;
-                        }
-                    };
-
-                    if (aircraft != null) {
-                        aircraftList.add(aircraft);
-                        logger.info("Загружен самолёт ID={} Тип={} Модель={}",
+                    Aircraft aircraft = parseLine(line);
+
+                    if (aircraft != null && rowHashes.containsKey(aircraft.getId())) {
+                        logger.warn("Повторяющийся ID в CSV пропущен: {}", aircraft.getId());
+                    } else if (aircraft != null) {
+                        loaded.add(aircraft);
+                        rowHashes.put(aircraft.getId(), rowHash(line));
+                        logger.debug("Загружен самолёт ID={} Тип={} Модель={}",
                                 aircraft.getId(),
                                 aircraft.getAircraftType(),
                                 aircraft.getModel());
@@ -126,76 +296,270 @@ public class CSVAircraftRepository implements AircraftRepository {
                 } catch (Exception e) {
                     logger.error("Ошибка в строке CSV: {}", line, e);
                 }
+
+                if (listener != null && loaded.size() - reported >= LOAD_BATCH_SIZE) {
+                    listener.loaded(List.copyOf(loaded.subList(reported, loaded.size())), in.count(), totalBytes);
+                    reported = loaded.size();
+                }
             }
 
-            logger.info("CSV загружен. Самолётов: {}", aircraftList.size());
+            if (listener != null) {
+                listener.loaded(List.copyOf(loaded.subList(reported, loaded.size())), totalBytes, totalBytes);
+            }
+
+            checkpointFingerprint = fingerprint(crc);
+            logger.info("CSV загружен. Самолётов: {}", loaded.size());
 
         } catch (IOException e) {
             logger.error("Ошибка чтения CSV файла {}", filePath, e);
         }
+
+        return loaded;
     }
 
     /**
-     * Сохраняет все текущие данные репозитория в CSV-файл.
+     * Преобразует одну строку CSV в объект {@link Aircraft}.
+     * Тип самолёта определяется по первому полю строки.
+     *
+     * @param line строка CSV
+     * @return объект самолёта или {@code null}, если тип записи неизвестен
+     */
+    private Aircraft parseLine(String line) {
+        String[] p = line.split(";");
+        String type = p[0];
+
+        return switch (type) {
+            case "Passenger aircraft" -> new PassengerAircraft(
+                    p[1], p[2], p[3],
+                    Integer.parseInt(p[4]),
+                    Double.parseDouble(p[5]),
+                    Integer.parseInt(p[6]),
+                    Integer.parseInt(p[7]),
+                    p[8],
+                    p[9]
+            );
+            case "Cargo aircraft" -> new CargoAircraft(
+                    p[1], p[2], p[3],
+                    Integer.parseInt(p[4]),
+                    Double.parseDouble(p[5]),
+                    Integer.parseInt(p[6]),
+                    Integer.parseInt(p[7]),
+                    p[8],
+                    Double.parseDouble(p[9])
+            );
+            case "Military aircraft" -> new MilitaryAircraft(
+                    p[1], p[2], p[3],
+                    Integer.parseInt(p[4]),
+                    Double.parseDouble(p[5]),
+                    Integer.parseInt(p[6]),
+                    Integer.parseInt(p[7]),
+                    p[8],
+                    p[9]
+            );
+            default -> {
+                logger.warn("Неизвестный тип записи в CSV: {}", type);
+                yield null;
+            }
+        };
+    }
+
+    /**
+     * Сохраняет изменение в журнал до публикации новой версии и, если с последней
+     * контрольной точки накопилось {@code checkpointInterval} изменений,
+     * записывает новую контрольную точку.
+     * Изменения, прочитанные из самого файла при горячей перезагрузке, повторно не записываются.
+     */
+    @Override
+    protected void persist(FleetSnapshot next, ChangeSet changes) {
+        if (applyingFileChange) return;
+
+        journal.append(changes);
+
+        if (journal.pending() >= checkpointInterval) {
+            try {
+                writeCheckpoint(next);
+            } catch (StorageException e) {
+                // изменение уже надёжно записано в журнал, контрольная точка будет повторена позже
+                logger.error("Контрольная точка не записана, изменения сохранены в журнале", e);
+            }
+        }
+    }
+
+    /**
+     * Принудительно записывает контрольную точку текущей версии и очищает журнал.
+     *
+     * @throws StorageException если записать контрольную точку не удалось
+     */
+    public synchronized void checkpoint() {
+        writeCheckpoint(snapshot());
+    }
+
+    /**
+     * Останавливает наблюдение за файлом и, если журнал содержит изменения,
+     * записывает контрольную точку, чтобы CSV-файл содержал текущую версию.
+     * Повторный вызов ничего не делает.
+     *
+     * @throws StorageException если записать контрольную точку не удалось;
+     *                          изменения остаются в журнале и будут восстановлены при запуске
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+
+        stopWatching();
+        if (journal.pending() > 0) writeCheckpoint(snapshot());
+    }
+
+    /**
+     * Записывает указанную версию во временный файл, сбрасывает его на диск
+     * и атомарно заменяет им основной CSV-файл. После замены журнал очищается.
      * Каждая строка формируется методом {@link Aircraft#toCSV()}.
+     *
+     * @param snapshot сохраняемая версия
+     * @throws StorageException если контрольную точку записать не удалось
      */
-    private void saveToFile() {
+    private void writeCheckpoint(FleetSnapshot snapshot) {
         logger.info("Сохранение CSV в файл: {}", filePath);
 
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(filePath))) {
+        Path target = Paths.get(filePath).toAbsolutePath();
+        Path temp = tempPath();
+        Map<String, Long> writtenHashes = new HashMap<>();
+        CRC32 crc = new CRC32();
+
+        try {
+            try (FileOutputStream out = new FileOutputStream(temp.toFile());
+                 BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(new CheckedOutputStream(out, crc)))) {
 
-            for (Aircraft a : aircraftList) {
-                String csvLine = a.toCSV();
+                List<Aircraft> all = snapshot.aircraft();
 
-                logger.debug("Запись CSV строки: {}", csvLine);
+                for (Aircraft a : all) {
+                    String csvLine = a.toCSV();
+                    writtenHashes.putIfAbsent(a.getId(), rowHash(csvLine));
 
-                bw.write(csvLine);
-                bw.newLine();
+                    logger.debug("Запись CSV строки: {}", csvLine);
+
+                    bw.write(csvLine);
+                    bw.newLine();
+                }
 
-                logger.info("Сохранён самолёт: ID={} Тип={} Модель={}",
-                        a.getId(),
-                        a.getAircraftType(),
-                        a.getModel());
+                bw.flush();
+                out.getFD().sync();
+
+                logger.info("CSV сохранён. Записано {} строк.", all.size());
             }
 
-            logger.info("CSV сохранён. Записано {} строк.", aircraftList.size());
+            crashHook.at(CrashHook.CHECKPOINT_WRITTEN);
+
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            syncDirectory(target.getParent());
 
         } catch (IOException e) {
             logger.error("Ошибка записи CSV файла {}", filePath, e);
+            throw new StorageException("Не удалось сохранить CSV файл " + filePath, e);
         }
+
+        crashHook.at(CrashHook.CHECKPOINT_RENAMED);
+
+        rowHashes.clear();
+        rowHashes.putAll(writtenHashes);
+        checkpointFingerprint = fingerprint(crc);
+
+        journal.reset(checkpointFingerprint);
     }
 
     /**
-     * {@inheritDoc}
+     * Сбрасывает на диск запись каталога, чтобы переименование пережило сбой питания.
+     * На платформах, где это не поддерживается, ничего не делает.
      *
-     * @return копию внутреннего списка самолётов
+     * @param dir каталог
      */
-    @Override
-    public List<Aircraft> getAll() {
-        return new ArrayList<>(aircraftList);
+    private static void syncDirectory(Path dir) {
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.debug("Синхронизация каталога {} не поддерживается", dir);
+        }
     }
 
     /**
-     * {@inheritDoc}
+     * @return путь к временному файлу контрольной точки
+     */
+    private Path tempPath() {
+        return Paths.get(filePath + ".tmp").toAbsolutePath();
+    }
+
+    /**
+     * Открывает CSV-файл для чтения с подсчётом контрольной суммы прочитанных байтов.
      *
-     * <p>После добавления самолёта данные автоматически сохраняются в CSV-файл.</p>
+     * @param crc накопитель контрольной суммы
+     * @return читатель файла
+     * @throws IOException если файл не удалось открыть
      */
-    @Override
-    public void add(Aircraft aircraft) {
-        aircraftList.add(aircraft);
-        logger.info("Добавлен самолёт ID={}", aircraft.getId());
-        saveToFile();
+    private BufferedReader openReader(CRC32 crc) throws IOException {
+        return new BufferedReader(new InputStreamReader(
+                new CheckedInputStream(new FileInputStream(filePath), crc)));
+    }
+
+    /**
+     * Поток, подсчитывающий прочитанные байты (для оценки хода загрузки).
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        long count() {
+            return count;
+        }
+    }
+
+    /**
+     * Формирует отпечаток содержимого CSV-файла по его контрольной сумме.
+     *
+     * @param crc контрольная сумма всех байтов файла
+     * @return отпечаток
+     */
+    private static String fingerprint(CRC32 crc) {
+        return Long.toHexString(crc.getValue());
     }
 
     /**
      * {@inheritDoc}
+     *
+     * <p>После добавления самолёта данные автоматически сохраняются в CSV-файл.</p>
+     *
+     * @throws DuplicateIdException если самолёт с таким ID уже существует
      */
     @Override
-    public Aircraft findById(String id) {
-        return aircraftList.stream()
-                .filter(a -> a.getId().equals(id))
-                .findFirst()
-                .orElse(null);
+    public synchronized void add(Aircraft aircraft) {
+        if (findById(aircraft.getId()) != null) {
+            throw new DuplicateIdException("Самолёт с ID " + aircraft.getId() + " уже существует");
+        }
+
+        upsert(aircraft);
+        logger.info("Добавлен самолёт ID={}", aircraft.getId());
     }
 
     /**
@@ -205,11 +569,239 @@ public class CSVAircraftRepository implements AircraftRepository {
      */
     @Override
     public boolean remove(String id) {
-        boolean removed = aircraftList.removeIf(a -> a.getId().equals(id));
+        boolean removed = delete(id) != null;
         if (removed) {
             logger.info("Удалён самолёт ID={}", id);
-            saveToFile();
         }
         return removed;
     }
+
+    // --------------------------
+    // Горячая перезагрузка
+    // --------------------------
+
+    /**
+     * Инкрементально перечитывает CSV-файл.
+     * <p>
+     * Каждая строка сравнивается по хешу с последним известным содержимым файла:
+     * разбираются только новые и изменённые строки, неизменённые пропускаются
+     * без создания объектов. Все изменения одной правки файла применяются как один
+     * набор ({@link #commit(ChangeSet, FleetSnapshot)}): они образуют одну версию
+     * и публикуются одним событием {@link AircraftEvent.Batch}, поэтому читатели
+     * не видят частично применённую правку.
+     *
+     * @return набор применённых изменений
+     */
+    public synchronized ReloadDiff hotReload() {
+        String previousFingerprint = checkpointFingerprint;
+        ReloadDiff diff = applyFileDiff();
+
+        if (!diff.isEmpty()) {
+            logger.info("Горячая перезагрузка CSV: добавлено {}, изменено {}, удалено {}",
+                    diff.added().size(), diff.updated().size(), diff.removed().size());
+        }
+
+        if (!checkpointFingerprint.equals(previousFingerprint)) {
+            // файл изменён извне: журнал должен ссылаться на новую контрольную точку
+            if (journal.pending() > 0) {
+                writeCheckpoint(snapshot());
+            } else {
+                journal.reset(checkpointFingerprint);
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * Вычисляет построчную разницу между файлом и последним известным содержимым
+     * и применяет её к внутреннему списку.
+     *
+     * @return набор применённых изменений
+     */
+    private ReloadDiff applyFileDiff() {
+        List<Aircraft> added = new ArrayList<>();
+        List<Aircraft> updated = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) {
+            return new ReloadDiff(added, updated, removed);
+        }
+
+        Map<String, Long> fileHashes = new HashMap<>();
+        CRC32 crc = new CRC32();
+
+        try (BufferedReader br = openReader(crc)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String id = idOf(line);
+                if (id == null || fileHashes.containsKey(id)) continue;
+
+                long hash = rowHash(line);
+                fileHashes.put(id, hash);
+
+                Long known = rowHashes.get(id);
+                if (known != null && known == hash) continue;
+
+                try {
+                    Aircraft aircraft = parseLine(line);
+                    if (aircraft == null) continue;
+
+                    if (known == null) added.add(aircraft);
+                    else updated.add(aircraft);
+                } catch (Exception e) {
+                    logger.error("Ошибка в строке CSV: {}", line, e);
+                    fileHashes.remove(id);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Ошибка чтения CSV файла {}", filePath, e);
+            return new ReloadDiff(added, updated, removed);
+        }
+
+        checkpointFingerprint = fingerprint(crc);
+
+        for (String id : rowHashes.keySet()) {
+            if (!fileHashes.containsKey(id)) removed.add(id);
+        }
+
+        rowHashes.keySet().retainAll(fileHashes.keySet());
+        rowHashes.putAll(fileHashes);
+
+        List<Aircraft> upserts = new ArrayList<>(updated.size() + added.size());
+        upserts.addAll(updated);
+        upserts.addAll(added);
+        ChangeSet changes = new ChangeSet(upserts, removed);
+        if (!changes.isEmpty()) {
+            applyFromFile(() -> commit(changes, null));
+        }
+
+        return new ReloadDiff(added, updated, removed);
+    }
+    /**
+     * Применяет изменение, пришедшее из файла, без записи файла обратно:
+     * файл уже содержит это изменение.
+     *
+     * @param change изменение содержимого
+     */
+    private void applyFromFile(Runnable change) {
+        applyingFileChange = true;
+        try {
+            change.run();
+        } finally {
+            applyingFileChange = false;
+        }
+    }
+
+    /**
+     * Запускает фоновое наблюдение за CSV-файлом.
+     * При каждом изменении файла другим процессом вызывается {@link #hotReload()}.
+     * Повторный вызов при уже запущенном наблюдении ничего не делает.
+     *
+     * @throws IOException если не удалось зарегистрировать наблюдение за каталогом
+     */
+    public synchronized void startWatching() throws IOException {
+        if (watchThread != null) return;
+
+        Path file = Paths.get(filePath).toAbsolutePath();
+        Path dir = file.getParent();
+
+        watchService = FileSystems.getDefault().newWatchService();
+        dir.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+
+        WatchService ws = watchService;
+        watchThread = new Thread(() -> watchLoop(ws, file.getFileName()), "csv-hot-reload");
+        watchThread.setDaemon(true);
+        watchThread.start();
+
+        logger.info("Запущено наблюдение за CSV: {}", filePath);
+    }
+
+    /**
+     * Останавливает наблюдение за CSV-файлом, если оно было запущено.
+     */
+    public synchronized void stopWatching() {
+        if (watchThread == null) return;
+
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.warn("Ошибка закрытия WatchService", e);
+        }
+        watchThread.interrupt();
+        watchThread = null;
+        watchService = null;
+
+        logger.info("Наблюдение за CSV остановлено: {}", filePath);
+    }
+
+    /**
+     * Цикл обработки событий файловой системы.
+     * События, пришедшие в течение короткого окна, объединяются в одну перезагрузку,
+     * так как редакторы часто записывают файл в несколько приёмов.
+     *
+     * @param ws       сервис наблюдения
+     * @param fileName имя отслеживаемого файла
+     */
+    private void watchLoop(WatchService ws, Path fileName) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = ws.take();
+                boolean touched = containsFile(key, fileName);
+                key.reset();
+
+                WatchKey next;
+                while ((next = ws.poll(WATCH_SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    touched |= containsFile(next, fileName);
+                    next.reset();
+                }
+
+                if (touched) hotReload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Проверяет, относится ли хотя бы одно событие ключа к отслеживаемому файлу.
+     */
+    private static boolean containsFile(WatchKey key, Path fileName) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (fileName.equals(event.context())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Извлекает ID самолёта (второе поле) из строки CSV без полного разбора.
+     *
+     * @param line строка CSV
+     * @return ID или {@code null}, если строка некорректна
+     */
+    private static String idOf(String line) {
+        int first = line.indexOf(';');
+        if (first < 0) return null;
+        int second = line.indexOf(';', first + 1);
+        if (second < 0) return null;
+        return line.substring(first + 1, second);
+    }
+
+    /**
+     * Вычисляет 64-битный хеш строки CSV (FNV-1a).
+     *
+     * @param line строка CSV
+     * @return хеш строки
+     */
+    private static long rowHash(String line) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < line.length(); i++) {
+            h ^= line.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
 }
@@ -0,0 +1,327 @@
+package repository;
+
+import model.Aircraft;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Декоратор {@link AircraftRepository}, кэширующий поиск по ID.
+ * <p>
+ * Предназначен для хранилищ, чтение из которых дороже обращения к памяти:
+ * повторный {@link #findById(String)} для популярного самолёта обслуживается
+ * из кэша. Кэшируются и отсутствующие ID, чтобы повторные запросы
+ * несуществующих самолётов тоже не доходили до хранилища. Пакетный
+ * {@link #findAll(Collection)} передаёт хранилищу одним запросом только ID,
+ * которых нет в кэше.
+ * <p>
+ * Размер кэша ограничен, вытеснение выполняется по политике {@link Eviction}.
+ * Согласованность поддерживается событиями декорируемого репозитория,
+ * поэтому учитываются и изменения, выполненные в обход декоратора
+ * (транзакции, импорт, перезагрузка):
+ * <ul>
+ *     <li>{@link WritePolicy#WRITE_THROUGH} — добавленные и изменённые самолёты
+ *     сразу помещаются в кэш, удалённые запоминаются как отсутствующие;</li>
+ *     <li>{@link WritePolicy#WRITE_AROUND} — изменение лишь удаляет запись из кэша,
+ *     она заполнится при следующем чтении.</li>
+ * </ul>
+ * Остальные операции передаются декорируемому репозиторию без изменений.
+ */
+public class CachingAircraftRepository implements AircraftRepository {
+
+    private static final Logger logger = LogManager.getLogger(CachingAircraftRepository.class);
+
+    /** Размер кэша по умолчанию. */
+    public static final int DEFAULT_SIZE = 10_000;
+
+    /**
+     * Политика вытеснения записей при заполнении кэша.
+     */
+    public enum Eviction {
+
+        /** Вытесняется запись, к которой дольше всего не обращались. */
+        LRU,
+
+        /** W-TinyLFU: учитывает частоту обращений и устойчива к однократным просмотрам. */
+        TINY_LFU
+    }
+
+    /**
+     * Поведение кэша при изменении репозитория.
+     */
+    public enum WritePolicy {
+
+        /** Изменённые самолёты помещаются в кэш. */
+        WRITE_THROUGH,
+
+        /** Изменённые самолёты удаляются из кэша. */
+        WRITE_AROUND
+    }
+
+    /**
+     * Показатели работы кэша.
+     *
+     * @param hits         количество поисков, обслуженных из кэша
+     * @param negativeHits из них — для отсутствующих ID
+     * @param misses       количество поисков, переданных хранилищу
+     * @param evictions    количество вытесненных записей
+     * @param size         количество записей в кэше
+     */
+    public record Stats(long hits, long negativeHits, long misses, long evictions, int size) {
+
+        /**
+         * @return доля поисков, обслуженных из кэша, или 0, если поисков не было
+         */
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+
+    /** Запись кэша; {@code aircraft == null} означает отсутствующий ID. */
+    private record Cached(Aircraft aircraft) {
+    }
+
+    private static final Cached MISSING = new Cached(null);
+
+    private final AircraftRepository delegate;
+    private final WritePolicy writePolicy;
+    private final BoundedCache<String, Cached> cache;
+
+    /** Счётчик изменений: загрузка, начатая до изменения, не попадает в кэш. */
+    private long epoch;
+
+    private long hits;
+    private long negativeHits;
+    private long misses;
+
+    /**
+     * Создаёт декоратор с политиками W-TinyLFU и сквозной записи.
+     *
+     * @param delegate декорируемый репозиторий
+     */
+    public CachingAircraftRepository(AircraftRepository delegate) {
+        this(delegate, DEFAULT_SIZE, Eviction.TINY_LFU, WritePolicy.WRITE_THROUGH);
+    }
+
+    /**
+     * Создаёт декоратор.
+     *
+     * @param delegate    декорируемый репозиторий
+     * @param maximumSize наибольшее количество записей в кэше
+     * @param eviction    политика вытеснения
+     * @param writePolicy поведение при изменениях
+     * @throws IllegalArgumentException если размер меньше 1
+     */
+    public CachingAircraftRepository(AircraftRepository delegate, int maximumSize,
+                                     Eviction eviction, WritePolicy writePolicy) {
+        if (maximumSize < 1) throw new IllegalArgumentException("Размер кэша должен быть положительным");
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.writePolicy = Objects.requireNonNull(writePolicy, "writePolicy");
+        this.cache = new BoundedCache<>(maximumSize, Objects.requireNonNull(eviction, "eviction"));
+
+        delegate.events().addListener(this::onChange);
+        logger.info("Кэш репозитория: {} записей, {}, {}", maximumSize, eviction, writePolicy);
+    }
+
+    /**
+     * Ищет самолёт сначала в кэше, затем в декорируемом репозитории.
+     *
+     * @param id идентификатор
+     * @return объект {@link Aircraft} или {@code null}, если не найден
+     */
+    @Override
+    public Aircraft findById(String id) {
+        if (id == null) return delegate.findById(null);
+
+        String key = key(id);
+        long loadEpoch;
+        synchronized (cache) {
+            Cached cached = cache.get(key);
+            if (cached != null) {
+                hits++;
+                if (cached == MISSING) negativeHits++;
+                return cached.aircraft();
+            }
+            misses++;
+            loadEpoch = epoch;
+        }
+
+        Aircraft aircraft = delegate.findById(id);
+
+        synchronized (cache) {
+            // за время чтения репозиторий изменился: результат может быть устаревшим
+            if (epoch == loadEpoch) cache.put(key, aircraft == null ? MISSING : new Cached(aircraft));
+        }
+        return aircraft;
+    }
+
+    /**
+     * Ищет несколько самолётов. ID, записанные в кэше (в том числе как отсутствующие),
+     * обслуживаются из кэша; остальные передаются декорируемому репозиторию одним
+     * запросом, и его ответ заполняет кэш. Если за время запроса репозиторий изменился,
+     * весь поиск повторяется в декорируемом репозитории, чтобы результат относился
+     * к одной версии.
+     *
+     * @param ids идентификаторы; повторы и {@code null} допускаются
+     * @return найденные самолёты и отсутствующие ID
+     */
+    @Override
+    public LookupResult findAll(Collection<String> ids) {
+        List<String> keys = new ArrayList<>(ids.size());
+        Map<String, Cached> resolved = new HashMap<>();
+        Map<String, String> toLoad = new LinkedHashMap<>();
+        long loadEpoch;
+
+        synchronized (cache) {
+            for (String id : ids) {
+                String key = id == null ? null : key(id);
+                keys.add(key);
+                if (key == null || resolved.containsKey(key) || toLoad.containsKey(key)) continue;
+
+                Cached cached = cache.get(key);
+                if (cached != null) {
+                    hits++;
+                    if (cached == MISSING) negativeHits++;
+                    resolved.put(key, cached);
+                } else {
+                    misses++;
+                    toLoad.put(key, id);
+                }
+            }
+            loadEpoch = epoch;
+        }
+
+        if (!toLoad.isEmpty()) {
+            LookupResult loaded = delegate.findAll(toLoad.values());
+            synchronized (cache) {
+                // за время чтения репозиторий изменился: кэш и ответ относятся к разным версиям
+                if (epoch != loadEpoch) return delegate.findAll(ids);
+
+                toLoad.forEach((key, id) -> {
+                    Aircraft aircraft = loaded.found().get(id);
+                    Cached cached = aircraft == null ? MISSING : new Cached(aircraft);
+                    cache.put(key, cached);
+                    resolved.put(key, cached);
+                });
+            }
+        }
+
+        Map<String, Aircraft> found = new LinkedHashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        int i = 0;
+        for (String id : ids) {
+            String key = keys.get(i++);
+            Aircraft aircraft = key == null ? null : resolved.get(key).aircraft();
+            if (aircraft != null) found.put(id, aircraft);
+            else missing.add(id);
+        }
+        return new LookupResult(Collections.unmodifiableMap(found), Collections.unmodifiableSet(missing));
+    }
+
+    /**
+     * Применяет изменение декорируемого репозитория к кэшу.
+     *
+     * @param event событие
+     */
+    private void onChange(AircraftEvent event) {
+        synchronized (cache) {
+            epoch++;
+            apply(event);
+        }
+    }
+
+    private void apply(AircraftEvent event) {
+        if (event instanceof AircraftEvent.Batch e) {
+            e.changes().forEach(this::apply);
+        } else if (event instanceof AircraftEvent.Added e) {
+            written(e.aircraft().getId(), e.aircraft());
+        } else if (event instanceof AircraftEvent.Updated e) {
+            written(e.current().getId(), e.current());
+        } else if (event instanceof AircraftEvent.Removed e) {
+            written(e.aircraft().getId(), null);
+        } else if (event instanceof AircraftEvent.Reloaded) {
+            cache.clear();
+        }
+    }
+
+    private void written(String id, Aircraft aircraft) {
+        String key = key(id);
+        if (writePolicy == WritePolicy.WRITE_THROUGH) {
+            cache.put(key, aircraft == null ? MISSING : new Cached(aircraft));
+        } else {
+            cache.remove(key);
+        }
+    }
+
+    /**
+     * Ключ кэша по правилу сравнения ID декорируемого репозитория.
+     */
+    private String key(String id) {
+        return delegate.snapshot().key(id);
+    }
+
+    /**
+     * @return текущие показатели кэша
+     */
+    public Stats stats() {
+        synchronized (cache) {
+            return new Stats(hits, negativeHits, misses, cache.evictions(), cache.size());
+        }
+    }
+
+    @Override
+    public void add(Aircraft aircraft) {
+        delegate.add(aircraft);
+    }
+
+    @Override
+    public List<Aircraft> getAll() {
+        return delegate.getAll();
+    }
+
+    @Override
+    public FleetSnapshot snapshot() {
+        return delegate.snapshot();
+    }
+
+    @Override
+    public PinnedSnapshot pin() {
+        return delegate.pin();
+    }
+
+    @Override
+    public boolean remove(String id) {
+        return delegate.remove(id);
+    }
+
+    @Override
+    public boolean update(Aircraft aircraft) {
+        return delegate.update(aircraft);
+    }
+
+    @Override
+    public void commit(ChangeSet changes, FleetSnapshot base) {
+        delegate.commit(changes, base);
+    }
+
+    @Override
+    public AircraftEventBus events() {
+        return delegate.events();
+    }
+
+    @Override
+    public long version() {
+        return delegate.version();
+    }
+}
@@ -0,0 +1,55 @@
+package repository;
+
+import model.Aircraft;
+
+import java.util.List;
+
+/**
+ * Набор изменений, применяемых к репозиторию как одно целое.
+ * <p>
+ * Сначала выполняются удаления, затем вставки/замены: самолёт с уже
+ * существующим ID заменяется с сохранением позиции, новый добавляется в конец.
+ *
+ * @param upserts   самолёты для добавления или замены
+ * @param removals  ID удаляемых самолётов
+ */
+public record ChangeSet(List<Aircraft> upserts, List<String> removals) {
+
+    /**
+     * Создаёт набор изменений; списки копируются.
+     */
+    public ChangeSet {
+        upserts = List.copyOf(upserts);
+        removals = List.copyOf(removals);
+    }
+
+    /**
+     * @param aircraft добавляемый или заменяемый самолёт
+     * @return набор из одной вставки
+     */
+    public static ChangeSet upsert(Aircraft aircraft) {
+        return new ChangeSet(List.of(aircraft), List.of());
+    }
+
+    /**
+     * @param id ID удаляемого самолёта
+     * @return набор из одного удаления
+     */
+    public static ChangeSet removal(String id) {
+        return new ChangeSet(List.of(), List.of(id));
+    }
+
+    /**
+     * @return {@code true}, если набор не содержит изменений
+     */
+    public boolean isEmpty() {
+        return upserts.isEmpty() && removals.isEmpty();
+    }
+
+    /**
+     * @return общее количество операций в наборе
+     */
+    public int size() {
+        return upserts.size() + removals.size();
+    }
+}
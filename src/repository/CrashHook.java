@@ -0,0 +1,33 @@
+package repository;
+
+/**
+ * Точки записи CSV-хранилища, в которых тесты могут имитировать аварийное
+ * завершение процесса. В рабочем режиме используется {@link #NONE}.
+ * <p>
+ * Точки вызываются только между завершёнными операциями ввода-вывода и не меняют
+ * порядок записи; оборванную запись тест имитирует сам, усекая файл в обработчике.
+ */
+interface CrashHook {
+
+    /** Запись журнала полностью записана и сброшена на диск. */
+    String JOURNAL_APPENDED = "journal.appended";
+
+    /** Временный файл контрольной точки записан и сброшен на диск. */
+    String CHECKPOINT_WRITTEN = "checkpoint.written";
+
+    /** Временный файл атомарно переименован в основной CSV-файл. */
+    String CHECKPOINT_RENAMED = "checkpoint.renamed";
+
+    /** Журнал очищен после контрольной точки. */
+    String JOURNAL_RESET = "journal.reset";
+
+    /** Реализация по умолчанию: ничего не делает. */
+    CrashHook NONE = point -> { };
+
+    /**
+     * Вызывается при прохождении точки записи.
+     *
+     * @param point имя точки
+     */
+    void at(String point);
+}
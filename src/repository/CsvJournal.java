@@ -0,0 +1,241 @@
+package repository;
+
+import exceptions.StorageException;
+import model.Aircraft;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал изменений (write-ahead log) CSV-хранилища.
+ * <p>
+ * Каждый набор изменений ({@link ChangeSet}) записывается одной строкой
+ * с контрольной суммой CRC32 и сбрасывается на диск до публикации новой версии.
+ * Первая строка журнала содержит отпечаток контрольной точки (CSV-файла),
+ * поверх которой записаны изменения; при несовпадении отпечатка журнал
+ * считается устаревшим и не применяется.
+ *
+ * <p>Формат строки изменения: {@code <crc>\t<op>\u001E<op>...}, где операция —
+ * {@code U<строка CSV>} (вставка или замена) или {@code R<ID>} (удаление).</p>
+ */
+final class CsvJournal {
+
+    private static final Logger logger = LogManager.getLogger(CsvJournal.class);
+
+    private static final String HEADER_PREFIX = "#checkpoint\t";
+    private static final char OP_SEPARATOR = '\u001E';
+
+    private final Path path;
+    private final CrashHook crashHook;
+
+    /** Количество записей журнала после последней контрольной точки. */
+    private int pending;
+
+    /**
+     * @param path      путь к файлу журнала
+     * @param crashHook точки имитации сбоя
+     */
+    CsvJournal(Path path, CrashHook crashHook) {
+        this.path = path;
+        this.crashHook = crashHook;
+    }
+
+    /**
+     * @return количество изменений, записанных после последней контрольной точки
+     */
+    int pending() {
+        return pending;
+    }
+
+    /**
+     * Читает изменения, записанные поверх контрольной точки с указанным отпечатком.
+     * <p>
+     * Чтение останавливается на первой повреждённой или незавершённой записи
+     * (обрыв при сбое); файл журнала усекается до последней целой записи.
+     * Если журнал относится к другой контрольной точке, он очищается.
+     *
+     * @param fingerprint отпечаток загруженной контрольной точки
+     * @param parser      разбор строки CSV в самолёт
+     * @return изменения в порядке записи
+     */
+    List<ChangeSet> recover(String fingerprint, Function<String, Aircraft> parser) {
+        List<ChangeSet> changes = new ArrayList<>();
+        pending = 0;
+
+        if (!Files.exists(path)) {
+            reset(fingerprint);
+            return changes;
+        }
+
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            String content = new String(bytes, StandardCharsets.UTF_8);
+
+            int headerEnd = content.indexOf('\n');
+            String header = headerEnd < 0 ? "" : content.substring(0, headerEnd);
+
+            if (!header.equals(HEADER_PREFIX + fingerprint)) {
+                logger.info("Журнал {} относится к другой контрольной точке и не применяется", path);
+                reset(fingerprint);
+                return changes;
+            }
+
+            int pos = headerEnd + 1;
+            int validEnd = pos;
+
+            while (pos < content.length()) {
+                int end = content.indexOf('\n', pos);
+                if (end < 0) break;
+
+                ChangeSet record = decode(content.substring(pos, end), parser);
+                if (record == null) break;
+
+                changes.add(record);
+                pos = end + 1;
+                validEnd = pos;
+            }
+
+            if (validEnd < content.length()) {
+                logger.warn("Журнал {}: отброшен незавершённый хвост ({} символов)",
+                        path, content.length() - validEnd);
+                long validBytes = content.substring(0, validEnd).getBytes(StandardCharsets.UTF_8).length;
+                try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    ch.truncate(validBytes);
+                    ch.force(true);
+                }
+            }
+
+        } catch (IOException e) {
+            throw new StorageException("Не удалось прочитать журнал " + path, e);
+        }
+
+        pending = changes.size();
+        logger.info("Журнал {}: восстановлено {} изменений", path, pending);
+        return changes;
+    }
+
+    /**
+     * Записывает набор изменений в конец журнала и сбрасывает его на диск.
+     * При ошибке записи журнал усекается до прежнего размера.
+     *
+     * @param changes набор изменений
+     * @throws StorageException если запись не удалась
+     */
+    void append(ChangeSet changes) {
+        byte[] record = (encode(changes) + "\n").getBytes(StandardCharsets.UTF_8);
+
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+            long size = ch.size();
+            ch.position(size);
+            try {
+                writeFully(ch, ByteBuffer.wrap(record));
+                ch.force(false);
+            } catch (IOException e) {
+                ch.truncate(size);
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new StorageException("Не удалось записать журнал " + path, e);
+        }
+
+        pending++;
+        crashHook.at(CrashHook.JOURNAL_APPENDED);
+    }
+
+    /**
+     * Очищает журнал и записывает заголовок новой контрольной точки.
+     *
+     * @param fingerprint отпечаток контрольной точки
+     * @throws StorageException если запись не удалась
+     */
+    void reset(String fingerprint) {
+        byte[] header = (HEADER_PREFIX + fingerprint + "\n").getBytes(StandardCharsets.UTF_8);
+
+        try (FileChannel ch = FileChannel.open(path,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(ch, ByteBuffer.wrap(header));
+            ch.force(false);
+        } catch (IOException e) {
+            throw new StorageException("Не удалось очистить журнал " + path, e);
+        }
+
+        pending = 0;
+        crashHook.at(CrashHook.JOURNAL_RESET);
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            ch.write(buffer);
+        }
+    }
+
+    /**
+     * Кодирует набор изменений в строку журнала с контрольной суммой.
+     */
+    private static String encode(ChangeSet changes) {
+        StringBuilder body = new StringBuilder();
+
+        for (String id : changes.removals()) {
+            if (body.length() > 0) body.append(OP_SEPARATOR);
+            body.append('R').append(id);
+        }
+        for (Aircraft a : changes.upserts()) {
+            if (body.length() > 0) body.append(OP_SEPARATOR);
+            body.append('U').append(a.toCSV());
+        }
+
+        String text = body.toString();
+        return Long.toHexString(crc(text)) + "\t" + text;
+    }
+
+    /**
+     * Разбирает строку журнала.
+     *
+     * @return набор изменений или {@code null}, если запись повреждена
+     */
+    private static ChangeSet decode(String line, Function<String, Aircraft> parser) {
+        int tab = line.indexOf('\t');
+        if (tab < 0) return null;
+
+        String text = line.substring(tab + 1);
+        if (!line.substring(0, tab).equals(Long.toHexString(crc(text)))) return null;
+
+        List<Aircraft> upserts = new ArrayList<>();
+        List<String> removals = new ArrayList<>();
+
+        for (String op : text.split(String.valueOf(OP_SEPARATOR))) {
+            if (op.isEmpty()) continue;
+            String payload = op.substring(1);
+            if (op.charAt(0) == 'R') {
+                removals.add(payload);
+            } else {
+                try {
+                    Aircraft a = parser.apply(payload);
+                    if (a != null) upserts.add(a);
+                } catch (RuntimeException e) {
+                    return null;
+                }
+            }
+        }
+
+        return new ChangeSet(upserts, removals);
+    }
+
+    private static long crc(String text) {
+        CRC32 crc = new CRC32();
+        crc.update(text.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+}
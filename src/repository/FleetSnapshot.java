@@ -0,0 +1,283 @@
+package repository;
+
+import model.Aircraft;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Неизменяемый снимок содержимого репозитория на определённой версии.
+ * <p>
+ * Снимок построен на персистентных коллекциях ({@link PersistentSortedMap}):
+ * новая версия после добавления, удаления или замены самолёта разделяет
+ * с предыдущей все неизменённые узлы, поэтому создание версии стоит O(log n),
+ * а получение снимка читателем — O(1) без копирования.
+ *
+ * <p>Порядок самолётов в снимке совпадает с порядком их добавления;
+ * замена самолёта сохраняет его позицию.</p>
+ */
+public final class FleetSnapshot {
+
+    /** Версия репозитория, которой соответствует снимок. */
+    private final long version;
+
+    /** Самолёты в порядке добавления (порядковый номер → самолёт). */
+    private final PersistentSortedMap<Long, Aircraft> bySeq;
+
+    /** Индекс ключей (нормализованный ID → порядковый номер). */
+    private final PersistentSortedMap<String, Long> seqByKey;
+
+    /** Следующий свободный порядковый номер. */
+    private final long nextSeq;
+
+    /** Правило нормализации ID в ключ поиска. */
+    private final UnaryOperator<String> keyOf;
+
+    /** Представление снимка в виде неизменяемого списка. */
+    private final List<Aircraft> view = new AbstractList<>() {
+        @Override
+        public Aircraft get(int index) {
+            return bySeq.valueAt(index);
+        }
+
+        @Override
+        public int size() {
+            return bySeq.size();
+        }
+
+        @Override
+        public Iterator<Aircraft> iterator() {
+            return bySeq.values();
+        }
+
+        @Override
+        public Spliterator<Aircraft> spliterator() {
+            return new RangeSpliterator(0, bySeq.size());
+        }
+    };
+
+    private FleetSnapshot(long version,
+                          PersistentSortedMap<Long, Aircraft> bySeq,
+                          PersistentSortedMap<String, Long> seqByKey,
+                          long nextSeq,
+                          UnaryOperator<String> keyOf) {
+        this.version = version;
+        this.bySeq = bySeq;
+        this.seqByKey = seqByKey;
+        this.nextSeq = nextSeq;
+        this.keyOf = keyOf;
+    }
+
+    /**
+     * Создаёт пустой снимок нулевой версии.
+     *
+     * @param keyOf правило нормализации ID (например, приведение к нижнему регистру)
+     * @return пустой снимок
+     */
+    static FleetSnapshot empty(UnaryOperator<String> keyOf) {
+        return new FleetSnapshot(0, PersistentSortedMap.empty(), PersistentSortedMap.empty(), 0, keyOf);
+    }
+
+    /**
+     * @return версия репозитория, которой соответствует снимок
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @return количество самолётов в снимке
+     */
+    public int size() {
+        return bySeq.size();
+    }
+
+    /**
+     * Возвращает самолёты снимка в виде неизменяемого списка.
+     * Доступ по индексу выполняется за O(log n), последовательный обход — за O(n).
+     * {@link List#spliterator()} делит снимок пополам по порядковым номерам,
+     * поэтому список пригоден для параллельной обработки.
+     *
+     * @return список самолётов
+     */
+    public List<Aircraft> aircraft() {
+        return view;
+    }
+
+    /**
+     * Выполняет поиск самолёта по ID за O(log n).
+     *
+     * @param id идентификатор
+     * @return самолёт или {@code null}, если в снимке его нет
+     */
+    public Aircraft findById(String id) {
+        if (id == null) return null;
+        Long seq = seqByKey.get(keyOf.apply(id));
+        return seq == null ? null : bySeq.get(seq);
+    }
+
+    /**
+     * Ищет несколько самолётов по ID в этом снимке. Каждый ID приводится к ключу
+     * один раз; различные ключи упорядочиваются и разрешаются одним спуском
+     * по индексу ID, найденные позиции — поиском по индексу порядка.
+     *
+     * @param ids идентификаторы; повторы и {@code null} допускаются
+     * @return найденные самолёты и отсутствующие ID
+     */
+    public LookupResult findAll(Collection<String> ids) {
+        String[] keys = new String[ids.size()];
+        String[] sorted = new String[keys.length];
+        int n = 0, i = 0;
+        for (String id : ids) {
+            String key = id == null ? null : keyOf.apply(id);
+            keys[i++] = key;
+            if (key != null) sorted[n++] = key;
+        }
+
+        Arrays.sort(sorted, 0, n);
+        int distinct = 0;
+        for (int k = 0; k < n; k++) {
+            if (distinct == 0 || !sorted[k].equals(sorted[distinct - 1])) sorted[distinct++] = sorted[k];
+        }
+
+        Map<String, Aircraft> byKey = new HashMap<>(Math.max(16, distinct * 4 / 3 + 1));
+        seqByKey.getAll(Arrays.asList(sorted).subList(0, distinct), (key, seq) -> byKey.put(key, bySeq.get(seq)));
+
+        Map<String, Aircraft> found = new LinkedHashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        i = 0;
+        for (String id : ids) {
+            String key = keys[i++];
+            Aircraft aircraft = key == null ? null : byKey.get(key);
+            if (aircraft != null) found.put(id, aircraft);
+            else missing.add(id);
+        }
+        return new LookupResult(Collections.unmodifiableMap(found), Collections.unmodifiableSet(missing));
+    }
+
+    /**
+     * Приводит ID к ключу поиска по правилу репозитория
+     * (например, без учёта регистра для {@link InMemoryAircraftRepository}).
+     *
+     * @param id идентификатор
+     * @return нормализованный ключ
+     */
+    public String key(String id) {
+        return keyOf.apply(id);
+    }
+
+    /**
+     * @param id идентификатор
+     * @return {@code true}, если самолёт с таким ID присутствует в снимке
+     */
+    public boolean containsId(String id) {
+        return id != null && seqByKey.get(keyOf.apply(id)) != null;
+    }
+
+    /**
+     * Возвращает новый снимок с добавленным самолётом в конце порядка.
+     *
+     * @param aircraft самолёт
+     * @param version  версия нового снимка
+     * @return новый снимок
+     */
+    FleetSnapshot withAdded(Aircraft aircraft, long version) {
+        long seq = nextSeq;
+        return new FleetSnapshot(version,
+                bySeq.put(seq, aircraft),
+                seqByKey.put(keyOf.apply(aircraft.getId()), seq),
+                seq + 1,
+                keyOf);
+    }
+
+    /**
+     * Возвращает новый снимок без самолёта с указанным ID.
+     *
+     * @param id      идентификатор
+     * @param version версия нового снимка
+     * @return новый снимок
+     */
+    FleetSnapshot withRemoved(String id, long version) {
+        String key = keyOf.apply(id);
+        Long seq = seqByKey.get(key);
+        if (seq == null) return this;
+        return new FleetSnapshot(version, bySeq.remove(seq), seqByKey.remove(key), nextSeq, keyOf);
+    }
+
+    /**
+     * Возвращает новый снимок, в котором самолёт с тем же ID заменён
+     * (с сохранением позиции). Если ID отсутствует, самолёт добавляется в конец.
+     *
+     * @param aircraft новая версия самолёта
+     * @param version  версия нового снимка
+     * @return новый снимок
+     */
+    FleetSnapshot withReplaced(Aircraft aircraft, long version) {
+        Long seq = seqByKey.get(keyOf.apply(aircraft.getId()));
+        if (seq == null) return withAdded(aircraft, version);
+        return new FleetSnapshot(version, bySeq.put(seq, aircraft), seqByKey, nextSeq, keyOf);
+    }
+
+    /**
+     * Возвращает пустой снимок с тем же правилом нормализации ID.
+     *
+     * @param version версия нового снимка
+     * @return пустой снимок
+     */
+    FleetSnapshot cleared(long version) {
+        return new FleetSnapshot(version, PersistentSortedMap.empty(), PersistentSortedMap.empty(), 0, keyOf);
+    }
+
+    /**
+     * Делимый обход диапазона порядковых номеров снимка.
+     * Деление выполняется пополам до начала обхода; обход диапазона
+     * позиционируется в дереве один раз за O(log n).
+     */
+    private final class RangeSpliterator implements Spliterator<Aircraft> {
+
+        private int from;
+        private final int to;
+        private Iterator<Aircraft> it;
+
+        RangeSpliterator(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Aircraft> action) {
+            if (from >= to) return false;
+            if (it == null) it = bySeq.values(from);
+            from++;
+            action.accept(it.next());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Aircraft> action) {
+            if (from >= to) return;
+            if (it == null) it = bySeq.values(from);
+            for (; from < to; from++) action.accept(it.next());
+        }
+
+        @Override
+        public Spliterator<Aircraft> trySplit() {
+            int mid = (from + to) >>> 1;
+            if (it != null || mid <= from) return null;
+            Spliterator<Aircraft> prefix = new RangeSpliterator(from, mid);
+            from = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package repository;
+
+/**
+ * Приближённый счётчик частот обращений (Count-Min Sketch) для политики W-TinyLFU.
+ * <p>
+ * Частота ключа оценивается минимумом из четырёх счётчиков, выбранных независимыми
+ * хэшами; оценка может быть завышена коллизиями, но не занижена. Счётчики
+ * ограничены значением 15, а после {@code 10 × ёмкость} обращений все счётчики
+ * делятся пополам, чтобы давно популярные ключи постепенно уступали новым.
+ */
+final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final long[] SEEDS = {
+            0x9e3779b97f4a7c15L, 0xc2b2ae3d27d4eb4fL, 0x165667b19e3779f9L, 0xd6e8feb86659fd93L
+    };
+
+    private final int[][] counters;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param capacity ёмкость кэша, для которого ведутся частоты
+     */
+    FrequencySketch(int capacity) {
+        int width = Integer.highestOneBit(Math.max(16, capacity) * 2 - 1) << 1;
+        this.counters = new int[DEPTH][width];
+        this.mask = width - 1;
+        this.sampleSize = Math.max(10, capacity) * 10;
+    }
+
+    /**
+     * Учитывает обращение к ключу.
+     *
+     * @param key ключ
+     */
+    void increment(Object key) {
+        int hash = key.hashCode();
+        boolean added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            int[] row = counters[i];
+            int index = index(hash, i);
+            if (row[index] < MAX_COUNT) {
+                row[index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) reset();
+    }
+
+    /**
+     * @param key ключ
+     * @return оценка частоты обращений к ключу
+     */
+    int frequency(Object key) {
+        int hash = key.hashCode();
+        int min = MAX_COUNT;
+        for (int i = 0; i < DEPTH; i++) {
+            min = Math.min(min, counters[i][index(hash, i)]);
+        }
+        return min;
+    }
+
+    private int index(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h ^= h >>> 32;
+        return (int) h & mask;
+    }
+
+    /** Старение: делит все счётчики пополам. */
+    private void reset() {
+        for (int[] row : counters) {
+            for (int i = 0; i < row.length; i++) row[i] >>>= 1;
+        }
+        additions /= 2;
+    }
+}
@@ -2,18 +2,23 @@ package repository;
 
 import model.Aircraft;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Locale;
 
 /**
  * Простая реализация {@link AircraftRepository}, хранящая данные
  * в оперативной памяти. Не выполняет сохранение на диск и предназначена
  * для тестирования или временных операций.
+ *
+ * <p>Сравнение ID выполняется без учёта регистра.</p>
  */
-public class InMemoryAircraftRepository implements AircraftRepository {
+public class InMemoryAircraftRepository extends AbstractAircraftRepository {
 
-    /** Внутренний список самолётов. */
-    private final List<Aircraft> aircraftList = new ArrayList<>();
+    /**
+     * Создаёт пустой репозиторий.
+     */
+    public InMemoryAircraftRepository() {
+        super(id -> id.toLowerCase(Locale.ROOT));
+    }
 
     /**
      * Добавляет самолёт в список.
@@ -23,32 +28,13 @@ public class InMemoryAircraftRepository implements AircraftRepository {
      * @throws IllegalArgumentException если ID уже присутствует
      */
     @Override
-    public void add(Aircraft aircraft) {
+    public synchronized void add(Aircraft aircraft) {
 
         if (findById(aircraft.getId()) != null) {
             throw new IllegalArgumentException("Самолёт с таким ID уже существует: " + aircraft.getId());
         }
 
-        aircraftList.add(aircraft);
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public List<Aircraft> getAll() {
-        return aircraftList;
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public Aircraft findById(String id) {
-        return aircraftList.stream()
-                .filter(a -> a.getId().equalsIgnoreCase(id))
-                .findFirst()
-                .orElse(null);
+        upsert(aircraft);
     }
 
     /**
@@ -56,6 +42,6 @@ public class InMemoryAircraftRepository implements AircraftRepository {
      */
     @Override
     public boolean remove(String id) {
-        return aircraftList.removeIf(a -> a.getId().equalsIgnoreCase(id));
+        return delete(id) != null;
     }
 }
@@ -0,0 +1,24 @@
+package repository;
+
+import model.Aircraft;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Результат поиска нескольких самолётов по ID
+ * ({@link AircraftRepository#findAll(java.util.Collection)}).
+ * Отсутствующие ID возвращаются значением, а не исключением.
+ *
+ * @param found   найденные самолёты по запрошенным ID в порядке запроса
+ * @param missing запрошенные ID, которых нет в репозитории, в порядке запроса
+ */
+public record LookupResult(Map<String, Aircraft> found, Set<String> missing) {
+
+    /**
+     * @return {@code true}, если найдены все запрошенные самолёты
+     */
+    public boolean isComplete() {
+        return missing.isEmpty();
+    }
+}
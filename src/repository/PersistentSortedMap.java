@@ -0,0 +1,300 @@
+package repository;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * Неизменяемое (персистентное) упорядоченное отображение на основе AVL-дерева.
+ * <p>
+ * Любая операция изменения возвращает новое отображение и копирует только путь
+ * от корня до изменённого узла (O(log n) узлов), остальные узлы разделяются
+ * между старой и новой версиями. Благодаря этому старые версии остаются
+ * корректными и доступными для чтения без блокировок и копирования.
+ *
+ * <p>Каждый узел хранит размер поддерева, что позволяет получать элемент
+ * по порядковому номеру за O(log n).</p>
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ */
+final class PersistentSortedMap<K extends Comparable<K>, V> {
+
+    /**
+     * Узел AVL-дерева. Узлы никогда не изменяются после создания.
+     */
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final Node<K, V> left;
+        final Node<K, V> right;
+        final int height;
+        final int size;
+
+        Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    private static final PersistentSortedMap<?, ?> EMPTY = new PersistentSortedMap<>(null);
+
+    private final Node<K, V> root;
+
+    private PersistentSortedMap(Node<K, V> root) {
+        this.root = root;
+    }
+
+    /**
+     * @return пустое отображение
+     */
+    @SuppressWarnings("unchecked")
+    static <K extends Comparable<K>, V> PersistentSortedMap<K, V> empty() {
+        return (PersistentSortedMap<K, V>) EMPTY;
+    }
+
+    /**
+     * @return количество элементов
+     */
+    int size() {
+        return size(root);
+    }
+
+    /**
+     * Возвращает значение по ключу.
+     *
+     * @param key ключ
+     * @return значение или {@code null}, если ключ отсутствует
+     */
+    V get(K key) {
+        Node<K, V> n = root;
+        while (n != null) {
+            int c = key.compareTo(n.key);
+            if (c == 0) return n.value;
+            n = c < 0 ? n.left : n.right;
+        }
+        return null;
+    }
+
+    /**
+     * Ищет несколько ключей за один спуск по дереву: упорядоченные ключи делятся
+     * ключом узла (двоичным поиском) на левую и правую части, и каждый узел
+     * посещается не более одного раза. Посещаются только узлы объединения путей
+     * поиска, поэтому общая верхняя часть путей проходится один раз, а не для
+     * каждого ключа; выигрыш зависит от того, насколько близки ключи.
+     *
+     * @param keys  ключи по возрастанию, без повторов
+     * @param found получатель найденных пар «ключ — значение» в порядке возрастания
+     */
+    void getAll(List<K> keys, BiConsumer<K, V> found) {
+        getAll(root, keys, 0, keys.size(), found);
+    }
+
+    private static <K extends Comparable<K>, V> void getAll(Node<K, V> n, List<K> keys, int from, int to,
+                                                            BiConsumer<K, V> found) {
+        if (n == null || from >= to) return;
+
+        // первый ключ, не меньший ключа узла
+        int lo = from, hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys.get(mid).compareTo(n.key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+
+        getAll(n.left, keys, from, lo, found);
+        if (lo < to && keys.get(lo).compareTo(n.key) == 0) {
+            found.accept(n.key, n.value);
+            lo++;
+        }
+        getAll(n.right, keys, lo, to, found);
+    }
+
+    /**
+     * Возвращает значение по порядковому номеру в порядке возрастания ключей.
+     *
+     * @param index номер элемента, от 0 до {@code size() - 1}
+     * @return значение
+     * @throws IndexOutOfBoundsException если номер вне диапазона
+     */
+    V valueAt(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+        }
+        Node<K, V> n = root;
+        while (true) {
+            int leftSize = size(n.left);
+            if (index < leftSize) {
+                n = n.left;
+            } else if (index == leftSize) {
+                return n.value;
+            } else {
+                index -= leftSize + 1;
+                n = n.right;
+            }
+        }
+    }
+
+    /**
+     * Возвращает отображение с добавленной или заменённой парой.
+     *
+     * @param key   ключ
+     * @param value значение
+     * @return новое отображение
+     */
+    PersistentSortedMap<K, V> put(K key, V value) {
+        return new PersistentSortedMap<>(put(root, key, value));
+    }
+
+    /**
+     * Возвращает отображение без указанного ключа.
+     *
+     * @param key ключ
+     * @return новое отображение (или это же, если ключ отсутствовал)
+     */
+    PersistentSortedMap<K, V> remove(K key) {
+        Node<K, V> newRoot = remove(root, key);
+        return newRoot == root ? this : new PersistentSortedMap<>(newRoot);
+    }
+
+    /**
+     * @return итератор значений в порядке возрастания ключей
+     */
+    Iterator<V> values() {
+        return values(0);
+    }
+
+    /**
+     * Возвращает итератор значений, начиная с элемента с указанным порядковым номером.
+     * Позиционирование выполняется за O(log n), каждый следующий шаг — за амортизированное O(1).
+     *
+     * @param from номер первого элемента, от 0 до {@code size()}
+     * @return итератор значений в порядке возрастания ключей
+     * @throws IndexOutOfBoundsException если номер вне диапазона
+     */
+    Iterator<V> values(int from) {
+        if (from < 0 || from > size()) {
+            throw new IndexOutOfBoundsException("Index: " + from + ", size: " + size());
+        }
+        return new Iterator<>() {
+            private final Deque<Node<K, V>> stack = new ArrayDeque<>();
+
+            {
+                // в стеке — искомый узел и предки, в левом поддереве которых он лежит
+                Node<K, V> n = root;
+                int index = from;
+                while (n != null) {
+                    int leftSize = size(n.left);
+                    if (index <= leftSize) {
+                        stack.push(n);
+                        if (index == leftSize) break;
+                        n = n.left;
+                    } else {
+                        index -= leftSize + 1;
+                        n = n.right;
+                    }
+                }
+            }
+
+            private void pushLeft(Node<K, V> n) {
+                while (n != null) {
+                    stack.push(n);
+                    n = n.left;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public V next() {
+                if (stack.isEmpty()) throw new NoSuchElementException();
+                Node<K, V> n = stack.pop();
+                pushLeft(n.right);
+                return n.value;
+            }
+        };
+    }
+
+    // --------------------------
+    // AVL
+    // --------------------------
+
+    private static int height(Node<?, ?> n) {
+        return n == null ? 0 : n.height;
+    }
+
+    private static int size(Node<?, ?> n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static <K extends Comparable<K>, V> Node<K, V> put(Node<K, V> n, K key, V value) {
+        if (n == null) return new Node<>(key, value, null, null);
+
+        int c = key.compareTo(n.key);
+        if (c < 0) return balance(n.key, n.value, put(n.left, key, value), n.right);
+        if (c > 0) return balance(n.key, n.value, n.left, put(n.right, key, value));
+        return new Node<>(key, value, n.left, n.right);
+    }
+
+    private static <K extends Comparable<K>, V> Node<K, V> remove(Node<K, V> n, K key) {
+        if (n == null) return null;
+
+        int c = key.compareTo(n.key);
+        if (c < 0) {
+            Node<K, V> left = remove(n.left, key);
+            return left == n.left ? n : balance(n.key, n.value, left, n.right);
+        }
+        if (c > 0) {
+            Node<K, V> right = remove(n.right, key);
+            return right == n.right ? n : balance(n.key, n.value, n.left, right);
+        }
+
+        if (n.left == null) return n.right;
+        if (n.right == null) return n.left;
+
+        Node<K, V> min = n.right;
+        while (min.left != null) min = min.left;
+        return balance(min.key, min.value, n.left, removeMin(n.right));
+    }
+
+    private static <K, V> Node<K, V> removeMin(Node<K, V> n) {
+        if (n.left == null) return n.right;
+        return balance(n.key, n.value, removeMin(n.left), n.right);
+    }
+
+    private static <K, V> Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right) {
+        int diff = height(left) - height(right);
+
+        if (diff > 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+            }
+            Node<K, V> lr = left.right;
+            return new Node<>(lr.key, lr.value,
+                    new Node<>(left.key, left.value, left.left, lr.left),
+                    new Node<>(key, value, lr.right, right));
+        }
+
+        if (diff < -1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+            }
+            Node<K, V> rl = right.left;
+            return new Node<>(rl.key, rl.value,
+                    new Node<>(key, value, left, rl.left),
+                    new Node<>(right.key, right.value, rl.right, right.right));
+        }
+
+        return new Node<>(key, value, left, right);
+    }
+}
@@ -0,0 +1,63 @@
+package repository;
+
+import model.Aircraft;
+
+import java.util.List;
+
+/**
+ * Закреплённый читателем снимок репозитория.
+ * <p>
+ * Пока снимок закреплён, его версия учитывается в реестре активных версий
+ * {@link VersionedFleet}. После {@link #close()} версия освобождается, и если
+ * она уже не является текущей, память старой версии (узлы, не разделяемые
+ * с более новыми версиями) освобождается сборщиком мусора.
+ *
+ * <p>Используется в конструкции try-with-resources для долгих отчётов и экспорта:
+ * параллельные изменения репозитория не блокируются и не влияют на читаемые данные.</p>
+ */
+public final class PinnedSnapshot implements AutoCloseable {
+
+    private final VersionedFleet owner;
+    private FleetSnapshot snapshot;
+
+    PinnedSnapshot(VersionedFleet owner, FleetSnapshot snapshot) {
+        this.owner = owner;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * @return закреплённый снимок
+     * @throws IllegalStateException если снимок уже освобождён
+     */
+    public FleetSnapshot snapshot() {
+        if (snapshot == null) {
+            throw new IllegalStateException("Снимок уже освобождён");
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return самолёты закреплённой версии
+     */
+    public List<Aircraft> aircraft() {
+        return snapshot().aircraft();
+    }
+
+    /**
+     * @return номер закреплённой версии
+     */
+    public long version() {
+        return snapshot().version();
+    }
+
+    /**
+     * Освобождает снимок. Повторный вызов ничего не делает.
+     */
+    @Override
+    public void close() {
+        if (snapshot != null) {
+            owner.release(snapshot.version());
+            snapshot = null;
+        }
+    }
+}
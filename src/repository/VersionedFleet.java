@@ -0,0 +1,74 @@
+package repository;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Многоверсионное хранилище содержимого репозитория.
+ * <p>
+ * Хранит ссылку на текущий {@link FleetSnapshot}. Читатели получают снимок
+ * за O(1) без блокировок; писатели строят новую версию на персистентных
+ * коллекциях и атомарно публикуют её. Закреплённые читателями версии
+ * учитываются в реестре до их освобождения.
+ */
+final class VersionedFleet {
+
+    /** Текущая опубликованная версия. */
+    private final AtomicReference<FleetSnapshot> current;
+
+    /** Количество активных закреплений по номерам версий. */
+    private final ConcurrentHashMap<Long, Integer> pins = new ConcurrentHashMap<>();
+
+    /**
+     * @param keyOf правило нормализации ID самолётов
+     */
+    VersionedFleet(UnaryOperator<String> keyOf) {
+        this.current = new AtomicReference<>(FleetSnapshot.empty(keyOf));
+    }
+
+    /**
+     * @return текущий снимок
+     */
+    FleetSnapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Атомарно публикует новую версию.
+     *
+     * @param snapshot новый снимок
+     */
+    void publish(FleetSnapshot snapshot) {
+        current.set(snapshot);
+    }
+
+    /**
+     * Закрепляет текущую версию за читателем.
+     *
+     * @return закреплённый снимок
+     */
+    PinnedSnapshot pin() {
+        FleetSnapshot snapshot = current.get();
+        pins.merge(snapshot.version(), 1, Integer::sum);
+        return new PinnedSnapshot(this, snapshot);
+    }
+
+    /**
+     * Снимает одно закрепление версии. Версия без закреплений удаляется из реестра.
+     *
+     * @param version номер версии
+     */
+    void release(long version) {
+        pins.computeIfPresent(version, (v, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * @return номера версий, закреплённых хотя бы одним читателем
+     */
+    Set<Long> pinnedVersions() {
+        return new TreeSet<>(pins.keySet());
+    }
+}
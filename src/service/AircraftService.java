@@ -1,7 +1,11 @@
 package service;
 
 import model.Aircraft;
+import repository.AircraftEvent;
 import repository.AircraftRepository;
+import repository.FleetSnapshot;
+import repository.LookupResult;
+import repository.PinnedSnapshot;
 import exceptions.AircraftNotFoundException;
 import exceptions.DuplicateIdException;
 import exceptions.InvalidAircraftDataException;
@@ -9,7 +13,15 @@ import exceptions.InvalidAircraftDataException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.DoubleSummaryStatistics;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 
 /**
  * Service класс, обеспечивающий логику работы с сущностями {@link Aircraft}.
@@ -17,9 +29,14 @@ import java.util.List;
  * Выполняет:
  * <ul>
  *     <li>Проверку корректности данных перед добавлением;</li>
- *     <li>Поиск самолётов по ID;</li>
- *     <li>Удаление самолётов;</li>
- *     <li>Аналитические вычисления (средняя вместимость, максимальная дальность и т.д.);</li>
+ *     <li>Поиск самолётов по ID, по подстроке ({@link TrigramIndex})
+ *     и нечёткий поиск по модели и производителю ({@link FuzzyIndex});</li>
+ *     <li>Автодополнение ID, моделей и производителей ({@link PrefixTrie});</li>
+ *     <li>Удаление и обновление самолётов;</li>
+ *     <li>Транзакционное применение нескольких изменений ({@link AircraftTransaction});</li>
+ *     <li>Аналитические вычисления (средняя вместимость, максимальная дальность и т.д.),
+ *     для больших парков — параллельно ({@link AnalyticsEngine});</li>
+ *     <li>Уведомление потребителей об изменениях парка ({@link AircraftEvent});</li>
  *     <li>Логирование всех операций.</li>
  * </ul>
  * <p>
@@ -32,16 +49,113 @@ public class AircraftService {
 
     private final AircraftRepository repository;
 
+    /** Индекс подстрок для {@link #search(String)}. */
+    private final TrigramIndex textIndex = new TrigramIndex();
+
+    /** Индекс автодополнения для {@link #complete(CompletionField, String, int)}. */
+    private final CompletionIndex completionIndex = new CompletionIndex();
+
+    /** Индекс нечёткого поиска для {@link #fuzzySearch(String, int)}. */
+    private final FuzzyIndex fuzzyIndex = new FuzzyIndex();
+
+    /** Распределения числовых полей для {@link #percentile(NumericField, String, double)}. */
+    private final DistributionIndex distributionIndex = new DistributionIndex();
+
+    /** Количество различных значений строковых полей для {@link #distinctCount(StringField)}. */
+    private final DistinctIndex distinctIndex = new DistinctIndex(HyperLogLog.DEFAULT_PRECISION);
+
+    /** Дисперсии и корреляции показателей для {@link #statistics(String)}. */
+    private final StatisticsIndex statisticsIndex = new StatisticsIndex();
+
+    /** Отсортированные представления текущей версии парка. */
+    private final SortIndex sortIndex = new SortIndex();
+
+    /** Столбцы числовых полей текущей версии парка. */
+    private final ColumnIndex columnIndex = new ColumnIndex();
+
+    /** Вторичные индексы, поддерживаемые событиями репозитория. */
+    private final List<FleetIndex> indexes = List.of(textIndex, completionIndex, fuzzyIndex,
+            distributionIndex, distinctIndex, statisticsIndex, sortIndex, columnIndex);
+
+    /** Версия репозитория, отражённая во вторичных индексах. */
+    private long indexedVersion;
+
+    /** Движок аналитических вычислений. */
+    private final AnalyticsEngine analytics;
+
+    /** Результаты аналитических запросов. */
+    private final AnalyticsCache analyticsCache = new AnalyticsCache(AnalyticsCache.DEFAULT_MAX_WEIGHT);
+
     /**
      * Создаёт экземпляр сервисного класса.
+     * Строит вторичные индексы по текущему содержимому репозитория
+     * и подписывает их на последующие изменения.
      *
      * @param repository репозиторий, в котором хранятся самолёты
      */
     public AircraftService(AircraftRepository repository) {
+        this(repository, new AnalyticsEngine());
+    }
+
+    /**
+     * Создаёт экземпляр сервисного класса с заданным движком аналитики.
+     *
+     * @param repository репозиторий, в котором хранятся самолёты
+     * @param analytics  движок аналитических вычислений
+     */
+    public AircraftService(AircraftRepository repository, AnalyticsEngine analytics) {
         this.repository = repository;
+        this.analytics = analytics;
+
+        repository.events().addListener(this::updateIndexes);
+        rebuildIndexes();
+
+        repository.events().addListener(analyticsCache::apply);
+        analyticsCache.reset(repository.snapshot().version());
+
         logger.info("AircraftService инициализирован");
     }
 
+    /**
+     * Перестраивает вторичные индексы по текущему снимку репозитория.
+     */
+    private void rebuildIndexes() {
+        synchronized (indexes) {
+            FleetSnapshot snapshot = repository.snapshot();
+            indexedVersion = snapshot.version();
+            for (FleetIndex index : indexes) index.rebuild(snapshot);
+        }
+        logger.info("Индексы построены ({} самолётов)", textIndex.size());
+    }
+
+    /**
+     * Применяет изменение репозитория к вторичным индексам.
+     * Изменения, уже учтённые при построении индексов, пропускаются.
+     *
+     * @param event событие изменения
+     */
+    private void updateIndexes(AircraftEvent event) {
+        synchronized (indexes) {
+            if (event.version() <= indexedVersion) return;
+            indexedVersion = event.version();
+            for (FleetIndex index : indexes) index.apply(event);
+        }
+    }
+
+    /**
+     * Перестраивает индекс по текущему снимку, если после удалений он устарел
+     * ({@link StaleableIndex#isStale()}). Индекс запоминает версию снимка
+     * и не применит повторно события, уже вошедшие в него.
+     *
+     * @param index вторичный индекс
+     */
+    private void ensureFresh(StaleableIndex index) {
+        if (!index.isStale()) return;
+        synchronized (indexes) {
+            if (index.isStale()) index.rebuild(repository.snapshot());
+        }
+    }
+
     // ---------------- GET ALL ----------------
 
     /**
@@ -54,6 +168,56 @@ public class AircraftService {
         return repository.getAll();
     }
 
+    /**
+     * Возвращает все самолёты, упорядоченные по полю.
+     * <p>
+     * Порядок по полю строится один раз и затем поддерживается изменениями парка
+     * без пересортировки; обратный порядок не требует повторной сортировки. Возвращаемый список
+     * не изменяется и поддерживает произвольный доступ за O(1), поэтому подходит
+     * для постраничного чтения таблицей.
+     *
+     * @param field     поле сортировки
+     * @param ascending {@code true} — по возрастанию, {@code false} — по убыванию
+     * @return упорядоченное представление текущей версии парка
+     */
+    public List<Aircraft> sortedAircraft(SortField field, boolean ascending) {
+        return sortIndex.view(repository.snapshot(), field, ascending);
+    }
+
+    /**
+     * Упорядочивает произвольный набор самолётов (например, результат поиска) по полю.
+     * Числовые поля сортируются по примитивным ключам.
+     *
+     * @param rows      самолёты
+     * @param field     поле сортировки
+     * @param ascending {@code true} — по возрастанию, {@code false} — по убыванию
+     * @return неизменяемый упорядоченный список
+     */
+    public List<Aircraft> sortAircraft(Collection<Aircraft> rows, SortField field, boolean ascending) {
+        return SortIndex.sorted(rows, field, ascending);
+    }
+
+    /**
+     * Возвращает неизменяемый снимок текущей версии парка.
+     * Согласованность содержимого гарантируется без копирования.
+     *
+     * @return снимок парка
+     */
+    public FleetSnapshot snapshot() {
+        return repository.snapshot();
+    }
+
+    /**
+     * Закрепляет согласованный снимок текущей версии парка для долгого чтения
+     * (отчёты, экспорт, аналитика). Параллельные изменения не блокируются
+     * и не влияют на содержимое снимка. Снимок необходимо закрыть после использования.
+     *
+     * @return закреплённый снимок
+     */
+    public PinnedSnapshot pinSnapshot() {
+        return repository.pin();
+    }
+
     // ---------------- ADD ----------------
 
     /**
@@ -68,6 +232,29 @@ public class AircraftService {
 
         logger.info("Попытка добавить самолёт ID={}", aircraft.getId());
 
+        validate(aircraft);
+
+        if (repository.findById(aircraft.getId()) != null) {
+            logger.error("Дубликат ID: {}", aircraft.getId());
+            throw new DuplicateIdException("Самолёт с ID " + aircraft.getId() + " уже существует");
+        }
+
+        repository.add(aircraft);
+        logger.info("Самолёт ID={} успешно добавлен ({} {})",
+                aircraft.getId(),
+                aircraft.getAircraftType(),
+                aircraft.getModel()
+        );
+    }
+
+    /**
+     * Проверяет корректность данных самолёта.
+     *
+     * @param aircraft объект самолёта
+     * @throws InvalidAircraftDataException если обнаружены некорректные данные
+     */
+    void validate(Aircraft aircraft) {
+
         if (aircraft.getId() == null || aircraft.getId().isBlank()) {
             logger.error("Ошибка: ID пустой");
             throw new InvalidAircraftDataException("ID не может быть пустым");
@@ -82,18 +269,45 @@ public class AircraftService {
             logger.error("Ошибка: отрицательная дальность {}", aircraft.getRange());
             throw new InvalidAircraftDataException("Дальность не может быть отрицательной");
         }
+    }
 
-        if (repository.findById(aircraft.getId()) != null) {
-            logger.error("Дубликат ID: {}", aircraft.getId());
-            throw new DuplicateIdException("Самолёт с ID " + aircraft.getId() + " уже существует");
+    // ---------------- UPDATE ----------------
+
+    /**
+     * Заменяет данные существующего самолёта новой версией объекта с тем же ID.
+     *
+     * @param aircraft новая версия самолёта
+     * @throws InvalidAircraftDataException если обнаружены некорректные данные
+     * @throws AircraftNotFoundException    если самолёт с таким ID отсутствует
+     */
+    public void updateAircraft(Aircraft aircraft) {
+
+        logger.info("Попытка обновить самолёт ID={}", aircraft.getId());
+
+        validate(aircraft);
+
+        if (!repository.update(aircraft)) {
+            logger.warn("Обновление невозможно — ID={} не найден", aircraft.getId());
+            throw new AircraftNotFoundException("Нельзя обновить — самолёт не найден");
         }
 
-        repository.add(aircraft);
-        logger.info("Самолёт ID={} успешно добавлен ({} {})",
-                aircraft.getId(),
-                aircraft.getAircraftType(),
-                aircraft.getModel()
-        );
+        logger.info("Самолёт ID={} обновлён", aircraft.getId());
+    }
+
+    // ---------------- TRANSACTIONS ----------------
+
+    /**
+     * Начинает транзакцию над парком.
+     * <p>
+     * Операции транзакции накапливаются в отдельном буфере и проверяются
+     * относительно «промежуточного» представления парка. При {@link AircraftTransaction#commit()}
+     * все изменения применяются одной версией, одной записью в хранилище и одним событием.
+     *
+     * @return новая транзакция
+     */
+    public AircraftTransaction beginTransaction() {
+        logger.info("Начата транзакция");
+        return new AircraftTransaction(this, repository);
     }
 
     // ---------------- FIND ----------------
@@ -120,6 +334,156 @@ public class AircraftService {
         return a;
     }
 
+    /**
+     * Ищет самолёт по его ID без исключения при отсутствии.
+     * Предназначен для частых проверок, где отсутствие — обычный исход.
+     *
+     * @param id идентификатор самолёта
+     * @return найденный самолёт или пустой {@link Optional}
+     */
+    public Optional<Aircraft> findOptional(String id) {
+        return Optional.ofNullable(repository.findById(id));
+    }
+
+    /**
+     * Проверяет наличие самолёта с указанным ID.
+     *
+     * @param id идентификатор самолёта
+     * @return {@code true}, если самолёт существует
+     */
+    public boolean contains(String id) {
+        return repository.findById(id) != null;
+    }
+
+    /**
+     * Ищет несколько самолётов по ID в одной версии парка.
+     * Запрос разрешается одним проходом по индексу ID, отсутствующие ID
+     * возвращаются в результате, а не исключением.
+     *
+     * @param ids идентификаторы самолётов
+     * @return найденные самолёты в порядке запроса и отсутствующие ID
+     */
+    public LookupResult findAll(Collection<String> ids) {
+        LookupResult result = repository.findAll(ids);
+        logger.info("Пакетный поиск: запрошено {}, найдено {}, отсутствует {}",
+                ids.size(), result.found().size(), result.missing().size());
+        return result;
+    }
+
+    // ---------------- SEARCH ----------------
+
+    /**
+     * Ищет самолёты, у которых ID, модель, производитель или статус
+     * содержат указанную строку без учёта регистра.
+     * Поиск выполняется по индексу триграмм без прохода по всему парку.
+     *
+     * @param text искомая подстрока
+     * @return найденные самолёты; для пустой строки — все самолёты
+     */
+    public List<Aircraft> search(String text) {
+
+        if (text == null || text.isBlank()) {
+            return getAllAircraft();
+        }
+
+        List<Aircraft> result = textIndex.search(text.trim());
+        logger.info("Поиск по строке \"{}\": найдено {} самолётов", text.trim(), result.size());
+        return result;
+    }
+
+    /**
+     * Нечёткий поиск: находит самолёты, у которых модель или производитель
+     * отличаются от запроса не более чем на {@code maxDistance} вставок, удалений
+     * или замен символов (без учёта регистра). Находит, например, «airbus 777»
+     * по запросу «airbus777».
+     *
+     * @param query       запрос
+     * @param maxDistance допустимое расстояние Левенштейна
+     * @return найденные самолёты, от наиболее близких к наименее близким
+     * @throws IllegalArgumentException если {@code maxDistance} отрицательно
+     */
+    public List<Aircraft> fuzzySearch(String query, int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Допустимое расстояние не может быть отрицательным");
+        }
+        if (query == null || query.isBlank()) return List.of();
+
+        List<Aircraft> result = fuzzyIndex.search(query.trim(), maxDistance);
+        logger.info("Нечёткий поиск \"{}\" (k={}): найдено {} самолётов", query.trim(), maxDistance, result.size());
+        return result;
+    }
+
+    /**
+     * Ищет по строке в заданном снимке парка (см. {@link #search(String)}).
+     * Индекс триграмм используется, только если он построен ровно по этому снимку;
+     * иначе снимок проверяется полным проходом. Поэтому результат согласован
+     * со снимком, даже если репозиторий уже изменился.
+     *
+     * @param snapshot снимок парка
+     * @param text     искомая подстрока
+     * @return найденные самолёты снимка; для пустой строки — все самолёты снимка
+     */
+    public List<Aircraft> search(FleetSnapshot snapshot, String text) {
+        if (text == null || text.isBlank()) return snapshot.aircraft();
+
+        synchronized (indexes) {
+            if (indexedVersion == snapshot.version()) return textIndex.search(text.trim());
+        }
+        return TrigramIndex.scan(snapshot.aircraft(), text.trim());
+    }
+
+    /**
+     * Нечёткий поиск в заданном снимке парка (см. {@link #fuzzySearch(String, int)}).
+     * Индекс используется, только если он построен ровно по этому снимку;
+     * иначе снимок проверяется полным проходом.
+     *
+     * @param snapshot    снимок парка
+     * @param query       запрос
+     * @param maxDistance допустимое расстояние Левенштейна
+     * @return найденные самолёты снимка, от наиболее близких к наименее близким
+     * @throws IllegalArgumentException если {@code maxDistance} отрицательно
+     */
+    public List<Aircraft> fuzzySearch(FleetSnapshot snapshot, String query, int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Допустимое расстояние не может быть отрицательным");
+        }
+        if (query == null || query.isBlank()) return List.of();
+
+        synchronized (indexes) {
+            if (indexedVersion == snapshot.version()) return fuzzyIndex.search(query.trim(), maxDistance);
+        }
+        return FuzzyIndex.scan(snapshot.aircraft(), query.trim(), maxDistance);
+    }
+
+    // ---------------- AUTOCOMPLETE ----------------
+
+    /**
+     * Возвращает варианты дополнения значения поля: сначала наиболее
+     * распространённые в парке, затем по алфавиту. Подсказки выдаются
+     * после ввода хотя бы одного символа.
+     *
+     * @param field  поле самолёта
+     * @param prefix введённое начало значения (без учёта регистра)
+     * @param limit  максимальное количество вариантов
+     * @return варианты дополнения
+     */
+    public List<String> complete(CompletionField field, String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) return List.of();
+        return completionIndex.complete(field, prefix.trim(), limit);
+    }
+
+    /**
+     * Проверяет, занят ли ID, по тем же правилам сравнения, что и репозиторий.
+     * Предназначен для проверки во время ввода, до заполнения остальных полей.
+     *
+     * @param id идентификатор самолёта
+     * @return {@code true}, если самолёт с таким ID уже существует
+     */
+    public boolean isIdTaken(String id) {
+        if (id == null || id.isBlank()) return false;
+        return contains(id);
+    }
+
     // ---------------- REMOVE ----------------
 
     /**
@@ -154,8 +518,100 @@ public class AircraftService {
         return result;
     }
 
+    // ---------------- EVENTS ----------------
+
+    /**
+     * Возвращает поток событий изменения парка для асинхронных подписчиков.
+     * Доставка выполняется с учётом обратного давления {@link Flow.Subscription#request(long)}.
+     *
+     * @return издатель событий {@link AircraftEvent}
+     */
+    public Flow.Publisher<AircraftEvent> events() {
+        return repository.events().publisher();
+    }
+
+    /**
+     * Регистрирует синхронного слушателя изменений парка.
+     * Слушатель вызывается в потоке, выполнившем изменение.
+     *
+     * @param listener обработчик событий
+     */
+    public void addChangeListener(Consumer<AircraftEvent> listener) {
+        repository.events().addListener(listener);
+    }
+
+    /**
+     * Удаляет синхронного слушателя изменений парка.
+     *
+     * @param listener обработчик событий
+     */
+    public void removeChangeListener(Consumer<AircraftEvent> listener) {
+        repository.events().removeListener(listener);
+    }
+
+    /**
+     * Возвращает текущую версию данных парка.
+     *
+     * @return номер версии репозитория
+     */
+    public long getVersion() {
+        return repository.version();
+    }
+
     // ---------------- ANALYTICS ----------------
 
+    /**
+     * Рассчитывает сводную статистику текущей версии парка за один проход.
+     * Большие парки обрабатываются параллельно ({@link AnalyticsEngine}).
+     * Результат кэшируется до следующего изменения парка и закрыт для изменения.
+     *
+     * @return сводка по парку
+     */
+    public FleetSummary summary() {
+        return summary(repository.snapshot());
+    }
+
+    /**
+     * Рассчитывает сводную статистику указанного снимка парка или берёт её из кэша.
+     *
+     * @param snapshot снимок парка
+     * @return сводка по снимку
+     */
+    public FleetSummary summary(FleetSnapshot snapshot) {
+        // сводка содержит сами самолёты, поэтому зависит от всех характеристик
+        return analyticsCache.get(AnalyticsCache.key("summary"), FleetAttribute.ALL, snapshot, s -> {
+            FleetSummary summary = analytics.summarize(s.aircraft()).freeze();
+            logger.info("Рассчитана сводка парка версии {}: {} самолётов", s.version(), summary.count());
+            return summary;
+        });
+    }
+
+    /**
+     * Группирует самолёты текущей версии парка по измерению и рассчитывает
+     * показатели каждой группы, например
+     * {@code groupBy(Dimension.DECADE, Measure.count(), Measure.sum(NumericField.FLIGHT_HOURS))}.
+     *
+     * @param dimension измерение группировки
+     * @param measures  показатели
+     * @return таблица групп по возрастанию ключа
+     * @throws IllegalArgumentException если не задан ни один показатель
+     */
+    public GroupTable groupBy(Dimension dimension, Measure... measures) {
+        if (measures.length == 0) throw new IllegalArgumentException("Не задан ни один показатель");
+
+        List<Measure> list = List.of(measures);
+        Set<FleetAttribute> dependsOn = EnumSet.of(FleetAttribute.of(dimension));
+        for (Measure m : list) {
+            if (m.field() != null) dependsOn.add(FleetAttribute.of(m.field()));
+        }
+
+        return analyticsCache.get(AnalyticsCache.key("groupBy", dimension, list), dependsOn, repository.snapshot(), s -> {
+            GroupTable table = analytics.groupBy(s.aircraft(), dimension, list);
+            logger.info("Группировка по {}: {} групп", dimension, table.rows().size());
+            return table;
+        });
+    }
+
     /**
      * Вычисляет среднюю пассажировместимость всех самолётов.
      *
@@ -163,10 +619,180 @@ public class AircraftService {
      */
     public double averageCapacity() {
         logger.info("Расчёт средней вместимости");
-        return repository.getAll().stream()
-                .mapToInt(Aircraft::getCapacity)
-                .average()
-                .orElse(0);
+        return fieldStats(NumericField.CAPACITY).getAverage();
+    }
+
+    /**
+     * Рассчитывает количество, минимум, максимум, сумму и среднее числового поля
+     * по столбцу значений текущей версии парка.
+     *
+     * @param field числовое поле
+     * @return статистика поля
+     */
+    public DoubleSummaryStatistics fieldStats(NumericField field) {
+        DoubleSummaryStatistics stats = analyticsCache.get(AnalyticsCache.key("fieldStats", field),
+                EnumSet.of(FleetAttribute.of(field)), repository.snapshot(), s -> {
+                    double[] values = columnIndex.column(s, field);
+                    if (values.length == 0) return new DoubleSummaryStatistics();
+                    return new DoubleSummaryStatistics(values.length,
+                            ColumnKernels.min(values), ColumnKernels.max(values), ColumnKernels.sum(values));
+                });
+        // копия: кэшированный объект изменяем
+        return stats.getCount() == 0 ? new DoubleSummaryStatistics()
+                : new DoubleSummaryStatistics(stats.getCount(), stats.getMin(), stats.getMax(), stats.getSum());
+    }
+
+    /**
+     * Подсчитывает самолёты, у которых значение поля строго больше порога
+     * (например, дальность больше X).
+     *
+     * @param field     числовое поле
+     * @param threshold порог
+     * @return количество самолётов
+     */
+    public int countAbove(NumericField field, double threshold) {
+        return analyticsCache.get(AnalyticsCache.key("countAbove", field, threshold),
+                EnumSet.of(FleetAttribute.of(field)), repository.snapshot(),
+                s -> ColumnKernels.countGreater(columnIndex.column(s, field), threshold));
+    }
+
+    /**
+     * Возвращает самолёты, у которых значение поля строго больше порога.
+     *
+     * @param field     числовое поле
+     * @param threshold порог
+     * @return самолёты в порядке парка
+     */
+    public List<Aircraft> findAbove(NumericField field, double threshold) {
+        FleetSnapshot snapshot = repository.snapshot();
+        int[] rows = ColumnKernels.selectGreater(columnIndex.column(snapshot, field), threshold);
+
+        List<Aircraft> result = new ArrayList<>(rows.length);
+        int row = 0, next = 0;
+        for (Aircraft a : snapshot.aircraft()) {
+            if (next == rows.length) break;
+            if (row++ == rows[next]) {
+                result.add(a);
+                next++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Строит гистограмму значений поля с интервалами одинаковой ширины.
+     * Значения вне диапазона учитываются в крайних интервалах.
+     *
+     * @param field  числовое поле
+     * @param origin левая граница первого интервала
+     * @param width  ширина интервала
+     * @param bins   количество интервалов
+     * @return количество самолётов в каждом интервале
+     * @throws IllegalArgumentException если ширина не положительна или интервалов нет
+     */
+    public int[] histogram(NumericField field, double origin, double width, int bins) {
+        if (!(width > 0)) throw new IllegalArgumentException("Ширина интервала должна быть положительной");
+        if (bins < 1) throw new IllegalArgumentException("Количество интервалов должно быть положительным");
+
+        int[] counts = analyticsCache.get(AnalyticsCache.key("histogram", field, origin, width, bins),
+                EnumSet.of(FleetAttribute.of(field)), repository.snapshot(), s -> {
+                    int[] result = new int[bins];
+                    ColumnKernels.histogram(columnIndex.column(s, field), origin, width, result);
+                    return result;
+                });
+        return counts.clone();
+    }
+
+    /**
+     * Возвращает распределение поля, поддерживаемое изменениями парка.
+     * Распределения ведутся для вместимости, дальности и налёта часов.
+     *
+     * @param field числовое поле
+     * @param type  тип самолёта или {@code null} для всего парка
+     * @return копия скетча квантилей
+     * @throws IllegalArgumentException если распределение поля не ведётся
+     */
+    public QuantileSketch distribution(NumericField field, String type) {
+        return distributionIndex.sketch(field, type);
+    }
+
+    /**
+     * Оценивает перцентиль поля с относительной погрешностью не больше
+     * {@link QuantileSketch#DEFAULT_RELATIVE_ACCURACY}, не просматривая парк.
+     *
+     * @param field числовое поле
+     * @param type  тип самолёта или {@code null} для всего парка
+     * @param q     уровень от 0 до 1 (0.5 — медиана, 0.9 — 90-й перцентиль)
+     * @return оценка или {@link Double#NaN}, если самолётов нет
+     * @throws IllegalArgumentException если распределение поля не ведётся или уровень вне [0, 1]
+     */
+    public double percentile(NumericField field, String type, double q) {
+        return distributionIndex.sketch(field, type).quantile(q);
+    }
+
+    /**
+     * @return типы самолётов, присутствующие в парке, по алфавиту
+     */
+    public List<String> aircraftTypes() {
+        return distributionIndex.types();
+    }
+
+    /**
+     * Оценивает количество различных значений строкового поля по всему парку
+     * с погрешностью около 1%, не храня сами значения.
+     *
+     * @param field строковое поле
+     * @return оценка количества различных значений
+     */
+    public long distinctCount(StringField field) {
+        return distinctSketch(field).estimate();
+    }
+
+    /**
+     * Возвращает скетч различных значений поля. Скетчи нескольких парков
+     * (например, импортов, построенных через {@link AnalyticsEngine#distinct})
+     * объединяются методом {@link HyperLogLog#merge(HyperLogLog)}.
+     *
+     * @param field строковое поле
+     * @return копия скетча с точностью {@link HyperLogLog#DEFAULT_PRECISION}
+     */
+    public HyperLogLog distinctSketch(StringField field) {
+        ensureFresh(distinctIndex);
+        return distinctIndex.sketch(field);
+    }
+
+    /**
+     * Возвращает описательную статистику показателей: среднее, дисперсию,
+     * ковариации и корреляции. Статистика поддерживается изменениями парка
+     * и не требует его просмотра.
+     *
+     * @param type тип самолёта или {@code null} для всего парка
+     * @return копия статистики
+     */
+    public Moments statistics(String type) {
+        return statisticsIndex.moments(type);
+    }
+
+    /**
+     * Рассчитывает коэффициент корреляции Пирсона двух показателей.
+     *
+     * @param a    первый показатель
+     * @param b    второй показатель
+     * @param type тип самолёта или {@code null} для всего парка
+     * @return корреляция от -1 до 1 или {@link Double#NaN}, если она не определена
+     */
+    public double correlation(Metric a, Metric b, String type) {
+        return statistics(type).correlation(a, b);
+    }
+
+    /**
+     * Возвращает показатели кэша аналитических результатов: попадания, промахи,
+     * сбросы из-за изменений парка и вытеснения.
+     *
+     * @return показатели кэша
+     */
+    public CacheStats cacheStats() {
+        return analyticsCache.stats();
     }
 
     /**
@@ -176,9 +802,7 @@ public class AircraftService {
      */
     public Aircraft maxRangeAircraft() {
         logger.info("Поиск самолёта с максимальной дальностью");
-        Aircraft result = repository.getAll().stream()
-                .max((a, b) -> Double.compare(a.getRange(), b.getRange()))
-                .orElse(null);
+        Aircraft result = extreme(NumericField.RANGE, true);
 
         if (result != null)
             logger.info("Максимальная дальность: {} у {}", result.getRange(), result.getId());
@@ -193,13 +817,32 @@ public class AircraftService {
      */
     public Aircraft oldestAircraft() {
         logger.info("Поиск самого старого самолёта");
-        Aircraft result = repository.getAll().stream()
-                .min((a, b) -> Integer.compare(a.getYear(), b.getYear()))
-                .orElse(null);
+        Aircraft result = extreme(NumericField.YEAR, false);
 
         if (result != null)
             logger.info("Самый старый самолёт: {} года, ID={}", result.getYear(), result.getId());
 
         return result;
     }
+
+    /**
+     * Находит первый в порядке парка самолёт с наибольшим или наименьшим значением поля
+     * проходом по столбцу поля. Кэшируется только ID найденного самолёта с зависимостью
+     * от одного поля: изменение других характеристик не требует нового прохода,
+     * а сам самолёт берётся из текущего снимка.
+     *
+     * @param field числовое поле
+     * @param max   {@code true} — наибольшее значение, иначе наименьшее
+     * @return самолёт или {@code null}, если парк пуст
+     */
+    private Aircraft extreme(NumericField field, boolean max) {
+        FleetSnapshot snapshot = repository.snapshot();
+        String id = analyticsCache.get(AnalyticsCache.key(max ? "argMax" : "argMin", field),
+                EnumSet.of(FleetAttribute.of(field)), snapshot, s -> {
+                    double[] values = columnIndex.column(s, field);
+                    int row = max ? ColumnKernels.argMax(values) : ColumnKernels.argMin(values);
+                    return row < 0 ? null : s.aircraft().get(row).getId();
+                });
+        return id == null ? null : snapshot.findById(id);
+    }
 }
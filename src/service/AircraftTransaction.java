@@ -0,0 +1,226 @@
+package service;
+
+import exceptions.AircraftNotFoundException;
+import exceptions.DuplicateIdException;
+import exceptions.TransactionException;
+import model.Aircraft;
+import repository.AircraftRepository;
+import repository.ChangeSet;
+import repository.FleetSnapshot;
+import repository.PinnedSnapshot;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Транзакция над парком самолётов.
+ * <p>
+ * Добавления, удаления и обновления накапливаются в закрытом буфере поверх
+ * закреплённого снимка репозитория и не видны другим пользователям до фиксации.
+ * Проверки (корректность данных, дубликаты ID, наличие самолёта) выполняются
+ * относительно промежуточного представления: снимок плюс уже накопленные изменения.
+ *
+ * <p>{@link #commit()} применяет все изменения одной версией, одной записью
+ * в хранилище и одним событием {@link repository.AircraftEvent.Batch}.
+ * Если фиксация не удалась (ошибка записи или параллельное изменение тех же самолётов),
+ * репозиторий остаётся в прежнем состоянии.</p>
+ *
+ * <p>Пример использования:
+ * <pre>{@code
+ * try (AircraftTransaction tx = service.beginTransaction()) {
+ *     tx.remove("A1");
+ *     tx.add(replacement);
+ *     tx.commit();
+ * }
+ * }</pre>
+ * Незафиксированная транзакция откатывается при закрытии.</p>
+ */
+public final class AircraftTransaction implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(AircraftTransaction.class);
+
+    /** Состояние транзакции. */
+    private enum State { ACTIVE, COMMITTED, ROLLED_BACK }
+
+    private final AircraftService service;
+    private final AircraftRepository repository;
+
+    /** Снимок, на основе которого строится транзакция. */
+    private final PinnedSnapshot base;
+
+    /**
+     * Накопленные изменения: ID → новая версия самолёта или {@code null} для удаления.
+     * Повторные операции над одним ID заменяют предыдущие.
+     */
+    private final Map<String, Aircraft> staged = new LinkedHashMap<>();
+
+    /**
+     * Самолёты, отсутствовавшие в исходном снимке и добавленные в транзакции.
+     * Нужны, чтобы удаление такого самолёта внутри транзакции не порождало операций.
+     */
+    private final Map<String, Aircraft> created = new LinkedHashMap<>();
+
+    private State state = State.ACTIVE;
+
+    AircraftTransaction(AircraftService service, AircraftRepository repository) {
+        this.service = service;
+        this.repository = repository;
+        this.base = repository.pin();
+    }
+
+    /**
+     * Добавляет самолёт в транзакцию.
+     *
+     * @param aircraft новый самолёт
+     * @throws exceptions.InvalidAircraftDataException если данные некорректны
+     * @throws DuplicateIdException                    если ID уже занят в промежуточном представлении
+     */
+    public void add(Aircraft aircraft) {
+        checkActive();
+        service.validate(aircraft);
+
+        if (find(aircraft.getId()) != null) {
+            throw new DuplicateIdException("Самолёт с ID " + aircraft.getId() + " уже существует");
+        }
+
+        String key = key(aircraft.getId());
+        if (base.snapshot().findById(aircraft.getId()) == null) {
+            created.put(key, aircraft);
+        }
+        staged.put(key, aircraft);
+    }
+
+    /**
+     * Заменяет самолёт в транзакции новой версией с тем же ID.
+     *
+     * @param aircraft новая версия самолёта
+     * @throws exceptions.InvalidAircraftDataException если данные некорректны
+     * @throws AircraftNotFoundException               если самолёт отсутствует в промежуточном представлении
+     */
+    public void update(Aircraft aircraft) {
+        checkActive();
+        service.validate(aircraft);
+
+        if (find(aircraft.getId()) == null) {
+            throw new AircraftNotFoundException("Нельзя обновить — самолёт не найден");
+        }
+
+        String key = key(aircraft.getId());
+        if (created.containsKey(key)) {
+            created.put(key, aircraft);
+        }
+        staged.put(key, aircraft);
+    }
+
+    /**
+     * Удаляет самолёт в транзакции.
+     *
+     * @param id идентификатор
+     * @throws AircraftNotFoundException если самолёт отсутствует в промежуточном представлении
+     */
+    public void remove(String id) {
+        checkActive();
+
+        if (find(id) == null) {
+            throw new AircraftNotFoundException("Нельзя удалить — самолёт не найден");
+        }
+
+        String key = key(id);
+        if (created.remove(key) != null) {
+            staged.remove(key);
+        } else {
+            staged.put(key, null);
+        }
+    }
+
+    /**
+     * Ищет самолёт в промежуточном представлении транзакции.
+     *
+     * @param id идентификатор
+     * @return самолёт или {@code null}, если его нет (или он удалён в транзакции)
+     */
+    public Aircraft find(String id) {
+        String key = key(id);
+        if (staged.containsKey(key)) return staged.get(key);
+        return base.snapshot().findById(id);
+    }
+
+    /**
+     * @return количество накопленных изменений
+     */
+    public int size() {
+        return staged.size();
+    }
+
+    /**
+     * Фиксирует транзакцию: применяет все изменения одной версией.
+     *
+     * @throws TransactionException          если транзакция уже завершена
+     *                                       или затронутые самолёты изменены параллельно
+     * @throws exceptions.StorageException   если изменения не удалось сохранить
+     */
+    public void commit() {
+        checkActive();
+
+        List<Aircraft> upserts = new ArrayList<>();
+        List<String> removals = new ArrayList<>();
+
+        FleetSnapshot snapshot = base.snapshot();
+        for (Map.Entry<String, Aircraft> e : staged.entrySet()) {
+            if (e.getValue() != null) {
+                upserts.add(e.getValue());
+            } else {
+                removals.add(snapshot.findById(e.getKey()).getId());
+            }
+        }
+
+        try {
+            repository.commit(new ChangeSet(upserts, removals), snapshot);
+            state = State.COMMITTED;
+            logger.info("Транзакция зафиксирована: {} изменений", staged.size());
+        } catch (RuntimeException e) {
+            logger.error("Ошибка фиксации транзакции, изменения отменены", e);
+            rollback();
+            throw e;
+        } finally {
+            base.close();
+        }
+    }
+
+    /**
+     * Отменяет транзакцию, отбрасывая накопленные изменения.
+     * Для уже завершённой транзакции ничего не делает.
+     */
+    public void rollback() {
+        if (state != State.ACTIVE) return;
+
+        state = State.ROLLED_BACK;
+        staged.clear();
+        created.clear();
+        base.close();
+        logger.info("Транзакция отменена");
+    }
+
+    /**
+     * Закрывает транзакцию; незафиксированные изменения отменяются.
+     */
+    @Override
+    public void close() {
+        rollback();
+    }
+
+    private void checkActive() {
+        if (state != State.ACTIVE) {
+            throw new TransactionException("Транзакция уже завершена");
+        }
+    }
+
+    private String key(String id) {
+        return base.snapshot().key(id);
+    }
+}
@@ -0,0 +1,195 @@
+package service;
+
+import repository.AircraftEvent;
+import repository.FleetSnapshot;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Кэш результатов аналитических запросов.
+ * <p>
+ * Результат хранится вместе с версией снимка, по которой он рассчитан, и набором
+ * характеристик самолёта ({@link FleetAttribute}), от которых он зависит.
+ * Для каждой характеристики кэш по событиям репозитория помнит версию последнего
+ * изменения. Результат действителен для более новой версии парка, если с момента
+ * расчёта не менялась ни одна из его характеристик: так смена статуса
+ * не сбрасывает статистику дальности. Добавление и удаление самолёта меняет
+ * все характеристики.
+ * <p>
+ * Объём кэша ограничен условным весом результатов (количество элементов
+ * в коллекциях, строк в таблицах); при превышении вытесняются результаты,
+ * к которым дольше всего не обращались.
+ * <p>
+ * Методы синхронизированы; расчёт результата выполняется вне блокировки.
+ */
+final class AnalyticsCache {
+
+    /** Ограничение веса по умолчанию. */
+    static final long DEFAULT_MAX_WEIGHT = 100_000;
+
+    private record Entry(Object value, long version, Set<FleetAttribute> dependsOn, long weight) {
+    }
+
+    private final long maxWeight;
+    private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Версия последнего изменения каждой характеристики. */
+    private final long[] changedAt = new long[FleetAttribute.values().length];
+
+    /** Версия парка, изменения до которой учтены. */
+    private long version;
+    private long weight;
+
+    private long hits;
+    private long misses;
+    private long invalidations;
+    private long evictions;
+
+    /**
+     * @param maxWeight наибольший суммарный вес результатов
+     */
+    AnalyticsCache(long maxWeight) {
+        if (maxWeight < 1) throw new IllegalArgumentException("Объём кэша должен быть положительным");
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Считает все характеристики изменёнными в указанной версии. Вызывается после
+     * подписки на события, чтобы изменения, прошедшие до подписки, не остались неучтёнными.
+     *
+     * @param version текущая версия парка
+     */
+    synchronized void reset(long version) {
+        if (version <= this.version) return;
+        this.version = version;
+        Arrays.fill(changedAt, version);
+    }
+
+    /**
+     * Учитывает изменение парка. Уже учтённые версии пропускаются.
+     *
+     * @param event событие
+     */
+    synchronized void apply(AircraftEvent event) {
+        if (event.version() <= version) return;
+        version = event.version();
+        mark(event, event.version());
+    }
+
+    private void mark(AircraftEvent event, long at) {
+        if (event instanceof AircraftEvent.Batch e) {
+            for (AircraftEvent change : e.changes()) mark(change, at);
+        } else if (event instanceof AircraftEvent.Updated e) {
+            for (FleetAttribute attribute : FleetAttribute.changed(e.previous(), e.current())) {
+                changedAt[attribute.ordinal()] = at;
+            }
+        } else {
+            Arrays.fill(changedAt, at);
+        }
+    }
+
+    /**
+     * Возвращает результат запроса для снимка: из кэша, если он действителен,
+     * иначе рассчитывает и сохраняет его.
+     *
+     * @param key       ключ запроса (запись или список с параметрами)
+     * @param dependsOn характеристики, от которых зависит результат
+     * @param snapshot  снимок парка
+     * @param compute   расчёт результата по снимку
+     * @param <V>       тип результата
+     * @return результат
+     */
+    <V> V get(Object key, Set<FleetAttribute> dependsOn, FleetSnapshot snapshot, Function<FleetSnapshot, V> compute) {
+        long at = snapshot.version();
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (isValid(entry, at)) {
+                    hits++;
+                    @SuppressWarnings("unchecked")
+                    V value = (V) entry.value();
+                    return value;
+                }
+                if (at <= version && entry.version() <= at) {
+                    // данные результата изменились
+                    invalidations++;
+                    remove(key);
+                }
+            }
+            misses++;
+        }
+
+        V value = compute.apply(snapshot);
+
+        synchronized (this) {
+            Entry current = entries.get(key);
+            if (current == null || current.version() < at) {
+                if (current != null) remove(key);
+                Entry entry = new Entry(value, at, dependsOn, weigh(value));
+                entries.put(key, entry);
+                weight += entry.weight();
+                evict();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Результат действителен для версии {@code at}, если он рассчитан не позже неё,
+     * изменения до {@code at} уже учтены, и ни одна его характеристика
+     * не менялась после расчёта.
+     */
+    private boolean isValid(Entry entry, long at) {
+        if (entry.version() == at) return true;
+        if (entry.version() > at || at > version) return false;
+        for (FleetAttribute attribute : entry.dependsOn()) {
+            if (changedAt[attribute.ordinal()] > entry.version()) return false;
+        }
+        return true;
+    }
+
+    private void remove(Object key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) weight -= entry.weight();
+    }
+
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (weight > maxWeight && entries.size() > 1 && it.hasNext()) {
+            weight -= it.next().weight();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private static long weigh(Object value) {
+        if (value instanceof Collection<?> c) return 1 + c.size();
+        if (value instanceof Map<?, ?> m) return 1 + m.size();
+        if (value instanceof GroupTable t) return 1 + t.rows().size();
+        if (value instanceof FleetSummary s) return 1 + s.countByYear().size() + s.types().size() + 2L * FleetSummary.TOP;
+        if (value instanceof int[] a) return 1 + a.length / 4;
+        return 1;
+    }
+
+    /**
+     * @return текущие показатели кэша
+     */
+    synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, invalidations, evictions, entries.size(), weight);
+    }
+
+    /**
+     * Ключ запроса, параметры которого сравниваются по значению.
+     *
+     * @param query  название запроса
+     * @param params параметры
+     * @return ключ
+     */
+    static List<Object> key(String query, Object... params) {
+        List<Object> key = new ArrayList<>(params.length + 1);
+        key.add(query);
+        key.addAll(Arrays.asList(params));
+        return key;
+    }
+}
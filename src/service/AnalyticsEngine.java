@@ -0,0 +1,264 @@
+package service;
+
+import model.Aircraft;
+
+import java.io.Serial;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Движок аналитических вычислений по парку на основе fork/join.
+ * <p>
+ * Источник делится пополам ({@link Spliterator#trySplit()}) до частей размером
+ * не больше {@code leafSize}; каждая часть сворачивается в собственный аккумулятор,
+ * после чего аккумуляторы соседних частей объединяются слева направо.
+ * <p>
+ * Парки меньше порога {@code parallelThreshold} обрабатываются в вызывающем потоке
+ * по тому же дереву деления. Поэтому результат не зависит от того, выполнялся ли
+ * расчёт параллельно: совпадают и суммы с плавающей точкой, и выбор среди равных
+ * значений (предпочтение всегда отдаётся более раннему самолёту).
+ */
+public final class AnalyticsEngine {
+
+    /** Размер парка, начиная с которого вычисления выполняются параллельно. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 20_000;
+
+    /** Размер части, сворачиваемой одним потоком. */
+    public static final int DEFAULT_LEAF_SIZE = 4_096;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    private final int leafSize;
+
+    /**
+     * Создаёт движок на общем пуле fork/join с порогами по умолчанию.
+     */
+    public AnalyticsEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD, DEFAULT_LEAF_SIZE);
+    }
+
+    /**
+     * Создаёт движок с заданными параметрами.
+     *
+     * @param pool              пул потоков для параллельных вычислений
+     * @param parallelThreshold размер парка, начиная с которого вычисления параллельны
+     * @param leafSize          размер части, сворачиваемой одним потоком
+     * @throws IllegalArgumentException если порог отрицателен или размер части меньше 1
+     */
+    public AnalyticsEngine(ForkJoinPool pool, int parallelThreshold, int leafSize) {
+        if (parallelThreshold < 0) {
+            throw new IllegalArgumentException("Порог параллельности не может быть отрицательным");
+        }
+        if (leafSize < 1) {
+            throw new IllegalArgumentException("Размер части должен быть положительным");
+        }
+        this.pool = Objects.requireNonNull(pool, "pool");
+        this.parallelThreshold = parallelThreshold;
+        this.leafSize = leafSize;
+    }
+
+    /**
+     * @param size размер парка
+     * @return {@code true}, если парк такого размера обрабатывается параллельно
+     */
+    public boolean isParallel(long size) {
+        return size >= parallelThreshold && size > leafSize;
+    }
+
+    /**
+     * Сворачивает парк в изменяемый аккумулятор.
+     *
+     * @param fleet       самолёты в порядке обхода
+     * @param supplier    создание пустого аккумулятора
+     * @param accumulator учёт самолёта в аккумуляторе
+     * @param combiner    объединение аккумулятора с аккумулятором следующей части
+     * @param <A>         тип аккумулятора
+     * @return результат свёртки
+     */
+    public <A> A reduce(Collection<Aircraft> fleet,
+                        Supplier<A> supplier,
+                        BiConsumer<A, ? super Aircraft> accumulator,
+                        BinaryOperator<A> combiner) {
+        boolean parallel = isParallel(fleet.size());
+        ReduceTask<A> task = new ReduceTask<>(fleet.spliterator(), supplier, accumulator, combiner,
+                leafSize, parallel);
+        return parallel ? pool.invoke(task) : task.compute();
+    }
+
+    /**
+     * Строит сводку парка ({@link FleetSummary}).
+     *
+     * @param fleet самолёты
+     * @return сводка
+     */
+    public FleetSummary summarize(Collection<Aircraft> fleet) {
+        return reduce(fleet, FleetSummary::new, FleetSummary::accept, FleetSummary::combine);
+    }
+
+    /**
+     * Рассчитывает количество, минимум, максимум, сумму и среднее поля.
+     *
+     * @param fleet самолёты
+     * @param field числовое поле
+     * @return статистика поля
+     */
+    public DoubleSummaryStatistics stats(Collection<Aircraft> fleet, NumericField field) {
+        return reduce(fleet, DoubleSummaryStatistics::new,
+                (s, a) -> s.accept(field.value(a)),
+                (left, right) -> {
+                    left.combine(right);
+                    return left;
+                });
+    }
+
+    /**
+     * Рассчитывает дисперсии и корреляции показателей ({@link Moments}).
+     *
+     * @param fleet самолёты
+     * @return статистика показателей
+     */
+    public Moments moments(Collection<Aircraft> fleet) {
+        return reduce(fleet, Moments::new, Moments::accept, Moments::combine);
+    }
+
+    /**
+     * Подсчитывает самолёты по группам.
+     *
+     * @param fleet самолёты
+     * @param group ключ группы
+     * @param <K>   тип ключа
+     * @return количество по группам в порядке первого появления группы
+     */
+    public <K> Map<K, Long> countBy(Collection<Aircraft> fleet, Function<? super Aircraft, K> group) {
+        return reduce(fleet, LinkedHashMap<K, Long>::new,
+                (m, a) -> m.merge(group.apply(a), 1L, Long::sum),
+                (left, right) -> {
+                    right.forEach((k, v) -> left.merge(k, v, Long::sum));
+                    return left;
+                });
+    }
+
+    /**
+     * Суммирует поле по группам.
+     *
+     * @param fleet самолёты
+     * @param group ключ группы
+     * @param field суммируемое поле
+     * @param <K>   тип ключа
+     * @return суммы по группам в порядке первого появления группы
+     */
+    public <K> Map<K, Double> sumBy(Collection<Aircraft> fleet, Function<? super Aircraft, K> group,
+                                    NumericField field) {
+        return reduce(fleet, LinkedHashMap<K, Double>::new,
+                (m, a) -> m.merge(group.apply(a), field.value(a), Double::sum),
+                (left, right) -> {
+                    right.forEach((k, v) -> left.merge(k, v, Double::sum));
+                    return left;
+                });
+    }
+
+    /**
+     * Группирует самолёты по измерению и рассчитывает показатели каждой группы.
+     *
+     * @param fleet     самолёты
+     * @param dimension измерение группировки
+     * @param measures  показатели
+     * @return таблица групп по возрастанию ключа
+     */
+    public GroupTable groupBy(Collection<Aircraft> fleet, Dimension dimension, List<Measure> measures) {
+        return reduce(fleet, () -> GroupAccumulator.forMeasures(dimension, measures),
+                GroupAccumulator::accept, GroupAccumulator::combine).toTable(measures);
+    }
+
+    /**
+     * Строит скетч различных значений строкового поля.
+     *
+     * @param fleet     самолёты
+     * @param field     строковое поле
+     * @param precision точность скетча ({@link HyperLogLog#HyperLogLog(int)})
+     * @return скетч, объединяемый со скетчами других парков той же точности
+     * @throws IllegalArgumentException если точность вне допустимого диапазона
+     */
+    public HyperLogLog distinct(Collection<Aircraft> fleet, StringField field, int precision) {
+        return reduce(fleet, () -> new HyperLogLog(precision),
+                (h, a) -> h.add(field.value(a)), HyperLogLog::merge);
+    }
+
+    /**
+     * Выбирает {@code k} самолётов с наибольшим значением поля.
+     * При равенстве значений выше самолёт, встретившийся раньше.
+     *
+     * @param fleet самолёты
+     * @param field числовое поле
+     * @param k     размер списка
+     * @return самолёты по убыванию значения
+     * @throws IllegalArgumentException если {@code k} меньше 1
+     */
+    public List<Aircraft> top(Collection<Aircraft> fleet, NumericField field, int k) {
+        if (k < 1) throw new IllegalArgumentException("Размер ТОП-списка должен быть положительным");
+        return reduce(fleet, () -> new TopK(field, k), TopK::offer,
+                (left, right) -> {
+                    left.combine(right);
+                    return left;
+                }).toList();
+    }
+
+    /**
+     * Задача свёртки части парка. Без {@code parallel} обе половины сворачиваются
+     * в текущем потоке, сохраняя то же дерево деления.
+     */
+    private static final class ReduceTask<A> extends RecursiveTask<A> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator<Aircraft> source;
+        private final Supplier<A> supplier;
+        private final BiConsumer<A, ? super Aircraft> accumulator;
+        private final BinaryOperator<A> combiner;
+        private final int leafSize;
+        private final boolean parallel;
+
+        ReduceTask(Spliterator<Aircraft> source,
+                   Supplier<A> supplier,
+                   BiConsumer<A, ? super Aircraft> accumulator,
+                   BinaryOperator<A> combiner,
+                   int leafSize,
+                   boolean parallel) {
+            this.source = source;
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+            this.leafSize = leafSize;
+            this.parallel = parallel;
+        }
+
+        @Override
+        protected A compute() {
+            Spliterator<Aircraft> prefix = source.estimateSize() > leafSize ? source.trySplit() : null;
+
+            if (prefix == null) {
+                A result = supplier.get();
+                source.forEachRemaining(a -> accumulator.accept(result, a));
+                return result;
+            }
+
+            ReduceTask<A> left = new ReduceTask<>(prefix, supplier, accumulator, combiner, leafSize, parallel);
+            ReduceTask<A> right = new ReduceTask<>(source, supplier, accumulator, combiner, leafSize, parallel);
+
+            if (!parallel) {
+                A l = left.compute();
+                return combiner.apply(l, right.compute());
+            }
+
+            left.fork();
+            A r = right.compute();
+            return combiner.apply(left.join(), r);
+        }
+    }
+}
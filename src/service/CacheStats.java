@@ -0,0 +1,23 @@
+package service;
+
+/**
+ * Показатели работы кэша аналитических результатов
+ * ({@link AircraftService#cacheStats()}).
+ *
+ * @param hits          количество запросов, обслуженных из кэша
+ * @param misses        количество запросов, потребовавших расчёта
+ * @param invalidations количество результатов, отброшенных из-за изменения их данных
+ * @param evictions     количество результатов, вытесненных по ограничению объёма
+ * @param entries       количество результатов в кэше
+ * @param weight        условный объём результатов в кэше
+ */
+public record CacheStats(long hits, long misses, long invalidations, long evictions, int entries, long weight) {
+
+    /**
+     * @return доля запросов, обслуженных из кэша, или 0, если запросов не было
+     */
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
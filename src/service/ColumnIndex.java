@@ -0,0 +1,168 @@
+package service;
+
+import model.Aircraft;
+import repository.AircraftEvent;
+import repository.FleetSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Кэш столбцов числовых полей парка.
+ * <p>
+ * Для каждого поля {@link NumericField} хранится массив значений в порядке снимка,
+ * над которым работают ядра {@link ColumnKernels}. Столбцы строятся лениво при первом
+ * запросе и затем исправляются событиями парка, а не строятся заново: замена самолёта
+ * меняет одно значение, добавление дописывает значение в конец, удаление сдвигает хвост.
+ * Полная перезагрузка и большие наборы изменений сбрасывают столбцы.
+ * <p>
+ * Выданный массив больше не изменяется: перед исправлением он копируется.
+ * Столбец для снимка другой версии (например, закреплённого читателем) строится
+ * отдельным проходом по снимку и не кэшируется.
+ * Методы синхронизированы.
+ */
+final class ColumnIndex implements FleetIndex {
+
+    /** Наибольший набор изменений, исправляемый поштучно. */
+    private static final int MAX_BATCH_CHANGES = 64;
+
+    private final Map<NumericField, double[]> columns = new EnumMap<>(NumericField.class);
+
+    /** Столбцы, выданные вызывающим после последнего исправления. */
+    private final Set<NumericField> shared = EnumSet.noneOf(NumericField.class);
+
+    /** Самолёты в порядке снимка; {@code null} — будут взяты из снимка при следующем запросе. */
+    private List<Aircraft> rows;
+
+    /** Версия парка, отражённая в индексе. */
+    private long version = -1;
+
+    /**
+     * Возвращает столбец значений поля для снимка.
+     * Массив общий для всех вызывающих и не должен изменяться.
+     *
+     * @param snapshot снимок парка
+     * @param field    числовое поле
+     * @return значения поля в порядке снимка
+     */
+    synchronized double[] column(FleetSnapshot snapshot, NumericField field) {
+        if (snapshot.version() != version) return extract(snapshot.aircraft(), field);
+
+        if (rows == null) rows = new ArrayList<>(snapshot.aircraft());
+        double[] values = columns.computeIfAbsent(field, f -> extract(rows, f));
+        shared.add(field);
+        return values;
+    }
+
+    @Override
+    public synchronized void rebuild(FleetSnapshot snapshot) {
+        version = snapshot.version();
+        rebuild(snapshot.aircraft());
+    }
+
+    @Override
+    public synchronized void rebuild(Collection<Aircraft> fleet) {
+        rows = null;
+        columns.clear();
+        shared.clear();
+    }
+
+    /**
+     * Применяет событие, если оно новее версии индекса. Пока столбцы не построены,
+     * исправлять нечего, и запоминается только версия.
+     *
+     * @param event событие
+     */
+    @Override
+    public synchronized void apply(AircraftEvent event) {
+        if (event.version() <= version) return;
+        version = event.version();
+        if (rows == null) return;
+
+        if (event instanceof AircraftEvent.Batch batch) {
+            if (batch.changes().size() > MAX_BATCH_CHANGES) {
+                rebuild(List.of());
+                return;
+            }
+            for (AircraftEvent change : batch.changes()) FleetIndex.super.apply(change);
+        } else {
+            FleetIndex.super.apply(event);
+        }
+    }
+
+    @Override
+    public synchronized void added(Aircraft aircraft) {
+        rows.add(aircraft);
+        for (Map.Entry<NumericField, double[]> e : columns.entrySet()) {
+            double[] values = e.getValue();
+            double[] next = new double[values.length + 1];
+            System.arraycopy(values, 0, next, 0, values.length);
+            next[values.length] = e.getKey().value(aircraft);
+            e.setValue(next);
+        }
+        shared.clear();
+    }
+
+    @Override
+    public synchronized void removed(Aircraft aircraft) {
+        int row = rowOf(aircraft);
+        if (row < 0) {
+            rebuild(List.of());
+            return;
+        }
+
+        rows.remove(row);
+        for (Map.Entry<NumericField, double[]> e : columns.entrySet()) {
+            double[] values = e.getValue();
+            double[] next = new double[values.length - 1];
+            System.arraycopy(values, 0, next, 0, row);
+            System.arraycopy(values, row + 1, next, row, values.length - row - 1);
+            e.setValue(next);
+        }
+        shared.clear();
+    }
+
+    @Override
+    public synchronized void updated(Aircraft previous, Aircraft current) {
+        int row = rowOf(previous);
+        if (row < 0) {
+            rebuild(List.of());
+            return;
+        }
+
+        rows.set(row, current);
+        for (Map.Entry<NumericField, double[]> e : columns.entrySet()) {
+            double value = e.getKey().value(current);
+            double[] values = e.getValue();
+            if (Double.compare(values[row], value) == 0) continue;
+
+            if (shared.remove(e.getKey())) {
+                values = values.clone();
+                e.setValue(values);
+            }
+            values[row] = value;
+        }
+    }
+
+    /**
+     * Находит строку самолёта: события несут те же объекты, что хранятся в снимке.
+     */
+    private int rowOf(Aircraft aircraft) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i) == aircraft) return i;
+        }
+        return -1;
+    }
+
+    private static double[] extract(List<Aircraft> fleet, NumericField field) {
+        double[] values = new double[fleet.size()];
+        int i = 0;
+        for (Aircraft a : fleet) values[i++] = field.value(a);
+        return values;
+    }
+}
@@ -0,0 +1,129 @@
+package service;
+
+/**
+ * Вычислительные ядра над столбцами числовых полей парка ({@link ColumnIndex}).
+ * <p>
+ * Каждое ядро — один последовательный проход по массиву примитивов без обращения
+ * к объектам самолётов и без создания объектов. Сумма накапливается в четырёх
+ * независимых аккумуляторах в фиксированном порядке, поэтому результат
+ * детерминирован.
+ * <p>
+ * Ядра скалярные: Vector API ({@code jdk.incubator.vector}) не используется,
+ * так как инкубаторный модуль требует {@code --add-modules} при сборке и запуске.
+ */
+final class ColumnKernels {
+
+    private ColumnKernels() {
+    }
+
+    /**
+     * @param v столбец
+     * @return сумма значений
+     */
+    static double sum(double[] v) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int n = v.length;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            s0 += v[i];
+            s1 += v[i + 1];
+            s2 += v[i + 2];
+            s3 += v[i + 3];
+        }
+        for (; i < n; i++) s0 += v[i];
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    /**
+     * @param v столбец
+     * @return наименьшее значение или {@link Double#POSITIVE_INFINITY} для пустого столбца
+     */
+    static double min(double[] v) {
+        double m = Double.POSITIVE_INFINITY;
+        for (double d : v) m = Math.min(m, d);
+        return m;
+    }
+
+    /**
+     * @param v столбец
+     * @return наибольшее значение или {@link Double#NEGATIVE_INFINITY} для пустого столбца
+     */
+    static double max(double[] v) {
+        double m = Double.NEGATIVE_INFINITY;
+        for (double d : v) m = Math.max(m, d);
+        return m;
+    }
+
+    /**
+     * @param v столбец
+     * @return номер первой строки с наибольшим значением или {@code -1} для пустого столбца
+     */
+    static int argMax(double[] v) {
+        int best = -1;
+        for (int i = 0; i < v.length; i++) {
+            if (best < 0 || v[i] > v[best]) best = i;
+        }
+        return best;
+    }
+
+    /**
+     * @param v столбец
+     * @return номер первой строки с наименьшим значением или {@code -1} для пустого столбца
+     */
+    static int argMin(double[] v) {
+        int best = -1;
+        for (int i = 0; i < v.length; i++) {
+            if (best < 0 || v[i] < v[best]) best = i;
+        }
+        return best;
+    }
+
+    /**
+     * Подсчитывает значения строго больше порога.
+     *
+     * @param v         столбец
+     * @param threshold порог
+     * @return количество значений {@code > threshold}
+     */
+    static int countGreater(double[] v, double threshold) {
+        int c = 0;
+        for (double d : v) c += d > threshold ? 1 : 0;
+        return c;
+    }
+
+    /**
+     * Возвращает номера строк со значением строго больше порога.
+     *
+     * @param v         столбец
+     * @param threshold порог
+     * @return номера строк по возрастанию
+     */
+    static int[] selectGreater(double[] v, double threshold) {
+        int[] rows = new int[countGreater(v, threshold)];
+        int k = 0;
+        for (int i = 0; i < v.length && k < rows.length; i++) {
+            rows[k] = i;
+            k += v[i] > threshold ? 1 : 0;
+        }
+        return rows;
+    }
+
+    /**
+     * Раскладывает значения по интервалам одинаковой ширины
+     * {@code [origin + i·width, origin + (i+1)·width)}. Значения вне диапазона
+     * попадают в крайние интервалы.
+     *
+     * @param v      столбец
+     * @param origin левая граница первого интервала
+     * @param width  ширина интервала
+     * @param counts счётчики интервалов (дополняются)
+     */
+    static void histogram(double[] v, double origin, double width, int[] counts) {
+        double scale = 1.0 / width;
+        int last = counts.length - 1;
+        for (double d : v) {
+            int bin = (int) Math.floor((d - origin) * scale);
+            counts[Math.max(0, Math.min(last, bin))]++;
+        }
+    }
+}
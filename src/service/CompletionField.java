@@ -0,0 +1,35 @@
+package service;
+
+import model.Aircraft;
+
+import java.util.function.Function;
+
+/**
+ * Поля самолёта, для которых доступно автодополнение
+ * ({@link AircraftService#complete(CompletionField, String, int)}).
+ */
+public enum CompletionField {
+
+    /** Идентификатор самолёта. */
+    ID(Aircraft::getId),
+
+    /** Модель. */
+    MODEL(Aircraft::getModel),
+
+    /** Производитель. */
+    MANUFACTURER(Aircraft::getManufacturer);
+
+    private final Function<Aircraft, String> getter;
+
+    CompletionField(Function<Aircraft, String> getter) {
+        this.getter = getter;
+    }
+
+    /**
+     * @param aircraft самолёт
+     * @return значение поля
+     */
+    String of(Aircraft aircraft) {
+        return getter.apply(aircraft);
+    }
+}
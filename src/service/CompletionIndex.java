@@ -0,0 +1,52 @@
+package service;
+
+import model.Aircraft;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Индекс автодополнения: отдельное {@link PrefixTrie} для каждого поля {@link CompletionField}.
+ * Поддерживается событиями репозитория. Методы синхронизированы,
+ * так как подсказки запрашиваются из потока интерфейса.
+ */
+final class CompletionIndex implements FleetIndex {
+
+    private final Map<CompletionField, PrefixTrie> tries = new EnumMap<>(CompletionField.class);
+
+    CompletionIndex() {
+        for (CompletionField field : CompletionField.values()) {
+            tries.put(field, new PrefixTrie());
+        }
+    }
+
+    @Override
+    public synchronized void rebuild(Collection<Aircraft> fleet) {
+        tries.values().forEach(PrefixTrie::clear);
+        for (Aircraft a : fleet) added(a);
+    }
+
+    @Override
+    public synchronized void added(Aircraft aircraft) {
+        tries.forEach((field, trie) -> trie.add(field.of(aircraft)));
+    }
+
+    @Override
+    public synchronized void removed(Aircraft aircraft) {
+        tries.forEach((field, trie) -> trie.remove(field.of(aircraft)));
+    }
+
+    /**
+     * @param field  поле
+     * @param prefix начало значения
+     * @param limit  максимальное количество вариантов
+     * @return значения поля, начинающиеся с префикса, от частых к редким
+     */
+    synchronized List<String> complete(CompletionField field, String prefix, int limit) {
+        return tries.get(field).complete(prefix, limit).stream()
+                .map(PrefixTrie.Completion::value)
+                .toList();
+    }
+}
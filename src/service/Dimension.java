@@ -0,0 +1,78 @@
+package service;
+
+import model.Aircraft;
+
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Измерения, по которым группируются самолёты ({@link AircraftService#groupBy(Dimension, Measure...)}).
+ * <p>
+ * Строковые измерения группируются по значению поля, числовые (год, десятилетие) —
+ * по целому ключу без упаковки.
+ */
+public enum Dimension {
+
+    TYPE("Тип", Aircraft::getAircraftType),
+    MANUFACTURER("Производитель", Aircraft::getManufacturer),
+    STATUS("Статус", Aircraft::getStatus),
+    YEAR("Год выпуска", Aircraft::getYear),
+    DECADE("Десятилетие", Dimension::decadeOf);
+
+    private final String title;
+    private final Function<Aircraft, String> text;
+    private final ToIntFunction<Aircraft> number;
+
+    Dimension(String title, Function<Aircraft, String> text) {
+        this.title = title;
+        this.text = text;
+        this.number = null;
+    }
+
+    Dimension(String title, ToIntFunction<Aircraft> number) {
+        this.title = title;
+        this.text = null;
+        this.number = number;
+    }
+
+    /**
+     * @return первый год десятилетия выпуска (например, 1990 для 1994 года)
+     */
+    private static int decadeOf(Aircraft a) {
+        return Math.floorDiv(a.getYear(), 10) * 10;
+    }
+
+    /**
+     * @return название измерения для отображения
+     */
+    public String title() {
+        return title;
+    }
+
+    /**
+     * @return {@code true}, если ключ группы — целое число
+     */
+    public boolean isNumeric() {
+        return number != null;
+    }
+
+    /**
+     * @param a самолёт
+     * @return строковый ключ группы
+     * @throws UnsupportedOperationException если измерение числовое
+     */
+    String textKey(Aircraft a) {
+        if (text == null) throw new UnsupportedOperationException(name() + " — числовое измерение");
+        return text.apply(a);
+    }
+
+    /**
+     * @param a самолёт
+     * @return целый ключ группы
+     * @throws UnsupportedOperationException если измерение строковое
+     */
+    int intKey(Aircraft a) {
+        if (number == null) throw new UnsupportedOperationException(name() + " — строковое измерение");
+        return number.applyAsInt(a);
+    }
+}
@@ -0,0 +1,79 @@
+package service;
+
+import model.Aircraft;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Индекс различных значений: скетч {@link HyperLogLog} для каждого поля {@link StringField}.
+ * <p>
+ * Добавления учитываются сразу. HyperLogLog не поддерживает удаление, поэтому
+ * удаление самолёта или изменение его строкового поля лишь помечает индекс
+ * устаревшим; такой индекс перестраивается по снимку парка при следующем запросе.
+ * Методы синхронизированы, так как оценки запрашиваются из потока интерфейса.
+ */
+final class DistinctIndex extends StaleableIndex {
+
+    private final int precision;
+    private final Map<StringField, HyperLogLog> sketches = new EnumMap<>(StringField.class);
+
+    DistinctIndex(int precision) {
+        this.precision = precision;
+        clear();
+    }
+
+    private void clear() {
+        for (StringField field : StringField.values()) {
+            sketches.put(field, new HyperLogLog(precision));
+        }
+    }
+
+    @Override
+    public synchronized void rebuild(Collection<Aircraft> fleet) {
+        clear();
+        for (Aircraft a : fleet) added(a);
+    }
+
+    @Override
+    public synchronized void added(Aircraft aircraft) {
+        sketches.forEach((field, sketch) -> sketch.add(field.value(aircraft)));
+    }
+
+    @Override
+    public synchronized void removed(Aircraft aircraft) {
+        markStale();
+    }
+
+    /**
+     * Изменение, не затронувшее строковые поля, не требует перестроения.
+     */
+    @Override
+    public synchronized void updated(Aircraft previous, Aircraft current) {
+        for (StringField field : StringField.values()) {
+            if (!Objects.equals(field.value(previous), field.value(current))) {
+                markStale();
+                added(current);
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param field поле
+     * @return копия скетча поля
+     */
+    synchronized HyperLogLog sketch(StringField field) {
+        return sketches.get(field).copy();
+    }
+
+    /**
+     * @param field поле
+     * @return оценка количества различных значений поля
+     */
+    synchronized long estimate(StringField field) {
+        return sketches.get(field).estimate();
+    }
+}
@@ -0,0 +1,82 @@
+package service;
+
+import model.Aircraft;
+
+import java.util.*;
+
+/**
+ * Индекс распределений: скетч квантилей ({@link QuantileSketch}) для каждой пары
+ * «тип самолёта — числовое поле» и общий скетч поля по всему парку.
+ * Поддерживается событиями репозитория, поэтому перцентили доступны без прохода по парку.
+ * Методы синхронизированы, так как распределения запрашиваются из потока интерфейса.
+ */
+final class DistributionIndex implements FleetIndex {
+
+    /**
+     * Поля с распределениями. Год выпуска не включён: относительная погрешность
+     * скетча для значений порядка 2000 превышает десяток лет.
+     */
+    static final Set<NumericField> FIELDS =
+            Collections.unmodifiableSet(EnumSet.of(NumericField.CAPACITY, NumericField.RANGE, NumericField.FLIGHT_HOURS));
+
+    private final Map<NumericField, QuantileSketch> all = sketches();
+    private final Map<String, Map<NumericField, QuantileSketch>> byType = new TreeMap<>();
+
+    private static Map<NumericField, QuantileSketch> sketches() {
+        Map<NumericField, QuantileSketch> sketches = new EnumMap<>(NumericField.class);
+        for (NumericField field : FIELDS) sketches.put(field, new QuantileSketch());
+        return sketches;
+    }
+
+    @Override
+    public synchronized void rebuild(Collection<Aircraft> fleet) {
+        all.replaceAll((field, sketch) -> new QuantileSketch());
+        byType.clear();
+        for (Aircraft a : fleet) added(a);
+    }
+
+    @Override
+    public synchronized void added(Aircraft aircraft) {
+        Map<NumericField, QuantileSketch> type =
+                byType.computeIfAbsent(aircraft.getAircraftType(), t -> sketches());
+        for (NumericField field : FIELDS) {
+            double value = field.value(aircraft);
+            all.get(field).add(value);
+            type.get(field).add(value);
+        }
+    }
+
+    @Override
+    public synchronized void removed(Aircraft aircraft) {
+        Map<NumericField, QuantileSketch> type = byType.get(aircraft.getAircraftType());
+        if (type == null) return;
+        for (NumericField field : FIELDS) {
+            double value = field.value(aircraft);
+            all.get(field).remove(value);
+            type.get(field).remove(value);
+        }
+        if (type.get(NumericField.CAPACITY).count() == 0) byType.remove(aircraft.getAircraftType());
+    }
+
+    /**
+     * @param field поле из {@link #FIELDS}
+     * @param type  тип самолёта или {@code null} для всего парка
+     * @return копия скетча; пустой скетч, если самолётов такого типа нет
+     * @throws IllegalArgumentException если распределение поля не ведётся
+     */
+    synchronized QuantileSketch sketch(NumericField field, String type) {
+        if (!FIELDS.contains(field)) {
+            throw new IllegalArgumentException("Распределение поля «" + field.title() + "» не ведётся");
+        }
+        if (type == null) return all.get(field).copy();
+        Map<NumericField, QuantileSketch> sketches = byType.get(type);
+        return sketches == null ? new QuantileSketch() : sketches.get(field).copy();
+    }
+
+    /**
+     * @return типы самолётов, присутствующие в парке, по алфавиту
+     */
+    synchronized List<String> types() {
+        return List.copyOf(byType.keySet());
+    }
+}
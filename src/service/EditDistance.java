@@ -0,0 +1,60 @@
+package service;
+
+/**
+ * Расстояние Левенштейна (минимальное количество вставок, удалений и замен символов).
+ */
+public final class EditDistance {
+
+    private EditDistance() {
+    }
+
+    /**
+     * Вычисляет расстояние Левенштейна между строками.
+     *
+     * @param a первая строка
+     * @param b вторая строка
+     * @return расстояние
+     */
+    public static int between(CharSequence a, CharSequence b) {
+        return bounded(a, b, Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * Вычисляет расстояние Левенштейна, прекращая расчёт, как только
+     * оно гарантированно превышает {@code max}.
+     *
+     * @param a   первая строка
+     * @param b   вторая строка
+     * @param max наибольшее интересующее расстояние
+     * @return расстояние или {@code max + 1}, если оно больше {@code max}
+     */
+    public static int bounded(CharSequence a, CharSequence b, int max) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > max) return max + 1;
+
+        int[] prev = new int[m + 1];
+        int[] curr = new int[m + 1];
+        for (int j = 0; j <= m; j++) prev[j] = j;
+
+        for (int i = 1; i <= n; i++) {
+            curr[0] = i;
+            int rowMin = curr[0];
+            char ca = a.charAt(i - 1);
+
+            for (int j = 1; j <= m; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                curr[j] = Math.min(Math.min(curr[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, curr[j]);
+            }
+
+            if (rowMin > max) return max + 1;
+
+            int[] t = prev;
+            prev = curr;
+            curr = t;
+        }
+
+        return Math.min(prev[m], max + 1);
+    }
+}
@@ -0,0 +1,80 @@
+package service;
+
+import model.Aircraft;
+import model.CargoAircraft;
+import model.MilitaryAircraft;
+import model.PassengerAircraft;
+
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Характеристики самолёта, от которых зависят результаты аналитических запросов.
+ * По ним {@link AnalyticsCache} определяет, какие результаты затронуло изменение парка.
+ */
+enum FleetAttribute {
+
+    ID(Aircraft::getId),
+    MODEL(Aircraft::getModel),
+    MANUFACTURER(Aircraft::getManufacturer),
+    STATUS(Aircraft::getStatus),
+    TYPE(Aircraft::getAircraftType),
+    CAPACITY(Aircraft::getCapacity),
+    RANGE(Aircraft::getRange),
+    YEAR(Aircraft::getYear),
+    FLIGHT_HOURS(Aircraft::getFlightHours),
+
+    /** Поля подклассов: класс салона, грузоподъёмность, вооружение. */
+    DETAILS(FleetAttribute::details);
+
+    /** Все характеристики: зависимость результатов, содержащих сами самолёты. */
+    static final Set<FleetAttribute> ALL = EnumSet.allOf(FleetAttribute.class);
+
+    private final Function<Aircraft, Object> getter;
+
+    FleetAttribute(Function<Aircraft, Object> getter) {
+        this.getter = getter;
+    }
+
+    private static Object details(Aircraft a) {
+        if (a instanceof PassengerAircraft p) return p.getCabinClass();
+        if (a instanceof CargoAircraft c) return c.getMaxCargoWeight();
+        if (a instanceof MilitaryAircraft m) return m.getWeaponType();
+        return null;
+    }
+
+    /**
+     * @param previous прежняя версия самолёта
+     * @param current  новая версия
+     * @return характеристики, значение которых изменилось
+     */
+    static Set<FleetAttribute> changed(Aircraft previous, Aircraft current) {
+        Set<FleetAttribute> changed = EnumSet.noneOf(FleetAttribute.class);
+        for (FleetAttribute attribute : values()) {
+            if (!Objects.equals(attribute.getter.apply(previous), attribute.getter.apply(current))) {
+                changed.add(attribute);
+            }
+        }
+        return changed;
+    }
+
+    static FleetAttribute of(NumericField field) {
+        return switch (field) {
+            case CAPACITY -> CAPACITY;
+            case RANGE -> RANGE;
+            case YEAR -> YEAR;
+            case FLIGHT_HOURS -> FLIGHT_HOURS;
+        };
+    }
+
+    static FleetAttribute of(Dimension dimension) {
+        return switch (dimension) {
+            case TYPE -> TYPE;
+            case MANUFACTURER -> MANUFACTURER;
+            case STATUS -> STATUS;
+            case YEAR, DECADE -> YEAR;
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package service;
+
+import model.Aircraft;
+import repository.AircraftEvent;
+import repository.FleetSnapshot;
+
+import java.util.Collection;
+
+/**
+ * Вторичный индекс над парком самолётов.
+ * <p>
+ * Индекс строится по текущему содержимому репозитория и затем
+ * поддерживается в актуальном состоянии событиями {@link AircraftEvent},
+ * без повторного прохода по всему парку.
+ */
+interface FleetIndex {
+
+    /**
+     * Полностью перестраивает индекс.
+     *
+     * @param fleet текущее содержимое парка
+     */
+    void rebuild(Collection<Aircraft> fleet);
+
+    /**
+     * Полностью перестраивает индекс по снимку парка.
+     * Индексы, учитывающие версию, запоминают версию снимка.
+     *
+     * @param snapshot снимок парка
+     */
+    default void rebuild(FleetSnapshot snapshot) {
+        rebuild(snapshot.aircraft());
+    }
+
+    /**
+     * Добавляет самолёт в индекс.
+     *
+     * @param aircraft добавленный самолёт
+     */
+    void added(Aircraft aircraft);
+
+    /**
+     * Удаляет самолёт из индекса.
+     *
+     * @param aircraft удалённый самолёт (тот же объект, что был добавлен)
+     */
+    void removed(Aircraft aircraft);
+
+    /**
+     * Заменяет прежнюю версию самолёта новой.
+     *
+     * @param previous прежняя версия
+     * @param current  новая версия
+     */
+    default void updated(Aircraft previous, Aircraft current) {
+        removed(previous);
+        added(current);
+    }
+
+    /**
+     * Применяет событие изменения парка к индексу.
+     *
+     * @param event событие
+     */
+    default void apply(AircraftEvent event) {
+        if (event instanceof AircraftEvent.Batch e) {
+            e.changes().forEach(this::apply);
+        } else if (event instanceof AircraftEvent.Added e) {
+            added(e.aircraft());
+        } else if (event instanceof AircraftEvent.Removed e) {
+            removed(e.aircraft());
+        } else if (event instanceof AircraftEvent.Updated e) {
+            updated(e.previous(), e.current());
+        } else if (event instanceof AircraftEvent.Reloaded e) {
+            rebuild(e.aircraft());
+        }
+    }
+}
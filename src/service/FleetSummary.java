@@ -0,0 +1,265 @@
+package service;
+
+import model.Aircraft;
+
+import java.util.*;
+import java.util.stream.Collector;
+
+/**
+ * Сводная статистика парка, рассчитываемая за один проход.
+ * <p>
+ * Содержит:
+ * <ul>
+ *     <li>количество, минимум, максимум и среднее каждого числового поля
+ *     ({@link NumericField}) — по всему парку и по каждому типу самолёта;</li>
+ *     <li>самолёт с наибольшей дальностью и самый старый самолёт;</li>
+ *     <li>ТОП-{@value #TOP} по каждому числовому полю;</li>
+ *     <li>суммарный налёт и количество самолётов по годам выпуска.</li>
+ * </ul>
+ * <p>
+ * По аналогии с {@link DoubleSummaryStatistics} сводка накапливается методом
+ * {@link #accept(Aircraft)}, а сводки соседних частей парка объединяются
+ * ассоциативным {@link #combine(FleetSummary)}. Поэтому её можно строить
+ * параллельно по частям ({@link #collector()}), получая тот же результат,
+ * что и при последовательном проходе.
+ * <p>
+ * Экземпляр не потокобезопасен. Сводка, которую возвращает сервис, закрыта для
+ * изменения ({@link #freeze()}): её разделяют все читатели кэша, поэтому
+ * {@link #accept(Aircraft)} и {@link #combine(FleetSummary)} бросают
+ * {@link IllegalStateException}, а методы чтения возвращают копии
+ * или неизменяемые коллекции.
+ */
+public final class FleetSummary {
+
+    /** Размер ТОП-списков. */
+    public static final int TOP = 10;
+
+    private long count;
+
+    private final EnumMap<NumericField, DoubleSummaryStatistics> stats = newStats();
+
+    /** Статистика по типам в порядке первого появления типа. */
+    private final GroupAccumulator byType =
+            new GroupAccumulator(Dimension.TYPE, EnumSet.allOf(NumericField.class));
+
+    /** Количество и суммарный налёт по годам выпуска. */
+    private final GroupAccumulator byYear =
+            new GroupAccumulator(Dimension.YEAR, EnumSet.of(NumericField.FLIGHT_HOURS));
+
+    private final EnumMap<NumericField, TopK> tops = new EnumMap<>(NumericField.class);
+
+    private Aircraft oldest;
+
+    /** Сводка закрыта для изменения. */
+    private boolean frozen;
+
+    /**
+     * Создаёт пустую сводку.
+     */
+    public FleetSummary() {
+        for (NumericField f : NumericField.values()) tops.put(f, new TopK(f, TOP));
+    }
+
+    /**
+     * Строит сводку за один последовательный проход.
+     *
+     * @param fleet самолёты парка
+     * @return сводка
+     */
+    public static FleetSummary of(Iterable<Aircraft> fleet) {
+        FleetSummary summary = new FleetSummary();
+        for (Aircraft a : fleet) summary.accept(a);
+        return summary;
+    }
+
+    /**
+     * Возвращает коллектор, строящий сводку; пригоден для параллельных потоков.
+     *
+     * @return коллектор самолётов в {@link FleetSummary}
+     */
+    public static Collector<Aircraft, ?, FleetSummary> collector() {
+        return Collector.of(FleetSummary::new, FleetSummary::accept, FleetSummary::combine);
+    }
+
+    /**
+     * Выбирает {@value #TOP} самолётов с наибольшим значением поля без построения
+     * полной сводки. При равенстве значений выше самолёт, встретившийся раньше.
+     *
+     * @param fleet самолёты парка
+     * @param field числовое поле
+     * @return ТОП-список по убыванию значения
+     */
+    public static List<Aircraft> top(Iterable<Aircraft> fleet, NumericField field) {
+        TopK top = new TopK(field, TOP);
+        for (Aircraft a : fleet) top.offer(a);
+        return top.toList();
+    }
+
+    /**
+     * Учитывает самолёт в сводке.
+     *
+     * @param a самолёт
+     * @throws IllegalStateException если сводка закрыта для изменения
+     */
+    public void accept(Aircraft a) {
+        checkMutable();
+        count++;
+
+        for (NumericField f : NumericField.values()) {
+            stats.get(f).accept(f.value(a));
+            tops.get(f).offer(a);
+        }
+
+        byType.accept(a);
+        byYear.accept(a);
+
+        if (oldest == null || a.getYear() < oldest.getYear()) oldest = a;
+    }
+
+    /**
+     * Добавляет к сводке сводку следующей части парка.
+     * Порядок важен только для выбора среди равных значений:
+     * предпочтение отдаётся самолётам этой (более ранней) части.
+     *
+     * @param later сводка следующей части парка
+     * @return эта сводка
+     * @throws IllegalStateException если сводка закрыта для изменения
+     */
+    public FleetSummary combine(FleetSummary later) {
+        checkMutable();
+        count += later.count;
+
+        stats.forEach((f, s) -> s.combine(later.stats.get(f)));
+        byType.combine(later.byType);
+        byYear.combine(later.byYear);
+
+        tops.forEach((f, top) -> top.combine(later.tops.get(f)));
+
+        if (later.oldest != null && (oldest == null || later.oldest.getYear() < oldest.getYear())) {
+            oldest = later.oldest;
+        }
+        return this;
+    }
+
+    /**
+     * Закрывает сводку для изменения перед передачей нескольким читателям.
+     *
+     * @return эта сводка
+     */
+    FleetSummary freeze() {
+        frozen = true;
+        return this;
+    }
+
+    private void checkMutable() {
+        if (frozen) throw new IllegalStateException("Сводка закрыта для изменения");
+    }
+
+    /**
+     * @return количество самолётов
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Возвращает статистику поля по всему парку.
+     *
+     * @param field числовое поле
+     * @return копия статистики: количество, минимум, максимум, сумма и среднее
+     */
+    public DoubleSummaryStatistics stats(NumericField field) {
+        DoubleSummaryStatistics s = stats.get(field);
+        return new DoubleSummaryStatistics(s.getCount(), s.getMin(), s.getMax(), s.getSum());
+    }
+
+    /**
+     * Возвращает статистику поля по самолётам одного типа.
+     *
+     * @param type  тип самолёта ({@link Aircraft#getAircraftType()})
+     * @param field числовое поле
+     * @return статистика; пустая, если самолётов такого типа нет
+     */
+    public DoubleSummaryStatistics stats(String type, NumericField field) {
+        int slot = byType.find(type);
+        if (slot < 0) return new DoubleSummaryStatistics();
+        return new DoubleSummaryStatistics(byType.count(slot),
+                byType.min(slot, field), byType.max(slot, field), byType.sum(slot, field));
+    }
+
+    /**
+     * @return типы самолётов в порядке первого появления
+     */
+    public Set<String> types() {
+        Set<String> types = new LinkedHashSet<>();
+        for (int s = 0; s < byType.groups(); s++) types.add((String) byType.key(s));
+        return Collections.unmodifiableSet(types);
+    }
+
+    /**
+     * @return количество самолётов по типам в порядке первого появления типа
+     */
+    public Map<String, Long> typeCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int s = 0; s < byType.groups(); s++) counts.put((String) byType.key(s), byType.count(s));
+        return counts;
+    }
+
+    /**
+     * @return средняя вместимость или 0, если парк пуст
+     */
+    public double averageCapacity() {
+        return stats.get(NumericField.CAPACITY).getAverage();
+    }
+
+    /**
+     * @return самолёт с наибольшей дальностью (первый из равных) или {@code null}
+     */
+    public Aircraft maxRange() {
+        List<Aircraft> top = top(NumericField.RANGE);
+        return top.isEmpty() ? null : top.get(0);
+    }
+
+    /**
+     * @return самолёт с наименьшим годом выпуска (первый из равных) или {@code null}
+     */
+    public Aircraft oldest() {
+        return oldest;
+    }
+
+    /**
+     * Возвращает ТОП-{@value #TOP} самолётов по полю.
+     *
+     * @param field числовое поле
+     * @return самолёты по убыванию значения
+     */
+    public List<Aircraft> top(NumericField field) {
+        return tops.get(field).toList();
+    }
+
+    /**
+     * @return суммарный налёт по годам выпуска, по возрастанию года
+     */
+    public SortedMap<Integer, Long> hoursByYear() {
+        SortedMap<Integer, Long> hours = new TreeMap<>();
+        for (int s = 0; s < byYear.groups(); s++) {
+            hours.put((Integer) byYear.key(s), byYear.longSum(s, NumericField.FLIGHT_HOURS));
+        }
+        return Collections.unmodifiableSortedMap(hours);
+    }
+
+    /**
+     * @return количество самолётов по годам выпуска, по возрастанию года
+     */
+    public SortedMap<Integer, Long> countByYear() {
+        SortedMap<Integer, Long> counts = new TreeMap<>();
+        for (int s = 0; s < byYear.groups(); s++) counts.put((Integer) byYear.key(s), byYear.count(s));
+        return Collections.unmodifiableSortedMap(counts);
+    }
+
+    private static EnumMap<NumericField, DoubleSummaryStatistics> newStats() {
+        EnumMap<NumericField, DoubleSummaryStatistics> s = new EnumMap<>(NumericField.class);
+        for (NumericField f : NumericField.values()) s.put(f, new DoubleSummaryStatistics());
+        return s;
+    }
+}
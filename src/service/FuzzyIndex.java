@@ -0,0 +1,205 @@
+package service;
+
+import model.Aircraft;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Индекс нечёткого поиска по модели и производителю.
+ * <p>
+ * Различные значения этих полей (в нижнем регистре) образуют словарь,
+ * организованный в BK-дерево по расстоянию Левенштейна. Поиск с допуском {@code k}
+ * по неравенству треугольника спускается только в поддеревья, расстояние до которых
+ * лежит в пределах {@code [d - k, d + k]}, поэтому расстояние вычисляется лишь для
+ * небольшой части словаря и ни разу — для каждой строки таблицы.
+ * <p>
+ * Значение, которое больше не встречается в парке, остаётся в дереве как неактивное;
+ * когда неактивных значений становится больше, чем активных, дерево перестраивается.
+ * Методы синхронизированы.
+ */
+final class FuzzyIndex implements FleetIndex {
+
+    /** Минимальное количество неактивных значений, при котором дерево перестраивается. */
+    private static final int MIN_COMPACT = 256;
+
+    /** Узел BK-дерева: значение словаря и потомки по расстоянию до него. */
+    private static final class Node {
+        final String term;
+        final Map<Integer, Node> children = new HashMap<>(4);
+
+        Node(String term) {
+            this.term = term;
+        }
+    }
+
+    private Node root;
+
+    /** Значение словаря → самолёты, у которых модель или производитель равны ему. */
+    private final Map<String, Set<Aircraft>> postings = new HashMap<>();
+
+    /** Количество значений в дереве, для которых больше нет самолётов. */
+    private int inactive;
+
+    @Override
+    public synchronized void rebuild(Collection<Aircraft> fleet) {
+        root = null;
+        postings.clear();
+        inactive = 0;
+        for (Aircraft a : fleet) added(a);
+    }
+
+    @Override
+    public synchronized void added(Aircraft aircraft) {
+        addTerm(aircraft.getModel(), aircraft);
+        addTerm(aircraft.getManufacturer(), aircraft);
+    }
+
+    @Override
+    public synchronized void removed(Aircraft aircraft) {
+        removeTerm(aircraft.getModel(), aircraft);
+        removeTerm(aircraft.getManufacturer(), aircraft);
+
+        if (inactive >= MIN_COMPACT && inactive > postings.size() - inactive) compact();
+    }
+
+    /**
+     * Находит самолёты, у которых модель или производитель отличаются от запроса
+     * не более чем на {@code maxDistance} правок (без учёта регистра).
+     *
+     * @param query       запрос
+     * @param maxDistance допустимое расстояние Левенштейна
+     * @return самолёты в порядке возрастания расстояния, при равенстве — по ID
+     */
+    synchronized List<Aircraft> search(String query, int maxDistance) {
+        if (root == null) return List.of();
+
+        String q = query.toLowerCase(Locale.ROOT);
+        Map<Aircraft, Integer> best = new IdentityHashMap<>();
+
+        List<Node> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            int d = EditDistance.between(q, node.term);
+
+            if (d <= maxDistance) {
+                for (Aircraft a : postings.getOrDefault(node.term, Set.of())) {
+                    best.merge(a, d, Math::min);
+                }
+            }
+
+            for (Map.Entry<Integer, Node> child : node.children.entrySet()) {
+                int edge = child.getKey();
+                if (edge >= d - maxDistance && edge <= d + maxDistance) stack.add(child.getValue());
+            }
+        }
+
+        List<Aircraft> result = new ArrayList<>(best.keySet());
+        result.sort(Comparator.<Aircraft>comparingInt(best::get).thenComparing(Aircraft::getId));
+        return result;
+    }
+
+    /**
+     * Проверяет самолёты полным проходом, без дерева, по тем же правилам,
+     * что и {@link #search(String, int)}.
+     *
+     * @param fleet       самолёты
+     * @param query       запрос
+     * @param maxDistance допустимое расстояние Левенштейна
+     * @return самолёты в порядке возрастания расстояния, при равенстве — по ID
+     */
+    static List<Aircraft> scan(Iterable<Aircraft> fleet, String query, int maxDistance) {
+        String q = query.toLowerCase(Locale.ROOT);
+        Map<Aircraft, Integer> best = new IdentityHashMap<>();
+        for (Aircraft a : fleet) {
+            int d = Math.min(distance(q, a.getModel(), maxDistance), distance(q, a.getManufacturer(), maxDistance));
+            if (d <= maxDistance) best.put(a, d);
+        }
+
+        List<Aircraft> result = new ArrayList<>(best.keySet());
+        result.sort(Comparator.<Aircraft>comparingInt(best::get).thenComparing(Aircraft::getId));
+        return result;
+    }
+
+    private static int distance(String query, String value, int maxDistance) {
+        if (value == null || value.isBlank()) return maxDistance + 1;
+        return EditDistance.bounded(query, value.toLowerCase(Locale.ROOT), maxDistance);
+    }
+
+    /**
+     * @return количество активных значений словаря
+     */
+    synchronized int dictionarySize() {
+        return postings.size() - inactive;
+    }
+
+    private void addTerm(String value, Aircraft aircraft) {
+        if (value == null || value.isBlank()) return;
+        String term = value.toLowerCase(Locale.ROOT);
+
+        Set<Aircraft> owners = postings.get(term);
+        if (owners == null) {
+            owners = Collections.newSetFromMap(new IdentityHashMap<>());
+            postings.put(term, owners);
+            insert(term);
+        } else if (owners.isEmpty()) {
+            inactive--;
+        }
+        owners.add(aircraft);
+    }
+
+    private void removeTerm(String value, Aircraft aircraft) {
+        if (value == null || value.isBlank()) return;
+
+        Set<Aircraft> owners = postings.get(value.toLowerCase(Locale.ROOT));
+        if (owners != null && owners.remove(aircraft) && owners.isEmpty()) inactive++;
+    }
+
+    private void insert(String term) {
+        if (root == null) {
+            root = new Node(term);
+            return;
+        }
+
+        Node node = root;
+        while (true) {
+            int d = EditDistance.between(term, node.term);
+            if (d == 0) return;
+
+            Node child = node.children.get(d);
+            if (child == null) {
+                node.children.put(d, new Node(term));
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Перестраивает дерево только из активных значений.
+     */
+    private void compact() {
+        Map<String, Set<Aircraft>> live = new LinkedHashMap<>();
+        postings.forEach((term, owners) -> {
+            if (!owners.isEmpty()) live.put(term, owners);
+        });
+
+        root = null;
+        postings.clear();
+        inactive = 0;
+        live.forEach((term, owners) -> {
+            postings.put(term, owners);
+            insert(term);
+        });
+    }
+}
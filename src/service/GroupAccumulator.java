@@ -0,0 +1,257 @@
+package service;
+
+import model.Aircraft;
+
+import java.util.*;
+
+/**
+ * Изменяемый аккумулятор группировки самолётов по измерению {@link Dimension}.
+ * <p>
+ * Группы нумеруются в порядке первого появления ключа ({@link IntSlotMap},
+ * {@link StringSlotMap}); показатели групп хранятся в примитивных массивах,
+ * индексированных номером группы: количество — в {@code long[]}, суммы целых
+ * полей — в {@code long[]} (без переполнения и потери точности), суммы дробных
+ * полей, минимумы и максимумы — в {@code double[]}.
+ * <p>
+ * Аккумуляторы соседних частей парка объединяются {@link #combine(GroupAccumulator)};
+ * новые группы правой части нумеруются после групп левой, поэтому порядок групп
+ * совпадает с последовательным проходом.
+ */
+final class GroupAccumulator {
+
+    private final Dimension dimension;
+
+    /** Поля, по которым накапливаются сумма, минимум и максимум. */
+    private final NumericField[] fields;
+
+    private final IntSlotMap intSlots;
+    private final StringSlotMap textSlots;
+
+    private int groups;
+    private long[] counts = new long[16];
+    private final long[][] longSums;
+    private final double[][] doubleSums;
+    private final double[][] mins;
+    private final double[][] maxs;
+
+    /**
+     * @param dimension измерение группировки
+     * @param fields    поля, по которым нужны сумма, минимум, максимум и среднее
+     */
+    GroupAccumulator(Dimension dimension, Collection<NumericField> fields) {
+        this.dimension = dimension;
+        EnumSet<NumericField> distinct = EnumSet.noneOf(NumericField.class);
+        distinct.addAll(fields);
+        this.fields = distinct.toArray(new NumericField[0]);
+        this.intSlots = dimension.isNumeric() ? new IntSlotMap() : null;
+        this.textSlots = dimension.isNumeric() ? null : new StringSlotMap();
+
+        int n = this.fields.length;
+        this.longSums = new long[n][];
+        this.doubleSums = new double[n][];
+        this.mins = new double[n][];
+        this.maxs = new double[n][];
+        for (int f = 0; f < n; f++) {
+            if (this.fields[f].isIntegral()) {
+                longSums[f] = new long[counts.length];
+            } else {
+                doubleSums[f] = new double[counts.length];
+            }
+            mins[f] = new double[counts.length];
+            maxs[f] = new double[counts.length];
+        }
+    }
+
+    /**
+     * Создаёт аккумулятор, достаточный для расчёта указанных показателей.
+     *
+     * @param dimension измерение группировки
+     * @param measures  показатели
+     * @return пустой аккумулятор
+     */
+    static GroupAccumulator forMeasures(Dimension dimension, List<Measure> measures) {
+        EnumSet<NumericField> fields = EnumSet.noneOf(NumericField.class);
+        for (Measure m : measures) {
+            if (m.field() != null) fields.add(m.field());
+        }
+        return new GroupAccumulator(dimension, fields);
+    }
+
+    /**
+     * Учитывает самолёт в его группе.
+     *
+     * @param a самолёт
+     */
+    void accept(Aircraft a) {
+        int slot = dimension.isNumeric()
+                ? intSlots.slotOf(dimension.intKey(a))
+                : textSlots.slotOf(dimension.textKey(a));
+        if (slot == groups) addGroup();
+
+        counts[slot]++;
+        for (int f = 0; f < fields.length; f++) {
+            double v = fields[f].value(a);
+            if (longSums[f] != null) {
+                longSums[f][slot] += (long) v;
+            } else {
+                doubleSums[f][slot] += v;
+            }
+            if (v < mins[f][slot]) mins[f][slot] = v;
+            if (v > maxs[f][slot]) maxs[f][slot] = v;
+        }
+    }
+
+    /**
+     * Добавляет показатели аккумулятора следующей части парка.
+     *
+     * @param later аккумулятор следующей части с тем же измерением и полями
+     * @return этот аккумулятор
+     */
+    GroupAccumulator combine(GroupAccumulator later) {
+        for (int s = 0; s < later.groups; s++) {
+            int slot = dimension.isNumeric()
+                    ? intSlots.slotOf(later.intSlots.key(s))
+                    : textSlots.slotOf(later.textSlots.key(s));
+            if (slot == groups) addGroup();
+
+            counts[slot] += later.counts[s];
+            for (int f = 0; f < fields.length; f++) {
+                if (longSums[f] != null) {
+                    longSums[f][slot] += later.longSums[f][s];
+                } else {
+                    doubleSums[f][slot] += later.doubleSums[f][s];
+                }
+                mins[f][slot] = Math.min(mins[f][slot], later.mins[f][s]);
+                maxs[f][slot] = Math.max(maxs[f][slot], later.maxs[f][s]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return количество групп
+     */
+    int groups() {
+        return groups;
+    }
+
+    /**
+     * @param slot номер группы
+     * @return ключ группы: {@link Integer} для числовых измерений, {@link String} — для строковых
+     */
+    Object key(int slot) {
+        return dimension.isNumeric() ? (Object) intSlots.key(slot) : textSlots.key(slot);
+    }
+
+    /**
+     * @param key ключ группы
+     * @return номер группы или -1, если такой группы нет
+     */
+    int find(Object key) {
+        if (dimension.isNumeric()) {
+            return key instanceof Integer i ? intSlots.find(i) : -1;
+        }
+        return key == null || key instanceof String ? textSlots.find((String) key) : -1;
+    }
+
+    long count(int slot) {
+        return counts[slot];
+    }
+
+    /**
+     * @return точная сумма целого поля
+     * @throws IllegalArgumentException если поле дробное или не накапливается
+     */
+    long longSum(int slot, NumericField field) {
+        long[] sums = longSums[index(field)];
+        if (sums == null) throw new IllegalArgumentException(field + " не целое поле");
+        return sums[slot];
+    }
+
+    double sum(int slot, NumericField field) {
+        int f = index(field);
+        return longSums[f] != null ? longSums[f][slot] : doubleSums[f][slot];
+    }
+
+    double min(int slot, NumericField field) {
+        return mins[index(field)][slot];
+    }
+
+    double max(int slot, NumericField field) {
+        return maxs[index(field)][slot];
+    }
+
+    /**
+     * Возвращает значение показателя группы. Количество, суммы, минимумы
+     * и максимумы целых полей возвращаются как {@link Long}, остальное — как {@link Double}.
+     *
+     * @param slot    номер группы
+     * @param measure показатель
+     * @return значение показателя
+     */
+    Number value(int slot, Measure measure) {
+        NumericField field = measure.field();
+        return switch (measure.aggregation()) {
+            case COUNT -> counts[slot];
+            case SUM -> field.isIntegral() ? (Number) longSum(slot, field) : (Number) sum(slot, field);
+            case MIN -> field.isIntegral() ? (Number) (long) min(slot, field) : (Number) min(slot, field);
+            case MAX -> field.isIntegral() ? (Number) (long) max(slot, field) : (Number) max(slot, field);
+            case AVG -> sum(slot, field) / counts[slot];
+        };
+    }
+
+    /**
+     * Формирует таблицу результатов, упорядоченную по ключу группы.
+     *
+     * @param measures показатели в порядке столбцов
+     * @return таблица группировки
+     */
+    GroupTable toTable(List<Measure> measures) {
+        Integer[] order = new Integer[groups];
+        for (int s = 0; s < groups; s++) order[s] = s;
+
+        Comparator<Integer> byKey = dimension.isNumeric()
+                ? Comparator.comparingInt(s -> intSlots.key(s))
+                : Comparator.comparing(s -> textSlots.key(s), Comparator.nullsFirst(Comparator.naturalOrder()));
+        Arrays.sort(order, byKey);
+
+        List<GroupTable.Row> rows = new ArrayList<>(groups);
+        for (int s : order) {
+            List<Number> values = new ArrayList<>(measures.size());
+            for (Measure m : measures) values.add(value(s, m));
+            rows.add(new GroupTable.Row(key(s), counts[s], Collections.unmodifiableList(values)));
+        }
+        return new GroupTable(dimension, measures, rows);
+    }
+
+    private int index(NumericField field) {
+        for (int f = 0; f < fields.length; f++) {
+            if (fields[f] == field) return f;
+        }
+        throw new IllegalArgumentException("Поле " + field + " не накапливается");
+    }
+
+    /**
+     * Регистрирует новую группу: расширяет массивы и инициализирует минимумы и максимумы.
+     */
+    private void addGroup() {
+        if (groups == counts.length) {
+            int capacity = counts.length * 2;
+            counts = Arrays.copyOf(counts, capacity);
+            for (int f = 0; f < fields.length; f++) {
+                if (longSums[f] != null) {
+                    longSums[f] = Arrays.copyOf(longSums[f], capacity);
+                } else {
+                    doubleSums[f] = Arrays.copyOf(doubleSums[f], capacity);
+                }
+                mins[f] = Arrays.copyOf(mins[f], capacity);
+                maxs[f] = Arrays.copyOf(maxs[f], capacity);
+            }
+        }
+        for (int f = 0; f < fields.length; f++) {
+            mins[f][groups] = Double.POSITIVE_INFINITY;
+            maxs[f][groups] = Double.NEGATIVE_INFINITY;
+        }
+        groups++;
+    }
+}
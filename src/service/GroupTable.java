@@ -0,0 +1,81 @@
+package service;
+
+import java.util.*;
+
+/**
+ * Результат группировки парка ({@link AircraftService#groupBy(Dimension, Measure...)}):
+ * по строке на группу, упорядоченные по ключу группы.
+ * <p>
+ * Количество, а также суммы, минимумы и максимумы целых полей представлены
+ * как {@link Long}; суммы накапливаются в 64-битных целых без потери точности.
+ * Средние и показатели дробных полей представлены как {@link Double}.
+ */
+public final class GroupTable {
+
+    /**
+     * Строка результата.
+     *
+     * @param key    ключ группы: {@link Integer} для числовых измерений, {@link String} — для строковых
+     * @param count  количество самолётов в группе
+     * @param values значения показателей в порядке {@link GroupTable#measures()}
+     */
+    public record Row(Object key, long count, List<Number> values) {
+    }
+
+    private final Dimension dimension;
+    private final List<Measure> measures;
+    private final List<Row> rows;
+    private final Map<Object, Row> byKey = new HashMap<>();
+
+    GroupTable(Dimension dimension, List<Measure> measures, List<Row> rows) {
+        this.dimension = dimension;
+        this.measures = List.copyOf(measures);
+        this.rows = Collections.unmodifiableList(rows);
+        for (Row row : rows) byKey.put(row.key(), row);
+    }
+
+    /**
+     * @return измерение группировки
+     */
+    public Dimension dimension() {
+        return dimension;
+    }
+
+    /**
+     * @return показатели в порядке значений строк
+     */
+    public List<Measure> measures() {
+        return measures;
+    }
+
+    /**
+     * @return строки по возрастанию ключа группы
+     */
+    public List<Row> rows() {
+        return rows;
+    }
+
+    /**
+     * @param key ключ группы
+     * @return строка группы или {@code null}, если такой группы нет
+     */
+    public Row row(Object key) {
+        return byKey.get(key);
+    }
+
+    /**
+     * Возвращает значение показателя группы.
+     *
+     * @param key     ключ группы
+     * @param measure показатель
+     * @return значение или {@code null}, если такой группы нет
+     * @throws IllegalArgumentException если показатель не рассчитывался
+     */
+    public Number value(Object key, Measure measure) {
+        int column = measures.indexOf(measure);
+        if (column < 0) throw new IllegalArgumentException("Показатель " + measure + " не рассчитывался");
+
+        Row row = byKey.get(key);
+        return row == null ? null : row.values().get(column);
+    }
+}
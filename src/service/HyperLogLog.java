@@ -0,0 +1,186 @@
+package service;
+
+import java.util.Arrays;
+
+/**
+ * Скетч HyperLogLog для оценки количества различных строк.
+ * <p>
+ * Значение хэшируется в 64 бита; старшие {@code p} бит выбирают регистр,
+ * в котором хранится наибольшая позиция первой единицы в остальных битах.
+ * Скетч занимает {@code 2^p} байт независимо от количества значений,
+ * стандартная относительная погрешность оценки — {@code 1.04 / sqrt(2^p)}
+ * (около 0.8% при точности по умолчанию).
+ * <p>
+ * Скетчи с одинаковой точностью объединяются ({@link #merge(HyperLogLog)}):
+ * результат совпадает со скетчем, построенным по объединению данных, поэтому
+ * части парка и отдельные импорты можно обрабатывать независимо.
+ * Удаление значений не поддерживается.
+ * <p>
+ * Экземпляр не потокобезопасен.
+ */
+public final class HyperLogLog {
+
+    /** Точность по умолчанию: 16384 регистра. */
+    public static final int DEFAULT_PRECISION = 14;
+
+    /** Наименьшая допустимая точность. */
+    public static final int MIN_PRECISION = 4;
+
+    /** Наибольшая допустимая точность. */
+    public static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * Создаёт пустой скетч с точностью {@link #DEFAULT_PRECISION}.
+     */
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Создаёт пустой скетч.
+     *
+     * @param precision количество бит номера регистра, от {@link #MIN_PRECISION} до {@link #MAX_PRECISION}
+     * @throws IllegalArgumentException если точность вне допустимого диапазона
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Точность должна быть от " + MIN_PRECISION + " до " + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Учитывает значение. {@code null} игнорируется.
+     *
+     * @param value строка
+     */
+    public void add(String value) {
+        if (value == null) return;
+
+        long hash = hash(value);
+        int index = (int) (hash >>> (64 - precision));
+        // сторожевой бит ограничивает длину серии нулей
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) registers[index] = rank;
+    }
+
+    /**
+     * Добавляет к скетчу значения другого скетча.
+     *
+     * @param other скетч с той же точностью
+     * @return этот скетч
+     * @throws IllegalArgumentException если точность скетчей различается
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Нельзя объединить скетчи с разной точностью");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) registers[i] = other.registers[i];
+        }
+        return this;
+    }
+
+    /**
+     * @return независимая копия скетча
+     */
+    public HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+        return copy;
+    }
+
+    /**
+     * Оценивает количество различных учтённых значений.
+     * Для малых количеств применяется линейный подсчёт по пустым регистрам.
+     *
+     * @return оценка количества различных значений
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte r : registers) {
+            sum += 1.0 / (1L << r);
+            if (r == 0) zeros++;
+        }
+
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * @return количество бит номера регистра
+     */
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * @return стандартная относительная погрешность оценки
+     */
+    public double relativeError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /**
+     * @return {@code true}, если ни одно значение не учтено
+     */
+    public boolean isEmpty() {
+        for (byte r : registers) {
+            if (r != 0) return false;
+        }
+        return true;
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+
+    /**
+     * 64-битный хэш строки: FNV-1a по символам с финальным перемешиванием
+     * MurmurHash3, чтобы близкие строки давали независимые биты.
+     */
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof HyperLogLog other && precision == other.precision
+                && Arrays.equals(registers, other.registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(registers);
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLog{precision=" + precision + ", estimate=" + estimate() + "}";
+    }
+}
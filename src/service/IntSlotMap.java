@@ -0,0 +1,159 @@
+package service;
+
+import java.util.Arrays;
+
+/**
+ * Отображение целых ключей в номера групп ({@code 0, 1, 2, ...} в порядке
+ * первого появления ключа) без упаковки.
+ * <p>
+ * Пока разброс ключей не превышает {@link #DENSE_LIMIT}, номер группы ищется
+ * в плотном массиве по смещению ключа (годы, десятилетия). При большем разбросе
+ * отображение переходит на хеш-таблицу с открытой адресацией и линейным
+ * пробированием.
+ */
+final class IntSlotMap {
+
+    /** Наибольший разброс ключей, при котором используется плотный массив. */
+    static final int DENSE_LIMIT = 4096;
+
+    /** Ключ каждой группы по её номеру. */
+    private int[] keys = new int[16];
+    private int size;
+
+    private int minKey;
+    private int maxKey;
+
+    /** Плотный режим: номер группы + 1 по смещению ключа от {@link #base}; 0 — пусто. */
+    private int[] dense;
+    private int base;
+
+    /** Режим хеш-таблицы: номер группы + 1; 0 — пусто. */
+    private int[] table;
+
+    /**
+     * Возвращает номер группы ключа, создавая новую группу при первом появлении.
+     *
+     * @param key ключ
+     * @return номер группы
+     */
+    int slotOf(int key) {
+        if (table != null) return hashedSlot(key);
+
+        if (dense != null) {
+            long offset = (long) key - base;
+            if (offset >= 0 && offset < dense.length) {
+                int s = dense[(int) offset];
+                if (s != 0) return s - 1;
+
+                int slot = add(key);
+                dense[(int) offset] = slot + 1;
+                return slot;
+            }
+        }
+        return grow(key);
+    }
+
+    /**
+     * Ищет номер группы ключа без создания новой группы.
+     *
+     * @param key ключ
+     * @return номер группы или -1, если ключ не встречался
+     */
+    int find(int key) {
+        if (table != null) {
+            int mask = table.length - 1;
+            for (int i = mix(key) & mask; table[i] != 0; i = (i + 1) & mask) {
+                if (keys[table[i] - 1] == key) return table[i] - 1;
+            }
+            return -1;
+        }
+        if (dense == null) return -1;
+        long offset = (long) key - base;
+        return offset >= 0 && offset < dense.length ? dense[(int) offset] - 1 : -1;
+    }
+
+    /**
+     * @return количество групп
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param slot номер группы
+     * @return ключ группы
+     */
+    int key(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Ключ вне плотного массива: расширяет массив или переходит на хеш-таблицу.
+     */
+    private int grow(int key) {
+        int lo = size == 0 ? key : Math.min(minKey, key);
+        int hi = size == 0 ? key : Math.max(maxKey, key);
+        long span = (long) hi - lo + 1;
+
+        if (span > DENSE_LIMIT) {
+            dense = null;
+            table = new int[Integer.highestOneBit(Math.max(16, size * 4))];
+            for (int s = 0; s < size; s++) insert(keys[s], s);
+            return hashedSlot(key);
+        }
+
+        // запас оставляется с той стороны, в которую расширился диапазон ключей
+        int length = (int) Math.min(DENSE_LIMIT, Math.max(span, dense == null ? 16 : dense.length * 2L));
+        int newBase = dense != null && key < base
+                ? (int) Math.max(Integer.MIN_VALUE, (long) hi - length + 1)
+                : lo;
+
+        int[] resized = new int[length];
+        for (int s = 0; s < size; s++) resized[keys[s] - newBase] = s + 1;
+        dense = resized;
+        base = newBase;
+
+        int slot = add(key);
+        dense[key - base] = slot + 1;
+        return slot;
+    }
+
+    private int hashedSlot(int key) {
+        int mask = table.length - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            int s = table[i];
+            if (s == 0) {
+                int slot = add(key);
+                table[i] = slot + 1;
+                if (size * 2 > table.length) rehash();
+                return slot;
+            }
+            if (keys[s - 1] == key) return s - 1;
+        }
+    }
+
+    private void insert(int key, int slot) {
+        int mask = table.length - 1;
+        int i = mix(key) & mask;
+        while (table[i] != 0) i = (i + 1) & mask;
+        table[i] = slot + 1;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        for (int s = 0; s < size; s++) insert(keys[s], s);
+    }
+
+    private int add(int key) {
+        if (size == keys.length) keys = Arrays.copyOf(keys, size * 2);
+        keys[size] = key;
+        if (size == 0 || key < minKey) minKey = key;
+        if (size == 0 || key > maxKey) maxKey = key;
+        return size++;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,62 @@
+package service;
+
+/**
+ * Показатель, рассчитываемый по группе самолётов: количество либо сумма,
+ * минимум, максимум или среднее числового поля.
+ *
+ * @param aggregation вид агрегации
+ * @param field       числовое поле ({@code null} для {@link Aggregation#COUNT})
+ */
+public record Measure(Aggregation aggregation, NumericField field) {
+
+    /**
+     * Вид агрегации.
+     */
+    public enum Aggregation { COUNT, SUM, MIN, MAX, AVG }
+
+    /**
+     * @throws IllegalArgumentException если поле не задано для агрегации по полю
+     *                                  или задано для количества
+     */
+    public Measure {
+        if (aggregation == null) {
+            throw new IllegalArgumentException("Не задан вид агрегации");
+        }
+        if ((aggregation == Aggregation.COUNT) != (field == null)) {
+            throw new IllegalArgumentException("Поле задаётся для всех агрегаций, кроме COUNT");
+        }
+    }
+
+    /** @return показатель «количество самолётов в группе» */
+    public static Measure count() {
+        return new Measure(Aggregation.COUNT, null);
+    }
+
+    /** @return показатель «сумма поля» */
+    public static Measure sum(NumericField field) {
+        return new Measure(Aggregation.SUM, field);
+    }
+
+    /** @return показатель «наименьшее значение поля» */
+    public static Measure min(NumericField field) {
+        return new Measure(Aggregation.MIN, field);
+    }
+
+    /** @return показатель «наибольшее значение поля» */
+    public static Measure max(NumericField field) {
+        return new Measure(Aggregation.MAX, field);
+    }
+
+    /** @return показатель «среднее значение поля» */
+    public static Measure avg(NumericField field) {
+        return new Measure(Aggregation.AVG, field);
+    }
+
+    /**
+     * @return краткое обозначение, например {@code SUM(RANGE)}
+     */
+    @Override
+    public String toString() {
+        return field == null ? aggregation.name() : aggregation + "(" + field + ")";
+    }
+}
@@ -0,0 +1,43 @@
+package service;
+
+import model.Aircraft;
+import model.CargoAircraft;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Показатели самолёта, для которых рассчитываются дисперсия и корреляции
+ * ({@link Moments}). Кроме общих полей включает поля подклассов;
+ * у самолётов других типов такой показатель не задан ({@link Double#NaN}).
+ */
+public enum Metric {
+
+    RANGE("Дальность", Aircraft::getRange),
+    CAPACITY("Вместимость", Aircraft::getCapacity),
+    YEAR("Год выпуска", Aircraft::getYear),
+    FLIGHT_HOURS("Налёт часов", Aircraft::getFlightHours),
+    MAX_CARGO_WEIGHT("Грузоподъёмность", a -> a instanceof CargoAircraft c ? c.getMaxCargoWeight() : Double.NaN);
+
+    private final String title;
+    private final ToDoubleFunction<Aircraft> getter;
+
+    Metric(String title, ToDoubleFunction<Aircraft> getter) {
+        this.title = title;
+        this.getter = getter;
+    }
+
+    /**
+     * @return название показателя для отображения
+     */
+    public String title() {
+        return title;
+    }
+
+    /**
+     * @param a самолёт
+     * @return значение показателя или {@link Double#NaN}, если у самолёта его нет
+     */
+    public double value(Aircraft a) {
+        return getter.applyAsDouble(a);
+    }
+}
@@ -0,0 +1,214 @@
+package service;
+
+import model.Aircraft;
+
+/**
+ * Онлайн-статистика показателей {@link Metric}: среднее, дисперсия,
+ * ковариация и корреляция каждой пары показателей.
+ * <p>
+ * Для каждой пары ведутся количество, средние и центральные моменты
+ * по алгоритму Уэлфорда, поэтому учёт самолёта не накапливает ошибку
+ * округления, как формула {@code Σx² − n·x̄²}. Аккумуляторы объединяются
+ * по формулам Чана ({@link #combine(Moments)}), что позволяет считать части
+ * парка независимо. Пара учитывает только самолёты, у которых заданы оба
+ * показателя, — например, корреляция с грузоподъёмностью считается по грузовым.
+ * <p>
+ * Экземпляр не потокобезопасен.
+ */
+public final class Moments {
+
+    private static final Metric[] METRICS = Metric.values();
+    private static final int D = METRICS.length;
+
+    // ячейка пары (i, j), i <= j, — i * D + j; диагональ содержит одномерную статистику
+    private final long[] n = new long[D * D];
+    private final double[] meanX = new double[D * D];
+    private final double[] meanY = new double[D * D];
+    private final double[] m2x = new double[D * D];
+    private final double[] m2y = new double[D * D];
+    private final double[] cxy = new double[D * D];
+
+    private final double[] values = new double[D];
+
+    /**
+     * Учитывает самолёт.
+     *
+     * @param a самолёт
+     */
+    public void accept(Aircraft a) {
+        for (int i = 0; i < D; i++) values[i] = METRICS[i].value(a);
+
+        for (int i = 0; i < D; i++) {
+            double x = values[i];
+            if (Double.isNaN(x)) continue;
+            for (int j = i; j < D; j++) {
+                double y = values[j];
+                if (!Double.isNaN(y)) update(i * D + j, x, y);
+            }
+        }
+    }
+
+    private void update(int s, double x, double y) {
+        long k = ++n[s];
+        double dx = x - meanX[s];
+        double dy = y - meanY[s];
+        meanX[s] += dx / k;
+        meanY[s] += dy / k;
+        m2x[s] += dx * (x - meanX[s]);
+        m2y[s] += dy * (y - meanY[s]);
+        cxy[s] += dx * (y - meanY[s]);
+    }
+
+    /**
+     * Отменяет учёт самолёта обратным шагом Уэлфорда. Используется при изменении
+     * самолёта; самолёт должен быть учтён ранее с теми же значениями показателей.
+     *
+     * @param a ранее учтённый самолёт
+     */
+    void remove(Aircraft a) {
+        for (int i = 0; i < D; i++) values[i] = METRICS[i].value(a);
+
+        for (int i = 0; i < D; i++) {
+            double x = values[i];
+            if (Double.isNaN(x)) continue;
+            for (int j = i; j < D; j++) {
+                double y = values[j];
+                if (!Double.isNaN(y)) downdate(i * D + j, x, y);
+            }
+        }
+    }
+
+    private void downdate(int s, double x, double y) {
+        long k = n[s];
+        if (k <= 1) {
+            n[s] = 0;
+            meanX[s] = meanY[s] = m2x[s] = m2y[s] = cxy[s] = 0;
+            return;
+        }
+        double previousX = (k * meanX[s] - x) / (k - 1);
+        double previousY = (k * meanY[s] - y) / (k - 1);
+        m2x[s] = Math.max(0, m2x[s] - (x - previousX) * (x - meanX[s]));
+        m2y[s] = Math.max(0, m2y[s] - (y - previousY) * (y - meanY[s]));
+        cxy[s] -= (x - previousX) * (y - meanY[s]);
+        meanX[s] = previousX;
+        meanY[s] = previousY;
+        n[s] = k - 1;
+    }
+
+    /**
+     * Добавляет к статистике статистику другой части парка.
+     *
+     * @param other статистика следующей части
+     * @return эта статистика
+     */
+    public Moments combine(Moments other) {
+        for (int s = 0; s < n.length; s++) {
+            long nb = other.n[s];
+            if (nb == 0) continue;
+            long na = n[s];
+            if (na == 0) {
+                n[s] = nb;
+                meanX[s] = other.meanX[s];
+                meanY[s] = other.meanY[s];
+                m2x[s] = other.m2x[s];
+                m2y[s] = other.m2y[s];
+                cxy[s] = other.cxy[s];
+                continue;
+            }
+
+            long total = na + nb;
+            double dx = other.meanX[s] - meanX[s];
+            double dy = other.meanY[s] - meanY[s];
+            double weight = (double) na * nb / total;
+
+            meanX[s] += dx * nb / total;
+            meanY[s] += dy * nb / total;
+            m2x[s] += other.m2x[s] + dx * dx * weight;
+            m2y[s] += other.m2y[s] + dy * dy * weight;
+            cxy[s] += other.cxy[s] + dx * dy * weight;
+            n[s] = total;
+        }
+        return this;
+    }
+
+    /**
+     * @return независимая копия статистики
+     */
+    public Moments copy() {
+        return new Moments().combine(this);
+    }
+
+    private static int slot(Metric a, Metric b) {
+        int i = Math.min(a.ordinal(), b.ordinal());
+        int j = Math.max(a.ordinal(), b.ordinal());
+        return i * D + j;
+    }
+
+    /**
+     * @param metric показатель
+     * @return количество самолётов, у которых показатель задан
+     */
+    public long count(Metric metric) {
+        return n[slot(metric, metric)];
+    }
+
+    /**
+     * @param metric показатель
+     * @return среднее значение или {@link Double#NaN}, если значений нет
+     */
+    public double mean(Metric metric) {
+        int s = slot(metric, metric);
+        return n[s] == 0 ? Double.NaN : meanX[s];
+    }
+
+    /**
+     * @param metric показатель
+     * @return выборочная дисперсия или {@link Double#NaN}, если значений меньше двух
+     */
+    public double variance(Metric metric) {
+        int s = slot(metric, metric);
+        return n[s] < 2 ? Double.NaN : m2x[s] / (n[s] - 1);
+    }
+
+    /**
+     * @param metric показатель
+     * @return выборочное стандартное отклонение или {@link Double#NaN}, если значений меньше двух
+     */
+    public double standardDeviation(Metric metric) {
+        return Math.sqrt(variance(metric));
+    }
+
+    /**
+     * @param a первый показатель
+     * @param b второй показатель
+     * @return количество самолётов, у которых заданы оба показателя
+     */
+    public long count(Metric a, Metric b) {
+        return n[slot(a, b)];
+    }
+
+    /**
+     * @param a первый показатель
+     * @param b второй показатель
+     * @return выборочная ковариация или {@link Double#NaN}, если общих значений меньше двух
+     */
+    public double covariance(Metric a, Metric b) {
+        int s = slot(a, b);
+        return n[s] < 2 ? Double.NaN : cxy[s] / (n[s] - 1);
+    }
+
+    /**
+     * Коэффициент корреляции Пирсона по самолётам, у которых заданы оба показателя.
+     *
+     * @param a первый показатель
+     * @param b второй показатель
+     * @return корреляция от -1 до 1 или {@link Double#NaN}, если один из показателей
+     *         на этих самолётах постоянен или общих значений меньше двух
+     */
+    public double correlation(Metric a, Metric b) {
+        int s = slot(a, b);
+        if (n[s] < 2 || m2x[s] <= 0 || m2y[s] <= 0) return Double.NaN;
+        double r = cxy[s] / Math.sqrt(m2x[s] * m2y[s]);
+        return Math.max(-1, Math.min(1, r));
+    }
+}
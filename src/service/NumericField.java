@@ -0,0 +1,51 @@
+package service;
+
+import model.Aircraft;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Числовые характеристики самолёта, по которым рассчитывается статистика парка
+ * ({@link FleetSummary}).
+ */
+public enum NumericField {
+
+    CAPACITY("Вместимость", true, Aircraft::getCapacity),
+    RANGE("Дальность", false, Aircraft::getRange),
+    YEAR("Год выпуска", true, Aircraft::getYear),
+    FLIGHT_HOURS("Налёт часов", true, Aircraft::getFlightHours);
+
+    private final String title;
+    private final boolean integral;
+    private final ToDoubleFunction<Aircraft> getter;
+
+    NumericField(String title, boolean integral, ToDoubleFunction<Aircraft> getter) {
+        this.title = title;
+        this.integral = integral;
+        this.getter = getter;
+    }
+
+    /**
+     * @return {@code true}, если значения поля целые и суммируются точно в {@code long}
+     */
+    public boolean isIntegral() {
+        return integral;
+    }
+
+    /**
+     * @return название характеристики для отображения
+     */
+    public String title() {
+        return title;
+    }
+
+    /**
+     * Возвращает значение характеристики самолёта.
+     *
+     * @param a самолёт
+     * @return значение поля
+     */
+    public double value(Aircraft a) {
+        return getter.applyAsDouble(a);
+    }
+}
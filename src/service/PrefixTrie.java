@@ -0,0 +1,231 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Префиксное дерево строковых значений с подсчётом повторов.
+ * <p>
+ * Значения сравниваются без учёта регистра; для подсказок сохраняется написание,
+ * добавленное последним. Дочерние узлы хранятся в отсортированных массивах символов,
+ * что компактнее хеш-таблиц. Каждый узел запоминает лучшие варианты дополнения
+ * своего поддерева; при изменении значения запомненные варианты сбрасываются
+ * только на пути от корня до этого значения.
+ * <p>
+ * Класс не потокобезопасен.
+ */
+final class PrefixTrie {
+
+    /**
+     * Вариант дополнения.
+     *
+     * @param value значение
+     * @param count количество повторов значения
+     */
+    record Completion(String value, int count) {
+    }
+
+    /** Порядок подсказок: сначала частые значения, затем по алфавиту. */
+    static final Comparator<Completion> RANKING = Comparator
+            .comparingInt(Completion::count).reversed()
+            .thenComparing(Completion::value, String.CASE_INSENSITIVE_ORDER);
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final class Node {
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+
+        /** Количество повторов значения, заканчивающегося в этом узле. */
+        int count;
+
+        /** Написание значения для подсказок. */
+        String value;
+
+        /** Запомненные лучшие дополнения поддерева ({@code null}, если устарели). */
+        List<Completion> top;
+
+        /** Сколько дополнений было запрошено при заполнении {@link #top}. */
+        int topLimit;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) return children[i];
+
+            int at = -i - 1;
+            char[] k = new char[keys.length + 1];
+            Node[] ch = new Node[children.length + 1];
+            System.arraycopy(keys, 0, k, 0, at);
+            System.arraycopy(children, 0, ch, 0, at);
+            System.arraycopy(keys, at, k, at + 1, keys.length - at);
+            System.arraycopy(children, at, ch, at + 1, children.length - at);
+            k[at] = c;
+            ch[at] = new Node();
+            keys = k;
+            children = ch;
+            return ch[at];
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i < 0) return;
+
+            char[] k = new char[keys.length - 1];
+            Node[] ch = new Node[children.length - 1];
+            System.arraycopy(keys, 0, k, 0, i);
+            System.arraycopy(children, 0, ch, 0, i);
+            System.arraycopy(keys, i + 1, k, i, keys.length - i - 1);
+            System.arraycopy(children, i + 1, ch, i, children.length - i - 1);
+            keys = k;
+            children = ch;
+        }
+
+        boolean isEmpty() {
+            return count == 0 && keys.length == 0;
+        }
+    }
+
+    private Node root = new Node();
+
+    /** Количество различных значений. */
+    private int distinct;
+
+    /**
+     * Добавляет одно вхождение значения.
+     *
+     * @param value значение (пустые и {@code null} игнорируются)
+     */
+    void add(String value) {
+        if (value == null || value.isBlank()) return;
+
+        String key = value.toLowerCase(Locale.ROOT);
+        Node node = root;
+        node.top = null;
+
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+            node.top = null;
+        }
+
+        if (node.count++ == 0) distinct++;
+        node.value = value;
+    }
+
+    /**
+     * Удаляет одно вхождение значения. Ветви, ставшие пустыми, удаляются.
+     *
+     * @param value значение
+     */
+    void remove(String value) {
+        if (value == null || value.isBlank()) return;
+
+        String key = value.toLowerCase(Locale.ROOT);
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+
+        for (int i = 0; i < key.length(); i++) {
+            Node next = path[i].child(key.charAt(i));
+            if (next == null) return;
+            path[i + 1] = next;
+        }
+
+        Node last = path[key.length()];
+        if (last.count == 0) return;
+
+        for (Node n : path) n.top = null;
+
+        if (--last.count == 0) {
+            distinct--;
+            last.value = null;
+        }
+
+        for (int i = key.length(); i > 0 && path[i].isEmpty(); i--) {
+            path[i - 1].removeChild(key.charAt(i - 1));
+        }
+    }
+
+    /**
+     * @param value значение
+     * @return количество вхождений значения (без учёта регистра)
+     */
+    int count(String value) {
+        Node node = find(value.toLowerCase(Locale.ROOT));
+        return node == null ? 0 : node.count;
+    }
+
+    /**
+     * @return количество различных значений
+     */
+    int size() {
+        return distinct;
+    }
+
+    /**
+     * Очищает дерево.
+     */
+    void clear() {
+        root = new Node();
+        distinct = 0;
+    }
+
+    /**
+     * Возвращает лучшие дополнения префикса в порядке {@link #RANKING}.
+     *
+     * @param prefix префикс (без учёта регистра)
+     * @param limit  максимальное количество вариантов
+     * @return варианты дополнения
+     */
+    List<Completion> complete(String prefix, int limit) {
+        if (limit <= 0) return List.of();
+
+        Node node = find(prefix.toLowerCase(Locale.ROOT));
+        if (node == null) return List.of();
+
+        if (node.top == null || node.topLimit < limit) {
+            node.top = collect(node, limit);
+            node.topLimit = limit;
+        }
+        return node.top.size() > limit ? node.top.subList(0, limit) : node.top;
+    }
+
+    private Node find(String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Обходит поддерево и отбирает {@code limit} лучших значений с помощью ограниченной кучи.
+     */
+    private static List<Completion> collect(Node from, int limit) {
+        PriorityQueue<Completion> best = new PriorityQueue<>(RANKING.reversed());
+        List<Node> stack = new ArrayList<>();
+        stack.add(from);
+
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+
+            if (node.count > 0) {
+                best.add(new Completion(node.value, node.count));
+                if (best.size() > limit) best.poll();
+            }
+            stack.addAll(Arrays.asList(node.children));
+        }
+
+        List<Completion> result = new ArrayList<>(best);
+        result.sort(RANKING);
+        return List.copyOf(result);
+    }
+}
@@ -0,0 +1,250 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Потоковый скетч квантилей с логарифмическими интервалами
+ * (по схеме DDSketch / HDR-гистограмм).
+ * <p>
+ * Положительные значения раскладываются по интервалам {@code (γ^(i-1), γ^i]},
+ * где {@code γ = (1 + α) / (1 - α)}, а α — относительная точность. Любой квантиль
+ * оценивается с относительной погрешностью не больше α; память и время ответа
+ * зависят только от разброса значений (сотни интервалов), а не от размера парка.
+ * Нули и отрицательные значения учитываются в отдельном нулевом интервале.
+ * <p>
+ * Скетч поддерживает удаление ранее добавленных значений и объединение
+ * ({@link #merge(QuantileSketch)}) — результат совпадает со скетчем,
+ * построенным по объединённым данным.
+ * <p>
+ * Экземпляр не потокобезопасен.
+ */
+public final class QuantileSketch {
+
+    /** Относительная точность по умолчанию (1%). */
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    /** Значения не больше порога считаются нулевыми. */
+    private static final double MIN_POSITIVE = 1e-9;
+
+    /**
+     * Интервал гистограммы для отображения.
+     *
+     * @param lower нижняя граница (не включая, кроме нулевого интервала)
+     * @param upper верхняя граница (включая)
+     * @param count количество значений
+     */
+    public record Bin(double lower, double upper, long count) {
+    }
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+
+    private long count;
+    private long zeroCount;
+
+    /** Счётчики интервалов с номерами {@code offset ... offset + counts.length - 1}. */
+    private long[] counts = new long[0];
+    private int offset;
+
+    /**
+     * Создаёт пустой скетч с точностью {@link #DEFAULT_RELATIVE_ACCURACY}.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    /**
+     * Создаёт пустой скетч.
+     *
+     * @param relativeAccuracy относительная точность оценки квантилей, от 0 до 1
+     * @throws IllegalArgumentException если точность вне интервала (0, 1)
+     */
+    public QuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Относительная точность должна быть в интервале (0, 1)");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /**
+     * Добавляет значение.
+     *
+     * @param value значение
+     */
+    public void add(double value) {
+        count++;
+        if (value <= MIN_POSITIVE) {
+            zeroCount++;
+            return;
+        }
+        int index = indexOf(value);
+        ensure(index);
+        counts[index - offset]++;
+    }
+
+    /**
+     * Удаляет ранее добавленное значение.
+     *
+     * @param value значение
+     * @throws IllegalArgumentException если такое значение не добавлялось
+     */
+    public void remove(double value) {
+        if (value <= MIN_POSITIVE) {
+            if (zeroCount == 0) throw new IllegalArgumentException("Значение " + value + " не добавлялось");
+            zeroCount--;
+        } else {
+            int i = indexOf(value) - offset;
+            if (i < 0 || i >= counts.length || counts[i] == 0) {
+                throw new IllegalArgumentException("Значение " + value + " не добавлялось");
+            }
+            counts[i]--;
+        }
+        count--;
+    }
+
+    /**
+     * Добавляет к скетчу все значения другого скетча.
+     *
+     * @param other скетч с той же точностью
+     * @return этот скетч
+     * @throws IllegalArgumentException если точность скетчей различается
+     */
+    public QuantileSketch merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Нельзя объединить скетчи с разной точностью");
+        }
+        if (other.counts.length > 0) {
+            ensure(other.offset);
+            ensure(other.offset + other.counts.length - 1);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[other.offset + i - offset] += other.counts[i];
+            }
+        }
+        count += other.count;
+        zeroCount += other.zeroCount;
+        return this;
+    }
+
+    /**
+     * @return независимая копия скетча
+     */
+    public QuantileSketch copy() {
+        QuantileSketch copy = new QuantileSketch(relativeAccuracy);
+        copy.count = count;
+        copy.zeroCount = zeroCount;
+        copy.counts = counts.clone();
+        copy.offset = offset;
+        return copy;
+    }
+
+    /**
+     * @return количество значений
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return относительная точность оценки квантилей
+     */
+    public double relativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * Оценивает квантиль (например, 0.5 — медиана, 0.99 — 99-й перцентиль).
+     *
+     * @param q уровень квантиля от 0 до 1
+     * @return оценка значения или {@link Double#NaN}, если скетч пуст
+     * @throws IllegalArgumentException если уровень вне интервала [0, 1]
+     */
+    public double quantile(double q) {
+        if (!(q >= 0 && q <= 1)) throw new IllegalArgumentException("Уровень квантиля должен быть в интервале [0, 1]");
+        if (count == 0) return Double.NaN;
+
+        double rank = q * (count - 1);
+        long seen = zeroCount;
+        if (rank < seen) return 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (rank < seen) return valueOf(offset + i);
+        }
+        return valueOf(offset + counts.length - 1);
+    }
+
+    /**
+     * Возвращает гистограмму распределения: непустой диапазон интервалов,
+     * объединённых не более чем в {@code maxBins} групп одинаковой ширины
+     * в логарифмической шкале. Нулевые значения образуют отдельный интервал.
+     *
+     * @param maxBins наибольшее количество интервалов (не считая нулевого)
+     * @return интервалы по возрастанию значений
+     * @throws IllegalArgumentException если {@code maxBins} меньше 1
+     */
+    public List<Bin> bins(int maxBins) {
+        if (maxBins < 1) throw new IllegalArgumentException("Количество интервалов должно быть положительным");
+
+        List<Bin> bins = new ArrayList<>();
+        if (zeroCount > 0) bins.add(new Bin(0, 0, zeroCount));
+
+        int first = 0;
+        while (first < counts.length && counts[first] == 0) first++;
+        int last = counts.length - 1;
+        while (last >= first && counts[last] == 0) last--;
+        if (first > last) return bins;
+
+        int width = (last - first + maxBins) / maxBins;
+        for (int from = first; from <= last; from += width) {
+            int to = Math.min(last, from + width - 1);
+            long n = 0;
+            for (int i = from; i <= to; i++) n += counts[i];
+            bins.add(new Bin(Math.pow(gamma, offset + from - 1), Math.pow(gamma, offset + to), n));
+        }
+        return bins;
+    }
+
+    private int indexOf(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    /**
+     * Представитель интервала: значение с наименьшей относительной погрешностью
+     * для всех точек интервала.
+     */
+    private double valueOf(int index) {
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    /**
+     * Расширяет массив счётчиков так, чтобы он содержал интервал с номером {@code index}.
+     */
+    private void ensure(int index) {
+        if (counts.length == 0) {
+            counts = new long[16];
+            offset = index - 8;
+            return;
+        }
+        if (index >= offset && index < offset + counts.length) return;
+
+        int lo = Math.min(offset, index);
+        int hi = Math.max(offset + counts.length - 1, index);
+        int slack = Math.max(8, (hi - lo + 1) / 2);
+        int newOffset = index < offset ? lo - slack : lo;
+
+        long[] resized = new long[hi - lo + 1 + slack];
+        System.arraycopy(counts, 0, resized, offset - newOffset, counts.length);
+        counts = resized;
+        offset = newOffset;
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch{count=" + count + ", buckets=" + Arrays.stream(counts).filter(c -> c > 0).count() + "}";
+    }
+}
@@ -0,0 +1,91 @@
+package service;
+
+import model.Aircraft;
+import model.CargoAircraft;
+import model.MilitaryAircraft;
+import model.PassengerAircraft;
+
+import java.util.Comparator;
+import java.util.function.ToLongFunction;
+
+/**
+ * Поля, по которым сервис предоставляет отсортированные представления парка
+ * ({@link AircraftService#sortedAircraft(SortField, boolean)}).
+ */
+public enum SortField {
+
+    ID(Comparator.comparing(Aircraft::getId, Comparator.nullsFirst(Comparator.naturalOrder()))),
+    TYPE(Comparator.comparing(Aircraft::getAircraftType, Comparator.nullsFirst(Comparator.naturalOrder()))),
+    MODEL(Comparator.comparing(Aircraft::getModel, Comparator.nullsFirst(Comparator.naturalOrder()))),
+    MANUFACTURER(Comparator.comparing(Aircraft::getManufacturer, Comparator.nullsFirst(Comparator.naturalOrder()))),
+    CAPACITY(Aircraft::getCapacity),
+    RANGE(a -> sortableBits(a.getRange())),
+    YEAR(Aircraft::getYear),
+    FLIGHT_HOURS(Aircraft::getFlightHours),
+    STATUS(Comparator.comparing(Aircraft::getStatus, Comparator.nullsFirst(Comparator.naturalOrder()))),
+    SPECIFIC(Comparator.comparing(SortField::specificOf));
+
+    private final Comparator<Aircraft> comparator;
+
+    /** Числовой ключ сортировки ({@code null} для строковых полей). */
+    private final ToLongFunction<Aircraft> numericKey;
+
+    SortField(Comparator<Aircraft> comparator) {
+        this.comparator = comparator;
+        this.numericKey = null;
+    }
+
+    SortField(ToLongFunction<Aircraft> numericKey) {
+        this.comparator = Comparator.comparingLong(numericKey);
+        this.numericKey = numericKey;
+    }
+
+    /**
+     * @return порядок самолётов по возрастанию значения поля
+     */
+    public Comparator<Aircraft> comparator() {
+        return comparator;
+    }
+
+    /**
+     * @return {@code true}, если поле числовое и сортируется по примитивному ключу
+     */
+    public boolean isNumeric() {
+        return numericKey != null;
+    }
+
+    /**
+     * Возвращает числовой ключ, порядок которого совпадает с порядком значений поля.
+     *
+     * @param a самолёт
+     * @return ключ сортировки
+     * @throws UnsupportedOperationException если поле не числовое
+     */
+    long numericKey(Aircraft a) {
+        if (numericKey == null) throw new UnsupportedOperationException(name() + " не числовое поле");
+        return numericKey.applyAsLong(a);
+    }
+
+    /**
+     * Преобразует {@code double} в {@code long}, сравнение которых как знаковых чисел
+     * совпадает с {@link Double#compare(double, double)}.
+     */
+    private static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Возвращает значение характеристики, специфичной для типа самолёта:
+     * класс салона, грузоподъёмность или тип вооружения.
+     *
+     * @param a самолёт
+     * @return строковое значение характеристики или пустая строка
+     */
+    public static String specificOf(Aircraft a) {
+        if (a instanceof PassengerAircraft p) return p.getCabinClass();
+        if (a instanceof CargoAircraft g) return String.valueOf(g.getMaxCargoWeight());
+        if (a instanceof MilitaryAircraft m) return m.getWeaponType();
+        return "";
+    }
+}
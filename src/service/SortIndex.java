@@ -0,0 +1,315 @@
+package service;
+
+import model.Aircraft;
+import repository.AircraftEvent;
+import repository.FleetSnapshot;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Кэш отсортированных представлений парка.
+ * <p>
+ * Для каждого поля {@link SortField} хранится массив самолётов в порядке
+ * возрастания; представление по убыванию читает тот же массив с конца, без повторной
+ * сортировки. Массив строится лениво при первом запросе и затем поддерживается
+ * событиями репозитория: добавление, удаление и замена самолёта вставляют или
+ * убирают одну позицию, найденную двоичным поиском, без пересортировки.
+ * <p>
+ * Равные по полю самолёты идут в порядке снимка, как при устойчивой сортировке:
+ * каждая позиция хранит номер, выданный при сортировке или добавлении, и замена
+ * самолёта сохраняет его номер. Массив, уже выданный представлению, не изменяется —
+ * первое следующее изменение работает с копией.
+ * <p>
+ * Числовые поля сортируются по массиву примитивных ключей устойчивой сортировкой
+ * слиянием номеров строк: сравнение не обращается к объектам и ничего не создаёт.
+ */
+final class SortIndex implements FleetIndex {
+
+    /**
+     * Наибольшее количество изменений набора, применяемых к порядкам поштучно;
+     * после большего набора порядки сортируются заново при следующем запросе.
+     */
+    private static final int MAX_BATCH_CHANGES = 64;
+
+    private final Map<SortField, Order> orders = new EnumMap<>(SortField.class);
+
+    /** Версия парка, отражённая в {@link #orders}. */
+    private long version = -1;
+
+    /**
+     * Возвращает самолёты снимка, упорядоченные по полю. Снимок, версия которого
+     * не совпадает с версией индекса, сортируется отдельно, без кэширования.
+     *
+     * @param snapshot  снимок парка
+     * @param field     поле сортировки
+     * @param ascending порядок по возрастанию
+     * @return неизменяемое представление с произвольным доступом за O(1)
+     */
+    synchronized List<Aircraft> view(FleetSnapshot snapshot, SortField field, boolean ascending) {
+        if (snapshot.version() != version) return sorted(snapshot.aircraft(), field, ascending);
+
+        return orders.computeIfAbsent(field, f -> new Order(f, snapshot.aircraft())).view(ascending);
+    }
+
+    /**
+     * Упорядочивает произвольный набор самолётов по полю (например, результат поиска).
+     *
+     * @param rows      самолёты
+     * @param field     поле сортировки
+     * @param ascending порядок по возрастанию
+     * @return неизменяемое упорядоченное представление
+     */
+    static List<Aircraft> sorted(Collection<Aircraft> rows, SortField field, boolean ascending) {
+        Aircraft[] all = rows.toArray(new Aircraft[0]);
+        int[] index = sort(all, field);
+        Aircraft[] order = new Aircraft[all.length];
+        for (int i = 0; i < order.length; i++) order[i] = all[index[i]];
+        return new OrderView(order, order.length, ascending);
+    }
+
+    @Override
+    public synchronized void rebuild(FleetSnapshot snapshot) {
+        version = snapshot.version();
+        orders.clear();
+    }
+
+    @Override
+    public synchronized void rebuild(Collection<Aircraft> fleet) {
+        orders.clear();
+    }
+
+    /**
+     * Применяет событие, если оно новее версии индекса. Большой набор изменений
+     * сбрасывает порядки.
+     *
+     * @param event событие
+     */
+    @Override
+    public synchronized void apply(AircraftEvent event) {
+        if (event.version() <= version) return;
+        version = event.version();
+        if (event instanceof AircraftEvent.Batch batch) {
+            if (batch.changes().size() > MAX_BATCH_CHANGES) {
+                orders.clear();
+                return;
+            }
+            for (AircraftEvent change : batch.changes()) FleetIndex.super.apply(change);
+        } else {
+            FleetIndex.super.apply(event);
+        }
+    }
+
+    @Override
+    public synchronized void added(Aircraft aircraft) {
+        for (Order order : orders.values()) order.insert(aircraft, order.nextTie++);
+    }
+
+    @Override
+    public synchronized void removed(Aircraft aircraft) {
+        for (Order order : orders.values()) order.remove(aircraft);
+    }
+
+    @Override
+    public synchronized void updated(Aircraft previous, Aircraft current) {
+        for (Order order : orders.values()) order.replace(previous, current);
+    }
+
+    /**
+     * Возвращает перестановку, упорядочивающую самолёты по возрастанию поля (устойчиво).
+     */
+    private static int[] sort(Aircraft[] all, SortField field) {
+        int n = all.length;
+        int[] index = new int[n];
+        if (!field.isNumeric()) {
+            Integer[] boxed = new Integer[n];
+            for (int i = 0; i < n; i++) boxed[i] = i;
+            Arrays.sort(boxed, (i, j) -> field.comparator().compare(all[i], all[j]));
+            for (int i = 0; i < n; i++) index[i] = boxed[i];
+            return index;
+        }
+
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = field.numericKey(all[i]);
+            index[i] = i;
+        }
+
+        mergeSort(index, new int[n], keys, 0, n);
+        return index;
+    }
+
+    /**
+     * Устойчивая сортировка слиянием номеров строк по ключам {@code keys}
+     * в диапазоне {@code [from, to)}.
+     */
+    private static void mergeSort(int[] index, int[] buffer, long[] keys, int from, int to) {
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int v = index[i];
+                int j = i - 1;
+                while (j >= from && keys[index[j]] > keys[v]) {
+                    index[j + 1] = index[j];
+                    j--;
+                }
+                index[j + 1] = v;
+            }
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        mergeSort(index, buffer, keys, from, mid);
+        mergeSort(index, buffer, keys, mid, to);
+        if (keys[index[mid - 1]] <= keys[index[mid]]) return;
+
+        System.arraycopy(index, from, buffer, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            index[k++] = keys[buffer[j]] < keys[buffer[i]] ? buffer[j++] : buffer[i++];
+        }
+        while (i < mid) index[k++] = buffer[i++];
+        while (j < to) index[k++] = buffer[j++];
+    }
+
+    /**
+     * Порядок самолётов по одному полю с номерами, разрешающими равенство ключей.
+     */
+    private static final class Order {
+
+        private final SortField field;
+        private Aircraft[] items;
+        private long[] ties;
+        private int size;
+        private long nextTie;
+
+        /** Массивы выданы представлению и не должны изменяться. */
+        private boolean shared;
+
+        Order(SortField field, Collection<Aircraft> rows) {
+            this.field = field;
+            Aircraft[] all = rows.toArray(new Aircraft[0]);
+            int[] index = sort(all, field);
+            size = all.length;
+            items = new Aircraft[size];
+            ties = new long[size];
+            for (int i = 0; i < size; i++) {
+                items[i] = all[index[i]];
+                ties[i] = index[i];
+            }
+            nextTie = size;
+        }
+
+        List<Aircraft> view(boolean ascending) {
+            shared = true;
+            return new OrderView(items, size, ascending);
+        }
+
+        void insert(Aircraft aircraft, long tie) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int c = compare(items[mid], aircraft);
+                if (c < 0 || c == 0 && ties[mid] < tie) lo = mid + 1;
+                else hi = mid;
+            }
+
+            ensureWritable(size + 1);
+            System.arraycopy(items, lo, items, lo + 1, size - lo);
+            System.arraycopy(ties, lo, ties, lo + 1, size - lo);
+            items[lo] = aircraft;
+            ties[lo] = tie;
+            size++;
+        }
+
+        void remove(Aircraft aircraft) {
+            int i = indexOf(aircraft);
+            if (i >= 0) removeAt(i);
+        }
+
+        void replace(Aircraft previous, Aircraft current) {
+            int i = indexOf(previous);
+            if (i < 0) {
+                insert(current, nextTie++);
+            } else if (compare(previous, current) == 0) {
+                ensureWritable(size);
+                items[i] = current;
+            } else {
+                long tie = ties[i];
+                removeAt(i);
+                insert(current, tie);
+            }
+        }
+
+        private void removeAt(int i) {
+            ensureWritable(size);
+            System.arraycopy(items, i + 1, items, i, size - i - 1);
+            System.arraycopy(ties, i + 1, ties, i, size - i - 1);
+            items[--size] = null;
+        }
+
+        /**
+         * Находит позицию того же объекта: двоичный поиск первого равного ключа
+         * и просмотр группы равных.
+         */
+        private int indexOf(Aircraft aircraft) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compare(items[mid], aircraft) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            for (int i = lo; i < size && compare(items[i], aircraft) == 0; i++) {
+                if (items[i] == aircraft) return i;
+            }
+            return -1;
+        }
+
+        private int compare(Aircraft a, Aircraft b) {
+            return field.comparator().compare(a, b);
+        }
+
+        /**
+         * Обеспечивает собственные массивы ёмкостью не меньше {@code capacity}.
+         */
+        private void ensureWritable(int capacity) {
+            if (!shared && capacity <= items.length) return;
+            int length = Math.max(capacity, items.length + (items.length >> 1) + 1);
+            items = Arrays.copyOf(items, length);
+            ties = Arrays.copyOf(ties, length);
+            shared = false;
+        }
+    }
+
+    /**
+     * Представление первых {@code size} элементов массива в прямом или обратном порядке.
+     */
+    private static final class OrderView extends AbstractList<Aircraft> implements RandomAccess {
+
+        private final Aircraft[] order;
+        private final int size;
+        private final boolean ascending;
+
+        OrderView(Aircraft[] order, int size, boolean ascending) {
+            this.order = order;
+            this.size = size;
+            this.ascending = ascending;
+        }
+
+        @Override
+        public Aircraft get(int index) {
+            Objects.checkIndex(index, size);
+            return order[ascending ? index : size - 1 - index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package service;
+
+import repository.AircraftEvent;
+import repository.FleetSnapshot;
+
+/**
+ * Вторичный индекс, не умеющий отменять учёт удалённого самолёта.
+ * <p>
+ * Удаление помечает такой индекс устаревшим ({@link #markStale()}); устаревший
+ * индекс перестраивается по снимку парка при следующем запросе
+ * ({@link #rebuild(FleetSnapshot)}). Индекс помнит версию снимка, по которой
+ * построен, и пропускает события не новее неё: снимок публикуется раньше,
+ * чем рассылается событие, и перестроение в этом промежутке уже содержит
+ * изменение, которое событие принесёт повторно.
+ * <p>
+ * Методы синхронизированы на индексе; наследники синхронизируют свои методы так же.
+ */
+abstract class StaleableIndex implements FleetIndex {
+
+    /** Версия парка, отражённая в индексе. */
+    private long version;
+    private boolean stale;
+
+    /**
+     * Перестраивает индекс по снимку и запоминает его версию.
+     *
+     * @param snapshot снимок парка
+     */
+    @Override
+    public synchronized void rebuild(FleetSnapshot snapshot) {
+        version = snapshot.version();
+        stale = false;
+        rebuild(snapshot.aircraft());
+    }
+
+    /**
+     * Применяет событие, если оно новее версии, по которой построен индекс.
+     *
+     * @param event событие
+     */
+    @Override
+    public synchronized void apply(AircraftEvent event) {
+        if (event.version() <= version) return;
+        version = event.version();
+        if (event instanceof AircraftEvent.Batch batch) {
+            // вложенные события несут версию набора и применяются без проверки
+            for (AircraftEvent change : batch.changes()) FleetIndex.super.apply(change);
+        } else {
+            FleetIndex.super.apply(event);
+        }
+    }
+
+    /**
+     * Помечает индекс устаревшим.
+     */
+    protected synchronized void markStale() {
+        stale = true;
+    }
+
+    /**
+     * @return {@code true}, если после последнего построения самолёты удалялись
+     */
+    synchronized boolean isStale() {
+        return stale;
+    }
+}
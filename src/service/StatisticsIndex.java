@@ -0,0 +1,69 @@
+package service;
+
+import model.Aircraft;
+
+import java.util.*;
+
+/**
+ * Индекс описательной статистики: {@link Moments} для каждого типа самолёта.
+ * <p>
+ * Добавления учитываются сразу, удаления вычитаются обратным шагом Уэлфорда
+ * ({@link Moments#remove(Aircraft)}), поэтому индекс никогда не просматривает парк
+ * повторно. Изменение самолёта, не затронувшее показатели {@link Metric} и тип,
+ * индекс не меняет; иначе прежняя версия вычитается, а новая добавляется.
+ * Методы синхронизированы, так как статистика запрашивается из потока интерфейса.
+ */
+final class StatisticsIndex implements FleetIndex {
+
+    private final Map<String, Moments> byType = new TreeMap<>();
+
+    @Override
+    public synchronized void rebuild(Collection<Aircraft> fleet) {
+        byType.clear();
+        for (Aircraft a : fleet) added(a);
+    }
+
+    @Override
+    public synchronized void added(Aircraft aircraft) {
+        byType.computeIfAbsent(aircraft.getAircraftType(), t -> new Moments()).accept(aircraft);
+    }
+
+    @Override
+    public synchronized void removed(Aircraft aircraft) {
+        String type = aircraft.getAircraftType();
+        Moments moments = byType.get(type);
+        if (moments == null) return;
+
+        moments.remove(aircraft);
+        if (moments.count(Metric.CAPACITY) == 0) byType.remove(type);
+    }
+
+    @Override
+    public synchronized void updated(Aircraft previous, Aircraft current) {
+        if (previous.getAircraftType().equals(current.getAircraftType()) && sameMetrics(previous, current)) return;
+
+        removed(previous);
+        added(current);
+    }
+
+    private static boolean sameMetrics(Aircraft previous, Aircraft current) {
+        for (Metric metric : Metric.values()) {
+            if (Double.compare(metric.value(previous), metric.value(current)) != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param type тип самолёта или {@code null} для всего парка
+     * @return копия статистики; для всего парка — объединение статистики типов по алфавиту
+     */
+    synchronized Moments moments(String type) {
+        if (type != null) {
+            Moments moments = byType.get(type);
+            return moments == null ? new Moments() : moments.copy();
+        }
+        Moments all = new Moments();
+        for (Moments moments : byType.values()) all.combine(moments);
+        return all;
+    }
+}
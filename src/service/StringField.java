@@ -0,0 +1,46 @@
+package service;
+
+import model.Aircraft;
+import model.MilitaryAircraft;
+import model.PassengerAircraft;
+
+import java.util.function.Function;
+
+/**
+ * Строковые характеристики самолёта, для которых оценивается количество
+ * различных значений ({@link AircraftService#distinctCount(StringField)}).
+ * Поля подклассов у самолётов других типов не заданы.
+ */
+public enum StringField {
+
+    ID("Идентификатор", Aircraft::getId),
+    MODEL("Модель", Aircraft::getModel),
+    MANUFACTURER("Производитель", Aircraft::getManufacturer),
+    STATUS("Состояние", Aircraft::getStatus),
+    TYPE("Тип", Aircraft::getAircraftType),
+    CABIN_CLASS("Класс салона", a -> a instanceof PassengerAircraft p ? p.getCabinClass() : null),
+    WEAPON_TYPE("Вооружение", a -> a instanceof MilitaryAircraft m ? m.getWeaponType() : null);
+
+    private final String title;
+    private final Function<Aircraft, String> getter;
+
+    StringField(String title, Function<Aircraft, String> getter) {
+        this.title = title;
+        this.getter = getter;
+    }
+
+    /**
+     * @return название характеристики для отображения
+     */
+    public String title() {
+        return title;
+    }
+
+    /**
+     * @param aircraft самолёт
+     * @return значение поля или {@code null}, если у самолёта такого поля нет
+     */
+    public String value(Aircraft aircraft) {
+        return getter.apply(aircraft);
+    }
+}
@@ -0,0 +1,100 @@
+package service;
+
+import java.util.Arrays;
+
+/**
+ * Отображение строковых ключей в номера групп ({@code 0, 1, 2, ...} в порядке
+ * первого появления ключа). Хеш-таблица с открытой адресацией и линейным
+ * пробированием хранит номера групп в массиве {@code int[]} без упаковки.
+ * Ключ {@code null} допускается.
+ */
+final class StringSlotMap {
+
+    /** Ключ каждой группы по её номеру. */
+    private String[] keys = new String[16];
+    private int size;
+
+    /** Номер группы + 1; 0 — пусто. */
+    private int[] table = new int[32];
+
+    /** Номер группы ключа {@code null} или -1. */
+    private int nullSlot = -1;
+
+    /**
+     * Возвращает номер группы ключа, создавая новую группу при первом появлении.
+     *
+     * @param key ключ
+     * @return номер группы
+     */
+    int slotOf(String key) {
+        if (key == null) {
+            if (nullSlot < 0) nullSlot = add(null);
+            return nullSlot;
+        }
+
+        int mask = table.length - 1;
+        for (int i = mix(key.hashCode()) & mask; ; i = (i + 1) & mask) {
+            int s = table[i];
+            if (s == 0) {
+                int slot = add(key);
+                table[i] = slot + 1;
+                if (size * 2 > table.length) rehash();
+                return slot;
+            }
+            if (key.equals(keys[s - 1])) return s - 1;
+        }
+    }
+
+    /**
+     * Ищет номер группы ключа без создания новой группы.
+     *
+     * @param key ключ
+     * @return номер группы или -1, если ключ не встречался
+     */
+    int find(String key) {
+        if (key == null) return nullSlot;
+
+        int mask = table.length - 1;
+        for (int i = mix(key.hashCode()) & mask; table[i] != 0; i = (i + 1) & mask) {
+            if (key.equals(keys[table[i] - 1])) return table[i] - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * @return количество групп
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param slot номер группы
+     * @return ключ группы
+     */
+    String key(int slot) {
+        return keys[slot];
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int s = 0; s < size; s++) {
+            if (keys[s] == null) continue;
+            int i = mix(keys[s].hashCode()) & mask;
+            while (table[i] != 0) i = (i + 1) & mask;
+            table[i] = s + 1;
+        }
+    }
+
+    private int add(String key) {
+        if (size == keys.length) keys = Arrays.copyOf(keys, size * 2);
+        keys[size] = key;
+        return size++;
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,71 @@
+package service;
+
+import model.Aircraft;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ограниченный список самолётов с наибольшими значениями числового поля.
+ * <p>
+ * Результат совпадает с первыми {@code k} элементами устойчивой сортировки
+ * по убыванию: при равенстве значений выше остаётся самолёт, встретившийся раньше.
+ * Объединение {@link #combine(TopK)} сохраняет это свойство, если правый список
+ * построен по более поздней части данных.
+ */
+final class TopK {
+
+    private final NumericField field;
+    private final Aircraft[] items;
+    private final double[] values;
+    private int size;
+
+    TopK(NumericField field, int k) {
+        this.field = field;
+        this.items = new Aircraft[k];
+        this.values = new double[k];
+    }
+
+    /**
+     * Предлагает самолёт для включения в список.
+     *
+     * @param a самолёт
+     */
+    void offer(Aircraft a) {
+        double value = field.value(a);
+        if (Double.isNaN(value)) return;
+
+        int k = items.length;
+        if (size == k && value <= values[k - 1]) return;
+
+        // позиция после всех элементов со значением не меньше нового
+        int pos = size;
+        while (pos > 0 && values[pos - 1] < value) pos--;
+
+        int end = Math.min(size, k - 1);
+        System.arraycopy(items, pos, items, pos + 1, end - pos);
+        System.arraycopy(values, pos, values, pos + 1, end - pos);
+        items[pos] = a;
+        values[pos] = value;
+        if (size < k) size++;
+    }
+
+    /**
+     * Добавляет элементы списка, построенного по следующей части данных.
+     *
+     * @param later список по более поздней части данных
+     */
+    void combine(TopK later) {
+        for (int i = 0; i < later.size; i++) offer(later.items[i]);
+    }
+
+    /**
+     * @return самолёты по убыванию значения поля
+     */
+    List<Aircraft> toList() {
+        List<Aircraft> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) out.add(items[i]);
+        return Collections.unmodifiableList(out);
+    }
+}
@@ -0,0 +1,262 @@
+package service;
+
+import model.Aircraft;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс подстрок по ID, модели, производителю и статусу самолёта.
+ * <p>
+ * Каждое поле приводится к нижнему регистру и разбивается на триграммы
+ * (три подряд идущих символа); для каждой триграммы хранится упорядоченный
+ * список номеров документов (posting list). Запрос длиной от трёх символов
+ * пересекает списки своих триграмм начиная с самого короткого и проверяет
+ * только найденных кандидатов. Более короткие запросы проверяются полным проходом.
+ * <p>
+ * Номера документов выдаются по возрастанию и не переиспользуются, поэтому списки
+ * остаются отсортированными при добавлении. Удаление помечает документ удалённым;
+ * когда удалённых становится больше, чем живых, индекс перестраивается.
+ * <p>
+ * Класс потокобезопасен: поиск выполняется под блокировкой чтения,
+ * изменения — под блокировкой записи.
+ */
+final class TrigramIndex implements FleetIndex {
+
+    /** Минимальное количество удалённых документов, при котором выполняется сжатие. */
+    private static final int MIN_COMPACT = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Триграмма → номера документов, содержащих её. */
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    /** Самолёт → номер документа. */
+    private final Map<Aircraft, Integer> docIds = new IdentityHashMap<>();
+
+    /** Номер документа → самолёт ({@code null} для удалённых). */
+    private Aircraft[] docs = new Aircraft[16];
+
+    /** Количество выданных номеров документов. */
+    private int docCount;
+
+    /** Количество удалённых документов. */
+    private int dead;
+
+    @Override
+    public void rebuild(Collection<Aircraft> fleet) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docIds.clear();
+            docs = new Aircraft[Math.max(16, fleet.size())];
+            docCount = 0;
+            dead = 0;
+            for (Aircraft a : fleet) index(a);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void added(Aircraft aircraft) {
+        lock.writeLock().lock();
+        try {
+            index(aircraft);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removed(Aircraft aircraft) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docIds.remove(aircraft);
+            if (doc == null) return;
+
+            docs[doc] = null;
+            dead++;
+
+            if (dead >= MIN_COMPACT && dead > docIds.size()) compact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает самолёты, у которых ID, модель, производитель или статус
+     * содержат указанную строку без учёта регистра.
+     *
+     * @param text искомая подстрока
+     * @return найденные самолёты в порядке добавления в индекс
+     */
+    public List<Aircraft> search(String text) {
+        String query = text.toLowerCase(Locale.ROOT);
+
+        lock.readLock().lock();
+        try {
+            List<Aircraft> result = new ArrayList<>();
+
+            if (query.length() < 3) {
+                for (int doc = 0; doc < docCount; doc++) {
+                    Aircraft a = docs[doc];
+                    if (a != null && matches(a, query)) result.add(a);
+                }
+                return result;
+            }
+
+            Postings[] lists = queryPostings(query);
+            if (lists == null) return result;
+
+            Postings shortest = lists[0];
+            candidates:
+            for (int i = 0; i < shortest.size; i++) {
+                int doc = shortest.ids[i];
+                Aircraft a = docs[doc];
+                if (a == null) continue;
+
+                for (int k = 1; k < lists.length; k++) {
+                    if (!lists[k].contains(doc)) continue candidates;
+                }
+                if (matches(a, query)) result.add(a);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return количество самолётов в индексе
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Находит списки всех различных триграмм запроса, отсортированные по длине.
+     *
+     * @return списки или {@code null}, если какая-либо триграмма не встречается
+     */
+    private Postings[] queryPostings(String query) {
+        Map<Long, Postings> found = new HashMap<>();
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            long key = trigram(query, i);
+            Postings p = postings.get(key);
+            if (p == null) return null;
+            found.put(key, p);
+        }
+
+        Postings[] lists = found.values().toArray(new Postings[0]);
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        return lists;
+    }
+
+    private void index(Aircraft a) {
+        if (docIds.containsKey(a)) return;
+
+        if (docCount == docs.length) docs = Arrays.copyOf(docs, docCount * 2);
+        int doc = docCount++;
+        docs[doc] = a;
+        docIds.put(a, doc);
+
+        addField(a.getId(), doc);
+        addField(a.getModel(), doc);
+        addField(a.getManufacturer(), doc);
+        addField(a.getStatus(), doc);
+    }
+
+    private void addField(String value, int doc) {
+        if (value == null) return;
+        String text = value.toLowerCase(Locale.ROOT);
+
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            // документ может встретить ту же триграмму повторно — списки хранят его один раз
+            postings.computeIfAbsent(trigram(text, i), k -> new Postings()).addLast(doc);
+        }
+    }
+
+    /**
+     * Перестраивает индекс по живым документам, освобождая место удалённых.
+     */
+    private void compact() {
+        List<Aircraft> live = new ArrayList<>(docIds.size());
+        for (int doc = 0; doc < docCount; doc++) {
+            if (docs[doc] != null) live.add(docs[doc]);
+        }
+
+        postings.clear();
+        docIds.clear();
+        docs = new Aircraft[Math.max(16, live.size())];
+        docCount = 0;
+        dead = 0;
+        for (Aircraft a : live) index(a);
+    }
+
+    /**
+     * Проверяет самолёты полным проходом, без индекса, по тем же правилам, что и {@link #search(String)}.
+     *
+     * @param fleet самолёты
+     * @param text  искомая подстрока
+     * @return найденные самолёты в порядке обхода
+     */
+    static List<Aircraft> scan(Iterable<Aircraft> fleet, String text) {
+        String query = text.toLowerCase(Locale.ROOT);
+        List<Aircraft> result = new ArrayList<>();
+        for (Aircraft a : fleet) {
+            if (matches(a, query)) result.add(a);
+        }
+        return result;
+    }
+
+    private static boolean matches(Aircraft a, String query) {
+        return contains(a.getId(), query)
+                || contains(a.getModel(), query)
+                || contains(a.getManufacturer(), query)
+                || contains(a.getStatus(), query);
+    }
+
+    private static boolean contains(String value, String query) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(query);
+    }
+
+    private static long trigram(String text, int i) {
+        return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+    }
+
+    /**
+     * Возрастающий список номеров документов.
+     */
+    private static final class Postings {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        /**
+         * Добавляет номер, не меньший всех имеющихся; повтор последнего номера игнорируется.
+         */
+        void addLast(int doc) {
+            if (size > 0 && ids[size - 1] == doc) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = doc;
+        }
+
+        boolean contains(int doc) {
+            return Arrays.binarySearch(ids, 0, size, doc) >= 0;
+        }
+    }
+}
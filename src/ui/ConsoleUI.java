@@ -5,7 +5,12 @@ import model.CargoAircraft;
 import model.MilitaryAircraft;
 import model.PassengerAircraft;
 import service.AircraftService;
+import service.CacheStats;
+import service.FleetSummary;
+import service.NumericField;
+import service.StringField;
 
+import java.util.DoubleSummaryStatistics;
 import java.util.Scanner;
 
 /**
@@ -89,6 +94,7 @@ public class ConsoleUI {
      *     <li>{@link MilitaryAircraft} — военный</li>
      * </ul>
      * <p>
+     * Занятый ID обнаруживается сразу после ввода, до заполнения остальных полей.
      * В случае ошибки ввода выводит сообщение и прерывает создание.
      */
     private void addAircraft() {
@@ -96,6 +102,11 @@ public class ConsoleUI {
             System.out.print("ID: ");
             String id = scanner.nextLine();
 
+            if (service.isIdTaken(id)) {
+                System.out.println("Самолёт с ID " + id + " уже существует!");
+                return;
+            }
+
             System.out.print("Модель: ");
             String model = scanner.nextLine();
 
@@ -211,17 +222,35 @@ public class ConsoleUI {
     }
 
     /**
-     * Выводит простую аналитику по всем самолётам:
+     * Выводит аналитику по всем самолётам, рассчитанную за один проход:
      * <ul>
      *     <li>Средняя вместимость</li>
      *     <li>Самый дальнолётный самолёт</li>
      *     <li>Самый старый самолёт</li>
+     *     <li>Минимум, максимум и среднее числовых полей по каждому типу</li>
      * </ul>
      */
     private void analytics() {
+        FleetSummary summary = service.summary();
+
         System.out.println("\n=== АНАЛИТИКА ===");
-        System.out.println("Средняя вместимость: " + service.averageCapacity());
-        System.out.println("Самый дальнолётный: " + service.maxRangeAircraft());
-        System.out.println("Самый старый: " + service.oldestAircraft());
+        System.out.println("Средняя вместимость: " + summary.averageCapacity());
+        System.out.println("Самый дальнолётный: " + summary.maxRange());
+        System.out.println("Самый старый: " + summary.oldest());
+        System.out.printf("Различных моделей: ~%d, производителей: ~%d%n",
+                service.distinctCount(StringField.MODEL), service.distinctCount(StringField.MANUFACTURER));
+
+        for (String type : summary.types()) {
+            System.out.println("\n" + type + " (" + summary.stats(type, NumericField.CAPACITY).getCount() + " шт.)");
+            for (NumericField field : NumericField.values()) {
+                DoubleSummaryStatistics s = summary.stats(type, field);
+                System.out.printf("  %s: мин %.1f, макс %.1f, среднее %.1f%n",
+                        field.title(), s.getMin(), s.getMax(), s.getAverage());
+            }
+        }
+
+        CacheStats cache = service.cacheStats();
+        System.out.printf("%nКэш аналитики: попаданий %d, промахов %d (%.0f%%), сброшено %d, вытеснено %d%n",
+                cache.hits(), cache.misses(), cache.hitRate() * 100, cache.invalidations(), cache.evictions());
     }
 }
@@ -1,13 +1,33 @@
 package ui.fx;
 
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
+import javafx.geometry.Pos;
 import javafx.scene.chart.*;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
+import javafx.util.StringConverter;
 import model.Aircraft;
+import repository.AircraftEvent;
+import repository.PinnedSnapshot;
 import service.AircraftService;
+import service.Metric;
+import service.Moments;
+import service.NumericField;
+import service.QuantileSketch;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * Контроллер окна аналитики.
@@ -19,10 +39,16 @@ import java.util.stream.Collectors;
  *     <li>Гистограмму ТОП-10 самолётов по дальности;</li>
  *     <li>Гистограмму ТОП-10 самолётов по вместимости;</li>
  *     <li>Линейный график суммарных часов налёта по годам;</li>
+ *     <li>Распределение выбранного поля по типу с медианой, p90 и p99;</li>
+ *     <li>Матрицу корреляций показателей по типу.</li>
  * </ul>
  * <p>
  * После передачи сервиса методом {@link #setService(AircraftService)}
- * автоматически вызывается построение всех графиков.
+ * автоматически вызывается построение всех графиков. Данные рассчитываются
+ * в фоне за один проход ({@link service.FleetSummary}) и кэшируются аналитическим
+ * кэшем сервиса ({@link ChartData}).
+ * Пока окно открыто, диаграммы обновляются по событиям парка
+ * ({@link FleetChartModel}) не чаще одного раза за кадр.
  */
 public class AnalyticsController {
 
@@ -31,6 +57,18 @@ public class AnalyticsController {
      */
     @FXML private TabPane rootPane;
 
+    /**
+     Вкладки распределений и корреляций: обновляются, только когда видны.
+     */
+    @FXML private Tab distributionTab;
+    @FXML private Tab correlationTab;
+
+    /**
+     Заглушка, отображаемая во время расчёта данных.
+     */
+    @FXML private VBox placeholder;
+    @FXML private Label placeholderLabel;
+
     /**
      Круговая диаграмма типов.
      */
@@ -57,11 +95,108 @@ public class AnalyticsController {
     @FXML private CategoryAxis yearXAxis;
     @FXML private NumberAxis hoursYAxis;
 
+    /**
+     Распределение поля: выбор поля и типа, перцентили и гистограмма.
+     */
+    @FXML private ComboBox<NumericField> distFieldBox;
+    @FXML private ComboBox<String> distTypeBox;
+    @FXML private Label percentilesLabel;
+    @FXML private BarChart<String, Number> barDistribution;
+    @FXML private CategoryAxis distXAxis;
+    @FXML private NumberAxis distYAxis;
+
+    /**
+     Матрица корреляций: выбор типа и таблица коэффициентов.
+     */
+    @FXML private ComboBox<String> corrTypeBox;
+    @FXML private GridPane corrGrid;
+
     /**
      Сервис для получения данных самолётов.
      */
     private AircraftService service;
 
+    /**
+     Модель диаграмм; {@code null}, пока идёт начальный расчёт.
+     */
+    private FleetChartModel model;
+
+    /**
+     События парка, ожидающие применения в ближайшем кадре.
+     */
+    private final Queue<AircraftEvent> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     Признаки того, что данные вкладок распределений и корреляций изменились
+     с момента их последнего обновления. Используются только в потоке JavaFX.
+     */
+    private boolean distributionStale = true;
+    private boolean correlationStale = true;
+
+    /**
+     Количество событий в очереди.
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     Признак переполнения очереди: события отбрасываются до пересчёта модели по снимку.
+     */
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+
+    /**
+     Признак того, что обработка событий уже запланирована.
+     */
+    private final AtomicBoolean frameScheduled = new AtomicBoolean();
+
+    /**
+     Однократный обработчик кадра: применяет накопленные события и останавливается.
+     */
+    private final AnimationTimer frameTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            frameScheduled.set(false);
+            applyPending();
+        }
+    };
+
+    /**
+     Подписка на изменения парка.
+     */
+    private volatile Flow.Subscription subscription;
+
+    /**
+     Признак закрытия окна.
+     */
+    private volatile boolean disposed;
+
+    /**
+     Секторы круговой диаграммы по типам.
+     */
+    private final Map<String, PieChart.Data> slices = new HashMap<>();
+
+    /**
+     Серия и точки графика часов по годам.
+     */
+    private final XYChart.Series<String, Number> hoursSeries = new XYChart.Series<>();
+    private final Map<Integer, XYChart.Data<String, Number>> hourPoints = new HashMap<>();
+
+    /**
+     Наибольшее количество событий, ожидающих кадра; при переполнении
+     модель пересчитывается по текущему снимку.
+     */
+    private static final int MAX_PENDING_EVENTS = 1024;
+
+    /**
+     Пункт выбора типа, означающий весь парк.
+     */
+    private static final String ALL_TYPES = "All";
+
+    /**
+     Наибольшее количество столбцов гистограммы распределения.
+     */
+    private static final int DISTRIBUTION_BINS = 20;
+
     /**
      * Цвета, привязанные к типам самолётов.
      * Используются в гистограммах для окраски серий.
@@ -91,16 +226,65 @@ public class AnalyticsController {
         }
     }
 
+    /**
+     * Настраивает элементы выбора на вкладках распределений и корреляций.
+     */
+    @FXML
+    private void initialize() {
+        distFieldBox.getItems().setAll(NumericField.CAPACITY, NumericField.RANGE, NumericField.FLIGHT_HOURS);
+        distFieldBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(NumericField field) {
+                return field == null ? "" : field.title();
+            }
+
+            @Override
+            public NumericField fromString(String text) {
+                return null;
+            }
+        });
+        distFieldBox.getSelectionModel().select(NumericField.FLIGHT_HOURS);
+        distTypeBox.getItems().setAll(ALL_TYPES);
+        distTypeBox.getSelectionModel().select(ALL_TYPES);
+
+        distFieldBox.setOnAction(e -> updateDistribution());
+        distTypeBox.setOnAction(e -> updateDistribution());
+
+        corrTypeBox.getItems().setAll(ALL_TYPES);
+        corrTypeBox.getSelectionModel().select(ALL_TYPES);
+        corrTypeBox.setOnAction(e -> updateCorrelation());
+
+        rootPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> refreshVisibleStatistics());
+    }
+
     /**
      * Передаёт сервис в контроллер и инициирует построение всех диаграмм.
+     * <p>
+     * Данные диаграмм рассчитываются в фоновом потоке; пока расчёт идёт,
+     * окно показывает заглушку. Если для текущей версии парка сводка уже
+     * в кэше сервиса, расчёт сводится к её чтению. После построения окно подписывается
+     * на изменения парка и обновляет диаграммы по мере их поступления.
      *
      * @param service экземпляр {@link AircraftService}
      */
     public void setService(AircraftService service) {
         this.service = service;
+
+        // подписка до снимка: события, вошедшие в снимок, будут пропущены по версии
+        service.events().subscribe(new ChartUpdateSubscriber());
         buildAllCharts();
     }
 
+    /**
+     * Отписывается от изменений парка. Вызывается при закрытии окна.
+     */
+    public void dispose() {
+        disposed = true;
+        frameTimer.stop();
+        Flow.Subscription s = subscription;
+        if (s != null) s.cancel();
+    }
+
     /**
      * Перестраивает все диаграммы:
      * <ul>
@@ -113,123 +297,330 @@ public class AnalyticsController {
     private void buildAllCharts() {
         if (service == null) return;
 
-        List<Aircraft> all = service.getAllAircraft();
+        placeholder.setVisible(true);
 
-        buildPieType(all);
-        buildTopRange(all);
-        buildTopCapacity(all);
-        buildHoursByYear(all);
+        Task<ChartData> task = new Task<>() {
+            @Override
+            protected ChartData call() {
+                try (PinnedSnapshot snapshot = service.pinSnapshot()) {
+                    return ChartData.of(snapshot.snapshot(), service);
+                }
+            }
+        };
+        task.setOnSucceeded(e -> showCharts(task.getValue()));
+        task.setOnFailed(e -> placeholderLabel.setText(
+                "Не удалось рассчитать аналитику: " + task.getException().getMessage()));
+
+        Thread thread = new Thread(task, "analytics");
+        thread.setDaemon(true);
+        thread.start();
     }
 
     /**
-     * Строит круговую диаграмму с распределением самолётов по типам.
-     * На секторе отображается процент от общего количества.
+     * Создаёт модель по рассчитанным данным, заполняет диаграммы
+     * и скрывает заглушку. События, накопленные за время расчёта,
+     * применяются в ближайшем кадре.
      *
-     * @param all список всех самолётов
+     * @param data данные диаграмм
      */
-    private void buildPieType(List<Aircraft> all) {
-        pieType.getData().clear();
+    private void showCharts(ChartData data) {
+        if (disposed) return;
 
-        long total = all.size();
-        if (total == 0) return;
+        model = new FleetChartModel(data);
+        render(EnumSet.allOf(FleetChartModel.Chart.class));
 
-        Map<String, Long> counts = all.stream()
-                .collect(Collectors.groupingBy(Aircraft::getAircraftType, Collectors.counting()));
+        placeholder.setVisible(false);
+        scheduleFrame();
+    }
 
-        counts.forEach((type, count) -> {
-            double percent = (count * 100.0) / total;
-            String label = String.format("%s (%.1f%%)", type, percent);
+    // ============================================================
+    // ЖИВОЕ ОБНОВЛЕНИЕ
+    // ============================================================
 
-            PieChart.Data data = new PieChart.Data(label, count);
-            pieType.getData().add(data);
-        });
+    /**
+     * Планирует обработку накопленных событий в следующем кадре.
+     * Повторные вызовы до наступления кадра ничего не делают.
+     */
+    private void scheduleFrame() {
+        if (frameScheduled.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                if (!disposed) frameTimer.start();
+            });
+        }
     }
 
     /**
-     * Строит гистограмму ТОП-10 самолётов по дальности.
+     * Применяет к модели все накопленные события и перерисовывает
+     * только изменившиеся диаграммы. Вызывается не чаще одного раза за кадр.
      * <p>
-     * Модели разделяются по типам, каждая серия окрашивается в уникальный цвет.
-     *
-     * @param all список всех самолётов
+     * ТОП-списки пересчитываются по снимку, только если модель уже достигла
+     * его версии; иначе события новее модели ещё в пути, и пересчёт выполнится
+     * в кадре, который их применит. Если очередь переполнилась, модель
+     * пересчитывается по текущему снимку ({@link #buildAllCharts()}), который
+     * уже содержит отброшенные события.
      */
-    private void buildTopRange(List<Aircraft> all) {
-        barRange.getData().clear();
+    private void applyPending() {
+        if (model == null) return;
+
+        if (overflowed.get()) {
+            // пока флаг установлен, очередь не пополняется
+            pending.clear();
+            queued.set(0);
+            overflowed.set(false);
+            model = null;
+            buildAllCharts();
+            return;
+        }
 
-        List<Aircraft> top = all.stream()
-                .sorted(Comparator.comparingDouble(Aircraft::getRange).reversed())
-                .limit(10)
-                .toList();
+        int applied = 0;
+        AircraftEvent event;
+        while ((event = pending.poll()) != null) {
+            model.apply(event);
+            applied++;
+        }
+        queued.addAndGet(-applied);
+        if (model.hasStaleTops()) {
+            model.refreshTops(service.snapshot());
+        }
 
-        Map<String, List<Aircraft>> byType = top.stream()
-                .collect(Collectors.groupingBy(Aircraft::getAircraftType));
+        EnumSet<FleetChartModel.Chart> changes = model.takeChanges();
+        if (!changes.isEmpty()) render(changes);
+    }
 
-        for (String type : byType.keySet()) {
+    /**
+     * Перерисовывает указанные части окна по данным модели.
+     *
+     * @param changes части, требующие перерисовки
+     */
+    private void render(EnumSet<FleetChartModel.Chart> changes) {
+        if (changes.contains(FleetChartModel.Chart.TYPES)) updatePieType();
+        if (changes.contains(FleetChartModel.Chart.TOP_RANGE)) buildTop(barRange, model.topRange(), Aircraft::getRange);
+        if (changes.contains(FleetChartModel.Chart.TOP_CAPACITY)) buildTop(barCapacity, model.topCapacity(), Aircraft::getCapacity);
+        if (changes.contains(FleetChartModel.Chart.HOURS)) updateHoursByYear();
+        if (changes.contains(FleetChartModel.Chart.STATISTICS)) {
+            distributionStale = true;
+            correlationStale = true;
+        }
+        refreshVisibleStatistics();
+    }
 
-            XYChart.Series<String, Number> series = new XYChart.Series<>();
-            series.setName(type);
+    /**
+     * Обновляет вкладку распределений или корреляций, если она открыта
+     * и её данные изменились. Скрытые вкладки обновляются при открытии.
+     */
+    private void refreshVisibleStatistics() {
+        Tab selected = rootPane.getSelectionModel().getSelectedItem();
+        if (distributionStale && selected == distributionTab) updateDistribution();
+        if (correlationStale && selected == correlationTab) updateCorrelation();
+    }
 
-            for (Aircraft a : byType.get(type)) {
-                series.getData().add(new XYChart.Data<>(a.getModel(), a.getRange()));
+    /**
+     * Подписчик на изменения парка: складывает события в очередь
+     * и планирует их обработку в ближайшем кадре. Запрашивает все события сразу
+     * и никогда не задерживает издателя; очередь ограничена {@link #MAX_PENDING_EVENTS},
+     * лишние события отбрасываются до пересчёта модели.
+     */
+    private final class ChartUpdateSubscriber implements Flow.Subscriber<AircraftEvent> {
+
+        @Override
+        public void onSubscribe(Flow.Subscription s) {
+            subscription = s;
+            if (disposed) {
+                s.cancel();
+            } else {
+                s.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(AircraftEvent event) {
+            if (!overflowed.get()) {
+                if (queued.incrementAndGet() <= MAX_PENDING_EVENTS) pending.add(event);
+                else overflowed.set(true);
             }
+            scheduleFrame();
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            Platform.runLater(() -> placeholderLabel.setText("Поток изменений прерван: " + error.getMessage()));
+        }
 
-            barRange.getData().add(series);
-            colorSeries(series, TYPE_COLOR.getOrDefault(type, "#888"));
+        @Override
+        public void onComplete() {
         }
     }
 
+    // ============================================================
+    // ДИАГРАММЫ
+    // ============================================================
+
+    /**
+     * Обновляет круговую диаграмму распределения самолётов по типам.
+     * Существующие секторы изменяются на месте, новые добавляются,
+     * исчезнувшие типы удаляются. На секторе отображается процент
+     * от общего количества.
+     */
+    private void updatePieType() {
+        long total = model.total();
+        Map<String, Long> counts = model.typeCounts();
+
+        slices.entrySet().removeIf(e -> {
+            if (counts.containsKey(e.getKey())) return false;
+            pieType.getData().remove(e.getValue());
+            return true;
+        });
+
+        counts.forEach((type, count) -> {
+            double percent = (count * 100.0) / total;
+            String label = String.format("%s (%.1f%%)", type, percent);
+
+            PieChart.Data data = slices.get(type);
+            if (data == null) {
+                data = new PieChart.Data(label, count);
+                slices.put(type, data);
+                pieType.getData().add(data);
+            } else {
+                data.setName(label);
+                data.setPieValue(count);
+            }
+        });
+    }
+
     /**
-     * Строит гистограмму ТОП-10 самолётов по вместимости.
+     * Строит гистограмму ТОП-10 самолётов по заданному показателю.
      * <p>
-     * Модели разделяются по типам, серии окрашиваются согласно типу.
+     * Модели разделяются по типам, каждая серия окрашивается в цвет своего типа.
      *
-     * @param all список всех самолётов
+     * @param chart гистограмма
+     * @param top   самолёты ТОП-10 по убыванию показателя
+     * @param value показатель, откладываемый по оси Y
      */
-    private void buildTopCapacity(List<Aircraft> all) {
-        barCapacity.getData().clear();
+    private void buildTop(BarChart<String, Number> chart, List<Aircraft> top, Function<Aircraft, Number> value) {
+        chart.getData().clear();
 
-        List<Aircraft> top = all.stream()
-                .sorted(Comparator.comparingInt(Aircraft::getCapacity).reversed())
-                .limit(10)
-                .toList();
+        Map<String, XYChart.Series<String, Number>> byType = new LinkedHashMap<>();
 
-        Map<String, List<Aircraft>> byType = top.stream()
-                .collect(Collectors.groupingBy(Aircraft::getAircraftType));
+        for (Aircraft a : top) {
+            XYChart.Series<String, Number> series = byType.computeIfAbsent(a.getAircraftType(), type -> {
+                XYChart.Series<String, Number> s = new XYChart.Series<>();
+                s.setName(type);
+                return s;
+            });
+            series.getData().add(new XYChart.Data<>(a.getModel(), value.apply(a)));
+        }
 
-        for (String type : byType.keySet()) {
+        chart.getData().setAll(byType.values());
+        byType.forEach((type, series) -> colorSeries(series, TYPE_COLOR.getOrDefault(type, "#888")));
+    }
 
-            XYChart.Series<String, Number> series = new XYChart.Series<>();
-            series.setName(type);
+    /**
+     * Обновляет линейный график общей суммы часов налёта по годам.
+     * Точки существующих годов изменяются на месте, новые годы
+     * вставляются с сохранением порядка по возрастанию.
+     */
+    private void updateHoursByYear() {
+        if (lineHours.getData().isEmpty()) {
+            hoursSeries.setName("Total Hours");
+            lineHours.getData().add(hoursSeries);
+        }
 
-            for (Aircraft a : byType.get(type)) {
-                series.getData().add(new XYChart.Data<>(a.getModel(), a.getCapacity()));
-            }
+        SortedMap<Integer, Long> sums = model.hoursByYear();
+
+        hourPoints.entrySet().removeIf(e -> {
+            if (sums.containsKey(e.getKey())) return false;
+            hoursSeries.getData().remove(e.getValue());
+            return true;
+        });
 
-            barCapacity.getData().add(series);
-            colorSeries(series, TYPE_COLOR.getOrDefault(type, "#888"));
+        int index = 0;
+        for (var e : sums.entrySet()) {
+            XYChart.Data<String, Number> point = hourPoints.get(e.getKey());
+            if (point == null) {
+                point = new XYChart.Data<>(String.valueOf(e.getKey()), e.getValue());
+                hourPoints.put(e.getKey(), point);
+                hoursSeries.getData().add(index, point);
+            } else if (!point.getYValue().equals(e.getValue())) {
+                point.setYValue(e.getValue());
+            }
+            index++;
         }
     }
 
     /**
-     * Строит линейный график общей суммы часов налёта по годам.
-     *
-     * @param all список всех самолётов
+     * Обновляет вкладку распределений по скетчу квантилей из сервиса.
+     * Стоимость не зависит от размера парка: скетч поддерживается
+     * изменениями парка, а гистограмма содержит не более
+     * {@value #DISTRIBUTION_BINS} столбцов.
      */
-    private void buildHoursByYear(List<Aircraft> all) {
-        lineHours.getData().clear();
+    private void updateDistribution() {
+        if (service == null || model == null) return;
+        distributionStale = false;
 
-        Map<Integer, Integer> sumByYear = new TreeMap<>();
+        syncTypes(distTypeBox);
 
-        for (Aircraft a : all) {
-            sumByYear.merge(a.getYear(), a.getFlightHours(), Integer::sum);
-        }
+        NumericField field = distFieldBox.getValue();
+        String type = distTypeBox.getValue();
+        QuantileSketch sketch = service.distribution(field, ALL_TYPES.equals(type) ? null : type);
 
-        XYChart.Series<String, Number> s = new XYChart.Series<>();
-        s.setName("Total Hours");
+        percentilesLabel.setText(sketch.count() == 0 ? "Нет данных" : String.format(
+                "Медиана: %.0f   p90: %.0f   p99: %.0f   (±%.0f%%)",
+                sketch.quantile(0.5), sketch.quantile(0.9), sketch.quantile(0.99),
+                sketch.relativeAccuracy() * 100));
 
-        for (var e : sumByYear.entrySet()) {
-            s.getData().add(new XYChart.Data<>(String.valueOf(e.getKey()), e.getValue()));
+        XYChart.Series<String, Number> series = new XYChart.Series<>();
+        for (QuantileSketch.Bin bin : sketch.bins(DISTRIBUTION_BINS)) {
+            String label = bin.upper() == 0 ? "0" : String.format("%.0f–%.0f", bin.lower(), bin.upper());
+            series.getData().add(new XYChart.Data<>(label, bin.count()));
         }
+        distXAxis.setLabel(field.title());
+        barDistribution.getData().setAll(List.of(series));
+    }
 
-        lineHours.getData().add(s);
+    /**
+     * Обновляет матрицу корреляций показателей по онлайн-статистике сервиса.
+     * Ячейка окрашивается по знаку и силе связи; для пар, где корреляция
+     * не определена, выводится прочерк.
+     */
+    private void updateCorrelation() {
+        if (service == null || model == null) return;
+        correlationStale = false;
+
+        syncTypes(corrTypeBox);
+        String type = corrTypeBox.getValue();
+        Moments moments = service.statistics(ALL_TYPES.equals(type) ? null : type);
+
+        corrGrid.getChildren().clear();
+        Metric[] metrics = Metric.values();
+        for (int i = 0; i < metrics.length; i++) {
+            corrGrid.add(new Label(metrics[i].title()), 0, i + 1);
+            corrGrid.add(new Label(metrics[i].title()), i + 1, 0);
+            for (int j = 0; j < metrics.length; j++) {
+                double r = moments.correlation(metrics[i], metrics[j]);
+                Label cell = new Label(Double.isNaN(r) ? "—" : String.format("%.2f", r));
+                cell.setMinSize(90, 32);
+                cell.setAlignment(Pos.CENTER);
+                cell.setStyle(Double.isNaN(r) ? "-fx-background-color: #eee;" : String.format(
+                        "-fx-background-color: rgba(%s, %.2f);", r >= 0 ? "50, 120, 220" : "220, 70, 50", Math.abs(r)));
+                corrGrid.add(cell, j + 1, i + 1);
+            }
+        }
+    }
+
+    /**
+     * Приводит список типов в поле выбора к типам, присутствующим в парке,
+     * сохраняя выбранный тип, если он ещё есть.
+     *
+     * @param box поле выбора типа
+     */
+    private void syncTypes(ComboBox<String> box) {
+        String selected = box.getValue();
+        List<String> types = new ArrayList<>();
+        types.add(ALL_TYPES);
+        types.addAll(service.aircraftTypes());
+        if (!types.equals(box.getItems())) {
+            box.getItems().setAll(types);
+            box.getSelectionModel().select(types.contains(selected) ? selected : ALL_TYPES);
+        }
     }
 }
@@ -0,0 +1,60 @@
+package ui.fx;
+
+import javafx.geometry.Side;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TextField;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Выпадающие подсказки для текстового поля.
+ * <p>
+ * При каждом изменении текста запрашивает варианты дополнения и показывает их
+ * в контекстном меню под полем; выбор варианта подставляет его в поле.
+ */
+final class AutoCompletion {
+
+    /** Количество показываемых вариантов. */
+    static final int LIMIT = 8;
+
+    private AutoCompletion() {
+    }
+
+    /**
+     * Подключает подсказки к полю.
+     *
+     * @param field       текстовое поле
+     * @param completions поставщик вариантов дополнения по введённому тексту
+     */
+    static void install(TextField field, Function<String, List<String>> completions) {
+        ContextMenu popup = new ContextMenu();
+
+        field.textProperty().addListener((obs, oldV, newV) -> {
+            if (!field.isFocused()) return;
+
+            List<String> options = completions.apply(newV);
+            if (options.isEmpty() || (options.size() == 1 && options.get(0).equals(newV))) {
+                popup.hide();
+                return;
+            }
+
+            popup.getItems().setAll(options.stream().map(option -> {
+                MenuItem item = new MenuItem(option);
+                item.setOnAction(e -> {
+                    field.setText(option);
+                    field.positionCaret(option.length());
+                    popup.hide();
+                });
+                return item;
+            }).toList());
+
+            if (!popup.isShowing()) popup.show(field, Side.BOTTOM, 0, 0);
+        });
+
+        field.focusedProperty().addListener((obs, was, focused) -> {
+            if (!focused) popup.hide();
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package ui.fx;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableColumn;
+import javafx.util.Callback;
+import model.Aircraft;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Фабрика значений ячеек колонки с кэшированием.
+ * <p>
+ * Значение ячейки вычисляется один раз для объекта самолёта и переиспользуется
+ * при повторной отрисовке строки (прокрутка, обновление таблицы). Объекты самолётов
+ * в репозитории не изменяются, а заменяются новыми версиями, поэтому значения
+ * не устаревают. Кэш ограничен по размеру и вытесняет давно не отображавшиеся строки.
+ *
+ * @param <T> тип значения колонки
+ */
+final class CellValueCache<T> implements Callback<TableColumn.CellDataFeatures<Aircraft, T>, ObservableValue<T>> {
+
+    /** Количество запоминаемых строк (с запасом больше видимого окна таблицы). */
+    private static final int CAPACITY = 4096;
+
+    private final Function<Aircraft, T> getter;
+
+    private final Map<Aircraft, ObservableValue<T>> values = new LinkedHashMap<>(CAPACITY, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Aircraft, ObservableValue<T>> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    /**
+     * @param getter значение колонки для самолёта
+     */
+    CellValueCache(Function<Aircraft, T> getter) {
+        this.getter = getter;
+    }
+
+    @Override
+    public ObservableValue<T> call(TableColumn.CellDataFeatures<Aircraft, T> cell) {
+        return values.computeIfAbsent(cell.getValue(),
+                a -> new ReadOnlyObjectWrapper<>(getter.apply(a)).getReadOnlyProperty());
+    }
+}
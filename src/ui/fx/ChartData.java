@@ -0,0 +1,31 @@
+package ui.fx;
+
+import repository.FleetSnapshot;
+import service.AircraftService;
+import service.FleetSummary;
+
+/**
+ * Данные диаграмм окна аналитики, рассчитанные для одной версии парка.
+ * <p>
+ * Все наборы данных берутся из {@link FleetSummary}, построенной за один проход
+ * по снимку: счётчики по типам, суммы часов по годам и ТОП-10 по дальности
+ * и вместимости. Сводка запрашивается у сервиса и кэшируется его аналитическим
+ * кэшем, поэтому окно и консоль используют один и тот же результат, а повторное
+ * открытие окна при неизменном парке не требует пересчёта.
+ *
+ * @param version версия снимка, по которому рассчитаны данные
+ * @param summary сводка парка
+ */
+record ChartData(long version, FleetSummary summary) {
+
+    /**
+     * Возвращает данные для снимка.
+     *
+     * @param snapshot снимок парка
+     * @param service  сервис, рассчитывающий сводку
+     * @return данные диаграмм
+     */
+    static ChartData of(FleetSnapshot snapshot, AircraftService service) {
+        return new ChartData(snapshot.version(), service.summary(snapshot));
+    }
+}
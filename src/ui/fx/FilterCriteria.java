@@ -0,0 +1,101 @@
+package ui.fx;
+
+import model.Aircraft;
+import service.EditDistance;
+
+import java.util.Locale;
+
+/**
+ * Условия фильтрации таблицы самолётов.
+ * <p>
+ * Строка поиска приводится к нижнему регистру один раз; поля самолёта
+ * сравниваются без учёта регистра без создания новых строк.
+ * В нечётком режиме модель или производитель должны отличаться от строки поиска
+ * не более чем на {@link #maxDistance()} правок.
+ *
+ * @param search строка поиска в нижнем регистре
+ * @param type   выбранный тип ("All types", "Passenger", "Cargo", "Military")
+ * @param fuzzy  нечёткий поиск по модели и производителю
+ */
+record FilterCriteria(String search, String type, boolean fuzzy) {
+
+    /** Значение фильтра по типу, пропускающее любой тип. */
+    static final String ALL_TYPES = "All types";
+
+    /** Условия, которым соответствует любой самолёт. */
+    static final FilterCriteria ALL = new FilterCriteria("", ALL_TYPES, false);
+
+    FilterCriteria {
+        search = search == null ? "" : search.toLowerCase(Locale.ROOT).trim();
+        type = type == null ? ALL_TYPES : type;
+    }
+
+    /**
+     * Проверяет, является ли набор самолётов, удовлетворяющих этим условиям,
+     * подмножеством набора для условий {@code wider}. Это так, если тип тот же
+     * (или {@code wider} не ограничивает тип), а строка поиска содержит строку поиска {@code wider}.
+     *
+     * @param wider более общие условия
+     * @return {@code true}, если результат можно получить, проверив только результат {@code wider}
+     */
+    boolean narrows(FilterCriteria wider) {
+        if (fuzzy || wider.fuzzy) return false;
+        return (wider.type.equals(ALL_TYPES) || wider.type.equals(type))
+                && search.contains(wider.search);
+    }
+
+    /**
+     * Допустимое расстояние нечёткого поиска: одна правка для коротких запросов, две для остальных.
+     *
+     * @return допустимое расстояние Левенштейна
+     */
+    int maxDistance() {
+        return search.length() <= 4 ? 1 : 2;
+    }
+
+    /**
+     * @param a самолёт
+     * @return {@code true}, если самолёт удовлетворяет условиям
+     */
+    boolean matches(Aircraft a) {
+
+        switch (type) {
+            case "Passenger":
+                if (!containsIgnoreCase(a.getAircraftType(), "passenger")) return false;
+                break;
+            case "Cargo":
+                if (!containsIgnoreCase(a.getAircraftType(), "cargo")) return false;
+                break;
+            case "Military":
+                if (!containsIgnoreCase(a.getAircraftType(), "military")) return false;
+                break;
+        }
+
+        if (!search.isEmpty() && fuzzy) {
+            return withinDistance(a.getModel()) || withinDistance(a.getManufacturer());
+        }
+
+        if (!search.isEmpty()) {
+            return containsIgnoreCase(a.getId(), search)
+                    || containsIgnoreCase(a.getModel(), search)
+                    || containsIgnoreCase(a.getManufacturer(), search)
+                    || containsIgnoreCase(a.getStatus(), search);
+        }
+
+        return true;
+    }
+
+    private boolean withinDistance(String value) {
+        return value != null
+                && EditDistance.bounded(search, value.toLowerCase(Locale.ROOT), maxDistance()) <= maxDistance();
+    }
+
+    private static boolean containsIgnoreCase(String text, String lowerNeedle) {
+        if (text == null) return false;
+        int last = text.length() - lowerNeedle.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, lowerNeedle, 0, lowerNeedle.length())) return true;
+        }
+        return false;
+    }
+}
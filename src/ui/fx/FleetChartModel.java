@@ -0,0 +1,221 @@
+package ui.fx;
+
+import model.Aircraft;
+import repository.AircraftEvent;
+import repository.FleetSnapshot;
+import service.FleetSummary;
+import service.NumericField;
+
+import java.util.*;
+
+/**
+ * Изменяемая модель диаграмм аналитики, обновляемая по событиям парка.
+ * <p>
+ * Счётчики по типам и суммы часов по годам корректируются на величину изменения.
+ * ТОП-списки пересчитываются только тогда, когда затронутый самолёт
+ * входит в список или может в него войти; пересчёт откладывается
+ * до {@link #refreshTops(FleetSnapshot)}, чтобы несколько событий одного кадра
+ * приводили к одному проходу. Пересчёт выполняется только по снимку той же версии,
+ * что и модель, поэтому ТОП-списки не смешивают версии парка.
+ * <p>
+ * Экземпляр не потокобезопасен и используется только в потоке JavaFX.
+ */
+final class FleetChartModel {
+
+    /**
+     * Части окна аналитики, требующие перерисовки. {@code STATISTICS} — вкладки
+     * распределений и корреляций, данные которых берутся из сервиса.
+     */
+    enum Chart { TYPES, TOP_RANGE, TOP_CAPACITY, HOURS, STATISTICS }
+
+    private final Map<String, Long> typeCounts;
+    private final SortedMap<Integer, Long> hoursByYear;
+    /** Количество самолётов по годам: год исчезает с графика вместе с последним самолётом. */
+    private final Map<Integer, Long> yearCounts;
+
+    private List<Aircraft> topRange;
+    private List<Aircraft> topCapacity;
+    private int total;
+    private long version;
+
+    /** Части, изменённые с момента последнего {@link #takeChanges()}. */
+    private final EnumSet<Chart> changed = EnumSet.noneOf(Chart.class);
+
+    /** ТОП-списки, требующие пересчёта по снимку. */
+    private final EnumSet<Chart> staleTops = EnumSet.noneOf(Chart.class);
+
+    /**
+     * Создаёт модель по рассчитанным данным диаграмм.
+     *
+     * @param data начальные данные
+     */
+    FleetChartModel(ChartData data) {
+        FleetSummary summary = data.summary();
+        this.typeCounts = new LinkedHashMap<>(summary.typeCounts());
+        this.hoursByYear = new TreeMap<>(summary.hoursByYear());
+        this.yearCounts = new HashMap<>(summary.countByYear());
+        this.topRange = summary.top(NumericField.RANGE);
+        this.topCapacity = summary.top(NumericField.CAPACITY);
+        this.total = (int) summary.count();
+        this.version = data.version();
+    }
+
+    /**
+     * @return версия парка, отражённая моделью
+     */
+    long version() {
+        return version;
+    }
+
+    int total() {
+        return total;
+    }
+
+    Map<String, Long> typeCounts() {
+        return Collections.unmodifiableMap(typeCounts);
+    }
+
+    SortedMap<Integer, Long> hoursByYear() {
+        return Collections.unmodifiableSortedMap(hoursByYear);
+    }
+
+    List<Aircraft> topRange() {
+        return topRange;
+    }
+
+    List<Aircraft> topCapacity() {
+        return topCapacity;
+    }
+
+    /**
+     * Применяет событие парка. События с версией не новее модели пропускаются.
+     *
+     * @param event событие изменения
+     */
+    void apply(AircraftEvent event) {
+        if (event.version() <= version) return;
+        version = event.version();
+        applyChange(event);
+    }
+
+    private void applyChange(AircraftEvent event) {
+        if (event instanceof AircraftEvent.Batch e) {
+            e.changes().forEach(this::applyChange);
+        } else if (event instanceof AircraftEvent.Added e) {
+            include(e.aircraft(), 1);
+            checkTops(null, e.aircraft());
+        } else if (event instanceof AircraftEvent.Removed e) {
+            include(e.aircraft(), -1);
+            checkTops(e.aircraft(), null);
+        } else if (event instanceof AircraftEvent.Updated e) {
+            include(e.previous(), -1);
+            include(e.current(), 1);
+            checkTops(e.previous(), e.current());
+        } else if (event instanceof AircraftEvent.Reloaded e) {
+            typeCounts.clear();
+            hoursByYear.clear();
+            yearCounts.clear();
+            total = 0;
+            for (Aircraft a : e.aircraft()) include(a, 1);
+            topRange = FleetSummary.top(e.aircraft(), NumericField.RANGE);
+            topCapacity = FleetSummary.top(e.aircraft(), NumericField.CAPACITY);
+            staleTops.clear();
+            changed.addAll(EnumSet.allOf(Chart.class));
+        }
+    }
+
+    /**
+     * Учитывает самолёт в счётчиках с указанным знаком.
+     *
+     * @param a    самолёт
+     * @param sign {@code 1} — добавление, {@code -1} — исключение
+     */
+    private void include(Aircraft a, int sign) {
+        total += sign;
+        if (typeCounts.merge(a.getAircraftType(), (long) sign, Long::sum) == 0) {
+            typeCounts.remove(a.getAircraftType());
+        }
+        hoursByYear.merge(a.getYear(), (long) sign * a.getFlightHours(), Long::sum);
+        if (yearCounts.merge(a.getYear(), (long) sign, Long::sum) == 0) {
+            yearCounts.remove(a.getYear());
+            hoursByYear.remove(a.getYear());
+        }
+        changed.add(Chart.TYPES);
+        changed.add(Chart.HOURS);
+        changed.add(Chart.STATISTICS);
+    }
+
+    /**
+     * Помечает ТОП-списки, на которые может повлиять изменение самолёта.
+     *
+     * @param previous прежняя версия самолёта или {@code null}
+     * @param current  новая версия самолёта или {@code null}
+     */
+    private void checkTops(Aircraft previous, Aircraft current) {
+        if (affects(topRange, NumericField.RANGE, previous, current)) staleTops.add(Chart.TOP_RANGE);
+        if (affects(topCapacity, NumericField.CAPACITY, previous, current)) staleTops.add(Chart.TOP_CAPACITY);
+    }
+
+    /**
+     * Самолёт влияет на ТОП-список, если прежняя версия в нём присутствовала
+     * или новая версия может в него войти.
+     */
+    private static boolean affects(List<Aircraft> top, NumericField field,
+                                   Aircraft previous, Aircraft current) {
+        if (previous != null && containsId(top, previous.getId())) return true;
+        if (current == null) return false;
+        if (top.size() < FleetSummary.TOP) return true;
+        return field.value(current) >= field.value(top.get(top.size() - 1));
+    }
+
+    private static boolean containsId(List<Aircraft> top, String id) {
+        for (Aircraft a : top) {
+            if (a.getId().equals(id)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return {@code true}, если ТОП-списки требуют пересчёта
+     */
+    boolean hasStaleTops() {
+        return !staleTops.isEmpty();
+    }
+
+    /**
+     * Пересчитывает устаревшие ТОП-списки по снимку версии модели. Снимок другой
+     * версии не используется: списки остаются устаревшими до применения событий,
+     * приводящих модель к версии снимка.
+     *
+     * @param snapshot снимок парка
+     * @return {@code true}, если списки пересчитаны
+     */
+    boolean refreshTops(FleetSnapshot snapshot) {
+        if (snapshot.version() != version) return false;
+
+        List<Aircraft> all = snapshot.aircraft();
+        if (staleTops.contains(Chart.TOP_RANGE)) {
+            List<Aircraft> top = FleetSummary.top(all, NumericField.RANGE);
+            if (!top.equals(topRange)) changed.add(Chart.TOP_RANGE);
+            topRange = top;
+        }
+        if (staleTops.contains(Chart.TOP_CAPACITY)) {
+            List<Aircraft> top = FleetSummary.top(all, NumericField.CAPACITY);
+            if (!top.equals(topCapacity)) changed.add(Chart.TOP_CAPACITY);
+            topCapacity = top;
+        }
+        staleTops.clear();
+        return true;
+    }
+
+    /**
+     * Возвращает и сбрасывает набор изменённых частей.
+     *
+     * @return части окна, требующие перерисовки
+     */
+    EnumSet<Chart> takeChanges() {
+        EnumSet<Chart> result = EnumSet.copyOf(changed);
+        changed.clear();
+        return result;
+    }
+}
@@ -0,0 +1,201 @@
+package ui.fx;
+
+import javafx.collections.ObservableListBase;
+import model.Aircraft;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ленивый постраничный источник данных таблицы самолётов.
+ * <p>
+ * Не копирует строки: оборачивает неизменяемое представление парка
+ * (снимок репозитория, отсортированное представление сервиса или результат поиска).
+ * {@code TableView} запрашивает только видимые строки; они читаются страницами
+ * по {@link #PAGE_SIZE} строк с опережающей загрузкой соседней страницы у края окна
+ * и хранятся в небольшом LRU-кэше страниц.
+ * <p>
+ * Замена представления ({@link #setRows(List)}) сообщается таблице одним изменением.
+ * Во время первоначальной загрузки строки дописываются порциями ({@link #append(List)}),
+ * а изменения парка вносятся точечно ({@link #insert(int, Aircraft)}, {@link #delete(int)},
+ * {@link #replace(int, Aircraft)}): первое такое изменение копирует представление один раз,
+ * следующие сдвигают строки копии и сбрасывают только затронутые страницы.
+ * Список изменяется только в потоке JavaFX.
+ */
+final class FleetTableModel extends ObservableListBase<Aircraft> {
+
+    /** Количество строк на странице. */
+    static final int PAGE_SIZE = 256;
+
+    /** Количество страниц в кэше (несколько экранов с запасом). */
+    private static final int CACHED_PAGES = 16;
+
+    /** Текущее представление. */
+    private List<Aircraft> rows = List.of();
+
+    /** Собственная изменяемая копия представления ({@code null}, пока представление чужое). */
+    private List<Aircraft> editable;
+
+    /** Загруженные страницы в порядке использования. */
+    private final Map<Integer, Aircraft[]> pages = new LinkedHashMap<>(CACHED_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Aircraft[]> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+
+    /**
+     * Заменяет отображаемое представление.
+     *
+     * @param next неизменяемое представление строк
+     */
+    void setRows(List<Aircraft> next) {
+        List<Aircraft> previous = rows;
+        rows = next;
+        editable = null;
+        pages.clear();
+
+        beginChange();
+        nextReplace(0, next.size(), previous);
+        endChange();
+    }
+
+    /**
+     * Дописывает порцию строк в конец таблицы (первоначальная загрузка).
+     *
+     * @param batch новые строки
+     */
+    void append(List<Aircraft> batch) {
+        if (batch.isEmpty()) return;
+
+        List<Aircraft> list = editable();
+        int from = list.size();
+        list.addAll(batch);
+        // последняя страница могла быть загружена неполной
+        dropPagesFrom(from);
+
+        beginChange();
+        nextAdd(from, list.size());
+        endChange();
+    }
+
+    /**
+     * Вставляет строку.
+     *
+     * @param index    позиция
+     * @param aircraft самолёт
+     */
+    void insert(int index, Aircraft aircraft) {
+        editable().add(index, aircraft);
+        dropPagesFrom(index);
+
+        beginChange();
+        nextAdd(index, index + 1);
+        endChange();
+    }
+
+    /**
+     * Удаляет строку.
+     *
+     * @param index позиция
+     */
+    void delete(int index) {
+        Aircraft removed = editable().remove(index);
+        dropPagesFrom(index);
+
+        beginChange();
+        nextRemove(index, removed);
+        endChange();
+    }
+
+    /**
+     * Заменяет строку.
+     *
+     * @param index    позиция
+     * @param aircraft новый самолёт
+     */
+    void replace(int index, Aircraft aircraft) {
+        Aircraft previous = editable().set(index, aircraft);
+        pages.remove(index / PAGE_SIZE);
+
+        beginChange();
+        nextSet(index, previous);
+        endChange();
+    }
+
+    /**
+     * @return текущее представление строк
+     */
+    List<Aircraft> rows() {
+        return rows;
+    }
+
+    @Override
+    public Aircraft get(int index) {
+        if (index < 0 || index >= rows.size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+
+        int page = index / PAGE_SIZE;
+        int offset = index % PAGE_SIZE;
+
+        if (offset < PAGE_SIZE / 4 && page > 0) page(page - 1);
+        else if (offset >= PAGE_SIZE * 3 / 4) page(page + 1);
+
+        return page(page)[offset];
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        // поиск по всему представлению привёл бы к загрузке всех страниц
+        for (Map.Entry<Integer, Aircraft[]> e : pages.entrySet()) {
+            Aircraft[] page = e.getValue();
+            for (int i = 0; i < page.length; i++) {
+                if (page[i] == o) return e.getKey() * PAGE_SIZE + i;
+            }
+        }
+        return rows.indexOf(o);
+    }
+
+    /**
+     * Возвращает изменяемую копию представления, создавая её при первом изменении.
+     */
+    private List<Aircraft> editable() {
+        if (editable == null) {
+            editable = new ArrayList<>(rows);
+            rows = editable;
+        }
+        return editable;
+    }
+
+    /**
+     * Сбрасывает страницы, начиная с содержащей строку {@code index}.
+     */
+    private void dropPagesFrom(int index) {
+        pages.keySet().removeIf(page -> page >= index / PAGE_SIZE);
+    }
+
+    /**
+     * Возвращает страницу, загружая её из представления при отсутствии в кэше.
+     */
+    private Aircraft[] page(int page) {
+        Aircraft[] cached = pages.get(page);
+        if (cached != null) return cached;
+
+        int from = page * PAGE_SIZE;
+        int to = Math.min(rows.size(), from + PAGE_SIZE);
+        Aircraft[] loaded = from < to
+                ? rows.subList(from, to).toArray(new Aircraft[0])
+                : new Aircraft[0];
+
+        pages.put(page, loaded);
+        return loaded;
+    }
+}
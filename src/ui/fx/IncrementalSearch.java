@@ -0,0 +1,111 @@
+package ui.fx;
+
+import model.Aircraft;
+import repository.FleetSnapshot;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.BiFunction;
+
+/**
+ * Инкрементальный поиск по таблице самолётов.
+ * <p>
+ * Хранит результат последнего запроса и небольшой LRU-кэш недавних результатов:
+ * <ul>
+ *     <li>Повторный запрос (например, после удаления символа) берётся из кэша;</li>
+ *     <li>Уточнённый запрос ({@link FilterCriteria#narrows(FilterCriteria)}) проверяет
+ *     только результат более общего запроса, а не весь список;</li>
+ *     <li>Иначе кандидаты ищутся в том же снимке парка (индексами сервиса,
+ *     если они построены по этому снимку), а без строки поиска выполняется
+ *     полный проход по снимку.</li>
+ * </ul>
+ * Поэтому стоимость каждого нажатия клавиши уменьшается по мере уточнения запроса.
+ * <p>
+ * При смене снимка кэш сбрасывается ({@link #invalidate()}).
+ * Методы потокобезопасны: фильтрация выполняется в фоновом потоке,
+ * сброс — в потоке JavaFX.
+ */
+final class IncrementalSearch {
+
+    /** Количество запоминаемых результатов. */
+    private static final int CACHE_SIZE = 16;
+
+    /** Количество строк, после которого проход проверяет отмену. */
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+
+    /** Недавние результаты в порядке использования. */
+    private final Map<FilterCriteria, List<Aircraft>> recent = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FilterCriteria, List<Aircraft>> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /** Номер поколения исходного списка; увеличивается при каждом сбросе. */
+    private long generation;
+
+    /** Поиск кандидатов по строке поиска в снимке. */
+    private final BiFunction<FleetSnapshot, FilterCriteria, List<Aircraft>> indexSearch;
+
+    /**
+     * @param indexSearch поиск самолётов снимка, соответствующих строке поиска условий
+     *                    (без учёта фильтра по типу)
+     */
+    IncrementalSearch(BiFunction<FleetSnapshot, FilterCriteria, List<Aircraft>> indexSearch) {
+        this.indexSearch = indexSearch;
+    }
+
+    /**
+     * Возвращает самолёты снимка, удовлетворяющие условиям.
+     *
+     * @param criteria  условия фильтрации
+     * @param snapshot  снимок парка текущего поколения
+     * @param cancelled признак отмены, проверяемый во время прохода
+     * @return неизменяемый список совпадений или {@code null}, если фильтрация отменена
+     */
+    List<Aircraft> filter(FilterCriteria criteria, FleetSnapshot snapshot, BooleanSupplier cancelled) {
+        long startGeneration;
+        List<Aircraft> base = null;
+
+        synchronized (this) {
+            List<Aircraft> cached = recent.get(criteria);
+            if (cached != null) return cached;
+
+            startGeneration = generation;
+            for (Map.Entry<FilterCriteria, List<Aircraft>> e : recent.entrySet()) {
+                if (criteria.narrows(e.getKey()) && (base == null || e.getValue().size() < base.size())) {
+                    base = e.getValue();
+                }
+            }
+        }
+
+        if (base == null) {
+            base = criteria.search().isEmpty() ? snapshot.aircraft() : indexSearch.apply(snapshot, criteria);
+        }
+
+        List<Aircraft> result = new ArrayList<>();
+        int scanned = 0;
+        // итератор, а не get(i): снимок репозитория обходится последовательно быстрее
+        for (Aircraft a : base) {
+            if (scanned++ % CANCEL_CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) return null;
+            if (criteria.matches(a)) result.add(a);
+        }
+
+        List<Aircraft> matches = List.copyOf(result);
+        synchronized (this) {
+            if (generation == startGeneration) recent.put(criteria, matches);
+        }
+        return matches;
+    }
+
+    /**
+     * Сбрасывает все запомненные результаты после изменения исходного списка.
+     */
+    synchronized void invalidate() {
+        generation++;
+        recent.clear();
+    }
+}
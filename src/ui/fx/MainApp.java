@@ -1,19 +1,28 @@
 package ui.fx;
 
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import exceptions.StorageException;
 import repository.CSVAircraftRepository;
 import service.AircraftService;
 
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Главный JavaFX-класс приложения.
  * <p>
  * Отвечает за:
  * <ul>
  *     <li>Инициализацию {@link AircraftService};</li>
+ *     <li>Включение горячей перезагрузки CSV-файла;</li>
  *     <li>Загрузку основного FXML-файла;</li>
  *     <li>Создание окна и сцены;</li>
  *     <li>Передачу сервиса главному контроллеру {@link MainController}.</li>
@@ -22,16 +31,35 @@ import service.AircraftService;
  */
 public class MainApp extends Application {
 
+    private static final Logger logger = LogManager.getLogger(MainApp.class);
+
+    /**
+     * Путь к CSV-файлу с данными парка. Изменения сначала попадают в журнал
+     * {@code <файл>.wal}; сам файл обновляется каждые
+     * {@link CSVAircraftRepository#DEFAULT_CHECKPOINT_INTERVAL} изменений
+     * и при закрытии приложения ({@link #stop()}).
+     */
+    private static final String CSV_PATH = "data/aircrafts.csv";
+
     /**
-     * Общий сервис, доступный контроллерам UI.
-     * Инициализируется в методе {@link #main(String[])} до вызова {@link #launch}.
+     * Момент запуска приложения (для метрик запуска).
      */
-    private static AircraftService aircraftService;
+    private static long startNanos;
+
+    /**
+     * CSV-репозиторий, за файлом которого ведётся наблюдение
+     * ({@code null}, пока идёт загрузка).
+     */
+    private static volatile CSVAircraftRepository repository;
 
     /**
      * Точка входа JavaFX.
-     * Загружает главный интерфейс из FXML, создаёт окно
-     * и передаёт сервис контроллеру.
+     * Загружает главный интерфейс из FXML и сразу показывает окно,
+     * после чего загружает парк в фоновой задаче. Строки появляются в таблице
+     * порциями по мере разбора файла; редактирование включается после загрузки.
+     * <p>
+     * В журнал записываются метрики запуска: время до первого кадра,
+     * до первой строки в таблице и до окончания загрузки.
      *
      * @param stage главный контейнер JavaFX-приложения
      * @throws Exception если FXML-файл не удалось загрузить
@@ -46,32 +74,114 @@ public class MainApp extends Application {
         Parent root = loader.load();
 
         Scene scene = new Scene(root, 900, 600);
-
-        // Передаём сервис в основной контроллер
         MainController controller = loader.getController();
-        controller.setService(aircraftService);
+
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                logger.info("Метрика запуска: первый кадр через {} мс", elapsedMillis());
+            }
+        });
 
         stage.setTitle("Aircraft Management System");
         stage.setScene(scene);
         stage.show();
+
+        Task<AircraftService> loading = createLoadingTask(controller);
+        controller.beginLoading(loading);
+
+        Thread thread = new Thread(loading, "fleet-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Создаёт задачу загрузки парка: чтение CSV с передачей порций строк в таблицу,
+     * создание сервиса и включение горячей перезагрузки.
+     *
+     * @param controller главный контроллер
+     * @return задача, результатом которой является сервис
+     */
+    private Task<AircraftService> createLoadingTask(MainController controller) {
+        AtomicBoolean firstRow = new AtomicBoolean();
+
+        Task<AircraftService> loading = new Task<>() {
+            @Override
+            protected AircraftService call() {
+                updateMessage("Загрузка " + CSV_PATH + "...");
+
+                CSVAircraftRepository repo = new CSVAircraftRepository(CSV_PATH,
+                        CSVAircraftRepository.DEFAULT_CHECKPOINT_INTERVAL,
+                        (batch, bytesRead, totalBytes) -> {
+                            updateProgress(bytesRead, totalBytes);
+                            Platform.runLater(() -> {
+                                controller.appendLoaded(batch);
+                                if (!batch.isEmpty() && firstRow.compareAndSet(false, true)) {
+                                    logger.info("Метрика запуска: первая строка через {} мс", elapsedMillis());
+                                }
+                            });
+                        });
+
+                updateMessage("Построение индексов...");
+                AircraftService service = new AircraftService(repo);
+                repository = repo;
+
+                try {
+                    repo.startWatching();
+                } catch (IOException e) {
+                    logger.warn("Не удалось включить горячую перезагрузку CSV: {}", CSV_PATH, e);
+                }
+                return service;
+            }
+        };
+
+        loading.setOnSucceeded(e -> {
+            controller.setService(loading.getValue());
+            logger.info("Метрика запуска: парк загружен через {} мс ({} самолётов)",
+                    elapsedMillis(), loading.getValue().snapshot().size());
+        });
+        loading.setOnFailed(e -> {
+            logger.error("Ошибка загрузки парка", loading.getException());
+            controller.loadingFailed(loading.getException());
+        });
+
+        return loading;
+    }
+
+    /**
+     * Закрывает репозиторий при закрытии приложения: наблюдение за CSV-файлом
+     * останавливается, а изменения из журнала записываются контрольной точкой.
+     */
+    @Override
+    public void stop() {
+        CSVAircraftRepository repo = repository;
+        if (repo == null) return;
+
+        try {
+            repo.close();
+        } catch (StorageException e) {
+            logger.error("Не удалось записать контрольную точку при закрытии, изменения сохранены в журнале", e);
+        }
+    }
+
+    /**
+     * @return время в миллисекундах с момента запуска приложения
+     */
+    private static long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
     }
 
     /**
      * Основная точка запуска приложения.
      * <p>
-     * Здесь создаётся {@link AircraftService}, затем вызывается
-     * {@link Application#launch(String...)} для запуска JavaFX.
+     * Запоминает момент запуска и вызывает {@link Application#launch(String...)};
+     * данные загружаются уже после появления окна.
      *
      * @param args аргументы командной строки
      */
     public static void main(String[] args) {
-
-        String csvPath = "data/aircrafts.csv";
-
-        aircraftService = new AircraftService(
-                new CSVAircraftRepository(csvPath)
-        );
-
+        startNanos = System.nanoTime();
         launch(args);
     }
 }
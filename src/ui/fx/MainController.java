@@ -4,11 +4,9 @@ import exceptions.AircraftNotFoundException;
 import exceptions.DuplicateIdException;
 import exceptions.InvalidAircraftDataException;
 
-import javafx.beans.property.ReadOnlyStringWrapper;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
-import javafx.collections.transformation.SortedList;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 
 import javafx.fxml.FXML;
 import javafx.geometry.Insets;
@@ -20,15 +18,31 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import model.Aircraft;
 import model.CargoAircraft;
 import model.MilitaryAircraft;
 import model.PassengerAircraft;
 
+import repository.AircraftEvent;
+import repository.FleetSnapshot;
 import service.AircraftService;
+import service.CompletionField;
+import service.SortField;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Главный контроллер JavaFX-интерфейса.
@@ -36,8 +50,10 @@ import java.util.Optional;
  * Отвечает за:
  * <ul>
  *     <li>Отображение списка самолётов в таблице;</li>
- *     <li>Фильтрацию и поиск;</li>
+ *     <li>Фильтрацию и поиск (в фоновом потоке, с задержкой ввода и отменой устаревших запросов);</li>
  *     <li>Добавление, удаление и обновление данных;</li>
+ *     <li>Постраничное отображение снимка парка с сортировкой по индексам сервиса;</li>
+ *     <li>Обновление таблицы по событиям изменения парка ({@link AircraftEvent});</li>
  *     <li>Открытие окна аналитики;</li>
  *     <li>Показ информационных/ошибочных уведомлений;</li>
  *     <li>Взаимодействие пользователя с UI.</li>
@@ -45,6 +61,18 @@ import java.util.Optional;
  */
 public class MainController {
 
+    /** Задержка (мс) после последнего нажатия клавиши перед запуском фильтрации. */
+    private static final double SEARCH_DEBOUNCE_MILLIS = 200;
+
+    /**
+     * Наибольшее количество событий, ожидающих потока JavaFX; при переполнении
+     * события отбрасываются, и таблица перестраивается по текущему снимку.
+     */
+    private static final int MAX_PENDING_EVENTS = 1024;
+
+    /** Наибольший набор изменений, применяемый к строкам таблицы поштучно. */
+    private static final int MAX_BATCH_CHANGES = 64;
+
     // ========================= UI элементы =========================
 
     /**
@@ -82,6 +110,21 @@ public class MainController {
      */
     @FXML private ComboBox<String> typeFilter;
 
+    /**
+     Переключатель нечёткого поиска по модели и производителю.
+     */
+    @FXML private CheckBox fuzzyCheck;
+
+    /**
+     Индикатор хода загрузки парка.
+     */
+    @FXML private ProgressBar loadProgress;
+
+    /**
+     Строка состояния под таблицей.
+     */
+    @FXML private Label statusLabel;
+
     // ========================= Данные =========================
 
     /**
@@ -90,19 +133,63 @@ public class MainController {
     private AircraftService service;
 
     /**
-     Полный список самолётов.
+     Постраничный источник строк таблицы.
+     */
+    private final FleetTableModel tableModel = new FleetTableModel();
+
+    /**
+     Версия данных, отображаемая в таблице.
      */
-    private ObservableList<Aircraft> masterList;
+    private long loadedVersion = -1;
 
     /**
-     Отфильтрованный список.
+     Условия фильтрации, которым соответствует таблица.
      */
-    private FilteredList<Aircraft> filteredList;
+    private FilterCriteria criteria = FilterCriteria.ALL;
 
     /**
-     Отсортированный список.
+     Сортировка последнего запрошенного представления ({@code null} — порядок репозитория).
      */
-    private SortedList<Aircraft> sortedList;
+    private SortSpec requestedSort;
+
+    /**
+     Сортировка строк, отображаемых в таблице ({@code null} — порядок репозитория).
+     */
+    private SortSpec shownSort;
+
+    /**
+     События, полученные во время построения представления; применяются после него.
+     */
+    private final List<AircraftEvent> deferred = new ArrayList<>();
+
+    /**
+     Версия данных, к которой относятся результаты {@link #search}.
+     */
+    private long searchVersion = -1;
+
+    /**
+     Результаты недавних запросов для инкрементального поиска.
+     */
+    private IncrementalSearch search;
+
+    /**
+     Выполняющееся построение представления ({@code null}, если не выполняется).
+     */
+    private Task<List<Aircraft>> filterTask;
+
+    /**
+     Задержка ввода в строке поиска.
+     */
+    private final PauseTransition searchDebounce = new PauseTransition(Duration.millis(SEARCH_DEBOUNCE_MILLIS));
+
+    /**
+     Фоновый поток фильтрации.
+     */
+    private final ExecutorService filterExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "fleet-filter");
+        t.setDaemon(true);
+        return t;
+    });
 
     // ============================================================
     // ИНИЦИАЛИЗАЦИЯ UI
@@ -127,30 +214,34 @@ public class MainController {
             TableColumn<Aircraft, String> colType = new TableColumn<>("Type");
             TableColumn<Aircraft, String> colModel = new TableColumn<>("Model");
             TableColumn<Aircraft, String> colManufacturer = new TableColumn<>("Manufacturer");
-            TableColumn<Aircraft, String> colCapacity = new TableColumn<>("Capacity");
-            TableColumn<Aircraft, String> colRange = new TableColumn<>("Range");
-            TableColumn<Aircraft, String> colYear = new TableColumn<>("Year");
-            TableColumn<Aircraft, String> colHours = new TableColumn<>("FlightHours");
+            TableColumn<Aircraft, Number> colCapacity = new TableColumn<>("Capacity");
+            TableColumn<Aircraft, Number> colRange = new TableColumn<>("Range");
+            TableColumn<Aircraft, Number> colYear = new TableColumn<>("Year");
+            TableColumn<Aircraft, Number> colHours = new TableColumn<>("FlightHours");
             TableColumn<Aircraft, String> colStatus = new TableColumn<>("Status");
             TableColumn<Aircraft, String> colSpecific = new TableColumn<>("Specific");
 
-            colId.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getId()));
-            colType.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getAircraftType()));
-            colModel.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getModel()));
-            colManufacturer.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getManufacturer()));
-            colCapacity.setCellValueFactory(c -> new ReadOnlyStringWrapper(String.valueOf(c.getValue().getCapacity())));
-            colRange.setCellValueFactory(c -> new ReadOnlyStringWrapper(String.valueOf(c.getValue().getRange())));
-            colYear.setCellValueFactory(c -> new ReadOnlyStringWrapper(String.valueOf(c.getValue().getYear())));
-            colHours.setCellValueFactory(c -> new ReadOnlyStringWrapper(String.valueOf(c.getValue().getFlightHours())));
-            colStatus.setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getStatus()));
-
-            colSpecific.setCellValueFactory(c -> {
-                Aircraft a = c.getValue();
-                if (a instanceof PassengerAircraft p) return new ReadOnlyStringWrapper(p.getCabinClass());
-                if (a instanceof CargoAircraft g) return new ReadOnlyStringWrapper(String.valueOf(g.getMaxCargoWeight()));
-                if (a instanceof MilitaryAircraft m) return new ReadOnlyStringWrapper(m.getWeaponType());
-                return new ReadOnlyStringWrapper("");
-            });
+            colId.setCellValueFactory(new CellValueCache<>(Aircraft::getId));
+            colType.setCellValueFactory(new CellValueCache<>(Aircraft::getAircraftType));
+            colModel.setCellValueFactory(new CellValueCache<>(Aircraft::getModel));
+            colManufacturer.setCellValueFactory(new CellValueCache<>(Aircraft::getManufacturer));
+            colCapacity.setCellValueFactory(new CellValueCache<>(Aircraft::getCapacity));
+            colRange.setCellValueFactory(new CellValueCache<>(Aircraft::getRange));
+            colYear.setCellValueFactory(new CellValueCache<>(Aircraft::getYear));
+            colHours.setCellValueFactory(new CellValueCache<>(Aircraft::getFlightHours));
+            colStatus.setCellValueFactory(new CellValueCache<>(Aircraft::getStatus));
+            colSpecific.setCellValueFactory(new CellValueCache<>(SortField::specificOf));
+
+            colId.setUserData(SortField.ID);
+            colType.setUserData(SortField.TYPE);
+            colModel.setUserData(SortField.MODEL);
+            colManufacturer.setUserData(SortField.MANUFACTURER);
+            colCapacity.setUserData(SortField.CAPACITY);
+            colRange.setUserData(SortField.RANGE);
+            colYear.setUserData(SortField.YEAR);
+            colHours.setUserData(SortField.FLIGHT_HOURS);
+            colStatus.setUserData(SortField.STATUS);
+            colSpecific.setUserData(SortField.SPECIFIC);
 
             tableAircraft.getColumns().addAll(
                     colId, colType, colModel, colManufacturer,
@@ -159,6 +250,14 @@ public class MainController {
             );
         }
 
+        tableAircraft.setItems(tableModel);
+
+        // сортировка выполняется индексами сервиса, а не самой таблицей
+        tableAircraft.setSortPolicy(t -> {
+            if (service != null && !Objects.equals(currentSort(), requestedSort)) applyFilters();
+            return true;
+        });
+
         btnRefresh.setOnAction(e -> refreshTable());
         btnAdd.setOnAction(e -> onAdd());
         btnDelete.setOnAction(e -> onDelete());
@@ -180,21 +279,93 @@ public class MainController {
     // ============================================================
 
     /**
-     * Устанавливает сервис и настраивает списки.
+     * Устанавливает сервис и подключает таблицу к постраничному источнику данных.
      *
      * @param service экземпляр {@link AircraftService}
      */
     public void setService(AircraftService service) {
         this.service = service;
 
-        masterList = FXCollections.observableArrayList(service.getAllAircraft());
-        filteredList = new FilteredList<>(masterList, p -> true);
-        sortedList = new SortedList<>(filteredList);
+        search = new IncrementalSearch((snapshot, c) -> c.fuzzy()
+                ? service.fuzzySearch(snapshot, c.search(), c.maxDistance())
+                : service.search(snapshot, c.search()));
 
-        sortedList.comparatorProperty().bind(tableAircraft.comparatorProperty());
-        tableAircraft.setItems(sortedList);
+        finishLoading();
+
+        service.events().subscribe(new FleetChangeSubscriber());
 
         setupFilters();
+        applyFilters();
+    }
+
+    // ============================================================
+    // ЗАГРУЗКА
+    // ============================================================
+
+    /**
+     * Переводит окно в режим загрузки: показывает ход фоновой загрузки
+     * и блокирует редактирование и фильтры до вызова {@link #setService(AircraftService)}.
+     *
+     * @param loading задача загрузки парка
+     */
+    public void beginLoading(Task<?> loading) {
+        setEditingDisabled(true);
+
+        loadProgress.setVisible(true);
+        loadProgress.setManaged(true);
+        loadProgress.progressProperty().bind(loading.progressProperty());
+        statusLabel.textProperty().bind(loading.messageProperty());
+    }
+
+    /**
+     * Дописывает в таблицу порцию самолётов, разобранных во время загрузки.
+     * Вызывается в потоке JavaFX.
+     *
+     * @param batch порция самолётов
+     */
+    public void appendLoaded(List<Aircraft> batch) {
+        tableModel.append(batch);
+    }
+
+    /**
+     * Сообщает об ошибке загрузки парка.
+     *
+     * @param error причина ошибки
+     */
+    public void loadingFailed(Throwable error) {
+        loadProgress.progressProperty().unbind();
+        statusLabel.textProperty().unbind();
+        loadProgress.setVisible(false);
+        loadProgress.setManaged(false);
+        statusLabel.setText("Ошибка загрузки: " + error.getMessage());
+        showErrorAlert("Ошибка загрузки", error.getMessage());
+    }
+
+    /**
+     * Скрывает индикатор загрузки и разблокирует редактирование.
+     */
+    private void finishLoading() {
+        loadProgress.progressProperty().unbind();
+        statusLabel.textProperty().unbind();
+        loadProgress.setVisible(false);
+        loadProgress.setManaged(false);
+        statusLabel.setText("");
+        setEditingDisabled(false);
+    }
+
+    /**
+     * Блокирует или разблокирует элементы, требующие загруженного парка.
+     *
+     * @param disabled {@code true}, чтобы заблокировать
+     */
+    private void setEditingDisabled(boolean disabled) {
+        btnAdd.setDisable(disabled);
+        btnDelete.setDisable(disabled);
+        btnRefresh.setDisable(disabled);
+        btnAnalytics.setDisable(disabled);
+        searchField.setDisable(disabled);
+        typeFilter.setDisable(disabled);
+        fuzzyCheck.setDisable(disabled);
     }
 
     // ============================================================
@@ -210,53 +381,105 @@ public class MainController {
      */
     private void setupFilters() {
         typeFilter.getItems().addAll(
-                "All types",
+                FilterCriteria.ALL_TYPES,
                 "Passenger",
                 "Cargo",
                 "Military"
         );
 
-        typeFilter.getSelectionModel().select("All types");
+        typeFilter.getSelectionModel().select(FilterCriteria.ALL_TYPES);
 
-        searchField.textProperty().addListener((obs, oldV, newV) -> applyFilters());
+        searchDebounce.setOnFinished(e -> applyFilters());
+        searchField.textProperty().addListener((obs, oldV, newV) -> searchDebounce.playFromStart());
         typeFilter.valueProperty().addListener((obs, oldV, newV) -> applyFilters());
+        fuzzyCheck.selectedProperty().addListener((obs, oldV, newV) -> applyFilters());
     }
 
     /**
-     * Применяет фильтры по типу и строке поиска.
+     * Строит представление таблицы (фильтрация по типу и строке поиска и сортировка)
+     * в фоновом потоке по текущему снимку парка.
+     * <p>
+     * Предыдущее незавершённое построение отменяется. Уточнение запроса и возврат
+     * к недавнему запросу обрабатываются {@link IncrementalSearch} без полного прохода.
+     * Без фильтров таблица читает снимок или отсортированное представление сервиса
+     * напрямую, без копирования строк. Результат публикуется в таблицу одним изменением.
      */
     private void applyFilters() {
+        searchDebounce.stop();
 
-        String search = searchField.getText().toLowerCase().trim();
-        String type = typeFilter.getValue();
+        FilterCriteria next = new FilterCriteria(searchField.getText(), typeFilter.getValue(), fuzzyCheck.isSelected());
+        SortSpec sort = currentSort();
+        FleetSnapshot snapshot = service.snapshot();
 
-        filteredList.setPredicate(a -> {
+        if (snapshot.version() != searchVersion) {
+            search.invalidate();
+            searchVersion = snapshot.version();
+        }
 
-            if (!type.equals("All types")) {
-                String t = a.getAircraftType().toLowerCase();
+        if (filterTask != null) filterTask.cancel();
+        requestedSort = sort;
 
-                switch (type) {
-                    case "Passenger":
-                        if (!t.contains("passenger")) return false;
-                        break;
-                    case "Cargo":
-                        if (!t.contains("cargo")) return false;
-                        break;
-                    case "Military":
-                        if (!t.contains("military")) return false;
-                        break;
+        Task<List<Aircraft>> task = new Task<>() {
+            @Override
+            protected List<Aircraft> call() {
+                if (next.equals(FilterCriteria.ALL)) {
+                    return sort == null
+                            ? snapshot.aircraft()
+                            : service.sortedAircraft(sort.field(), sort.ascending());
                 }
-            }
 
-            if (!search.isEmpty()) {
-                return a.getId().toLowerCase().contains(search)
-                        || a.getModel().toLowerCase().contains(search)
-                        || a.getManufacturer().toLowerCase().contains(search)
-                        || a.getStatus().toLowerCase().contains(search);
-            }
+                List<Aircraft> matches = search.filter(next, snapshot, this::isCancelled);
+                if (matches == null || sort == null) return matches;
 
-            return true;
+                return service.sortAircraft(matches, sort.field(), sort.ascending());
+            }
+        };
+
+        task.setOnSucceeded(e -> {
+            if (filterTask != task || task.getValue() == null) return;
+            filterTask = null;
+            criteria = next;
+            shownSort = sort;
+            loadedVersion = snapshot.version();
+            tableModel.setRows(task.getValue());
+
+            List<AircraftEvent> later = List.copyOf(deferred);
+            deferred.clear();
+            applyEvents(later);
         });
+        task.setOnFailed(e -> {
+            if (filterTask != task) return;
+            filterTask = null;
+            deferred.clear();
+            showErrorAlert("Ошибка", "Не удалось отфильтровать список: " + task.getException().getMessage());
+        });
+
+        filterTask = task;
+        filterExecutor.execute(task);
+    }
+
+    /**
+     * Сортировка таблицы: поле и направление.
+     *
+     * @param field     поле сортировки
+     * @param ascending по возрастанию
+     */
+    private record SortSpec(SortField field, boolean ascending) {
+    }
+
+    /**
+     * Определяет сортировку, выбранную пользователем. Учитывается первая колонка
+     * порядка сортировки, так как сортировка выполняется индексом по одному полю.
+     *
+     * @return сортировка или {@code null}, если таблица не отсортирована
+     */
+    private SortSpec currentSort() {
+        if (tableAircraft.getSortOrder().isEmpty()) return null;
+
+        TableColumn<Aircraft, ?> column = tableAircraft.getSortOrder().get(0);
+        if (!(column.getUserData() instanceof SortField field)) return null;
+
+        return new SortSpec(field, column.getSortType() == TableColumn.SortType.ASCENDING);
     }
 
     /**
@@ -265,7 +488,7 @@ public class MainController {
     @FXML
     private void onClearFilters() {
         searchField.clear();
-        typeFilter.getSelectionModel().select("All types");
+        typeFilter.getSelectionModel().select(FilterCriteria.ALL_TYPES);
     }
 
     // ============================================================
@@ -273,11 +496,235 @@ public class MainController {
     // ============================================================
 
     /**
-     * Обновляет таблицу, перезагружая данные из сервиса.
+     * Обновляет таблицу, перестраивая представление по текущей версии парка.
      */
     private void refreshTable() {
         if (service == null) return;
-        masterList.setAll(service.getAllAircraft());
+        search.invalidate();
+        applyFilters();
+    }
+
+    /**
+     * Применяет изменения парка к строкам таблицы в потоке JavaFX.
+     * <p>
+     * События не новее отображаемой версии пропускаются. Пока строится представление,
+     * события откладываются и применяются к его результату. Событие, которое нельзя
+     * отразить в строках точно, перестраивает представление по текущему снимку;
+     * оставшиеся события уже содержатся в этом снимке.
+     *
+     * @param events события в порядке публикации
+     */
+    private void applyEvents(List<AircraftEvent> events) {
+        for (AircraftEvent event : events) {
+            if (event.version() <= loadedVersion) continue;
+            if (filterTask != null) {
+                deferred.add(event);
+                continue;
+            }
+            if (!applyEvent(event)) {
+                applyFilters();
+                return;
+            }
+            loadedVersion = event.version();
+        }
+    }
+
+    /**
+     * Применяет одно событие к строкам таблицы.
+     *
+     * @param event событие изменения
+     * @return {@code false}, если событие требует перестроения представления
+     */
+    private boolean applyEvent(AircraftEvent event) {
+        if (event instanceof AircraftEvent.Batch e) {
+            if (e.changes().size() > MAX_BATCH_CHANGES) return false;
+            for (AircraftEvent change : e.changes()) {
+                if (!applyEvent(change)) return false;
+            }
+            return true;
+        } else if (event instanceof AircraftEvent.Added e) {
+            return insertRow(e.aircraft());
+        } else if (event instanceof AircraftEvent.Removed e) {
+            if (criteria.matches(e.aircraft())) {
+                int index = rowIndex(e.aircraft());
+                if (index >= 0) tableModel.delete(index);
+            }
+            return true;
+        } else if (event instanceof AircraftEvent.Updated e) {
+            return replaceRow(e.previous(), e.current());
+        }
+        // перезагрузка
+        return false;
+    }
+
+    /**
+     * Вставляет добавленный самолёт, если он удовлетворяет фильтру. Новый самолёт
+     * последний в порядке репозитория, поэтому среди равных по полю сортировки
+     * он идёт последним по возрастанию и первым по убыванию.
+     *
+     * @param aircraft добавленный самолёт
+     * @return {@code true}
+     */
+    private boolean insertRow(Aircraft aircraft) {
+        if (!criteria.matches(aircraft)) return true;
+
+        List<Aircraft> rows = tableModel.rows();
+        int index = shownSort == null
+                ? rows.size()
+                : bound(rows, aircraft, !shownSort.ascending());
+        tableModel.insert(index, aircraft);
+        return true;
+    }
+
+    /**
+     * Заменяет прежнюю версию самолёта новой. Место самолёта, попавшего в таблицу
+     * после замены, среди равных по полю сортировки определяется порядком
+     * репозитория, поэтому такой случай требует перестроения.
+     *
+     * @param previous прежняя версия
+     * @param current  новая версия
+     * @return {@code false}, если требуется перестроение представления
+     */
+    private boolean replaceRow(Aircraft previous, Aircraft current) {
+        boolean was = criteria.matches(previous);
+        boolean now = criteria.matches(current);
+        int index = was ? rowIndex(previous) : -1;
+
+        if (index >= 0 && now && (shownSort == null || rowOrder().compare(previous, current) == 0)) {
+            tableModel.replace(index, current);
+            return true;
+        }
+        if (index >= 0) tableModel.delete(index);
+        if (!now) return true;
+        if (shownSort == null) return false;
+
+        List<Aircraft> rows = tableModel.rows();
+        int from = bound(rows, current, true);
+        if (from != bound(rows, current, false)) return false;
+        tableModel.insert(from, current);
+        return true;
+    }
+
+    /**
+     * Находит строку с тем же объектом самолёта.
+     *
+     * @param aircraft самолёт
+     * @return позиция или {@code -1}
+     */
+    private int rowIndex(Aircraft aircraft) {
+        List<Aircraft> rows = tableModel.rows();
+        if (shownSort == null) {
+            // итератор, а не get(i): снимок репозитория обходится последовательно быстрее
+            int i = 0;
+            for (Aircraft row : rows) {
+                if (row == aircraft) return i;
+                i++;
+            }
+            return -1;
+        }
+
+        Comparator<Aircraft> order = rowOrder();
+        for (int i = bound(rows, aircraft, true); i < rows.size(); i++) {
+            Aircraft row = rows.get(i);
+            if (row == aircraft) return i;
+            if (order.compare(row, aircraft) != 0) break;
+        }
+        return -1;
+    }
+
+    /**
+     * Двоичный поиск границы группы строк, равных самолёту по порядку таблицы.
+     *
+     * @param rows     строки, упорядоченные {@link #rowOrder()}
+     * @param aircraft самолёт
+     * @param lower    {@code true} — первая позиция группы, иначе позиция после неё
+     * @return позиция
+     */
+    private int bound(List<Aircraft> rows, Aircraft aircraft, boolean lower) {
+        Comparator<Aircraft> order = rowOrder();
+        int lo = 0, hi = rows.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = order.compare(rows.get(mid), aircraft);
+            if (c < 0 || c == 0 && !lower) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * @return порядок отображаемых строк (при наличии сортировки)
+     */
+    private Comparator<Aircraft> rowOrder() {
+        Comparator<Aircraft> order = shownSort.field().comparator();
+        return shownSort.ascending() ? order : order.reversed();
+    }
+
+    /**
+     * Подписчик на поток изменений парка.
+     * <p>
+     * События накапливаются в очереди и применяются в потоке JavaFX пачкой
+     * за один вызов {@link Platform#runLater(Runnable)} ({@link #applyEvents(List)}).
+     * Подписчик запрашивает все события сразу и никогда не задерживает издателя.
+     * Очередь ограничена {@link #MAX_PENDING_EVENTS}: если поток JavaFX не успевает,
+     * новые события отбрасываются, а таблица перестраивается по текущему снимку,
+     * который уже содержит все отброшенные изменения.
+     */
+    private final class FleetChangeSubscriber implements Flow.Subscriber<AircraftEvent> {
+
+        private final Queue<AircraftEvent> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+        private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(AircraftEvent event) {
+            if (!overflowed.get()) {
+                if (queued.incrementAndGet() <= MAX_PENDING_EVENTS) pending.add(event);
+                else overflowed.set(true);
+            }
+            if (drainScheduled.compareAndSet(false, true)) {
+                Platform.runLater(this::drain);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            Platform.runLater(() -> showErrorAlert("Ошибка", "Поток изменений прерван: " + error.getMessage()));
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        /**
+         * Применяет все накопленные события в потоке JavaFX или, если очередь
+         * переполнилась, перестраивает таблицу по текущему снимку.
+         */
+        private void drain() {
+            drainScheduled.set(false);
+            if (overflowed.get()) {
+                // пока флаг установлен, очередь не пополняется
+                pending.clear();
+                queued.set(0);
+                overflowed.set(false);
+                refreshTable();
+                return;
+            }
+
+            List<AircraftEvent> events = new ArrayList<>();
+            AircraftEvent event;
+            while ((event = pending.poll()) != null) {
+                events.add(event);
+            }
+            queued.addAndGet(-events.size());
+            applyEvents(events);
+        }
     }
 
     // ============================================================
@@ -293,6 +740,8 @@ public class MainController {
      *     <li>Некорректные параметры;</li>
      *     <li>дубликат ID;</li>
      * </ul>
+     * Поля ID, модели и производителя предлагают варианты дополнения;
+     * занятый ID отмечается сразу при вводе, и сохранение блокируется.
      */
     private void onAdd() {
 
@@ -324,11 +773,21 @@ public class MainController {
 
         tfSpecific.setPromptText("Cabin class / Max cargo / Weapon");
 
+        AutoCompletion.install(tfId, text -> service.complete(CompletionField.ID, text, AutoCompletion.LIMIT));
+        AutoCompletion.install(tfModel, text -> service.complete(CompletionField.MODEL, text, AutoCompletion.LIMIT));
+        AutoCompletion.install(tfManufacturer,
+                text -> service.complete(CompletionField.MANUFACTURER, text, AutoCompletion.LIMIT));
+
+        Label idTaken = new Label("ID уже занят");
+        idTaken.setStyle("-fx-text-fill: red;");
+        idTaken.setVisible(false);
+
         grid.add(new Label("Type:"), 0, 0);
         grid.add(cbType, 1, 0);
 
         grid.add(new Label("ID:"), 0, 1);
         grid.add(tfId, 1, 1);
+        grid.add(idTaken, 2, 1);
 
         grid.add(new Label("Model:"), 0, 2);
         grid.add(tfModel, 1, 2);
@@ -356,6 +815,13 @@ public class MainController {
 
         dialog.getDialogPane().setContent(grid);
 
+        Button okButton = (Button) dialog.getDialogPane().lookupButton(ButtonType.OK);
+        tfId.textProperty().addListener((obs, oldV, newV) -> {
+            boolean taken = service.isIdTaken(newV.trim());
+            idTaken.setVisible(taken);
+            okButton.setDisable(taken);
+        });
+
         dialog.setResultConverter(button -> {
 
             if (button != ButtonType.OK) return null;
@@ -406,8 +872,6 @@ public class MainController {
 
             try {
                 service.addAircraft(a);
-                masterList.add(a);
-                applyFilters();
 
                 showInfo("Добавлено", "Самолёт успешно сохранён.");
 
@@ -444,7 +908,6 @@ public class MainController {
 
         if (res.isPresent() && res.get() == ButtonType.YES) {
             service.removeAircraft(sel.getId());
-            masterList.remove(sel);
         }
     }
 
@@ -468,6 +931,7 @@ public class MainController {
             st.setTitle("Analytics");
             st.setScene(new Scene(root, 900, 600));
             st.initOwner(btnAnalytics.getScene().getWindow());
+            st.setOnHidden(e -> ctrl.dispose());
             st.show();
 
         } catch (Exception ex) {
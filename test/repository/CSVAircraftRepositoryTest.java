@@ -4,6 +4,7 @@ import model.*;
 import org.junit.jupiter.api.*;
 import java.io.*;
 import java.nio.file.*;
+import java.nio.channels.FileChannel;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -13,8 +14,27 @@ class CSVAircraftRepositoryTest {
     private static final String TEST_FILE = "test_aircraft.csv";
 
     @BeforeEach
-    void setUp() throws IOException {
+    @AfterEach
+    void deleteFiles() throws IOException {
         Files.deleteIfExists(Paths.get(TEST_FILE));
+        Files.deleteIfExists(Paths.get(TEST_FILE + ".wal"));
+        Files.deleteIfExists(Paths.get(TEST_FILE + ".tmp"));
+    }
+
+    @Test
+    void testCloseWritesPendingChangesToCsv() throws IOException {
+        CSVAircraftRepository repo = new CSVAircraftRepository(TEST_FILE);
+        repo.add(new PassengerAircraft("1", "m1", "airbus", 100, 5000.0, 2019, 1000, "OK", "Бизнес"));
+        repo.add(new PassengerAircraft("2", "m2", "airbus", 100, 5000.0, 2019, 1000, "OK", "Бизнес"));
+
+        // до контрольной точки изменения есть только в журнале
+        assertFalse(Files.exists(Paths.get(TEST_FILE)));
+
+        repo.close();
+        repo.close();
+
+        assertEquals(2, Files.readAllLines(Paths.get(TEST_FILE)).size());
+        assertEquals(2, new CSVAircraftRepository(TEST_FILE).getAll().size());
     }
 
     @Test
@@ -78,4 +98,233 @@ class CSVAircraftRepositoryTest {
         CSVAircraftRepository repo2 = new CSVAircraftRepository(TEST_FILE);
         assertNull(repo2.findById("5"));
     }
+
+    @Test
+    void testHotReloadAppliesOnlyChangedRows() throws IOException {
+        Files.writeString(Paths.get(TEST_FILE),
+                "Passenger aircraft;1;a1;airbus;150;12000.0;2020;1500;Ремонт;Эконом\n" +
+                        "Cargo aircraft;2;a2;boeing;0;8000.0;2018;3000;Рабочий;5000\n" +
+                        "Military aircraft;3;a3;sukhoi;1;1500.0;2010;700;Боевой;Ракеты\n"
+        );
+
+        CSVAircraftRepository repo = new CSVAircraftRepository(TEST_FILE);
+        Aircraft untouched = repo.findById("1");
+
+        List<AircraftEvent> events = new java.util.ArrayList<>();
+        repo.events().addListener(events::add);
+
+        // строка 2 изменена, строка 3 удалена, строка 4 добавлена
+        Files.writeString(Paths.get(TEST_FILE),
+                "Passenger aircraft;1;a1;airbus;150;12000.0;2020;1500;Ремонт;Эконом\n" +
+                        "Cargo aircraft;2;a2;boeing;0;8000.0;2018;3500;Рабочий;5000\n" +
+                        "Passenger aircraft;4;a4;tu;90;5000.0;2001;100;OK;Бизнес\n"
+        );
+
+        CSVAircraftRepository.ReloadDiff diff = repo.hotReload();
+
+        assertEquals(List.of("4"), diff.added().stream().map(Aircraft::getId).toList());
+        assertEquals(List.of("2"), diff.updated().stream().map(Aircraft::getId).toList());
+        assertEquals(List.of("3"), diff.removed());
+
+        // вся правка файла — одна версия и одно событие
+        assertEquals(1, events.size());
+        AircraftEvent.Batch batch = assertInstanceOf(AircraftEvent.Batch.class, events.get(0));
+        assertEquals(repo.version(), batch.version());
+        assertEquals(3, batch.changes().size());
+        assertInstanceOf(AircraftEvent.Removed.class, batch.changes().get(0));
+        assertInstanceOf(AircraftEvent.Updated.class, batch.changes().get(1));
+        assertInstanceOf(AircraftEvent.Added.class, batch.changes().get(2));
+
+        assertEquals(3, repo.getAll().size());
+        assertSame(untouched, repo.findById("1"));
+        assertEquals(3500, repo.findById("2").getFlightHours());
+        assertNull(repo.findById("3"));
+        assertNotNull(repo.findById("4"));
+
+        // повторная перезагрузка без изменений файла ничего не меняет
+        assertTrue(repo.hotReload().isEmpty());
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    void testHotReloadIgnoresOwnWrites() {
+        CSVAircraftRepository repo = new CSVAircraftRepository(TEST_FILE);
+
+        repo.add(new PassengerAircraft(
+                "7", "m7", "tu", 120, 6000.0,
+                2015, 2000, "OK", "Эконом"
+        ));
+
+        assertTrue(repo.hotReload().isEmpty());
+        assertEquals(1, repo.getAll().size());
+    }
+
+    @Test
+    void testWatcherPicksUpExternalEdit() throws Exception {
+        Files.writeString(Paths.get(TEST_FILE),
+                "Passenger aircraft;1;a1;airbus;150;12000.0;2020;1500;Ремонт;Эконом\n");
+
+        CSVAircraftRepository repo = new CSVAircraftRepository(TEST_FILE);
+        repo.startWatching();
+
+        try {
+            Files.writeString(Paths.get(TEST_FILE),
+                    "Passenger aircraft;1;a1;airbus;150;12000.0;2020;1500;Ремонт;Эконом\n" +
+                            "Cargo aircraft;2;a2;boeing;0;8000.0;2018;3000;Рабочий;5000\n");
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (repo.findById("2") == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertNotNull(repo.findById("2"));
+        } finally {
+            repo.stopWatching();
+        }
+    }
+
+    @Test
+    void testCheckpointRewritesFileAndClearsJournal() throws IOException {
+        CSVAircraftRepository repo = new CSVAircraftRepository(TEST_FILE, 2);
+
+        repo.add(new PassengerAircraft("1", "m1", "tu", 100, 5000.0, 2019, 1000, "OK", "Эконом"));
+        assertFalse(Files.exists(Paths.get(TEST_FILE)));
+
+        repo.add(new PassengerAircraft("2", "m2", "tu", 100, 5000.0, 2019, 1000, "OK", "Эконом"));
+        assertEquals(2, Files.readAllLines(Paths.get(TEST_FILE)).size());
+        assertEquals(1, Files.readAllLines(Paths.get(TEST_FILE + ".wal")).size());
+        assertFalse(Files.exists(Paths.get(TEST_FILE + ".tmp")));
+    }
+
+    @Test
+    void testRecoveryAfterCrashAtEveryWritePoint() throws IOException {
+        String[] points = {
+                CrashHook.JOURNAL_APPENDED,
+                CrashHook.CHECKPOINT_WRITTEN,
+                CrashHook.CHECKPOINT_RENAMED,
+                CrashHook.JOURNAL_RESET
+        };
+
+        for (String point : points) {
+            CSVAircraftRepository recovered = crashAndRecover(point, p -> { });
+
+            assertNotNull(recovered.findById("1"), point);
+            assertNotNull(recovered.findById("2"), point);
+            assertFalse(Files.exists(Paths.get(TEST_FILE + ".tmp")), point);
+
+            // после восстановления хранилище продолжает работать
+            recovered.add(new PassengerAircraft("3", "m3", "tu", 100, 5000.0, 2019, 1000, "OK", "Эконом"));
+            assertNotNull(new CSVAircraftRepository(TEST_FILE).findById("3"), point);
+        }
+    }
+
+    @Test
+    void testRecoveryAfterTornJournalRecord() throws IOException {
+        Path wal = Paths.get(TEST_FILE + ".wal");
+
+        CSVAircraftRepository recovered = crashAndRecover(CrashHook.JOURNAL_APPENDED, p -> {
+            byte[] bytes = Files.readAllBytes(wal);
+            int start = lastIndexOf(bytes, (byte) '\n', bytes.length - 2) + 1;
+            truncate(wal, start + (bytes.length - start) / 2);
+        });
+
+        assertNotNull(recovered.findById("1"));
+        assertNull(recovered.findById("2"));
+
+        recovered.add(new PassengerAircraft("3", "m3", "tu", 100, 5000.0, 2019, 1000, "OK", "Эконом"));
+        CSVAircraftRepository reopened = new CSVAircraftRepository(TEST_FILE);
+        assertNotNull(reopened.findById("3"));
+        assertNull(reopened.findById("2"));
+    }
+
+    @Test
+    void testRecoveryAfterTornCheckpoint() throws IOException {
+        Path temp = Paths.get(TEST_FILE + ".tmp");
+
+        CSVAircraftRepository recovered = crashAndRecover(CrashHook.CHECKPOINT_WRITTEN,
+                p -> truncate(temp, Files.size(temp) / 2));
+
+        assertNotNull(recovered.findById("1"));
+        assertNotNull(recovered.findById("2"));
+        assertFalse(Files.exists(temp));
+    }
+
+    /**
+     * Добавляет два самолёта с контрольной точкой на втором и имитирует сбой
+     * в указанной точке записи второго добавления.
+     *
+     * @param point точка сбоя
+     * @param tear  действие над файлами перед сбоем (например, обрыв записи)
+     * @return хранилище, открытое заново после сбоя
+     */
+    private CSVAircraftRepository crashAndRecover(String point, FileAction tear) throws IOException {
+        deleteFiles();
+
+        boolean[] armed = {false};
+        CrashHook hook = p -> {
+            if (!armed[0] || !p.equals(point)) return;
+            try {
+                tear.run(p);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            throw new SimulatedCrash();
+        };
+
+        CSVAircraftRepository repo = new CSVAircraftRepository(TEST_FILE, 2, hook);
+        repo.add(new PassengerAircraft("1", "m1", "tu", 100, 5000.0, 2019, 1000, "OK", "Эконом"));
+
+        armed[0] = true;
+        assertThrows(SimulatedCrash.class, () -> repo.add(
+                new CargoAircraft("2", "m2", "an", 0, 4000.0, 2001, 500, "OK", 9000.0)), point);
+
+        return new CSVAircraftRepository(TEST_FILE, 2);
+    }
+
+    private static void truncate(Path path, long size) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ch.truncate(size);
+        }
+    }
+
+    private static int lastIndexOf(byte[] bytes, byte value, int from) {
+        for (int i = from; i >= 0; i--) {
+            if (bytes[i] == value) return i;
+        }
+        return -1;
+    }
+
+    /** Действие над файлами хранилища в точке сбоя. */
+    private interface FileAction {
+        void run(String point) throws IOException;
+    }
+
+    @Test
+    void testLoadListenerReceivesAllRowsInBatches() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            csv.append("Passenger aircraft;").append(i).append(";m;tu;100;5000.0;2019;1000;OK;Эконом\n");
+        }
+        Files.writeString(Paths.get(TEST_FILE), csv);
+        long size = Files.size(Paths.get(TEST_FILE));
+
+        List<Integer> batches = new java.util.ArrayList<>();
+        long[] lastRead = {-1};
+        CSVAircraftRepository repo = new CSVAircraftRepository(TEST_FILE,
+                CSVAircraftRepository.DEFAULT_CHECKPOINT_INTERVAL,
+                (batch, bytesRead, totalBytes) -> {
+                    assertEquals(size, totalBytes);
+                    assertTrue(bytesRead >= lastRead[0]);
+                    lastRead[0] = bytesRead;
+                    batches.add(batch.size());
+                });
+
+        assertEquals(List.of(1000, 1000, 500), batches);
+        assertEquals(size, lastRead[0]);
+        assertEquals(2500, repo.getAll().size());
+    }
+
+    /** Имитация аварийного завершения процесса в точке записи. */
+    private static class SimulatedCrash extends Error {
+    }
 }
@@ -0,0 +1,168 @@
+package repository;
+
+import model.Aircraft;
+import model.PassengerAircraft;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingAircraftRepositoryTest {
+
+    /** Репозиторий, считающий обращения к хранилищу при поиске по ID. */
+    private static final class CountingRepository extends InMemoryAircraftRepository {
+        int lookups;
+        final List<List<String>> batches = new ArrayList<>();
+
+        @Override
+        public Aircraft findById(String id) {
+            lookups++;
+            return super.findById(id);
+        }
+
+        @Override
+        public LookupResult findAll(Collection<String> ids) {
+            batches.add(List.copyOf(ids));
+            return super.findAll(ids);
+        }
+    }
+
+    private CountingRepository storage;
+
+    @BeforeEach
+    void setup() {
+        storage = new CountingRepository();
+        for (int i = 0; i < 100; i++) storage.add(aircraft("A" + i, "OK"));
+        storage.lookups = 0;
+    }
+
+    private static PassengerAircraft aircraft(String id, String status) {
+        return new PassengerAircraft(id, "A320", "Airbus", 180, 6100, 2010, 5000, status, "Economy");
+    }
+
+    private CachingAircraftRepository caching(CachingAircraftRepository.WritePolicy policy) {
+        return new CachingAircraftRepository(storage, 50, CachingAircraftRepository.Eviction.LRU, policy);
+    }
+
+    @Test
+    void testRepeatedLookupsServedFromCache() {
+        CachingAircraftRepository repo = caching(CachingAircraftRepository.WritePolicy.WRITE_THROUGH);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals("A7", repo.findById("A7").getId());
+            assertEquals("A7", repo.findById("a7").getId()); // ID сравнивается по правилу хранилища
+            assertNull(repo.findById("missing"));
+        }
+
+        assertEquals(2, storage.lookups);
+        CachingAircraftRepository.Stats stats = repo.stats();
+        assertEquals(28, stats.hits());
+        assertEquals(9, stats.negativeHits());
+        assertEquals(2, stats.misses());
+        assertEquals(28.0 / 30, stats.hitRate(), 1e-9);
+    }
+
+    @Test
+    void testBatchLookupLoadsOnlyUncachedIds() {
+        CachingAircraftRepository repo = caching(CachingAircraftRepository.WritePolicy.WRITE_THROUGH);
+        repo.findById("A1");
+        assertNull(repo.findById("missing"));
+
+        LookupResult result = repo.findAll(Arrays.asList("a1", "A2", "missing", "A2", "nope", null, "A3"));
+
+        assertEquals(List.of("a1", "A2", "A3"), List.copyOf(result.found().keySet()));
+        assertEquals(Arrays.asList("missing", "nope", null), new ArrayList<>(result.missing()));
+        assertEquals(List.of(List.of("A2", "nope", "A3")), storage.batches);
+
+        // ответ хранилища попал в кэш, включая отсутствующий ID
+        storage.lookups = 0;
+        storage.batches.clear();
+        assertEquals("A2", repo.findAll(List.of("A2", "A3", "nope", "A1")).found().get("A2").getId());
+        assertEquals("A3", repo.findById("A3").getId());
+        assertNull(repo.findById("nope"));
+        assertTrue(storage.batches.isEmpty());
+        assertEquals(0, storage.lookups);
+    }
+
+    @Test
+    void testWriteThroughKeepsCacheCurrent() {
+        CachingAircraftRepository repo = caching(CachingAircraftRepository.WritePolicy.WRITE_THROUGH);
+        assertNull(repo.findById("NEW"));
+
+        repo.add(aircraft("NEW", "OK"));
+        repo.update(aircraft("A1", "Ремонт"));
+        // изменения в обход декоратора тоже учитываются
+        storage.commit(new ChangeSet(List.of(aircraft("A2", "Списан")), List.of("A3")), null);
+        storage.lookups = 0;
+
+        assertEquals("NEW", repo.findById("NEW").getId());
+        assertEquals("Ремонт", repo.findById("A1").getStatus());
+        assertEquals("Списан", repo.findById("A2").getStatus());
+        assertNull(repo.findById("A3"));
+        assertEquals(0, storage.lookups);
+    }
+
+    @Test
+    void testWriteAroundInvalidates() {
+        CachingAircraftRepository repo = caching(CachingAircraftRepository.WritePolicy.WRITE_AROUND);
+        repo.findById("A1");
+        assertNull(repo.findById("NEW"));
+
+        int before = storage.lookups;
+        repo.update(aircraft("A1", "Ремонт"));
+        repo.add(aircraft("NEW", "OK"));
+        int writes = storage.lookups - before; // хранилище само ищет ID при записи
+        assertEquals(0, repo.stats().size());
+
+        assertEquals("Ремонт", repo.findById("A1").getStatus());
+        assertNotNull(repo.findById("NEW"));
+        assertEquals(4, storage.lookups - writes);
+
+        assertTrue(repo.remove("A1"));
+        assertNull(repo.findById("A1"));
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        CachingAircraftRepository repo = caching(CachingAircraftRepository.WritePolicy.WRITE_THROUGH);
+        for (int i = 0; i < 100; i++) repo.findById("A" + i);
+
+        assertEquals(50, repo.stats().size());
+        assertEquals(50, repo.stats().evictions());
+        assertThrows(IllegalArgumentException.class, () -> new CachingAircraftRepository(storage, 0,
+                CachingAircraftRepository.Eviction.LRU, CachingAircraftRepository.WritePolicy.WRITE_THROUGH));
+    }
+
+    @Test
+    void testTinyLfuResistsScans() {
+        for (int i = 100; i < 2000; i++) storage.add(aircraft("A" + i, "OK"));
+
+        CachingAircraftRepository lfu = new CachingAircraftRepository(storage, 100,
+                CachingAircraftRepository.Eviction.TINY_LFU, CachingAircraftRepository.WritePolicy.WRITE_THROUGH);
+        CachingAircraftRepository lru = new CachingAircraftRepository(storage, 100,
+                CachingAircraftRepository.Eviction.LRU, CachingAircraftRepository.WritePolicy.WRITE_THROUGH);
+
+        // 50 популярных самолётов вперемешку с однократным просмотром остальных
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                lfu.findById("A" + i);
+                lru.findById("A" + i);
+            }
+            for (int i = 0; i < 150; i++) {
+                String id = "A" + (100 + round * 150 + i);
+                lfu.findById(id);
+                lru.findById(id);
+            }
+        }
+
+        assertTrue(lfu.stats().hitRate() > 0.2, "TinyLFU: " + lfu.stats());
+        assertTrue(lfu.stats().hitRate() > lru.stats().hitRate() + 0.1,
+                "TinyLFU " + lfu.stats() + ", LRU " + lru.stats());
+        assertTrue(lfu.stats().size() <= 100);
+    }
+}
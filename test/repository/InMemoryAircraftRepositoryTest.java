@@ -1,9 +1,19 @@
 package repository;
 
+import model.Aircraft;
 import model.PassengerAircraft;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class InMemoryAircraftRepositoryTest {
@@ -117,4 +127,139 @@ class InMemoryAircraftRepositoryTest {
 
         assertEquals(2, repository.getAll().size());
     }
+
+    // --------------------------------------------------------
+    // SNAPSHOTS
+    // --------------------------------------------------------
+    @Test
+    void testSnapshotIsIsolatedFromLaterWrites() {
+        repository.add(new PassengerAircraft(
+                "1", "A320", "Airbus",
+                180, 6100, 2010, 5000,
+                "OK", "Economy"
+        ));
+
+        FleetSnapshot before = repository.snapshot();
+        List<Aircraft> view = before.aircraft();
+
+        repository.add(new PassengerAircraft(
+                "2", "B737", "Boeing",
+                160, 5500, 2011, 3000,
+                "OK", "Business"
+        ));
+        repository.remove("1");
+
+        assertEquals(1, view.size());
+        assertEquals("1", view.get(0).getId());
+        assertNotNull(before.findById("1"));
+        assertNull(before.findById("2"));
+
+        assertEquals(before.version() + 2, repository.version());
+        assertEquals("2", repository.getAll().get(0).getId());
+    }
+
+    @Test
+    void testPinnedVersionIsReleased() {
+        repository.add(new PassengerAircraft(
+                "1", "A320", "Airbus",
+                180, 6100, 2010, 5000,
+                "OK", "Economy"
+        ));
+
+        long pinned;
+        try (PinnedSnapshot snapshot = repository.pin()) {
+            pinned = snapshot.version();
+            repository.remove("1");
+
+            assertEquals(1, snapshot.aircraft().size());
+            assertTrue(repository.pinnedVersions().contains(pinned));
+        }
+
+        assertFalse(repository.pinnedVersions().contains(pinned));
+        assertTrue(repository.getAll().isEmpty());
+    }
+
+    @Test
+    void testInsertionOrderIsPreserved() {
+        for (int i = 0; i < 50; i++) {
+            repository.add(new PassengerAircraft(
+                    "id" + i, "M", "X",
+                    100, 1000, 2000, 10,
+                    "OK", "Economy"
+            ));
+        }
+        repository.remove("id10");
+
+        List<Aircraft> all = repository.getAll();
+        assertEquals(49, all.size());
+        assertEquals("id0", all.get(0).getId());
+        assertEquals("id11", all.get(10).getId());
+        assertEquals("id49", all.get(48).getId());
+    }
+
+    @Test
+    void testFindAllResolvesBatchInRequestOrder() {
+        for (int i = 0; i < 50; i++) {
+            repository.add(new PassengerAircraft(
+                    "id" + i, "M", "X",
+                    100, 1000, 2000, 10,
+                    "OK", "Economy"
+            ));
+        }
+
+        LookupResult result = repository.findAll(Arrays.asList("id7", "nope", "ID3", null, "id7", "id49"));
+
+        assertEquals(List.of("id7", "ID3", "id49"), List.copyOf(result.found().keySet()));
+        assertEquals("id3", result.found().get("ID3").getId()); // ID без учёта регистра
+        assertEquals(Arrays.asList("nope", null), new ArrayList<>(result.missing()));
+        assertFalse(result.isComplete());
+
+        assertTrue(repository.findAll(List.of("id1", "id2")).isComplete());
+        assertTrue(repository.findAll(List.of()).found().isEmpty());
+    }
+
+    @Test
+    void testStalledSubscriberDoesNotBlockWriters() throws Exception {
+        // подписчик забирает одно событие и больше не запрашивает: его буфер заполняется
+        repository.events().publisher().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(AircraftEvent item) {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        int count = Flow.defaultBufferSize() * 4;
+        ExecutorService writers = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> burst = writers.submit(() -> {
+                for (int i = 0; i < count; i++) {
+                    repository.add(new PassengerAircraft("b" + i, "M", "X", 100, 1000, 2000, 10, "OK", "Economy"));
+                }
+            });
+            Future<?> single = writers.submit(() -> {
+                for (int i = 0; i < 10; i++) {
+                    repository.add(new PassengerAircraft("s" + i, "M", "X", 100, 1000, 2000, 10, "OK", "Economy"));
+                }
+            });
+
+            burst.get(10, TimeUnit.SECONDS);
+            single.get(10, TimeUnit.SECONDS);
+        } finally {
+            writers.shutdownNow();
+        }
+
+        assertEquals(count + 10, repository.getAll().size());
+    }
 }
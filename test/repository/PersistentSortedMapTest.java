@@ -0,0 +1,112 @@
+package repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentSortedMapTest {
+
+    @Test
+    void testMatchesTreeMapUnderRandomOperations() {
+        Random random = new Random(42);
+        PersistentSortedMap<Integer, String> map = PersistentSortedMap.empty();
+        TreeMap<Integer, String> expected = new TreeMap<>();
+
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                map = map.remove(key);
+                expected.remove(key);
+            } else {
+                map = map.put(key, "v" + i);
+                expected.put(key, "v" + i);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+
+        int index = 0;
+        Iterator<String> values = map.values();
+        for (Map.Entry<Integer, String> e : expected.entrySet()) {
+            assertEquals(e.getValue(), map.get(e.getKey()));
+            assertEquals(e.getValue(), map.valueAt(index++));
+            assertEquals(e.getValue(), values.next());
+        }
+        assertFalse(values.hasNext());
+    }
+
+    @Test
+    void testOldVersionsStayUnchanged() {
+        List<PersistentSortedMap<Integer, Integer>> versions = new ArrayList<>();
+        PersistentSortedMap<Integer, Integer> map = PersistentSortedMap.empty();
+
+        for (int i = 0; i < 100; i++) {
+            versions.add(map);
+            map = map.put(i, i);
+        }
+
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(i, versions.get(i).size());
+            assertNull(versions.get(i).get(i));
+        }
+
+        assertThrows(IndexOutOfBoundsException.class, () -> versions.get(3).valueAt(3));
+    }
+
+    @Test
+    void testValuesFromIndex() {
+        PersistentSortedMap<Integer, Integer> map = PersistentSortedMap.empty();
+        for (int i = 0; i < 100; i++) map = map.put(i * 2, i);
+
+        for (int from = 0; from <= 100; from++) {
+            Iterator<Integer> it = map.values(from);
+            for (int i = from; i < 100; i++) {
+                assertTrue(it.hasNext());
+                assertEquals(i, it.next());
+            }
+            assertFalse(it.hasNext());
+        }
+
+        PersistentSortedMap<Integer, Integer> m = map;
+        assertThrows(IndexOutOfBoundsException.class, () -> m.values(101));
+    }
+
+    @Test
+    void testGetAllMatchesPointLookups() {
+        Random random = new Random(11);
+        PersistentSortedMap<Integer, String> map = PersistentSortedMap.empty();
+        for (int i = 0; i < 2000; i++) {
+            int key = random.nextInt(4000);
+            map = map.put(key, "v" + key);
+        }
+
+        List<Integer> keys = new ArrayList<>();
+        for (int key = -5; key < 4005; key += 1 + random.nextInt(7)) keys.add(key);
+
+        Map<Integer, String> expected = new TreeMap<>();
+        for (int key : keys) {
+            String value = map.get(key);
+            if (value != null) expected.put(key, value);
+        }
+
+        List<Integer> order = new ArrayList<>();
+        Map<Integer, String> found = new TreeMap<>();
+        map.getAll(keys, (k, v) -> {
+            order.add(k);
+            found.put(k, v);
+        });
+
+        assertEquals(expected, found);
+        assertEquals(new ArrayList<>(expected.keySet()), order);
+
+        PersistentSortedMap.<Integer, String>empty().getAll(keys, (k, v) -> fail());
+        map.getAll(List.of(), (k, v) -> fail());
+    }
+}
@@ -1,16 +1,31 @@
 package service;
 
+import model.CargoAircraft;
 import model.PassengerAircraft;
 import model.Aircraft;
+import repository.AircraftEvent;
 import repository.InMemoryAircraftRepository;
 import exceptions.AircraftNotFoundException;
 import exceptions.DuplicateIdException;
 import exceptions.InvalidAircraftDataException;
+import exceptions.StorageException;
+import exceptions.TransactionException;
+import repository.ChangeSet;
+import repository.FleetSnapshot;
+import repository.LookupResult;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -99,6 +114,162 @@ class AircraftServiceTest {
         assertThrows(AircraftNotFoundException.class, () -> service.findAircraft("XXX"));
     }
 
+    // -----------------------------------------------------------
+    // SEARCH
+    // -----------------------------------------------------------
+    @Test
+    void testSearch_followsChanges() {
+        service.addAircraft(sample());
+        service.addAircraft(new PassengerAircraft(
+                "B2", "A320", "Airbus", 180, 6000, 2015, 100, "Ремонт", "Бизнес"));
+
+        assertEquals(List.of("A1"), service.search("boe").stream().map(Aircraft::getId).toList());
+        assertEquals(2, service.search(" ").size());
+
+        service.updateAircraft(new PassengerAircraft(
+                "A1", "Boeing 787", "Boeing", 250, 14000, 2018, 10, "Рабочий", "Эконом"));
+        assertEquals("Boeing 787", service.search("787").get(0).getModel());
+        assertTrue(service.search("737").isEmpty());
+
+        service.removeAircraft("B2");
+        assertTrue(service.search("airbus").isEmpty());
+    }
+
+    @Test
+    void testSearch_indexesExistingFleet() {
+        InMemoryAircraftRepository repository = new InMemoryAircraftRepository();
+        repository.add(sample());
+
+        AircraftService fresh = new AircraftService(repository);
+
+        assertEquals(1, fresh.search("737").size());
+    }
+
+    @Test
+    void testFuzzySearch() {
+        service.addAircraft(new PassengerAircraft(
+                "B1", "airbus 777", "Airbus", 300, 9000, 2012, 100, "Рабочий", "Эконом"));
+
+        assertEquals(1, service.fuzzySearch("airbus777", 1).size());
+        assertTrue(service.fuzzySearch("airbus777", 0).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> service.fuzzySearch("x", -1));
+    }
+
+    @Test
+    void testSearchInSnapshot_ignoresLaterChanges() {
+        service.addAircraft(sample());
+        service.addAircraft(new PassengerAircraft(
+                "B1", "airbus 777", "Airbus", 300, 9000, 2012, 100, "Рабочий", "Эконом"));
+        FleetSnapshot snapshot = service.snapshot();
+
+        service.removeAircraft("A1");
+        service.updateAircraft(new PassengerAircraft(
+                "B1", "Boeing 777", "Boeing", 300, 9000, 2012, 100, "Рабочий", "Эконом"));
+
+        assertEquals(List.of("A1"), service.search(snapshot, "boe").stream().map(Aircraft::getId).toList());
+        assertEquals("airbus 777", service.fuzzySearch(snapshot, "airbus777", 1).get(0).getModel());
+        assertEquals(List.of("B1"), service.search(service.snapshot(), "boe").stream().map(Aircraft::getId).toList());
+        assertTrue(service.fuzzySearch(service.snapshot(), "airbus777", 1).isEmpty());
+    }
+
+    // -----------------------------------------------------------
+    // SORTED VIEWS
+    // -----------------------------------------------------------
+    @Test
+    void testSortedAircraft_bothDirectionsAndNewVersions() {
+        service.addAircraft(new PassengerAircraft("C", "m", "x", 90, 1000, 2000, 10, "OK", "Эконом"));
+        service.addAircraft(new PassengerAircraft("A", "m", "x", 1000, 1000, 2000, 10, "OK", "Эконом"));
+        service.addAircraft(new PassengerAircraft("B", "m", "x", 150, 1000, 2000, 10, "OK", "Эконом"));
+
+        assertEquals(List.of("C", "B", "A"),
+                service.sortedAircraft(SortField.CAPACITY, true).stream().map(Aircraft::getId).toList());
+        assertEquals(List.of("C", "B", "A"),
+                service.sortedAircraft(SortField.ID, false).stream().map(Aircraft::getId).toList());
+
+        service.removeAircraft("B");
+        assertEquals(List.of("A", "C"),
+                service.sortedAircraft(SortField.CAPACITY, false).stream().map(Aircraft::getId).toList());
+    }
+
+    @Test
+    void testSortedAircraft_followChangesLikeFreshSort() {
+        Random random = new Random(11);
+        for (int i = 0; i < 200; i++) {
+            service.addAircraft(new PassengerAircraft("S" + i, "m" + random.nextInt(5), "x",
+                    random.nextInt(20), random.nextInt(10), 2000 + random.nextInt(5), 10, "OK", "Эконом"));
+        }
+        for (SortField field : SortField.values()) service.sortedAircraft(field, true);
+        List<Aircraft> before = service.sortedAircraft(SortField.CAPACITY, true);
+        List<Aircraft> beforeCopy = List.copyOf(before);
+
+        for (int step = 0; step < 300; step++) {
+            String id = "S" + random.nextInt(250);
+            Aircraft aircraft = new PassengerAircraft(id, "m" + random.nextInt(5), "x",
+                    random.nextInt(20), random.nextInt(10), 2000 + random.nextInt(5), 10, "OK", "Эконом");
+            if (!service.contains(id)) {
+                service.addAircraft(aircraft);
+            } else if (random.nextInt(3) == 0) {
+                service.removeAircraft(id);
+            } else {
+                service.updateAircraft(aircraft);
+            }
+        }
+
+        for (SortField field : SortField.values()) {
+            List<Aircraft> expected = new ArrayList<>(service.getAllAircraft());
+            expected.sort(field.comparator());
+            assertEquals(expected, service.sortedAircraft(field, true), field.name());
+            Collections.reverse(expected);
+            assertEquals(expected, service.sortedAircraft(field, false), field.name());
+        }
+        // выданное ранее представление не меняется
+        assertEquals(beforeCopy, before);
+    }
+
+    @Test
+    void testSortAircraft_numericOrderIsNotLexicographic() {
+        List<Aircraft> rows = new ArrayList<>();
+        double[] ranges = {1000, 90, -5.5, 12000.25, 90, 0};
+        for (int i = 0; i < ranges.length; i++) {
+            rows.add(new PassengerAircraft("R" + i, "m", "x", 100 - i * 10, ranges[i], 2000, 10, "OK", "Эконом"));
+        }
+
+        assertEquals(List.of("R2", "R5", "R1", "R4", "R0", "R3"),
+                service.sortAircraft(rows, SortField.RANGE, true).stream().map(Aircraft::getId).toList());
+        assertEquals(List.of("R0", "R1", "R2", "R3", "R4", "R5"),
+                service.sortAircraft(rows, SortField.CAPACITY, false).stream().map(Aircraft::getId).toList());
+
+        List<Aircraft> big = new ArrayList<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 2000; i++) {
+            big.add(new PassengerAircraft("B" + i, "m", "x", random.nextInt(2000) - 1000, 1, 2000, 10, "OK", "Эконом"));
+        }
+        List<Aircraft> expected = new ArrayList<>(big);
+        expected.sort(Comparator.comparingInt(Aircraft::getCapacity));
+        assertEquals(expected, service.sortAircraft(big, SortField.CAPACITY, true));
+    }
+
+    // -----------------------------------------------------------
+    // AUTOCOMPLETE
+    // -----------------------------------------------------------
+    @Test
+    void testComplete_andIdTaken() {
+        service.addAircraft(sample());
+        service.addAircraft(new PassengerAircraft(
+                "A2", "Boeing 787", "Boeing", 250, 14000, 2018, 10, "Рабочий", "Эконом"));
+
+        assertEquals(List.of("A1", "A2"), service.complete(CompletionField.ID, "a", 10));
+        assertEquals(List.of("Boeing"), service.complete(CompletionField.MANUFACTURER, "bo", 10));
+        assertTrue(service.complete(CompletionField.MODEL, "", 10).isEmpty());
+
+        assertTrue(service.isIdTaken("A1"));
+        assertFalse(service.isIdTaken("A3"));
+
+        service.removeAircraft("A1");
+        assertEquals(List.of("A2"), service.complete(CompletionField.ID, "a", 10));
+        assertFalse(service.isIdTaken("A1"));
+    }
+
     // -----------------------------------------------------------
     // REMOVE
     // -----------------------------------------------------------
@@ -150,6 +321,158 @@ class AircraftServiceTest {
         assertEquals(200.0, service.averageCapacity());
     }
 
+    @Test
+    void testColumnAnalytics() {
+        service.addAircraft(sample()); // range 5000
+        service.addAircraft(new PassengerAircraft("A2", "A310", "Airbus", 130, 8000, 2005, 5000, "OK", "Эконом"));
+        service.addAircraft(new CargoAircraft("C1", "An-124", "Antonov", 0, 12000, 1990, 9000, "OK", 150000));
+
+        assertEquals(2, service.countAbove(NumericField.RANGE, 5000));
+        assertEquals(List.of("A2", "C1"),
+                service.findAbove(NumericField.RANGE, 5000).stream().map(Aircraft::getId).toList());
+        assertArrayEquals(new int[]{1, 1, 1}, service.histogram(NumericField.RANGE, 4000, 4000, 3));
+
+        DoubleSummaryStatistics years = service.fieldStats(NumericField.YEAR);
+        assertEquals(3, years.getCount());
+        assertEquals(1990, years.getMin());
+        assertEquals(2010, years.getMax());
+
+        // столбцы пересобираются после изменения парка
+        service.removeAircraft("C1");
+        assertEquals(1, service.countAbove(NumericField.RANGE, 5000));
+    }
+
+    @Test
+    void testPercentilesFollowFleetChanges() {
+        service.addAircraft(sample()); // налёт 2000
+        service.addAircraft(new PassengerAircraft("A2", "A310", "Airbus", 130, 8000, 2005, 5000, "OK", "Эконом"));
+        service.addAircraft(new CargoAircraft("C1", "An-124", "Antonov", 0, 12000, 1990, 9000, "OK", 150000));
+
+        assertEquals(5000, service.percentile(NumericField.FLIGHT_HOURS, null, 0.5), 50);
+        assertEquals(9000, service.percentile(NumericField.FLIGHT_HOURS, null, 1), 90);
+        assertEquals(0, service.percentile(NumericField.CAPACITY, "Cargo aircraft", 0.5));
+        assertEquals(List.of("Cargo aircraft", "Passenger aircraft"), service.aircraftTypes());
+
+        service.removeAircraft("C1");
+        assertEquals(5000, service.percentile(NumericField.FLIGHT_HOURS, null, 1), 50);
+        assertTrue(Double.isNaN(service.percentile(NumericField.RANGE, "Cargo aircraft", 0.5)));
+        assertEquals(List.of("Passenger aircraft"), service.aircraftTypes());
+
+        assertThrows(IllegalArgumentException.class, () -> service.percentile(NumericField.YEAR, null, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> service.percentile(NumericField.RANGE, null, 1.5));
+    }
+
+    @Test
+    void testDistinctCountsFollowFleetChanges() {
+        service.addAircraft(sample());
+        service.addAircraft(new PassengerAircraft("A2", "A310", "Airbus", 130, 8000, 2005, 5000, "OK", "Эконом"));
+        service.addAircraft(new CargoAircraft("C1", "An-124", "Antonov", 0, 12000, 1990, 9000, "OK", 150000));
+
+        assertEquals(3, service.distinctCount(StringField.MANUFACTURER));
+        assertEquals(2, service.distinctCount(StringField.STATUS));
+        assertEquals(1, service.distinctCount(StringField.CABIN_CLASS));
+        assertEquals(0, service.distinctCount(StringField.WEAPON_TYPE));
+
+        // после удаления скетч перестраивается
+        service.removeAircraft("C1");
+        assertEquals(2, service.distinctCount(StringField.MANUFACTURER));
+        assertEquals(2, service.distinctCount(StringField.ID));
+    }
+
+    @Test
+    void testStatisticsFollowFleetChanges() {
+        service.addAircraft(sample()); // дальность 5000, налёт 2000
+        service.addAircraft(new PassengerAircraft("A2", "A310", "Airbus", 130, 8000, 2005, 5000, "OK", "Эконом"));
+        service.addAircraft(new CargoAircraft("C1", "An-124", "Antonov", 0, 12000, 1990, 9000, "OK", 150000));
+
+        Moments all = service.statistics(null);
+        assertEquals(3, all.count(Metric.RANGE));
+        assertEquals(25000.0 / 3, all.mean(Metric.RANGE), 1e-9);
+        assertEquals(1, all.count(Metric.MAX_CARGO_WEIGHT));
+        assertTrue(service.correlation(Metric.RANGE, Metric.FLIGHT_HOURS, null) > 0.99);
+        assertEquals(-1.0, service.correlation(Metric.RANGE, Metric.CAPACITY, "Passenger aircraft"), 1e-9);
+
+        // удалённый самолёт вычитается из статистики
+        service.removeAircraft("A2");
+        assertEquals(2, service.statistics(null).count(Metric.RANGE));
+        assertEquals(8500, service.statistics(null).mean(Metric.RANGE), 1e-9);
+        assertTrue(Double.isNaN(service.correlation(Metric.RANGE, Metric.CAPACITY, "Passenger aircraft")));
+    }
+
+    @Test
+    void testStatisticsRebuiltBeforeEventCountsEachAircraftOnce() {
+        InMemoryAircraftRepository repo = new InMemoryAircraftRepository();
+        AircraftService[] holder = new AircraftService[1];
+        // слушатель, зарегистрированный раньше сервиса, запрашивает статистику
+        // после публикации снимка, но до того, как событие дошло до индексов
+        repo.events().addListener(e -> {
+            if (holder[0] != null) holder[0].statistics(null);
+        });
+        AircraftService s = new AircraftService(repo);
+        holder[0] = s;
+
+        s.addAircraft(sample());
+        s.addAircraft(new PassengerAircraft("A2", "A310", "Airbus", 130, 8000, 2005, 5000, "OK", "Эконом"));
+        s.removeAircraft("A2"); // индекс уникальных значений устарел
+        s.addAircraft(new PassengerAircraft("A3", "A320", "Airbus", 180, 6000, 2012, 3000, "OK", "Эконом"));
+
+        assertEquals(2, s.statistics(null).count(Metric.RANGE));
+        assertEquals(5500, s.statistics(null).mean(Metric.RANGE), 1e-9);
+        assertEquals(2, s.distinctCount(StringField.ID));
+    }
+
+    @Test
+    void testStatisticsFollowUpdatesWithoutRebuild() {
+        service.addAircraft(sample()); // дальность 5000
+        service.addAircraft(new PassengerAircraft("A2", "A310", "Airbus", 130, 8000, 2005, 5000, "OK", "Эконом"));
+
+        service.updateAircraft(new PassengerAircraft("A2", "A310", "Airbus", 130, 8000, 2005, 5000, "Ремонт", "Эконом"));
+        assertEquals(6500, service.statistics(null).mean(Metric.RANGE), 1e-9);
+
+        service.updateAircraft(new PassengerAircraft("A2", "A310", "Airbus", 130, 9000, 2005, 5000, "Ремонт", "Эконом"));
+        Moments moments = service.statistics(null);
+        assertEquals(2, moments.count(Metric.RANGE));
+        assertEquals(7000, moments.mean(Metric.RANGE), 1e-9);
+        assertEquals(8_000_000, moments.variance(Metric.RANGE), 1e-6);
+    }
+
+    @Test
+    void testStatisticsApplyEveryChangeOfBatch() {
+        service.addAircraft(sample()); // дальность 5000
+        service.statistics(null);
+
+        try (AircraftTransaction tx = service.beginTransaction()) {
+            tx.add(new PassengerAircraft("A2", "A310", "Airbus", 130, 8000, 2005, 5000, "OK", "Эконом"));
+            tx.add(new PassengerAircraft("A3", "A310", "Airbus", 130, 9000, 2005, 5000, "OK", "Эконом"));
+            tx.commit();
+        }
+
+        Moments moments = service.statistics(null);
+        assertEquals(3, moments.count(Metric.RANGE));
+        assertEquals(22000 / 3.0, moments.mean(Metric.RANGE), 1e-9);
+        assertEquals(2, service.distinctCount(StringField.MODEL));
+    }
+
+    @Test
+    void testLookupsWithoutExceptions() {
+        service.addAircraft(sample());
+        service.addAircraft(new PassengerAircraft("A2", "A310", "Airbus", 130, 8000, 2005, 5000, "OK", "Эконом"));
+
+        assertTrue(service.contains("A1"));
+        assertFalse(service.contains("Z9"));
+        assertEquals("A2", service.findOptional("A2").orElseThrow().getId());
+        assertTrue(service.findOptional("Z9").isEmpty());
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) ids.add("X" + i);
+        ids.add("A2");
+        ids.add("A1");
+
+        LookupResult result = service.findAll(ids);
+        assertEquals(List.of("A2", "A1"), List.copyOf(result.found().keySet()));
+        assertEquals(1000, result.missing().size());
+    }
+
     @Test
     void testMaxRangeAircraft() {
         service.addAircraft(sample()); // 5000
@@ -177,4 +500,181 @@ class AircraftServiceTest {
 
         assertEquals("A2", old.getId());
     }
+
+    // -----------------------------------------------------------
+    // EVENTS
+    // -----------------------------------------------------------
+    @Test
+    void testChangeListenerReceivesTypedEvents() {
+        List<AircraftEvent> events = new ArrayList<>();
+        service.addChangeListener(events::add);
+
+        service.addAircraft(sample());
+        service.removeAircraft("A1");
+
+        assertEquals(2, events.size());
+        assertInstanceOf(AircraftEvent.Added.class, events.get(0));
+        assertInstanceOf(AircraftEvent.Removed.class, events.get(1));
+        assertEquals("A1", ((AircraftEvent.Removed) events.get(1)).aircraft().getId());
+        assertEquals(service.getVersion(), events.get(1).version());
+    }
+
+    @Test
+    void testPublisherDeliversOnRequest() throws InterruptedException {
+        List<AircraftEvent> received = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+
+        service.events().subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription = s;
+                s.request(1);
+            }
+
+            @Override
+            public void onNext(AircraftEvent item) {
+                synchronized (received) {
+                    received.add(item);
+                }
+                done.countDown();
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable t) { }
+
+            @Override
+            public void onComplete() { }
+        });
+
+        service.addAircraft(sample());
+        service.addAircraft(new PassengerAircraft(
+                "A2", "A320", "Airbus",
+                250, 6000, 2015, 1800,
+                "OK", "Эконом"
+        ));
+        service.removeAircraft("A1");
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        synchronized (received) {
+            assertEquals(3, received.size());
+            for (int i = 1; i < received.size(); i++) {
+                assertTrue(received.get(i - 1).version() < received.get(i).version());
+            }
+        }
+    }
+
+    // -----------------------------------------------------------
+    // TRANSACTIONS
+    // -----------------------------------------------------------
+    private PassengerAircraft aircraft(String id, int capacity) {
+        return new PassengerAircraft(
+                id, "A320", "Airbus",
+                capacity, 6000, 2015, 1800,
+                "OK", "Эконом"
+        );
+    }
+
+    @Test
+    void testTransactionCommitsAsSingleBatch() {
+        for (int i = 0; i < 40; i++) service.addAircraft(aircraft("OLD" + i, 100));
+
+        List<AircraftEvent> events = new ArrayList<>();
+        service.addChangeListener(events::add);
+        long before = service.getVersion();
+
+        try (AircraftTransaction tx = service.beginTransaction()) {
+            for (int i = 0; i < 40; i++) {
+                tx.remove("OLD" + i);
+                tx.add(aircraft("NEW" + i, 200));
+            }
+            tx.update(aircraft("NEW0", 250));
+
+            // до фиксации изменения не видны
+            assertEquals(40, service.getAllAircraft().size());
+            assertEquals("OLD0", service.getAllAircraft().get(0).getId());
+
+            tx.commit();
+        }
+
+        assertEquals(before + 1, service.getVersion());
+        assertEquals(1, events.size());
+        AircraftEvent.Batch batch = assertInstanceOf(AircraftEvent.Batch.class, events.get(0));
+        assertEquals(80, batch.changes().size());
+
+        assertEquals(40, service.getAllAircraft().size());
+        assertEquals(250, service.findAircraft("NEW0").getCapacity());
+        assertThrows(AircraftNotFoundException.class, () -> service.findAircraft("OLD5"));
+    }
+
+    @Test
+    void testTransactionValidatesAgainstStagedView() {
+        service.addAircraft(sample());
+
+        try (AircraftTransaction tx = service.beginTransaction()) {
+            tx.add(aircraft("B1", 10));
+            assertThrows(DuplicateIdException.class, () -> tx.add(aircraft("B1", 20)));
+
+            tx.remove("A1");
+            assertNull(tx.find("A1"));
+            assertThrows(AircraftNotFoundException.class, () -> tx.remove("A1"));
+
+            tx.add(aircraft("A1", 30));
+            assertEquals(30, tx.find("A1").getCapacity());
+
+            assertThrows(InvalidAircraftDataException.class, () -> tx.add(aircraft("C1", -1)));
+        }
+
+        // закрытие без фиксации — откат
+        assertEquals(1, service.getAllAircraft().size());
+        assertEquals(150, service.findAircraft("A1").getCapacity());
+    }
+
+    @Test
+    void testTransactionRollsBackOnStorageFailure() {
+        FailingRepository repo = new FailingRepository();
+        AircraftService failing = new AircraftService(repo);
+        failing.addAircraft(sample());
+        long before = failing.getVersion();
+
+        repo.fail = true;
+
+        AircraftTransaction tx = failing.beginTransaction();
+        tx.remove("A1");
+        tx.add(aircraft("B1", 10));
+
+        assertThrows(StorageException.class, tx::commit);
+        assertThrows(TransactionException.class, tx::commit);
+
+        assertEquals(before, failing.getVersion());
+        assertEquals(1, failing.getAllAircraft().size());
+        assertEquals("A1", failing.getAllAircraft().get(0).getId());
+    }
+
+    @Test
+    void testTransactionConflictsWithConcurrentWriter() {
+        service.addAircraft(sample());
+
+        AircraftTransaction tx = service.beginTransaction();
+        tx.update(aircraft("A1", 999));
+
+        service.removeAircraft("A1");
+
+        assertThrows(TransactionException.class, tx::commit);
+        assertTrue(service.getAllAircraft().isEmpty());
+    }
+
+    /**
+     * Репозиторий, имитирующий ошибку записи в хранилище.
+     */
+    private static class FailingRepository extends InMemoryAircraftRepository {
+        boolean fail;
+
+        @Override
+        protected void persist(FleetSnapshot next, ChangeSet changes) {
+            if (fail) throw new StorageException("disk full", new java.io.IOException("disk full"));
+        }
+    }
 }
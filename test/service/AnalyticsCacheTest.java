@@ -0,0 +1,145 @@
+package service;
+
+import model.CargoAircraft;
+import model.PassengerAircraft;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import repository.FleetSnapshot;
+import repository.InMemoryAircraftRepository;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticsCacheTest {
+
+    private AircraftService service;
+
+    @BeforeEach
+    void setup() {
+        service = new AircraftService(new InMemoryAircraftRepository());
+        service.addAircraft(new PassengerAircraft("A1", "Boeing 737", "Boeing", 150, 5000, 2010, 2000, "Рабочий", "Эконом"));
+        service.addAircraft(new CargoAircraft("C1", "An-124", "Antonov", 0, 12000, 1990, 9000, "OK", 150000));
+    }
+
+    @Test
+    void testRepeatedQueriesHitCache() {
+        assertEquals(12000, service.fieldStats(NumericField.RANGE).getMax());
+        assertEquals(12000, service.fieldStats(NumericField.RANGE).getMax());
+        assertSame(service.summary(), service.summary());
+
+        CacheStats stats = service.cacheStats();
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(0.5, stats.hitRate());
+    }
+
+    @Test
+    void testCachedSummaryCannotBeChangedByReaders() {
+        FleetSummary summary = service.summary();
+
+        summary.stats(NumericField.RANGE).accept(1_000_000);
+        summary.typeCounts().clear();
+        assertThrows(IllegalStateException.class, () ->
+                summary.accept(new PassengerAircraft("X1", "m", "x", 1, 99999, 1900, 1, "OK", "Эконом")));
+        assertThrows(IllegalStateException.class, () -> summary.combine(new FleetSummary()));
+        assertThrows(UnsupportedOperationException.class, () -> summary.top(NumericField.RANGE).clear());
+
+        FleetSummary cached = service.summary();
+        assertSame(summary, cached);
+        assertEquals(2, cached.count());
+        assertEquals(12000, cached.stats(NumericField.RANGE).getMax());
+        assertEquals(2, cached.stats(NumericField.RANGE).getCount());
+        assertEquals(2, cached.typeCounts().size());
+        assertEquals("C1", cached.maxRange().getId());
+        assertEquals("C1", cached.oldest().getId());
+    }
+
+    @Test
+    void testExtremesDependOnlyOnTheirField() {
+        assertEquals("C1", service.maxRangeAircraft().getId());
+        assertEquals("C1", service.oldestAircraft().getId());
+        service.summary();
+
+        // смена статуса не требует нового прохода, но возвращается текущий объект
+        service.updateAircraft(new CargoAircraft("C1", "An-124", "Antonov", 0, 12000, 1990, 9000, "Ремонт", 150000));
+        CacheStats before = service.cacheStats();
+        assertEquals("Ремонт", service.maxRangeAircraft().getStatus());
+        assertEquals("Ремонт", service.oldestAircraft().getStatus());
+        assertEquals(before.hits() + 2, service.cacheStats().hits());
+        assertEquals(before.misses(), service.cacheStats().misses());
+
+        service.updateAircraft(new CargoAircraft("C1", "An-124", "Antonov", 0, 100, 1990, 9000, "Ремонт", 150000));
+        assertEquals("A1", service.maxRangeAircraft().getId());
+        assertEquals("C1", service.oldestAircraft().getId());
+
+        service.removeAircraft("A1");
+        service.removeAircraft("C1");
+        assertNull(service.maxRangeAircraft());
+        assertNull(service.oldestAircraft());
+    }
+
+    @Test
+    void testInvalidationFollowsChangedAttributes() {
+        service.fieldStats(NumericField.RANGE);
+        service.groupBy(Dimension.TYPE, Measure.avg(NumericField.RANGE));
+        FleetSummary summary = service.summary();
+
+        // смена статуса не затрагивает дальность
+        service.updateAircraft(new PassengerAircraft("A1", "Boeing 737", "Boeing", 150, 5000, 2010, 2000, "Ремонт", "Эконом"));
+        CacheStats before = service.cacheStats();
+        service.fieldStats(NumericField.RANGE);
+        service.groupBy(Dimension.TYPE, Measure.avg(NumericField.RANGE));
+        assertEquals(before.hits() + 2, service.cacheStats().hits());
+
+        // сводка содержит самолёты и пересчитывается
+        assertNotSame(summary, service.summary());
+        assertEquals(1, service.cacheStats().invalidations());
+
+        // изменение дальности сбрасывает статистику дальности
+        service.updateAircraft(new PassengerAircraft("A1", "Boeing 737", "Boeing", 150, 6000, 2010, 2000, "Ремонт", "Эконом"));
+        assertEquals(6000, service.fieldStats(NumericField.RANGE).getMin());
+        assertEquals(6000.0, service.groupBy(Dimension.TYPE, Measure.avg(NumericField.RANGE))
+                .value("Passenger aircraft", Measure.avg(NumericField.RANGE)).doubleValue());
+
+        // добавление меняет все результаты
+        service.addAircraft(new PassengerAircraft("A2", "A310", "Airbus", 130, 8000, 2005, 5000, "OK", "Эконом"));
+        assertEquals(3, service.fieldStats(NumericField.RANGE).getCount());
+        assertEquals(3, service.countAbove(NumericField.CAPACITY, -1));
+    }
+
+    @Test
+    void testCachedResultsAreNotShared() {
+        service.fieldStats(NumericField.YEAR).accept(3000);
+        assertEquals(2010, service.fieldStats(NumericField.YEAR).getMax());
+
+        service.histogram(NumericField.RANGE, 0, 10000, 2)[0] = 100;
+        assertArrayEquals(new int[]{1, 1}, service.histogram(NumericField.RANGE, 0, 10000, 2));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEviction() {
+        InMemoryAircraftRepository repo = new InMemoryAircraftRepository();
+        FleetSnapshot snapshot = repo.snapshot();
+        AnalyticsCache cache = new AnalyticsCache(7);
+        cache.reset(snapshot.version());
+        AtomicInteger computed = new AtomicInteger();
+
+        // каждый результат весит 3
+        for (String key : List.of("a", "b", "a", "c", "a", "b")) {
+            cache.get(key, FleetAttribute.ALL, snapshot, s -> {
+                computed.incrementAndGet();
+                return List.of(key, key);
+            });
+        }
+
+        // c вытесняет b, к которому дольше не обращались; b рассчитывается снова и вытесняет c
+        assertEquals(4, computed.get());
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.evictions());
+        assertEquals(2, stats.entries());
+        assertEquals(6, stats.weight());
+    }
+}
@@ -0,0 +1,95 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticsEngineTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutdownPool() {
+        POOL.shutdown();
+    }
+
+    /** Параллельный движок с мелкими частями, чтобы деление происходило и на малых данных. */
+    private final AnalyticsEngine parallel = new AnalyticsEngine(POOL, 0, 64);
+
+    /** Движок, никогда не переходящий к параллельным вычислениям. */
+    private final AnalyticsEngine sequential = new AnalyticsEngine(POOL, Integer.MAX_VALUE, 64);
+
+    @Test
+    void testParallelMatchesSequentialExactly() {
+        List<Aircraft> fleet = TestFleets.stored(3000, 7);
+        assertTrue(parallel.isParallel(fleet.size()));
+        assertFalse(sequential.isParallel(fleet.size()));
+
+        for (NumericField field : NumericField.values()) {
+            DoubleSummaryStatistics p = parallel.stats(fleet, field);
+            DoubleSummaryStatistics s = sequential.stats(fleet, field);
+            assertEquals(s.getCount(), p.getCount());
+            assertEquals(s.getMin(), p.getMin());
+            assertEquals(s.getMax(), p.getMax());
+            assertEquals(s.getSum(), p.getSum(), field.name());
+
+            assertEquals(sequential.top(fleet, field, 25), parallel.top(fleet, field, 25), field.name());
+        }
+
+        assertEquals(sequential.countBy(fleet, Aircraft::getYear), parallel.countBy(fleet, Aircraft::getYear));
+        assertEquals(List.copyOf(sequential.countBy(fleet, Aircraft::getYear).keySet()),
+                List.copyOf(parallel.countBy(fleet, Aircraft::getYear).keySet()));
+        assertEquals(sequential.sumBy(fleet, Aircraft::getAircraftType, NumericField.RANGE),
+                parallel.sumBy(fleet, Aircraft::getAircraftType, NumericField.RANGE));
+
+        FleetSummary ps = parallel.summarize(fleet);
+        FleetSummary ss = sequential.summarize(fleet);
+        assertSame(ss.oldest(), ps.oldest());
+        assertSame(ss.maxRange(), ps.maxRange());
+        assertEquals(ss.hoursByYear(), ps.hoursByYear());
+    }
+
+    @Test
+    void testDistinctSketchesMergeAcrossFleets() {
+        List<Aircraft> fleet = TestFleets.stored(3000, 7);
+        HyperLogLog whole = sequential.distinct(fleet, StringField.ID, 12);
+
+        assertEquals(whole, parallel.distinct(fleet, StringField.ID, 12));
+        assertEquals(whole, sequential.distinct(fleet.subList(0, 1000), StringField.ID, 12)
+                .merge(sequential.distinct(fleet.subList(1000, 3000), StringField.ID, 12)));
+        assertEquals(3000, whole.estimate(), 3000 * 3 * whole.relativeError());
+        assertEquals(3, sequential.distinct(fleet, StringField.TYPE, 12).estimate());
+    }
+
+    @Test
+    void testTopKeepsFirstOfEqualValues() {
+        List<Aircraft> fleet = TestFleets.stored(2000, 7);
+
+        // вместимость принимает всего 10 значений, поэтому равенств много
+        List<Aircraft> expected = fleet.stream()
+                .sorted((a, b) -> Integer.compare(b.getCapacity(), a.getCapacity()))
+                .limit(50)
+                .toList();
+
+        assertEquals(expected, parallel.top(fleet, NumericField.CAPACITY, 50));
+    }
+
+    @Test
+    void testSmallAndEmptyFleets() {
+        AnalyticsEngine engine = new AnalyticsEngine();
+        assertFalse(engine.isParallel(100));
+
+        assertEquals(0, engine.stats(List.of(), NumericField.RANGE).getCount());
+        assertTrue(engine.top(List.of(), NumericField.RANGE, 3).isEmpty());
+        assertEquals(3, engine.summarize(TestFleets.stored(3, 7)).count());
+
+        assertThrows(IllegalArgumentException.class, () -> engine.top(List.of(), NumericField.RANGE, 0));
+        assertThrows(IllegalArgumentException.class, () -> new AnalyticsEngine(POOL, 10, 0));
+    }
+}
@@ -0,0 +1,90 @@
+package service;
+
+import model.Aircraft;
+import model.PassengerAircraft;
+import org.junit.jupiter.api.Test;
+import repository.ChangeSet;
+import repository.FleetSnapshot;
+import repository.InMemoryAircraftRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnIndexTest {
+
+    private static double[] expected(FleetSnapshot snapshot, NumericField field) {
+        return snapshot.aircraft().stream().mapToDouble(field::value).toArray();
+    }
+
+    @Test
+    void testColumnsFollowChangesLikeFreshExtraction() {
+        InMemoryAircraftRepository repo = new InMemoryAircraftRepository();
+        ColumnIndex index = new ColumnIndex();
+        index.rebuild(repo.snapshot());
+        repo.events().addListener(index::apply);
+
+        Random random = new Random(5);
+        for (int step = 0; step < 500; step++) {
+            String id = "S" + random.nextInt(60);
+            if (random.nextInt(4) == 0) {
+                repo.remove(id);
+            } else {
+                Aircraft a = new PassengerAircraft(id, "m", "x", random.nextInt(20), random.nextInt(10) * 100.0,
+                        2000 + random.nextInt(5), random.nextInt(1000), "OK", "Эконом");
+                if (repo.findById(id) == null) repo.add(a);
+                else repo.update(a);
+            }
+
+            FleetSnapshot snapshot = repo.snapshot();
+            for (NumericField field : List.of(NumericField.CAPACITY, NumericField.RANGE)) {
+                assertArrayEquals(expected(snapshot, field), index.column(snapshot, field), "step " + step);
+            }
+        }
+    }
+
+    @Test
+    void testIssuedColumnIsNeverChanged() {
+        InMemoryAircraftRepository repo = new InMemoryAircraftRepository();
+        for (int i = 0; i < 5; i++) {
+            repo.add(new PassengerAircraft("P" + i, "m", "x", i, 1000, 2000, 10, "OK", "Эконом"));
+        }
+        ColumnIndex index = new ColumnIndex();
+        index.rebuild(repo.snapshot());
+        repo.events().addListener(index::apply);
+
+        FleetSnapshot before = repo.snapshot();
+        double[] capacity = index.column(before, NumericField.CAPACITY);
+        double[] range = index.column(before, NumericField.RANGE);
+
+        repo.update(new PassengerAircraft("P2", "m", "x", 99, 1000, 2000, 10, "OK", "Эконом"));
+        FleetSnapshot after = repo.snapshot();
+
+        assertArrayEquals(new double[]{0, 1, 2, 3, 4}, capacity);
+        assertArrayEquals(new double[]{0, 1, 99, 3, 4}, index.column(after, NumericField.CAPACITY));
+        // столбец, значения которого не изменились, не копируется и не строится заново
+        assertSame(range, index.column(after, NumericField.RANGE));
+        // снимок старой версии обслуживается отдельным проходом
+        assertArrayEquals(new double[]{0, 1, 2, 3, 4}, index.column(before, NumericField.CAPACITY));
+    }
+
+    @Test
+    void testLargeBatchResetsColumns() {
+        InMemoryAircraftRepository repo = new InMemoryAircraftRepository();
+        ColumnIndex index = new ColumnIndex();
+        index.rebuild(repo.snapshot());
+        repo.events().addListener(index::apply);
+        index.column(repo.snapshot(), NumericField.CAPACITY);
+
+        List<Aircraft> upserts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            upserts.add(new PassengerAircraft("B" + i, "m", "x", i, 1000, 2000, 10, "OK", "Эконом"));
+        }
+        repo.commit(new ChangeSet(upserts, List.of()), null);
+
+        FleetSnapshot snapshot = repo.snapshot();
+        assertArrayEquals(expected(snapshot, NumericField.CAPACITY), index.column(snapshot, NumericField.CAPACITY));
+    }
+}
@@ -0,0 +1,42 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnKernelsTest {
+
+    @Test
+    void testKernelsMatchStreamsForAllTailLengths() {
+        Random random = new Random(3);
+        for (int n = 0; n < 40; n++) {
+            double[] v = new double[n];
+            for (int i = 0; i < n; i++) v[i] = random.nextInt(1000);
+
+            assertEquals(Arrays.stream(v).sum(), ColumnKernels.sum(v), "n=" + n);
+            assertEquals(Arrays.stream(v).min().orElse(Double.POSITIVE_INFINITY), ColumnKernels.min(v));
+            assertEquals(Arrays.stream(v).max().orElse(Double.NEGATIVE_INFINITY), ColumnKernels.max(v));
+            assertEquals(Arrays.stream(v).filter(d -> d > 500).count(), ColumnKernels.countGreater(v, 500));
+            assertArrayEquals(IntStream.range(0, n).filter(i -> v[i] > 500).toArray(),
+                    ColumnKernels.selectGreater(v, 500));
+            double max = ColumnKernels.max(v), min = ColumnKernels.min(v);
+            assertEquals(IntStream.range(0, n).filter(i -> v[i] == max).findFirst().orElse(-1), ColumnKernels.argMax(v));
+            assertEquals(IntStream.range(0, n).filter(i -> v[i] == min).findFirst().orElse(-1), ColumnKernels.argMin(v));
+        }
+    }
+
+    @Test
+    void testHistogramClampsOutOfRangeValues() {
+        double[] v = {-5, 0, 9.99, 10, 25, 39.9, 40, 1000};
+        int[] counts = new int[4];
+
+        ColumnKernels.histogram(v, 0, 10, counts);
+
+        // [0,10) [10,20) [20,30) [30,40); -5 и 40, 1000 — в крайних
+        assertArrayEquals(new int[]{3, 1, 1, 3}, counts);
+    }
+}
@@ -0,0 +1,77 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetSummaryTest {
+
+    @Test
+    void testSinglePassMatchesSeparateScans() {
+        List<Aircraft> fleet = TestFleets.random(500, 1);
+        FleetSummary summary = FleetSummary.of(fleet);
+
+        assertEquals(500, summary.count());
+        assertEquals(fleet.stream().mapToInt(Aircraft::getCapacity).average().orElse(0),
+                summary.averageCapacity(), 1e-9);
+        assertSame(fleet.stream().max(Comparator.comparingDouble(Aircraft::getRange)).orElseThrow(),
+                summary.maxRange());
+        assertSame(fleet.stream().min(Comparator.comparingInt(Aircraft::getYear)).orElseThrow(),
+                summary.oldest());
+
+        // ТОП совпадает с устойчивой сортировкой, включая порядок равных значений
+        assertEquals(fleet.stream()
+                        .sorted(Comparator.comparingDouble(Aircraft::getRange).reversed())
+                        .limit(FleetSummary.TOP).toList(),
+                summary.top(NumericField.RANGE));
+        assertEquals(fleet.stream()
+                        .sorted(Comparator.comparingInt(Aircraft::getCapacity).reversed())
+                        .limit(FleetSummary.TOP).toList(),
+                summary.top(NumericField.CAPACITY));
+
+        long military = fleet.stream().filter(a -> a instanceof MilitaryAircraft).count();
+        assertEquals(military, summary.stats("Military aircraft", NumericField.YEAR).getCount());
+        assertEquals(fleet.stream().filter(a -> a instanceof MilitaryAircraft)
+                        .mapToInt(Aircraft::getFlightHours).max().orElseThrow(),
+                summary.stats("Military aircraft", NumericField.FLIGHT_HOURS).getMax());
+
+        assertEquals(fleet.stream().mapToLong(Aircraft::getFlightHours).sum(),
+                summary.hoursByYear().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void testParallelPartitionsGiveSameResult() {
+        List<Aircraft> fleet = TestFleets.random(5000, 2);
+
+        FleetSummary sequential = FleetSummary.of(fleet);
+        FleetSummary parallel = fleet.parallelStream().collect(FleetSummary.collector());
+
+        assertEquals(sequential.count(), parallel.count());
+        assertEquals(sequential.typeCounts(), parallel.typeCounts());
+        assertEquals(sequential.hoursByYear(), parallel.hoursByYear());
+        assertEquals(sequential.countByYear(), parallel.countByYear());
+        assertSame(sequential.oldest(), parallel.oldest());
+        for (NumericField field : NumericField.values()) {
+            assertEquals(sequential.top(field), parallel.top(field), field.name());
+            assertEquals(sequential.stats(field).getMin(), parallel.stats(field).getMin());
+            assertEquals(sequential.stats(field).getMax(), parallel.stats(field).getMax());
+            assertEquals(sequential.stats(field).getAverage(), parallel.stats(field).getAverage(), 1e-6);
+        }
+    }
+
+    @Test
+    void testEmptyFleet() {
+        FleetSummary summary = FleetSummary.of(List.of());
+
+        assertEquals(0, summary.count());
+        assertEquals(0.0, summary.averageCapacity());
+        assertNull(summary.maxRange());
+        assertNull(summary.oldest());
+        assertTrue(summary.top(NumericField.RANGE).isEmpty());
+        assertEquals(0, summary.stats("Cargo aircraft", NumericField.RANGE).getCount());
+    }
+}
@@ -0,0 +1,93 @@
+package service;
+
+import model.Aircraft;
+import model.PassengerAircraft;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyIndexTest {
+
+    private static PassengerAircraft aircraft(String id, String model, String manufacturer) {
+        return new PassengerAircraft(id, model, manufacturer, 150, 5000, 2010, 2000, "OK", "Эконом");
+    }
+
+    private static List<String> ids(List<Aircraft> list) {
+        return list.stream().map(Aircraft::getId).toList();
+    }
+
+    @Test
+    void testEditDistance() {
+        assertEquals(0, EditDistance.between("boeing", "boeing"));
+        assertEquals(1, EditDistance.between("airbus777", "airbus 777"));
+        assertEquals(3, EditDistance.between("kitten", "sitting"));
+        assertEquals(2, EditDistance.bounded("kitten", "sitting", 1));
+        assertEquals(2, EditDistance.bounded("a", "abcdef", 1));
+    }
+
+    @Test
+    void testFindsNearDuplicatesOrderedByDistance() {
+        FuzzyIndex index = new FuzzyIndex();
+        index.rebuild(List.of(
+                aircraft("1", "airbus 777", "Airbus"),
+                aircraft("2", "Airbus777", "Airbus"),
+                aircraft("3", "Boeing 737", "Boeing"),
+                aircraft("4", "airbus 7", "Airbus")
+        ));
+
+        assertEquals(List.of("2", "1"), ids(index.search("airbus777", 1)));
+        assertEquals(List.of("2", "1", "4"), ids(index.search("AIRBUS777", 2)));
+        assertEquals(List.of("3"), ids(index.search("boing", 1)));
+        assertTrue(index.search("tupolev", 2).isEmpty());
+    }
+
+    @Test
+    void testRemovedValuesAreNotReturned() {
+        FuzzyIndex index = new FuzzyIndex();
+        PassengerAircraft a = aircraft("1", "A320", "Airbus");
+        PassengerAircraft b = aircraft("2", "A320", "Airbus");
+        index.added(a);
+        index.added(b);
+
+        index.removed(a);
+        assertEquals(List.of("2"), ids(index.search("a321", 1)));
+
+        index.removed(b);
+        assertTrue(index.search("a321", 1).isEmpty());
+        assertEquals(0, index.dictionarySize());
+
+        index.added(a);
+        assertEquals(List.of("1"), ids(index.search("a320", 0)));
+    }
+
+    @Test
+    void testMatchesBruteForceAfterChurn() {
+        FuzzyIndex index = new FuzzyIndex();
+        Random random = new Random(7);
+        List<Aircraft> live = new ArrayList<>();
+
+        for (int i = 0; i < 3000; i++) {
+            if (!live.isEmpty() && random.nextInt(2) == 0) {
+                index.removed(live.remove(random.nextInt(live.size())));
+            } else {
+                Aircraft a = aircraft("ID" + i, "M" + random.nextInt(400), "Maker" + random.nextInt(50));
+                live.add(a);
+                index.added(a);
+            }
+        }
+
+        for (String query : List.of("m12", "maker7", "m3x", "mkr")) {
+            List<String> expected = live.stream()
+                    .filter(a -> EditDistance.between(query, a.getModel().toLowerCase(Locale.ROOT)) <= 1
+                            || EditDistance.between(query, a.getManufacturer().toLowerCase(Locale.ROOT)) <= 1)
+                    .map(Aircraft::getId).sorted().toList();
+
+            assertEquals(expected, ids(index.search(query, 1)).stream().sorted().toList(), query);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupByTest {
+
+    @Test
+    void testIntSlotMapSwitchesFromDenseToHashed() {
+        IntSlotMap map = new IntSlotMap();
+        int[] keys = {2000, 1990, 2000, 2010, -5, 1_000_000, 1990, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        int[] expected = {0, 1, 0, 2, 3, 4, 1, 5, 6};
+
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(expected[i], map.slotOf(keys[i]), "key " + keys[i]);
+        }
+        assertEquals(7, map.size());
+        assertEquals(-5, map.key(3));
+        assertEquals(4, map.find(1_000_000));
+        assertEquals(-1, map.find(7));
+
+        // много ключей в хеш-режиме с перехешированием
+        for (int k = 0; k < 10_000; k++) map.slotOf(k * 7919);
+        for (int k = 0; k < 10_000; k++) assertEquals(k * 7919, map.key(map.find(k * 7919)));
+    }
+
+    @Test
+    void testStringSlotMapKeepsFirstSeenOrder() {
+        StringSlotMap map = new StringSlotMap();
+        assertEquals(0, map.slotOf("b"));
+        assertEquals(1, map.slotOf(null));
+        assertEquals(2, map.slotOf("a"));
+        assertEquals(0, map.slotOf("b"));
+        assertEquals(1, map.slotOf(null));
+
+        for (int i = 0; i < 1000; i++) map.slotOf("k" + i);
+        assertEquals(1003, map.size());
+        assertEquals("k500", map.key(map.find("k500")));
+        assertEquals(-1, map.find("missing"));
+    }
+
+    @Test
+    void testGroupByMatchesStreams() {
+        List<Aircraft> fleet = TestFleets.random(2000, 5);
+        AnalyticsEngine engine = new AnalyticsEngine();
+
+        GroupTable table = engine.groupBy(fleet, Dimension.MANUFACTURER, List.of(
+                Measure.count(), Measure.sum(NumericField.FLIGHT_HOURS),
+                Measure.min(NumericField.YEAR), Measure.max(NumericField.RANGE),
+                Measure.avg(NumericField.CAPACITY)));
+
+        Map<String, List<Aircraft>> expected = fleet.stream()
+                .collect(Collectors.groupingBy(Aircraft::getManufacturer, TreeMap::new, Collectors.toList()));
+
+        assertEquals(List.copyOf(expected.keySet()), table.rows().stream().map(GroupTable.Row::key).toList());
+        expected.forEach((manufacturer, group) -> {
+            GroupTable.Row row = table.row(manufacturer);
+            assertEquals((long) group.size(), row.count());
+            assertEquals((long) group.size(), row.values().get(0));
+            assertEquals(group.stream().mapToLong(Aircraft::getFlightHours).sum(), row.values().get(1));
+            assertEquals((long) group.stream().mapToInt(Aircraft::getYear).min().orElseThrow(), row.values().get(2));
+            assertEquals(group.stream().mapToDouble(Aircraft::getRange).max().orElseThrow(), row.values().get(3));
+            assertEquals(group.stream().mapToInt(Aircraft::getCapacity).average().orElseThrow(),
+                    row.values().get(4).doubleValue(), 1e-9);
+        });
+    }
+
+    @Test
+    void testDecadesAreSortedAndParallelMatchesSequential() {
+        List<Aircraft> fleet = TestFleets.random(5000, 6);
+        List<Measure> measures = List.of(Measure.count(), Measure.sum(NumericField.RANGE));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        GroupTable sequential = new AnalyticsEngine(pool, Integer.MAX_VALUE, 100)
+                .groupBy(fleet, Dimension.DECADE, measures);
+        GroupTable parallel = new AnalyticsEngine(pool, 0, 100)
+                .groupBy(fleet, Dimension.DECADE, measures);
+
+        assertEquals(List.of(1950, 1960, 1970, 1980, 1990, 2000, 2010),
+                sequential.rows().stream().map(GroupTable.Row::key).toList());
+        assertEquals(sequential.rows(), parallel.rows());
+    }
+
+    @Test
+    void testSumsDoNotOverflow() {
+        List<Aircraft> fleet = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            fleet.add(new CargoAircraft("C" + i, "m", "x", 0, 1000, 2000, Integer.MAX_VALUE, "OK", 10.0));
+        }
+
+        GroupTable table = new AnalyticsEngine().groupBy(fleet, Dimension.YEAR,
+                List.of(Measure.sum(NumericField.FLIGHT_HOURS)));
+
+        assertEquals(3L * Integer.MAX_VALUE, table.value(2000, Measure.sum(NumericField.FLIGHT_HOURS)));
+        assertNull(table.value(1999, Measure.sum(NumericField.FLIGHT_HOURS)));
+        assertThrows(IllegalArgumentException.class, () -> table.value(2000, Measure.count()));
+        assertThrows(IllegalArgumentException.class, () -> new Measure(Measure.Aggregation.SUM, null));
+    }
+}
@@ -0,0 +1,52 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void testEstimateWithinError() {
+        for (int n : new int[]{10, 1_000, 50_000}) {
+            HyperLogLog hll = new HyperLogLog();
+            for (int i = 0; i < n; i++) {
+                hll.add("model-" + i);
+                hll.add("model-" + i); // повторы не меняют оценку
+            }
+            assertEquals(n, hll.estimate(), Math.max(1, n * 3 * hll.relativeError()), "n=" + n);
+        }
+    }
+
+    @Test
+    void testMergeEqualsSketchOfUnion() {
+        HyperLogLog left = new HyperLogLog(10);
+        HyperLogLog right = new HyperLogLog(10);
+        HyperLogLog union = new HyperLogLog(10);
+        for (int i = 0; i < 5000; i++) {
+            left.add("a" + i);
+            right.add("a" + (i + 2500));
+            union.add("a" + i);
+            union.add("a" + (i + 2500));
+        }
+
+        assertEquals(union, left.copy().merge(right));
+        assertEquals(7500, union.estimate(), 7500 * 3 * union.relativeError());
+        assertThrows(IllegalArgumentException.class, () -> left.merge(new HyperLogLog(11)));
+    }
+
+    @Test
+    void testEmptyNullsAndPrecision() {
+        HyperLogLog hll = new HyperLogLog(HyperLogLog.MIN_PRECISION);
+        hll.add(null);
+        assertTrue(hll.isEmpty());
+        assertEquals(0, hll.estimate());
+
+        hll.add("x");
+        assertFalse(hll.isEmpty());
+        assertEquals(1, hll.estimate());
+
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(HyperLogLog.MIN_PRECISION - 1));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(HyperLogLog.MAX_PRECISION + 1));
+    }
+}
@@ -0,0 +1,119 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MomentsTest {
+
+    /** Двухпроходный расчёт для сравнения. */
+    private static double[] exact(List<Aircraft> fleet, Metric a, Metric b) {
+        List<Aircraft> rows = fleet.stream()
+                .filter(x -> !Double.isNaN(a.value(x)) && !Double.isNaN(b.value(x)))
+                .toList();
+        double ma = rows.stream().mapToDouble(a::value).average().orElse(Double.NaN);
+        double mb = rows.stream().mapToDouble(b::value).average().orElse(Double.NaN);
+        double saa = 0, sbb = 0, sab = 0;
+        for (Aircraft x : rows) {
+            double da = a.value(x) - ma;
+            double db = b.value(x) - mb;
+            saa += da * da;
+            sbb += db * db;
+            sab += da * db;
+        }
+        return new double[]{rows.size(), saa / (rows.size() - 1), sab / (rows.size() - 1), sab / Math.sqrt(saa * sbb)};
+    }
+
+    @Test
+    void testMatchesTwoPassComputation() {
+        List<Aircraft> fleet = TestFleets.random(2000, 1);
+        Moments moments = new Moments();
+        fleet.forEach(moments::accept);
+
+        for (Metric a : Metric.values()) {
+            for (Metric b : Metric.values()) {
+                double[] expected = exact(fleet, a, b);
+                assertEquals((long) expected[0], moments.count(a, b), a + "/" + b);
+                assertEquals(expected[2], moments.covariance(a, b), Math.abs(expected[2]) * 1e-9 + 1e-9);
+                assertEquals(expected[3], moments.correlation(a, b), 1e-9, a + "/" + b);
+            }
+            assertEquals(exact(fleet, a, a)[1], moments.variance(a), moments.variance(a) * 1e-9);
+        }
+
+        assertEquals(fleet.stream().filter(a -> a instanceof CargoAircraft).count(), moments.count(Metric.MAX_CARGO_WEIGHT));
+        assertEquals(1.0, moments.correlation(Metric.FLIGHT_HOURS, Metric.MAX_CARGO_WEIGHT), 1e-9);
+        assertTrue(moments.correlation(Metric.RANGE, Metric.FLIGHT_HOURS) > 0.9);
+    }
+
+    @Test
+    void testCombineMatchesSinglePass() {
+        List<Aircraft> fleet = TestFleets.random(3000, 2);
+        Moments whole = new Moments();
+        fleet.forEach(whole::accept);
+
+        Moments left = new Moments();
+        Moments right = new Moments();
+        fleet.subList(0, 700).forEach(left::accept);
+        fleet.subList(700, 3000).forEach(right::accept);
+        left.combine(right);
+
+        for (Metric a : Metric.values()) {
+            assertEquals(whole.mean(a), left.mean(a), Math.abs(whole.mean(a)) * 1e-12);
+            assertEquals(whole.variance(a), left.variance(a), whole.variance(a) * 1e-9);
+            for (Metric b : Metric.values()) {
+                assertEquals(whole.correlation(a, b), left.correlation(a, b), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void testRemoveReversesAccept() {
+        List<Aircraft> fleet = TestFleets.random(1000, 3);
+        Moments moments = new Moments();
+        fleet.forEach(moments::accept);
+        fleet.subList(600, 1000).forEach(moments::remove);
+
+        Moments expected = new Moments();
+        fleet.subList(0, 600).forEach(expected::accept);
+
+        for (Metric a : Metric.values()) {
+            assertEquals(expected.count(a), moments.count(a));
+            assertEquals(expected.mean(a), moments.mean(a), Math.abs(expected.mean(a)) * 1e-9);
+            assertEquals(expected.variance(a), moments.variance(a), expected.variance(a) * 1e-9);
+            for (Metric b : Metric.values()) {
+                assertEquals(expected.correlation(a, b), moments.correlation(a, b), 1e-9, a + "/" + b);
+            }
+        }
+
+        fleet.subList(0, 600).forEach(moments::remove);
+        assertEquals(0, moments.count(Metric.RANGE));
+        assertTrue(Double.isNaN(moments.mean(Metric.RANGE)));
+    }
+
+    @Test
+    void testStableForLargeOffsets() {
+        // значения вида 1e9 + малое отклонение теряют точность в формуле Σx² − n·x̄²
+        Moments moments = new Moments();
+        for (int i = 0; i < 1000; i++) {
+            moments.accept(new PassengerAircraft("P" + i, "m", "x", 1, 1e9 + (i % 2), 2000, 1, "OK", "Эконом"));
+        }
+        assertEquals(0.25 * 1000 / 999, moments.variance(Metric.RANGE), 1e-9);
+    }
+
+    @Test
+    void testUndefinedValues() {
+        Moments moments = new Moments();
+        assertTrue(Double.isNaN(moments.mean(Metric.RANGE)));
+        assertTrue(Double.isNaN(moments.variance(Metric.RANGE)));
+
+        moments.accept(new PassengerAircraft("P", "m", "x", 1, 100, 2000, 1, "OK", "Эконом"));
+        moments.accept(new PassengerAircraft("Q", "m", "x", 1, 200, 2000, 1, "OK", "Эконом"));
+        assertEquals(150, moments.mean(Metric.RANGE));
+        // постоянная вместимость — корреляция не определена
+        assertTrue(Double.isNaN(moments.correlation(Metric.RANGE, Metric.CAPACITY)));
+        assertEquals(0, moments.count(Metric.MAX_CARGO_WEIGHT));
+    }
+}
@@ -0,0 +1,58 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixTrieTest {
+
+    private static List<String> values(List<PrefixTrie.Completion> completions) {
+        return completions.stream().map(PrefixTrie.Completion::value).toList();
+    }
+
+    @Test
+    void testCompletionsRankedByFrequencyThenAlphabet() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("Boeing 737");
+        trie.add("Boeing 787");
+        trie.add("Boeing 787");
+        trie.add("Bombardier");
+        trie.add("Airbus");
+
+        assertEquals(List.of("Boeing 787", "Boeing 737", "Bombardier"), values(trie.complete("bo", 10)));
+        assertEquals(List.of("Boeing 787"), values(trie.complete("BO", 1)));
+        assertEquals(2, trie.complete("boeing 787", 5).get(0).count());
+        assertTrue(trie.complete("c", 5).isEmpty());
+    }
+
+    @Test
+    void testRemoveUpdatesCountsAndCachedCompletions() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("A320");
+        trie.add("A321");
+        assertEquals(List.of("A320", "A321"), values(trie.complete("a3", 5)));
+
+        trie.remove("A320");
+        assertEquals(List.of("A321"), values(trie.complete("a3", 5)));
+        assertEquals(0, trie.count("a320"));
+        assertEquals(1, trie.size());
+
+        trie.remove("A321");
+        assertTrue(trie.complete("a", 5).isEmpty());
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    void testValueThatIsPrefixOfAnother() {
+        PrefixTrie trie = new PrefixTrie();
+        trie.add("An");
+        trie.add("An-124");
+
+        trie.remove("An-124");
+
+        assertEquals(List.of("An"), values(trie.complete("a", 5)));
+        assertEquals(1, trie.count("AN"));
+    }
+}
@@ -0,0 +1,94 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTest {
+
+    private static double exact(double[] sorted, double q) {
+        return sorted[(int) Math.floor(q * (sorted.length - 1))];
+    }
+
+    @Test
+    void testQuantilesWithinRelativeAccuracy() {
+        Random random = new Random(3);
+        double[] values = new double[20_000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian() * 2 + 6);
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[]{0, 0.1, 0.5, 0.9, 0.99, 1}) {
+            double expected = exact(values, q);
+            assertEquals(expected, sketch.quantile(q), expected * sketch.relativeAccuracy(), "q=" + q);
+        }
+    }
+
+    @Test
+    void testRemoveRestoresDistribution() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 1; i <= 100; i++) sketch.add(i);
+        for (int i = 1; i <= 100; i++) sketch.add(i * 1000);
+        for (int i = 1; i <= 100; i++) sketch.remove(i * 1000);
+
+        assertEquals(100, sketch.count());
+        assertEquals(50, sketch.quantile(0.5), 50 * 0.01);
+        assertEquals(100, sketch.quantile(1), 100 * 0.01);
+
+        assertThrows(IllegalArgumentException.class, () -> sketch.remove(1e6));
+    }
+
+    @Test
+    void testMergeEqualsSketchOfUnion() {
+        Random random = new Random(5);
+        QuantileSketch left = new QuantileSketch();
+        QuantileSketch right = new QuantileSketch();
+        QuantileSketch union = new QuantileSketch();
+        for (int i = 0; i < 5000; i++) {
+            double small = random.nextInt(100);
+            double large = 1e4 + random.nextInt(1_000_000);
+            left.add(small);
+            right.add(large);
+            union.add(small);
+            union.add(large);
+        }
+
+        left.merge(right);
+        assertEquals(union.count(), left.count());
+        for (double q = 0; q <= 1; q += 0.05) {
+            assertEquals(union.quantile(q), left.quantile(q), "q=" + q);
+        }
+        assertEquals(union.bins(20), left.bins(20));
+    }
+
+    @Test
+    void testZerosEmptyAndBins() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+        assertTrue(sketch.bins(10).isEmpty());
+
+        sketch.add(0);
+        sketch.add(0);
+        sketch.add(10);
+        assertEquals(0, sketch.quantile(0.5));
+
+        List<QuantileSketch.Bin> bins = sketch.bins(10);
+        assertEquals(2, bins.size());
+        assertEquals(new QuantileSketch.Bin(0, 0, 2), bins.get(0));
+        assertTrue(bins.get(1).lower() < 10 && 10 <= bins.get(1).upper());
+
+        for (int i = 1; i <= 10_000; i++) sketch.add(i);
+        assertTrue(sketch.bins(8).size() <= 9);
+        assertEquals(sketch.count(), sketch.bins(8).stream().mapToLong(QuantileSketch.Bin::count).sum());
+
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(0));
+    }
+}
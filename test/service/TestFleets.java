@@ -0,0 +1,60 @@
+package service;
+
+import model.*;
+import repository.InMemoryAircraftRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Случайные парки для тестов аналитики.
+ * <p>
+ * Парк детерминирован зерном и содержит все три типа самолётов, пять производителей
+ * и годы выпуска 1950–2019. Вместимость принимает всего 10 значений, а дальность
+ * кратна 100, поэтому равных значений много; дальность растёт вместе с налётом,
+ * чтобы корреляция была заметной.
+ */
+final class TestFleets {
+
+    private static final String[] MANUFACTURERS = {"Airbus", "Boeing", "Tupolev", "Sukhoi", "Antonov"};
+
+    private TestFleets() {
+    }
+
+    /**
+     * @param size количество самолётов
+     * @param seed зерно генератора
+     * @return новый изменяемый список самолётов
+     */
+    static List<Aircraft> random(int size, long seed) {
+        Random random = new Random(seed);
+        List<Aircraft> fleet = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            String manufacturer = MANUFACTURERS[random.nextInt(MANUFACTURERS.length)];
+            int capacity = random.nextInt(10);
+            int year = 1950 + random.nextInt(70);
+            int hours = random.nextInt(20_000);
+            double range = Math.max(100, 1000 + Math.round((hours * 0.5 + random.nextGaussian() * 500) / 100) * 100.0);
+            fleet.add(switch (random.nextInt(3)) {
+                case 0 -> new PassengerAircraft("P" + i, "m" + i, manufacturer, capacity, range, year, hours, "OK", "Эконом");
+                case 1 -> new CargoAircraft("C" + i, "m" + i, manufacturer, capacity, range, year, hours, "OK", 10_000 + hours * 3.0);
+                default -> new MilitaryAircraft("M" + i, "m" + i, manufacturer, capacity, range, year, hours, "OK", "Ракеты");
+            });
+        }
+        return fleet;
+    }
+
+    /**
+     * Тот же парк, прочитанный из снимка репозитория.
+     *
+     * @param size количество самолётов
+     * @param seed зерно генератора
+     * @return самолёты снимка в порядке добавления
+     */
+    static List<Aircraft> stored(int size, long seed) {
+        InMemoryAircraftRepository repo = new InMemoryAircraftRepository();
+        random(size, seed).forEach(repo::add);
+        return repo.snapshot().aircraft();
+    }
+}
@@ -0,0 +1,93 @@
+package service;
+
+import model.Aircraft;
+import model.CargoAircraft;
+import model.PassengerAircraft;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private static PassengerAircraft passenger(String id, String model, String manufacturer, String status) {
+        return new PassengerAircraft(id, model, manufacturer, 150, 5000, 2010, 2000, status, "Эконом");
+    }
+
+    private static List<String> ids(List<Aircraft> list) {
+        return list.stream().map(Aircraft::getId).toList();
+    }
+
+    @Test
+    void testFindsSubstringInAnyFieldIgnoringCase() {
+        TrigramIndex index = new TrigramIndex();
+        index.rebuild(List.of(
+                passenger("A1", "Boeing 737", "Boeing", "Рабочий"),
+                passenger("A2", "A320", "Airbus", "Ремонт"),
+                new CargoAircraft("C7", "An-124", "Antonov", 0, 4800, 1990, 30000, "Рабочий", 150000)
+        ));
+
+        assertEquals(List.of("A1"), ids(index.search("OEING 7")));
+        assertEquals(List.of("A2"), ids(index.search("airb")));
+        assertEquals(List.of("A1", "C7"), ids(index.search("рабоч")));
+        assertEquals(List.of("A2"), ids(index.search("a2")));
+        assertTrue(index.search("xyz").isEmpty());
+    }
+
+    @Test
+    void testTrigramsDoNotSpanFields() {
+        TrigramIndex index = new TrigramIndex();
+        index.added(passenger("AB", "CD", "EF", "GH"));
+
+        assertTrue(index.search("bcd").isEmpty());
+    }
+
+    @Test
+    void testRemoveAndUpdate() {
+        TrigramIndex index = new TrigramIndex();
+        PassengerAircraft before = passenger("A1", "Boeing 737", "Boeing", "Рабочий");
+        PassengerAircraft after = passenger("A1", "Boeing 787", "Boeing", "Рабочий");
+
+        index.added(before);
+        index.updated(before, after);
+
+        assertTrue(index.search("737").isEmpty());
+        assertEquals(List.of(after), index.search("787"));
+
+        index.removed(after);
+        assertTrue(index.search("boeing").isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testMatchesLinearScanAfterManyChanges() {
+        TrigramIndex index = new TrigramIndex();
+        Random random = new Random(42);
+        String[] makers = {"Boeing", "Airbus", "Tupolev", "Ilyushin", "Sukhoi"};
+        List<Aircraft> live = new ArrayList<>();
+
+        for (int i = 0; i < 5000; i++) {
+            if (!live.isEmpty() && random.nextInt(3) == 0) {
+                index.removed(live.remove(random.nextInt(live.size())));
+            } else {
+                Aircraft a = passenger("ID" + i, "M" + random.nextInt(1000), makers[random.nextInt(makers.length)], "OK");
+                live.add(a);
+                index.added(a);
+            }
+        }
+
+        for (String query : List.of("id12", "m99", "bus", "ilyu", "d4", "ok")) {
+            List<Aircraft> expected = live.stream()
+                    .filter(a -> (a.getId() + "|" + a.getModel() + "|" + a.getManufacturer() + "|" + a.getStatus())
+                            .toLowerCase(Locale.ROOT).contains(query))
+                    .toList();
+
+            assertEquals(ids(expected).stream().sorted().toList(),
+                    ids(index.search(query)).stream().sorted().toList(), query);
+        }
+    }
+}
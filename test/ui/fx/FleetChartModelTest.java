@@ -0,0 +1,116 @@
+package ui.fx;
+
+import model.*;
+import repository.AircraftEvent;
+import repository.FleetSnapshot;
+import repository.InMemoryAircraftRepository;
+import service.AircraftService;
+import service.FleetSummary;
+import service.NumericField;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetChartModelTest {
+
+    private AircraftService service;
+    private final List<AircraftEvent> events = new ArrayList<>();
+    private final Random random = new Random(5);
+
+    @BeforeEach
+    void setup() {
+        service = new AircraftService(new InMemoryAircraftRepository());
+        for (int i = 0; i < 40; i++) service.addAircraft(aircraft("A" + i));
+        service.addChangeListener(events::add);
+    }
+
+    private Aircraft aircraft(String id) {
+        int capacity = random.nextInt(300);
+        double range = random.nextInt(100) * 100.0;
+        int year = 2000 + random.nextInt(10);
+        int hours = random.nextInt(5000);
+        return random.nextBoolean()
+                ? new PassengerAircraft(id, "m", "x", capacity, range, year, hours, "OK", "Эконом")
+                : new CargoAircraft(id, "m", "x", capacity, range, year, hours, "OK", 1000.0);
+    }
+
+    private FleetChartModel model() {
+        FleetSnapshot snapshot = service.snapshot();
+        return new FleetChartModel(new ChartData(snapshot.version(), FleetSummary.of(snapshot.aircraft())));
+    }
+
+    private void assertMatches(FleetSnapshot snapshot, FleetChartModel model) {
+        FleetSummary expected = FleetSummary.of(snapshot.aircraft());
+        assertEquals(expected.count(), model.total());
+        assertEquals(expected.typeCounts(), model.typeCounts());
+        assertEquals(expected.hoursByYear(), model.hoursByYear());
+        assertEquals(expected.top(NumericField.RANGE), model.topRange());
+        assertEquals(expected.top(NumericField.CAPACITY), model.topCapacity());
+    }
+
+    @Test
+    void testEventsKeepModelEqualToFreshSummary() {
+        FleetChartModel model = model();
+
+        for (int step = 0; step < 200; step++) {
+            String id = "A" + random.nextInt(60);
+            if (!service.contains(id)) {
+                service.addAircraft(aircraft(id));
+            } else if (random.nextInt(3) == 0) {
+                service.removeAircraft(id);
+            } else {
+                service.updateAircraft(aircraft(id));
+            }
+        }
+        events.forEach(model::apply);
+
+        assertTrue(model.refreshTops(service.snapshot()));
+        assertEquals(service.getVersion(), model.version());
+        assertMatches(service.snapshot(), model);
+    }
+
+    @Test
+    void testTopsAreNotRefreshedFromNewerSnapshot() {
+        FleetChartModel model = model();
+
+        service.addAircraft(new PassengerAircraft("BIG1", "m", "x", 1000, 20000, 2005, 10, "OK", "Эконом"));
+        service.addAircraft(new PassengerAircraft("BIG2", "m", "x", 1001, 20001, 2005, 10, "OK", "Эконом"));
+
+        model.apply(events.get(0));
+        assertTrue(model.hasStaleTops());
+        // снимок уже содержит второе событие, которого модель ещё не видела
+        assertFalse(model.refreshTops(service.snapshot()));
+        assertTrue(model.hasStaleTops());
+        assertFalse(model.topRange().stream().anyMatch(a -> a.getId().startsWith("BIG")));
+
+        model.apply(events.get(1));
+        assertTrue(model.refreshTops(service.snapshot()));
+        assertFalse(model.hasStaleTops());
+        assertEquals(List.of("BIG2", "BIG1"), model.topRange().subList(0, 2).stream().map(Aircraft::getId).toList());
+        assertMatches(service.snapshot(), model);
+    }
+
+    @Test
+    void testChangesReportOnlyAffectedCharts() {
+        FleetChartModel model = model();
+        model.takeChanges();
+
+        service.addAircraft(new PassengerAircraft("LOW", "m", "x", 0, 0, 2003, 10, "OK", "Эконом"));
+        model.apply(events.get(0));
+        assertFalse(model.hasStaleTops());
+        assertEquals(EnumSet.of(FleetChartModel.Chart.TYPES, FleetChartModel.Chart.HOURS, FleetChartModel.Chart.STATISTICS),
+                model.takeChanges());
+
+        // повторное событие той же версии пропускается
+        model.apply(events.get(0));
+        assertTrue(model.takeChanges().isEmpty());
+        assertEquals(41, model.total());
+    }
+}